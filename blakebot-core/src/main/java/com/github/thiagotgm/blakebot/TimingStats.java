@@ -0,0 +1,125 @@
+/*
+ * This file is part of BlakeBot.
+ *
+ * BlakeBot is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * BlakeBot is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with BlakeBot. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package com.github.thiagotgm.blakebot;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Thread-safe statistics of a repeatedly measured duration, such as how long an operation
+ * takes: how many times it was measured, and the total, average, maximum and last
+ * measurement.
+ * <p>
+ * Recording does not block, so it can be done from hot paths. All the values are
+ * cumulative since the instance was created.
+ *
+ * @version 1.0
+ * @author ThiagoTGM
+ * @since 2026-10-16
+ */
+public class TimingStats {
+    
+    private final LongAdder count;
+    private final LongAdder total;
+    private final AtomicLong max;
+    private volatile long last;
+    
+    /**
+     * Creates a new instance, with no measurements.
+     */
+    public TimingStats() {
+        
+        this.count = new LongAdder();
+        this.total = new LongAdder();
+        this.max = new AtomicLong();
+        this.last = 0;
+        
+    }
+    
+    /**
+     * Records a measurement.
+     *
+     * @param time The measured duration.
+     */
+    public void record( long time ) {
+        
+        count.increment();
+        total.add( time );
+        max.accumulateAndGet( time, Math::max );
+        last = time;
+        
+    }
+    
+    /**
+     * Retrieves how many measurements were recorded.
+     *
+     * @return The amount of measurements.
+     */
+    public long getCount() {
+        
+        return count.sum();
+        
+    }
+    
+    /**
+     * Retrieves the sum of all the measurements.
+     *
+     * @return The total duration.
+     */
+    public long getTotal() {
+        
+        return total.sum();
+        
+    }
+    
+    /**
+     * Retrieves the average measurement.
+     *
+     * @return The average duration. If nothing was measured, returns 0.
+     */
+    public long getAverage() {
+        
+        long n = count.sum();
+        return ( n == 0 ) ? 0 : total.sum() / n;
+        
+    }
+    
+    /**
+     * Retrieves the largest measurement.
+     *
+     * @return The maximum duration. If nothing was measured, returns 0.
+     */
+    public long getMax() {
+        
+        return max.get();
+        
+    }
+    
+    /**
+     * Retrieves the most recent measurement.
+     *
+     * @return The last duration. If nothing was measured, returns 0.
+     */
+    public long getLast() {
+        
+        return last;
+        
+    }
+    
+}
@@ -21,6 +21,7 @@ import com.github.thiagotgm.bot_utils.LogoutManager;
 import com.github.thiagotgm.modular_commands.api.CommandRegistry;
 import sx.blah.discord.api.IDiscordClient;
 import sx.blah.discord.api.events.EventDispatcher;
+import sx.blah.discord.handle.obj.IGuild;
 import sx.blah.discord.modules.IModule;
 
 /**
@@ -37,6 +38,9 @@ public class AdminModule implements IModule {
     IDiscordClient client;
     private BlacklistEnforcer enforcer;
     private AutoRoleHandler roleHandler;
+    private SpamDetector spamDetector;
+    private TimeoutController timeoutController;
+    private TimeoutRestorer timeoutRestorer;
     
     
     @Override
@@ -45,10 +49,15 @@ public class AdminModule implements IModule {
         EventDispatcher dispatcher = client.getDispatcher();
         dispatcher.unregisterListener( enforcer ); // Remove blacklist enforcer.
         dispatcher.unregisterListener( roleHandler ); // Remove autorole handler.
+        dispatcher.unregisterListener( spamDetector ); // Remove spam detector.
+        spamDetector.stop();
+        dispatcher.unregisterListener( timeoutRestorer ); // Remove timeout restorer.
+        dispatcher.unregisterListener( MutedRoleManager.getInstance() ); // Remove muted role manager.
+        dispatcher.unregisterListener( AutoRoleBackfill.getInstance() ); // Remove autorole backfill.
+        AutoRoleBackfill.getInstance().stop(); // Resumed from the checkpoints when enabled.
         
-        TimeoutController controller = TimeoutController.getInstance();
-        LogoutManager.getManager( client ).unregisterListener( controller );
-        controller.terminate(); // Ensure timeouts are reverted.
+        LogoutManager.getManager( client ).unregisterListener( timeoutController );
+        timeoutController.terminate(); // Persist pending timeouts.
         
         CommandRegistry.getRegistry( client ).removeSubRegistry( this ); // Remove commands.
         client = null; // Remove client.
@@ -63,14 +72,27 @@ public class AdminModule implements IModule {
         CommandRegistry registry = CommandRegistry.getRegistry( arg0 ).getSubRegistry( this );
         registerCommands( registry ); // Register commands.
         
+        // Set timeout controller.
+        timeoutController = TimeoutController.getInstance();
+        LogoutManager.getManager( client ).registerListener( timeoutController );
+        
         EventDispatcher dispatcher = client.getDispatcher();
         enforcer = new BlacklistEnforcer(); // Make blacklist enforcer.
         dispatcher.registerListener( enforcer );
         roleHandler = new AutoRoleHandler(); // Make autorole handler.
         dispatcher.registerListener( roleHandler );
-        
-        // Set timeout controller.
-        LogoutManager.getManager( client ).registerListener( TimeoutController.getInstance() );
+        spamDetector = new SpamDetector(); // Make spam detector.
+        dispatcher.registerListener( spamDetector );
+        timeoutRestorer = new TimeoutRestorer( timeoutController ); // Make timeout restorer.
+        dispatcher.registerListener( timeoutRestorer );
+        dispatcher.registerListener( MutedRoleManager.getInstance() ); // Set muted role manager.
+        dispatcher.registerListener( AutoRoleBackfill.getInstance() ); // Set autorole backfill.
+        for ( IGuild guild : client.getGuilds() ) { // Restore in guilds that are already available.
+            
+            timeoutController.restore( guild );
+            AutoRoleBackfill.getInstance().resume( guild );
+            
+        }
         
         return true;
         
@@ -0,0 +1,386 @@
+/*
+ * This file is part of BlakeBot.
+ *
+ * BlakeBot is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * BlakeBot is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with BlakeBot. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.github.thiagotgm.blakebot.module.admin;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.github.thiagotgm.bot_utils.storage.DatabaseManager;
+import com.github.thiagotgm.bot_utils.storage.translate.StringTranslator;
+import com.github.thiagotgm.bot_utils.utils.AsyncTools;
+
+import sx.blah.discord.api.events.IListener;
+import sx.blah.discord.handle.impl.events.guild.GuildCreateEvent;
+import sx.blah.discord.handle.obj.IChannel;
+import sx.blah.discord.handle.obj.IGuild;
+import sx.blah.discord.handle.obj.IRole;
+import sx.blah.discord.handle.obj.IUser;
+import sx.blah.discord.util.DiscordException;
+import sx.blah.discord.util.MissingPermissionsException;
+import sx.blah.discord.util.RequestBuffer;
+
+/**
+ * Gives the auto-role of a guild to the members that joined before it was set.
+ * <p>
+ * The members are processed in order of ID, in chunks of {@value #CHUNK_SIZE}. Only one
+ * request is made at a time, waiting until it is performed before making the next, so the
+ * job follows the rate limit of the guild and never fills the request buffer, however large
+ * the guild is. After each chunk, the ID of the last member processed is saved to the
+ * database, so that if the bot restarts mid-run the job resumes from that point once the guild
+ * becomes available again.
+ * <p>
+ * The job stops if the auto-role of the guild is changed or removed. If the module is
+ * disabled, the running jobs are {@link #stop() stopped} after their current request,
+ * saving their progress, and are resumed from that point when it is enabled again.
+ *
+ * @version 1.0
+ * @author ThiagoTGM
+ * @since 2026-10-16
+ */
+public class AutoRoleBackfill implements IListener<GuildCreateEvent> {
+    
+    private static final Logger LOG = LoggerFactory.getLogger( AutoRoleBackfill.class );
+    
+    private static final int CHUNK_SIZE = 100;
+    private static final String CHECKPOINT_FORMAT = "%d:%d:%d:%d";
+    
+    private static final ThreadGroup THREADS = new ThreadGroup( "Auto-role Backfill" );
+    private static final Executor EXECUTOR = AsyncTools.createFixedThreadPool( THREADS, ( t, e ) -> {
+        
+        LOG.error( "Uncaught exception thrown while backfilling auto-roles.", e );
+        
+    });
+    
+    private static AutoRoleBackfill instance;
+    
+    private final AutoRoleManager manager;
+    private final Map<String,String> checkpoints;
+    private final Map<Long,Job> jobs;
+    
+    /**
+     * Creates a new instance.
+     */
+    private AutoRoleBackfill() {
+        
+        manager = AutoRoleManager.getInstance();
+        checkpoints = DatabaseManager.getDatabase().getDataMap(
+                "AutoRoleBackfill", new StringTranslator(), new StringTranslator() );
+        jobs = new ConcurrentHashMap<>();
+        
+    }
+    
+    /**
+     * Returns the current instance. If there isn't one, creates it.
+     *
+     * @return The AutoRoleBackfill instance.
+     */
+    public static synchronized AutoRoleBackfill getInstance() {
+        
+        if ( instance == null ) {
+            instance = new AutoRoleBackfill();
+        }
+        return instance;
+        
+    }
+    
+    /**
+     * Starts giving a role to the current members of a guild.
+     *
+     * @param guild The guild.
+     * @param role The role to give. Should be the current auto-role of the guild.
+     * @param channel The channel where to report once the job is done.
+     * @return <tt>true</tt> if the job was started.
+     *         <tt>false</tt> if a job is already running in the guild.
+     */
+    public boolean start( IGuild guild, IRole role, IChannel channel ) {
+        
+        Job job = new Job( guild, role.getLongID(), channel.getLongID(), 0, 0 );
+        if ( jobs.putIfAbsent( guild.getLongID(), job ) != null ) {
+            return false; // Already running.
+        }
+        LOG.info( "Starting auto-role backfill of role \"{}\" in guild \"{}\" ({} members).",
+                role.getName(), guild.getName(), job.ids.length );
+        saveCheckpoint( job );
+        EXECUTOR.execute( job );
+        return true;
+        
+    }
+    
+    /**
+     * Resumes the job of a guild from the saved checkpoint, if it was interrupted.
+     *
+     * @param guild The guild.
+     */
+    public void resume( IGuild guild ) {
+        
+        String checkpoint = checkpoints.get( guild.getStringID() );
+        if ( ( checkpoint == null ) || jobs.containsKey( guild.getLongID() ) ) {
+            return; // No job to resume.
+        }
+        String[] fields = checkpoint.split( ":" );
+        Job job;
+        try {
+            job = new Job( guild, Long.parseLong( fields[0] ), Long.parseLong( fields[1] ),
+                    Long.parseLong( fields[2] ), Long.parseLong( fields[3] ) );
+        } catch ( NumberFormatException | ArrayIndexOutOfBoundsException e ) {
+            LOG.warn( "Discarding invalid auto-role backfill checkpoint \"{}\".", checkpoint );
+            checkpoints.remove( guild.getStringID() );
+            return;
+        }
+        if ( jobs.putIfAbsent( guild.getLongID(), job ) == null ) {
+            LOG.info( "Resuming auto-role backfill in guild \"{}\" ({}/{} members).", guild.getName(),
+                    job.position, job.ids.length );
+            EXECUTOR.execute( job );
+        }
+        
+    }
+    
+    /**
+     * Stops all the running jobs. Each job stops after the request it is currently
+     * making and saves its progress, so it can be {@link #resume(IGuild) resumed} later.
+     */
+    public void stop() {
+        
+        for ( Job job : jobs.values() ) {
+            
+            job.stopped = true;
+            
+        }
+        jobs.clear();
+        
+    }
+    
+    /**
+     * Retrieves the job currently running in a guild.
+     *
+     * @param guild The guild.
+     * @return The job, or <tt>null</tt> if there is no job running in the guild.
+     */
+    public Job getJob( IGuild guild ) {
+        
+        return jobs.get( guild.getLongID() );
+        
+    }
+    
+    /**
+     * Resumes the interrupted job of a guild when it becomes available.
+     *
+     * @param event Event fired.
+     */
+    @Override
+    public void handle( GuildCreateEvent event ) {
+        
+        resume( event.getGuild() );
+        
+    }
+    
+    /**
+     * Saves the progress of a job.
+     *
+     * @param job The job.
+     */
+    private void saveCheckpoint( Job job ) {
+        
+        long last = ( job.position == 0 ) ? 0 : job.ids[ job.position - 1 ];
+        checkpoints.put( job.guild.getStringID(), String.format( CHECKPOINT_FORMAT, job.roleID,
+                job.channelID, last, job.assigned ) );
+        
+    }
+    
+    /**
+     * Backfill job of a guild.
+     *
+     * @version 1.0
+     * @author ThiagoTGM
+     * @since 2026-10-16
+     */
+    public class Job implements Runnable {
+        
+        private final IGuild guild;
+        private final long roleID;
+        private final long channelID;
+        private final long[] ids;
+        private volatile int position;
+        private volatile long assigned;
+        private volatile boolean stopped;
+        
+        /**
+         * Creates a job.
+         *
+         * @param guild The guild.
+         * @param roleID The ID of the role to give.
+         * @param channelID The ID of the channel where to report once the job is done.
+         * @param last The ID of the last member processed, or 0 if none were processed.
+         * @param assigned How many members were already given the role.
+         */
+        private Job( IGuild guild, long roleID, long channelID, long last, long assigned ) {
+            
+            this.guild = guild;
+            this.roleID = roleID;
+            this.channelID = channelID;
+            List<IUser> users = guild.getUsers();
+            long[] ids = new long[ users.size() ];
+            int i = 0;
+            for ( IUser user : users ) {
+                
+                ids[i++] = user.getLongID();
+                
+            }
+            Arrays.sort( ids, 0, i );
+            this.ids = ( i == ids.length ) ? ids : Arrays.copyOf( ids, i );
+            int start = Arrays.binarySearch( this.ids, last );
+            this.position = ( start >= 0 ) ? start + 1 : -( start + 1 );
+            this.assigned = assigned;
+            
+        }
+        
+        /**
+         * Retrieves how many members were processed so far.
+         *
+         * @return The amount of processed members.
+         */
+        public int getProcessed() {
+            
+            return position;
+            
+        }
+        
+        /**
+         * Retrieves how many members will be processed in total.
+         *
+         * @return The total amount of members.
+         */
+        public int getTotal() {
+            
+            return ids.length;
+            
+        }
+        
+        /**
+         * Retrieves how many members were given the role so far.
+         *
+         * @return The amount of members given the role.
+         */
+        public long getAssigned() {
+            
+            return assigned;
+            
+        }
+        
+        @Override
+        public void run() {
+            
+            try {
+                while ( position < ids.length ) {
+                    
+                    if ( stopped ) { // Checkpoint is kept to resume later.
+                        LOG.info( "Auto-role backfill in guild \"{}\" stopped at {}/{} members.",
+                                guild.getName(), position, ids.length );
+                        return;
+                    }
+                    IRole role = guild.getRoleByID( roleID );
+                    if ( ( role == null ) || ( manager.getRoleID( guild ) != roleID ) ) {
+                        LOG.info( "Auto-role of guild \"{}\" changed, stopping backfill.", guild.getName() );
+                        finish( null );
+                        return;
+                    }
+                    int end = Math.min( position + CHUNK_SIZE, ids.length );
+                    int i = position;
+                    for ( ; ( i < end ) && !stopped; i++ ) {
+                        
+                        IUser user = guild.getUserByID( ids[i] );
+                        if ( ( user != null ) && !user.getRolesForGuild( guild ).contains( role ) &&
+                                assign( user, role ) ) {
+                            assigned++;
+                        }
+                        
+                    }
+                    position = i;
+                    saveCheckpoint( this );
+                    
+                }
+                LOG.info( "Auto-role backfill in guild \"{}\" done, {} members given the role.",
+                        guild.getName(), assigned );
+                finish( String.format( "Finished giving the auto-role to existing members: "
+                        + "%d out of %d members were given the role.", assigned, ids.length ) );
+            } catch ( RuntimeException e ) { // Keep the checkpoint to retry later.
+                jobs.remove( guild.getLongID(), this );
+                throw e;
+            }
+            
+        }
+        
+        /**
+         * Gives the role to a member, waiting until the request is performed.
+         *
+         * @param user The member.
+         * @param role The role.
+         * @return <tt>true</tt> if the role was given.
+         */
+        private boolean assign( IUser user, IRole role ) {
+            
+            return RequestBuffer.request( () -> {
+                
+                try {
+                    user.addRole( role );
+                    return true;
+                } catch ( MissingPermissionsException e ) {
+                    LOG.debug( "Does not have permission to set the role." );
+                } catch ( DiscordException e ) {
+                    LOG.error( "Error encountered while backfilling auto-role.", e );
+                }
+                return false;
+                
+            }).get(); // Wait so the next request respects the rate limit.
+            
+        }
+        
+        /**
+         * Clears the job once it is over, and reports it in the channel where it was started.
+         *
+         * @param report The report to send, or <tt>null</tt> if none should be sent.
+         */
+        private void finish( String report ) {
+            
+            checkpoints.remove( guild.getStringID() );
+            jobs.remove( guild.getLongID(), this );
+            IChannel channel = guild.getChannelByID( channelID );
+            if ( ( report != null ) && ( channel != null ) ) {
+                RequestBuffer.request( () -> {
+                    
+                    try {
+                        channel.sendMessage( report );
+                    } catch ( MissingPermissionsException e ) {
+                        LOG.debug( "Does not have permission to report auto-role backfill." );
+                    } catch ( DiscordException e ) {
+                        LOG.error( "Error encountered while reporting auto-role backfill.", e );
+                    }
+                    
+                });
+            }
+            
+        }
+        
+    }
+    
+}
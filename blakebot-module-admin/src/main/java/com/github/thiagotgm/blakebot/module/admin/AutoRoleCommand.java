@@ -29,6 +29,7 @@ import com.github.thiagotgm.modular_commands.command.annotation.SuccessHandler;
 
 import sx.blah.discord.handle.obj.IRole;
 import sx.blah.discord.handle.obj.Permissions;
+import sx.blah.discord.util.EmbedBuilder;
 
 /**
  * Command set that allows joined guilds to specify a role to automatically assign
@@ -44,6 +45,8 @@ public class AutoRoleCommand {
     private static final String SET = "Set Auto Role";
     private static final String CHECK = "Check Auto Role";
     private static final String REMOVE = "Remove Auto Role";
+    private static final String STATS = "Auto Role Stats";
+    private static final String BACKFILL = "Auto Role Backfill";
     private static final String SUCCESS_HANDLER = "success";
     private static final String FAILURE_HANDLER = "failure";
     
@@ -63,7 +66,7 @@ public class AutoRoleCommand {
             aliases = { "autorole", "ar" },
             description = "Automatically assigns new users to a certain role.",
             usage = "{}autorole|ar <subcommand>",
-            subCommands = { SET, CHECK, REMOVE },
+            subCommands = { SET, CHECK, REMOVE, STATS, BACKFILL },
             ignorePrivate = true,
             ignorePublic = true,
             requiredGuildPermissions = Permissions.MANAGE_ROLES
@@ -166,6 +169,68 @@ public class AutoRoleCommand {
         
     }
     
+    @SubCommand(
+            name = BACKFILL,
+            aliases = "backfill",
+            description = "Gives the current auto-role to the users that are already in the "
+                    + "server. The role is given gradually to avoid overloading Discord, so it "
+                    + "may take a while in large servers. If already running, shows the progress.",
+            usage = "{}autorole|ar backfill",
+            successHandler = SUCCESS_HANDLER,
+            failureHandler = FAILURE_HANDLER,
+            ignorePrivate = true
+    )
+    public boolean backfillCommand( CommandContext context ) {
+        
+        AutoRoleBackfill backfill = AutoRoleBackfill.getInstance();
+        AutoRoleBackfill.Job job = backfill.getJob( context.getGuild() );
+        if ( job == null ) {
+            IRole role = manager.get( context.getGuild() );
+            if ( role == null ) {
+                context.setHelper( "No role set for new users." );
+                return false;
+            }
+            if ( backfill.start( context.getGuild(), role, context.getChannel() ) ) {
+                context.setHelper( String.format( "Giving the role **%s** to existing users. "
+                        + "A message will be sent here once done.", role.getName() ) );
+                return true;
+            }
+            job = backfill.getJob( context.getGuild() ); // Started concurrently.
+        }
+        if ( job != null ) {
+            context.setHelper( String.format( "Already giving the role to existing users: %d/%d "
+                    + "users checked, %d given the role.", job.getProcessed(), job.getTotal(),
+                    job.getAssigned() ) );
+        } else {
+            context.setHelper( "Finished giving the role to existing users." );
+        }
+        return true;
+        
+    }
+    
+    @SubCommand(
+            name = STATS,
+            aliases = "stats",
+            description = "Shows how far behind the assignment of roles to new users is "
+                    + "(across all servers).",
+            usage = "{}autorole|ar stats",
+            ignorePrivate = true,
+            requiresOwner = true
+    )
+    public void statsCommand( CommandContext context ) {
+        
+        AutoRoleStats stats = AutoRoleHandler.getStats();
+        EmbedBuilder builder = new EmbedBuilder().withTitle( "Auto-role assignments" );
+        builder.appendField( "Backlog", String.valueOf( stats.getBacklog() ), true );
+        builder.appendField( "Assigned", String.valueOf( stats.getAssigned() ), true );
+        builder.appendField( "Skipped", String.valueOf( stats.getSkipped() ), true );
+        builder.appendField( "Failed", String.valueOf( stats.getFailed() ), true );
+        builder.appendField( "Average latency", StatsFormat.formatTime( stats.getAverageLatency() ), true );
+        builder.appendField( "Maximum latency", StatsFormat.formatTime( stats.getMaxLatency() ), true );
+        context.getReplyBuilder().withEmbed( builder.build() ).build();
+        
+    }
+    
     /**
      * Sends the reply set in the given context's helper object.
      *
@@ -17,12 +17,23 @@
 
 package com.github.thiagotgm.blakebot.module.admin;
 
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.github.thiagotgm.bot_utils.utils.AsyncTools;
+
 import sx.blah.discord.api.events.IListener;
 import sx.blah.discord.handle.impl.events.guild.member.UserJoinEvent;
+import sx.blah.discord.handle.obj.IGuild;
 import sx.blah.discord.handle.obj.IRole;
+import sx.blah.discord.handle.obj.IUser;
 import sx.blah.discord.util.DiscordException;
 import sx.blah.discord.util.MissingPermissionsException;
 import sx.blah.discord.util.RequestBuffer;
@@ -30,6 +41,11 @@ import sx.blah.discord.util.RequestBuffer;
 /**
  * Handler that applies the automatic role when a user joins a guild that configured
  * an automatic role.
+ * <p>
+ * Joins are placed in a queue for each guild, that is drained by a single worker at a time.
+ * The worker waits for each assignment to be performed before making the next one, so
+ * assignments follow the rate limit of the guild instead of flooding the request buffer
+ * during a burst of joins, and guilds are not held back by each other.
  *
  * @version 1.0
  * @author ThiagoTGM
@@ -39,7 +55,16 @@ public class AutoRoleHandler implements IListener<UserJoinEvent> {
     
     private static final Logger LOG = LoggerFactory.getLogger( AutoRoleHandler.class );
     
+    private static final ThreadGroup THREADS = new ThreadGroup( "Auto-role Handler" );
+    private static final Executor EXECUTOR = AsyncTools.createFixedThreadPool( THREADS, ( t, e ) -> {
+        
+        LOG.error( "Uncaught exception thrown while assigning auto-roles.", e );
+        
+    });
+    private static final AutoRoleStats STATS = new AutoRoleStats();
+    
     private final AutoRoleManager manager;
+    private final Map<Long,GuildQueue> queues;
     
     /**
      * Constructs a new instance.
@@ -47,33 +72,155 @@ public class AutoRoleHandler implements IListener<UserJoinEvent> {
     public AutoRoleHandler() {
         
         this.manager = AutoRoleManager.getInstance();
+        this.queues = new ConcurrentHashMap<>();
+        
+    }
+    
+    /**
+     * Retrieves the statistics of the auto-role assignments.
+     *
+     * @return The statistics.
+     */
+    public static AutoRoleStats getStats() {
+        
+        return STATS;
         
     }
 
     /**
      * Upon a user join, checks if the guild has a configured auto-role, and if so,
-     * attempts to apply it to the user.
+     * queues the user to be given the role.
      *
      * @param event The event fired.
      */
     @Override
     public void handle( UserJoinEvent event ) {
 
-        IRole role = manager.get( event.getGuild() );
-        if ( role != null ) {
-            LOG.debug( "Auto-setting role \"{}\" for new user \"{}\" in guild \"{}\".",
-                    role.getName(), event.getUser().getName(), event.getGuild().getName() );
-            RequestBuffer.request( () -> {
+        IGuild guild = event.getGuild();
+        if ( manager.getRoleID( guild ) == AutoRoleManager.NONE ) {
+            return; // No auto-role in the guild.
+        }
+        GuildQueue queue = queues.computeIfAbsent( guild.getLongID(), id -> new GuildQueue( guild ) );
+        queue.joins.add( new Join( event.getUser(), System.nanoTime() ) );
+        STATS.recordQueued();
+        if ( queue.draining.compareAndSet( false, true ) ) { // Start a worker.
+            EXECUTOR.execute( () -> drain( queue ) );
+        }
+        
+    }
+    
+    /**
+     * Assigns the role to every user in a queue, until it is empty.
+     *
+     * @param queue The queue to drain.
+     */
+    private void drain( GuildQueue queue ) {
+        
+        do {
+            
+            Join join;
+            while ( ( join = queue.joins.poll() ) != null ) {
+                
+                STATS.recordDequeued();
+                assign( queue.guild, join );
                 
-                try {
-                    event.getUser().addRole( role );
-                } catch ( MissingPermissionsException e ) {
-                    LOG.debug( "Does not have permission to set the role." );
-                } catch ( DiscordException e ) {
-                    LOG.error( "Error encountered while setting auto-role.", e );
-                }
+            }
+            queue.draining.set( false );
+            
+        } while ( !queue.joins.isEmpty() && queue.draining.compareAndSet( false, true ) );
+        
+    }
+    
+    /**
+     * Assigns the auto-role to a user that joined, waiting until the request is performed.
+     *
+     * @param guild The guild that the user joined.
+     * @param join The join.
+     */
+    private void assign( IGuild guild, Join join ) {
+        
+        IRole role = manager.get( guild ); // Might have changed while queued.
+        IUser user = join.user;
+        if ( ( role == null ) || ( guild.getUserByID( user.getLongID() ) == null ) ||
+                user.getRolesForGuild( guild ).contains( role ) ) {
+            STATS.recordSkipped();
+            return;
+        }
+        
+        LOG.debug( "Auto-setting role \"{}\" for new user \"{}\" in guild \"{}\".",
+                role.getName(), user.getName(), guild.getName() );
+        boolean success = RequestBuffer.request( () -> {
+            
+            try {
+                user.addRole( role );
+                return true;
+            } catch ( MissingPermissionsException e ) {
+                LOG.debug( "Does not have permission to set the role." );
+            } catch ( DiscordException e ) {
+                LOG.error( "Error encountered while setting auto-role.", e );
+            }
+            return false;
+        
+        }).get(); // Wait so the next assignment respects the rate limit.
+        if ( success ) {
+            STATS.recordAssigned( System.nanoTime() - join.time );
+        } else {
+            STATS.recordFailed();
+        }
+        
+    }
+    
+    /**
+     * Joins of a guild that are waiting for the auto-role.
+     *
+     * @version 1.0
+     * @author ThiagoTGM
+     * @since 2026-10-16
+     */
+    private static class GuildQueue {
+        
+        private final IGuild guild;
+        private final Queue<Join> joins;
+        private final AtomicBoolean draining;
+        
+        /**
+         * Creates an empty queue for a guild.
+         *
+         * @param guild The guild.
+         */
+        private GuildQueue( IGuild guild ) {
+            
+            this.guild = guild;
+            this.joins = new ConcurrentLinkedQueue<>();
+            this.draining = new AtomicBoolean( false );
+            
+        }
+        
+    }
+    
+    /**
+     * A user that joined and is waiting for the auto-role.
+     *
+     * @version 1.0
+     * @author ThiagoTGM
+     * @since 2026-10-16
+     */
+    private static class Join {
+        
+        private final IUser user;
+        private final long time;
+        
+        /**
+         * Creates a new join.
+         *
+         * @param user The user that joined.
+         * @param time When the user joined, in terms of {@link System#nanoTime()}.
+         */
+        private Join( IUser user, long time ) {
+            
+            this.user = user;
+            this.time = time;
             
-            });
         }
         
     }
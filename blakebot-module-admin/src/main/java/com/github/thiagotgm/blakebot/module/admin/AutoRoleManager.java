@@ -18,6 +18,8 @@
 package com.github.thiagotgm.blakebot.module.admin;
 
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -30,6 +32,9 @@ import sx.blah.discord.handle.obj.IRole;
 /**
  * Stores auto-role data, eg the role to be auto-set for each guild (that
  * specified one).
+ * <p>
+ * The role ID of each guild is cached in memory once looked up (including guilds
+ * that have no auto-role), so that handling a join does not need to access the database.
  *
  * @version 1.0
  * @author ThiagoTGM
@@ -39,7 +44,13 @@ public class AutoRoleManager {
     
     private static final Logger LOG = LoggerFactory.getLogger( AutoRoleManager.class );
     
+    /**
+     * Role ID returned by {@link #getRoleID(IGuild)} for guilds that have no auto-role.
+     */
+    public static final long NONE = 0;
+    
     private final Map<String,String> roles;
+    private final Map<Long,Long> cache;
     
     private static AutoRoleManager instance;
     
@@ -52,6 +63,7 @@ public class AutoRoleManager {
     	LOG.info( "Initializing auto-role manager." );
         roles = DatabaseManager.getDatabase().getDataMap(
         		"AutoRole", new StringTranslator(), new StringTranslator() );
+        cache = new ConcurrentHashMap<>();
         
     }
     
@@ -79,6 +91,7 @@ public class AutoRoleManager {
         
     	LOG.debug( "Set auto-role in guild '{}' to '{}'.", guild.getName(), role.getName() );
         roles.put( guild.getStringID(), role.getStringID() );
+        cache.put( guild.getLongID(), role.getLongID() );
         
     }
     
@@ -91,8 +104,26 @@ public class AutoRoleManager {
      */
     public IRole get( IGuild guild ) {
         
-        String roleID = roles.get( guild.getStringID() );
-        return ( roleID != null ) ? guild.getRoleByID( Long.valueOf( roleID ) ) : null;
+        long roleID = getRoleID( guild );
+        return ( roleID != NONE ) ? guild.getRoleByID( roleID ) : null;
+        
+    }
+    
+    /**
+     * Retrieves the ID of the role set as the autorole in a server.
+     *
+     * @param guild Guild to check the autorole of.
+     * @return The ID of the role set as autorole in that guild, or {@value #NONE} if
+     *         no autorole is set for the given guild.
+     */
+    public long getRoleID( IGuild guild ) {
+        
+        return cache.computeIfAbsent( guild.getLongID(), id -> {
+            
+            String roleID = roles.get( guild.getStringID() );
+            return ( roleID != null ) ? Long.valueOf( roleID ) : NONE;
+            
+        });
         
     }
     
@@ -106,7 +137,9 @@ public class AutoRoleManager {
     public boolean remove( IGuild guild ) {
         
     	LOG.debug( "Removed auto-role in guild '{}'.", guild.getName() );
-        return roles.remove( guild.getStringID() ) != null;
+        boolean removed = roles.remove( guild.getStringID() ) != null;
+        cache.put( guild.getLongID(), NONE );
+        return removed;
         
     }
 
@@ -0,0 +1,172 @@
+/*
+ * This file is part of BlakeBot.
+ *
+ * BlakeBot is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * BlakeBot is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with BlakeBot. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.github.thiagotgm.blakebot.module.admin;
+
+import java.util.concurrent.atomic.LongAdder;
+
+import com.github.thiagotgm.blakebot.TimingStats;
+
+/**
+ * Statistics of the auto-role assignments performed by the {@link AutoRoleHandler}.
+ * <p>
+ * There is a single instance for the whole bot, so the counters cover every server and
+ * are cumulative since the bot started (disabling and enabling the module does not
+ * reset them). Times are measured in nanoseconds.
+ *
+ * @version 1.0
+ * @author ThiagoTGM
+ * @since 2026-10-16
+ */
+public class AutoRoleStats {
+    
+    private final LongAdder backlog;
+    private final TimingStats latency;
+    private final LongAdder skipped;
+    private final LongAdder failed;
+    
+    /**
+     * Creates a new instance.
+     */
+    protected AutoRoleStats() {
+        
+        this.backlog = new LongAdder();
+        this.latency = new TimingStats();
+        this.skipped = new LongAdder();
+        this.failed = new LongAdder();
+        
+    }
+    
+    /* Methods for recording events */
+    
+    /**
+     * Records a join that was queued for assignment.
+     */
+    protected void recordQueued() {
+        
+        backlog.increment();
+        
+    }
+    
+    /**
+     * Records a join that was taken from the queue.
+     */
+    protected void recordDequeued() {
+        
+        backlog.decrement();
+        
+    }
+    
+    /**
+     * Records a role that was assigned.
+     *
+     * @param time How long it took since the user joined.
+     */
+    protected void recordAssigned( long time ) {
+        
+        latency.record( time );
+        
+    }
+    
+    /**
+     * Records a join that did not need an assignment anymore (the user left, already
+     * had the role, or the auto-role was removed).
+     */
+    protected void recordSkipped() {
+        
+        skipped.increment();
+        
+    }
+    
+    /**
+     * Records an assignment that failed.
+     */
+    protected void recordFailed() {
+        
+        failed.increment();
+        
+    }
+    
+    /* Methods for retrieving statistics */
+    
+    /**
+     * Retrieves how many joins are currently waiting for their role.
+     *
+     * @return The backlog size.
+     */
+    public long getBacklog() {
+        
+        return backlog.sum();
+        
+    }
+    
+    /**
+     * Retrieves how many roles were assigned.
+     *
+     * @return The amount of assignments.
+     */
+    public long getAssigned() {
+        
+        return latency.getCount();
+        
+    }
+    
+    /**
+     * Retrieves how many joins did not need an assignment anymore by the time they
+     * were taken from the queue.
+     *
+     * @return The amount of skipped joins.
+     */
+    public long getSkipped() {
+        
+        return skipped.sum();
+        
+    }
+    
+    /**
+     * Retrieves how many assignments failed.
+     *
+     * @return The amount of failures.
+     */
+    public long getFailed() {
+        
+        return failed.sum();
+        
+    }
+    
+    /**
+     * Retrieves the average time between a user joining and the role being assigned.
+     *
+     * @return The average latency.
+     */
+    public long getAverageLatency() {
+        
+        return latency.getAverage();
+        
+    }
+    
+    /**
+     * Retrieves the longest time between a user joining and the role being assigned.
+     *
+     * @return The maximum latency.
+     */
+    public long getMaxLatency() {
+        
+        return latency.getMax();
+        
+    }
+    
+}
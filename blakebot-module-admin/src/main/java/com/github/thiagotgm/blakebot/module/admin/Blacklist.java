@@ -17,17 +17,21 @@
 
 package com.github.thiagotgm.blakebot.module.admin;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.regex.Pattern;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.github.thiagotgm.bot_utils.Settings;
 import com.github.thiagotgm.bot_utils.storage.Data;
 import com.github.thiagotgm.bot_utils.storage.DatabaseManager;
 import com.github.thiagotgm.bot_utils.storage.Storable;
@@ -49,6 +53,11 @@ import sx.blah.discord.handle.obj.IUser;
  * <p>
  * All the restriction sets retrieved in get methods are copies, and so do not reflect on
  * the internal blacklist if changed.
+ * <p>
+ * The restrictions of each path are also kept compiled in a {@link RestrictionMatcher}, which
+ * is only rebuilt when the restrictions for that path are changed. The set of compiled
+ * restrictions that apply to a user in a channel is also cached, and is invalidated whenever
+ * a restriction in the same guild changes or the roles of the user change.
  *
  * @version 1.0
  * @author ThiagoTGM
@@ -58,9 +67,13 @@ public class Blacklist {
     
     private static final Logger LOG = LoggerFactory.getLogger( Blacklist.class );
     
+    private static final int MAX_RESOLVED_PER_GUILD = 10000;
+    
     private static Blacklist instance;
     
     private final Tree<String,Set<Restriction>> blacklist;
+    private final Map<List<String>,RestrictionMatcher> matchers;
+    private final Map<Long,ResolvedCache> resolved;
     
     /**
      * Creates a new instance.
@@ -70,6 +83,8 @@ public class Blacklist {
     	LOG.info( "Starting blacklist." );
         this.blacklist = DatabaseManager.getDatabase().getDataTree( "Blacklist", new StringTranslator(),
         		new SetTranslator<>( new StorableTranslator<>( () -> { return new Restriction(); } ) ) );
+        this.matchers = new ConcurrentHashMap<>();
+        this.resolved = new ConcurrentHashMap<>();
         
     }
     
@@ -215,6 +230,165 @@ public class Blacklist {
         
     }
     
+    // Methods for getting compiled restrictions.
+    
+    /**
+     * Retrieves the compiled restrictions for a given path. If they were not compiled yet,
+     * compiles them.
+     * <p>
+     * Paths with no restrictions are not stored, so that the cache does not grow with
+     * every user/channel combination ever checked.
+     *
+     * @param path Desired path.
+     * @return The matcher for the restrictions that apply for that path.
+     */
+    protected RestrictionMatcher getMatcher( IIDLinkedObject... path ) {
+        
+        RestrictionMatcher matcher = matchers.computeIfAbsent( Arrays.asList( Utils.idString( path ) ),
+                p -> {
+                    
+                    Set<Restriction> restrictions = blacklist.get( p );
+                    return ( ( restrictions == null ) || restrictions.isEmpty() ) ? null :
+                            new RestrictionMatcher( restrictions );
+                    
+                });
+        return ( matcher != null ) ? matcher : RestrictionMatcher.EMPTY;
+        
+    }
+    
+    /**
+     * Retrieves the compiled restrictions that apply for a given User in a given Channel, for
+     * all scopes, both scope-wide and user-specific.
+     * <p>
+     * Scopes that have no restrictions are not included. The result is cached until a restriction
+     * in the guild is changed, and the returned list is unmodifiable.
+     * 
+     * @param user User to get restrictions for.
+     * @param channel Channel where the user is in.
+     * @return The matchers for the restrictions that apply for that user in that channel.
+     */
+    public List<RestrictionMatcher> getAllMatchers( IUser user, IChannel channel ) {
+        
+        IGuild guild = channel.getGuild();
+        List<IRole> roles = user.getRolesForGuild( guild );
+        
+        ResolvedCache cache = resolved.computeIfAbsent( guild.getLongID(), id -> new ResolvedCache() );
+        ResolvedKey key = new ResolvedKey( channel.getLongID(), user.getLongID(), roles );
+        long version = cache.version; // Read before resolving, so a concurrent change is not missed.
+        Resolved entry = cache.entries.get( key );
+        if ( ( entry != null ) && ( entry.version == version ) ) {
+            return entry.matchers; // Cache hit.
+        }
+        
+        List<RestrictionMatcher> matchers = Collections.unmodifiableList(
+                resolveMatchers( guild, channel, user, roles ) );
+        if ( cache.entries.size() >= MAX_RESOLVED_PER_GUILD ) {
+            LOG.debug( "Resolved restriction cache for guild \"{}\" is full, clearing.", guild.getName() );
+            cache.entries.clear();
+        }
+        cache.entries.put( key, new Resolved( version, matchers ) );
+        return matchers;
+        
+    }
+    
+    /**
+     * Looks up the compiled restrictions that apply for a given User in a given Channel, for
+     * all scopes, both scope-wide and user-specific.
+     * 
+     * @param guild Guild where the channel is.
+     * @param channel Channel where the user is in.
+     * @param user User to get restrictions for.
+     * @param roles The roles of the user in the guild.
+     * @return The matchers for the restrictions that apply for that user in that channel.
+     */
+    private List<RestrictionMatcher> resolveMatchers( IGuild guild, IChannel channel, IUser user,
+            List<IRole> roles ) {
+        
+        List<RestrictionMatcher> matchers = new ArrayList<>( 4 + 2 * roles.size() );
+        
+        /* Get user and scope-wide restrictions */
+        addMatcher( matchers, guild, channel, user );
+        addMatcher( matchers, guild, channel );
+        addMatcher( matchers, guild, user );
+        addMatcher( matchers, guild );
+        
+        /* Get role restrictions */
+        for ( IRole role : roles ) {
+            
+            addMatcher( matchers, guild, channel, role );
+            addMatcher( matchers, guild, role );
+            
+        }
+        
+        return matchers;
+        
+    }
+    
+    /**
+     * Discards the cached restrictions of a user in a guild, such as when the roles of the
+     * user change.
+     *
+     * @param user The user whose restrictions should be discarded.
+     * @param guild The guild where the user is.
+     */
+    protected void invalidate( IUser user, IGuild guild ) {
+        
+        ResolvedCache cache = resolved.get( guild.getLongID() );
+        if ( cache != null ) {
+            long userID = user.getLongID();
+            cache.entries.keySet().removeIf( key -> key.userID == userID );
+        }
+        
+    }
+    
+    /**
+     * Marks all the cached restrictions in a guild as outdated, after a restriction in that guild
+     * was changed.
+     *
+     * @param guild The guild (first element of the changed path).
+     */
+    private void invalidate( IIDLinkedObject guild ) {
+        
+        ResolvedCache cache = resolved.get( guild.getLongID() );
+        if ( cache != null ) {
+            cache.version++; // Only ever changed while holding the lock.
+        }
+        
+    }
+    
+    /**
+     * Adds the matcher for the given path to a list, if there are any restrictions in that path.
+     *
+     * @param matchers The list to add to.
+     * @param path The path to get the matcher for.
+     */
+    private void addMatcher( List<RestrictionMatcher> matchers, IIDLinkedObject... path ) {
+        
+        RestrictionMatcher matcher = getMatcher( path );
+        if ( !matcher.isEmpty() ) {
+            matchers.add( matcher );
+        }
+        
+    }
+    
+    /**
+     * Recompiles the matcher for a path after its restrictions were changed.
+     *
+     * @param path The path that was changed.
+     * @param restrictions The new restrictions for that path.
+     */
+    private void recompile( List<String> path, Set<Restriction> restrictions ) {
+        
+        if ( restrictions.isEmpty() ) {
+            matchers.remove( path );
+        } else { // Keep quarantined restrictions that are still present.
+            RestrictionMatcher old = matchers.get( path );
+            matchers.put( path, new RestrictionMatcher( restrictions,
+                    ( old != null ) ? old.getQuarantined() : Collections.emptySet() ) );
+        }
+        
+    }
+    
     // Methods for adding restrictions.
     
     /**
@@ -235,6 +409,8 @@ public class Blacklist {
         }
         if ( restrictions.add( restriction ) ) {
         	blacklist.put( strPath, restrictions );
+        	recompile( strPath, restrictions );
+        	invalidate( path[0] );
         	return true;
         } else {
         	return false;
@@ -346,6 +522,8 @@ public class Blacklist {
         Set<Restriction> restrictions = blacklist.get( thePath );
         if ( ( restrictions != null ) && restrictions.remove( restriction ) ) {
         	blacklist.put( thePath, restrictions );
+        	recompile( thePath, restrictions );
+        	invalidate( path[0] );
         	return true;
         } else {
         	return false;
@@ -441,6 +619,109 @@ public class Blacklist {
         
     }
     
+    /* Cache of the restrictions that apply to users in channels */
+    
+    /**
+     * Cached restrictions for the users of a guild.
+     *
+     * @version 1.0
+     * @author ThiagoTGM
+     * @since 2026-10-16
+     */
+    private static class ResolvedCache {
+        
+        private volatile long version;
+        private final Map<ResolvedKey,Resolved> entries = new ConcurrentHashMap<>();
+        
+    }
+    
+    /**
+     * The compiled restrictions that apply to a user in a channel, and the version of the
+     * guild cache they were resolved in.
+     *
+     * @version 1.0
+     * @author ThiagoTGM
+     * @since 2026-10-16
+     */
+    private static class Resolved {
+        
+        private final long version;
+        private final List<RestrictionMatcher> matchers;
+        
+        /**
+         * Creates a new entry.
+         *
+         * @param version The version of the guild cache when the matchers were resolved.
+         * @param matchers The matchers that apply.
+         */
+        private Resolved( long version, List<RestrictionMatcher> matchers ) {
+            
+            this.version = version;
+            this.matchers = matchers;
+            
+        }
+        
+    }
+    
+    /**
+     * Identifies a user in a channel, with a given set of roles.
+     *
+     * @version 1.0
+     * @author ThiagoTGM
+     * @since 2026-10-16
+     */
+    private static class ResolvedKey {
+        
+        private final long channelID;
+        private final long userID;
+        private final long[] roleIDs;
+        private final int hash;
+        
+        /**
+         * Creates a new key.
+         *
+         * @param channelID The ID of the channel.
+         * @param userID The ID of the user.
+         * @param roles The roles of the user.
+         */
+        private ResolvedKey( long channelID, long userID, List<IRole> roles ) {
+            
+            this.channelID = channelID;
+            this.userID = userID;
+            this.roleIDs = new long[ roles.size() ];
+            for ( int i = 0; i < roleIDs.length; i++ ) {
+                
+                roleIDs[i] = roles.get( i ).getLongID();
+                
+            }
+            Arrays.sort( roleIDs ); // Role order does not matter.
+            this.hash = ( 31 * ( 31 * Long.hashCode( channelID ) + Long.hashCode( userID ) ) ) +
+                    Arrays.hashCode( roleIDs );
+            
+        }
+        
+        @Override
+        public boolean equals( Object obj ) {
+            
+            if ( !( obj instanceof ResolvedKey ) ) {
+                return false;
+            }
+            
+            ResolvedKey key = (ResolvedKey) obj;
+            return ( channelID == key.channelID ) && ( userID == key.userID ) &&
+                    Arrays.equals( roleIDs, key.roleIDs );
+            
+        }
+        
+        @Override
+        public int hashCode() {
+            
+            return hash;
+            
+        }
+        
+    }
+    
     /* Encapsulates a restriction and its metadata */
     
     /**
@@ -482,6 +763,13 @@ public class Blacklist {
         
         private static final int CASE_FLAG = Pattern.CASE_INSENSITIVE | Pattern.UNICODE_CASE;
         
+        /**
+         * Setting that defines how many characters a regex restriction may read while
+         * checking a single message (counting every re-read caused by backtracking).
+         */
+        public static final String STEP_LIMIT_SETTING = "Regex step limit";
+        private static final long STEP_LIMIT = Settings.getLongSetting( STEP_LIMIT_SETTING );
+        
         private static final String TEXT_ATTRIBUTE = "text";
         private static final String TYPE_ATTRIBUTE = "type";
         
@@ -573,14 +861,24 @@ public class Blacklist {
         
         /**
          * Tests if the given message contains this restriction.
+         * <p>
+         * Regex restrictions are given a limited number of character reads, so that a pattern
+         * with catastrophic backtracking cannot hold up the calling thread. Since the limit
+         * counts work rather than time, the same message always gets the same result
+         * regardless of how busy the bot is.
          *
          * @param message The message to be searched.
          * @return <tt>true</tt> if part of the message matches this restriction.
          *         <tt>false</tt> otherwise.
+         * @throws MatchTimeoutException if this is a regex restriction and the search read
+         *                               more characters than the {@value #STEP_LIMIT_SETTING}.
          */
-        public boolean test( String message ) {
+        public boolean test( String message ) throws MatchTimeoutException {
             
-            return pattern.matcher( message ).find();
+            if ( type != Type.REGEX ) {
+                return pattern.matcher( message ).find();
+            }
+            return pattern.matcher( new BoundedSequence( message, this ) ).find();
             
         }
 
@@ -663,6 +961,110 @@ public class Blacklist {
             
         }
         
+        /**
+         * Character sequence that aborts the regex search once the step limit is exceeded.
+         * <p>
+         * The matcher reads every character it examines through {@link #charAt(int)}, so
+         * counting those calls bounds the work done even when the pattern backtracks.
+         *
+         * @version 1.0
+         * @author ThiagoTGM
+         * @since 2026-10-16
+         */
+        private static class BoundedSequence implements CharSequence {
+            
+            private final String text;
+            private final Restriction restriction;
+            private long steps;
+            
+            /**
+             * Creates a sequence over the given text, with no steps taken yet.
+             *
+             * @param text The text being searched.
+             * @param restriction The restriction being tested.
+             */
+            private BoundedSequence( String text, Restriction restriction ) {
+                
+                this.text = text;
+                this.restriction = restriction;
+                this.steps = 0;
+                
+            }
+
+            @Override
+            public char charAt( int index ) throws MatchTimeoutException {
+                
+                if ( ++steps > STEP_LIMIT ) {
+                    throw new MatchTimeoutException( restriction );
+                }
+                return text.charAt( index );
+                
+            }
+
+            @Override
+            public int length() {
+                
+                return text.length();
+                
+            }
+
+            @Override
+            public CharSequence subSequence( int start, int end ) {
+                
+                return text.subSequence( start, end );
+                
+            }
+            
+            @Override
+            public String toString() {
+                
+                return text;
+                
+            }
+            
+        }
+        
+        /**
+         * Exception thrown when a regex restriction exceeds its step limit while checking a message.
+         *
+         * @version 1.0
+         * @author ThiagoTGM
+         * @since 2026-10-16
+         */
+        public static class MatchTimeoutException extends RuntimeException {
+            
+            /**
+             * UID that represents this class.
+             */
+            private static final long serialVersionUID = 3954120735183367044L;
+            
+            private final Restriction restriction;
+            
+            /**
+             * Constructs an exception for the given restriction.
+             *
+             * @param restriction The restriction that exceeded the step limit.
+             */
+            protected MatchTimeoutException( Restriction restriction ) {
+                
+                super( "Restriction " + restriction + " exceeded the step limit.", null, false, false );
+                this.restriction = restriction;
+                
+            }
+            
+            /**
+             * Retrieves the restriction that exceeded the step limit.
+             *
+             * @return The restriction.
+             */
+            public Restriction getRestriction() {
+                
+                return restriction;
+                
+            }
+            
+        }
+        
     }
 
 }
@@ -61,6 +61,7 @@ public class BlacklistCommand {
     private static final String ADD_NAME = "Blacklist Add";
     private static final String REMOVE_NAME = "Blacklist Remove";
     private static final String LIST_NAME = "Blacklist List";
+    private static final String STATS_NAME = "Blacklist Stats";
     
     private static final String WORD_NAME = "Word entries";
     private static final String REGEX_NAME = "Regex entries";
@@ -87,7 +88,7 @@ public class BlacklistCommand {
             usage = "{}blacklist|bl [server] <subcommand> <arguments>",
             ignorePrivate = true,
             ignorePublic = true,
-            subCommands = { ADD_NAME, LIST_NAME, REMOVE_NAME, SERVER_MODIFIER_NAME },
+            subCommands = { ADD_NAME, LIST_NAME, REMOVE_NAME, STATS_NAME, SERVER_MODIFIER_NAME },
             requiredPermissions = { Permissions.MANAGE_CHANNEL, Permissions.MANAGE_MESSAGES }
     )
     public void blacklistCommand( CommandContext context ) {
@@ -559,6 +560,32 @@ public class BlacklistCommand {
         
     }
 
+    @SubCommand(
+            name = STATS_NAME,
+            aliases = "stats",
+            description = "Shows how loaded the blacklist enforcer currently is (across all servers).",
+            usage = "{}blacklist|bl stats",
+            ignorePrivate = true,
+            requiresOwner = true
+    )
+    public void blacklistStatsCommand( CommandContext context ) {
+        
+        EnforcerStats stats = BlacklistEnforcer.getStats();
+        EmbedBuilder builder = new EmbedBuilder().withTitle( "Blacklist enforcer" );
+        builder.appendField( "Queue", String.format( "%d/%d", stats.getQueueDepth(),
+                stats.getQueueCapacity() ), true );
+        builder.appendField( "Scanned", String.valueOf( stats.getScanned() ), true );
+        builder.appendField( "Matched", String.valueOf( stats.getMatched() ), true );
+        builder.appendField( "Average wait", StatsFormat.formatTime( stats.getAverageWait() ), true );
+        builder.appendField( "Maximum wait", StatsFormat.formatTime( stats.getMaxWait() ), true );
+        builder.appendField( "Average scan", StatsFormat.formatTime( stats.getAverageScan() ), true );
+        builder.appendField( "Skipped (overload)", String.valueOf( stats.getShed() ), true );
+        builder.appendField( "Truncated (overload)", String.valueOf( stats.getTruncated() ), true );
+        builder.appendField( "Blocked dispatches", String.valueOf( stats.getBlocked() ), true );
+        context.getReplyBuilder().withEmbed( builder.build() ).build();
+        
+    }
+
     /* Success and failure handlers */
     
     @SuccessHandler( SUCCESS_HANDLER )
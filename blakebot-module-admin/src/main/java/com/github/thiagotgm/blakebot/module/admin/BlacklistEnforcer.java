@@ -17,26 +17,39 @@
 
 package com.github.thiagotgm.blakebot.module.admin;
 
-import java.util.Set;
-import java.util.concurrent.Executor;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.github.thiagotgm.blakebot.module.admin.Blacklist.Restriction;
-import com.github.thiagotgm.bot_utils.utils.AsyncTools;
+import com.github.thiagotgm.bot_utils.Settings;
 
 import sx.blah.discord.api.events.EventSubscriber;
 import sx.blah.discord.handle.impl.events.guild.channel.message.MessageReceivedEvent;
+import sx.blah.discord.handle.impl.events.guild.member.UserRoleUpdateEvent;
 import sx.blah.discord.handle.obj.IChannel;
 import sx.blah.discord.handle.obj.IGuild;
 import sx.blah.discord.handle.obj.IMessage;
 import sx.blah.discord.handle.obj.IUser;
+import sx.blah.discord.handle.obj.Permissions;
 import sx.blah.discord.util.DiscordException;
 import sx.blah.discord.util.MissingPermissionsException;
 import sx.blah.discord.util.RequestBuffer;
 
 /**
  * Class that checks every message received for blacklisted content.
+ * <p>
+ * Messages are scanned by a pool of worker threads fed by a bounded queue. Once the queue
+ * is three-quarters full, the configured {@link OverloadPolicy} is applied to new messages;
+ * once it is full, the dispatcher waits until there is space.
+ * <p>
+ * Matching messages are deleted through a {@link MessageDeleter}, so that a flood of
+ * blacklisted messages in a channel is removed with a few bulk-delete requests.
  *
  * @version 1.0
  * @author ThiagoTGM
@@ -46,12 +59,69 @@ public class BlacklistEnforcer {
     
     private static final Logger LOG = LoggerFactory.getLogger( BlacklistEnforcer.class );
     
+    /**
+     * Setting that defines how many messages may be waiting to be scanned.
+     */
+    public static final String QUEUE_SIZE_SETTING = "Blacklist queue size";
+    /**
+     * Setting that defines the {@link OverloadPolicy} to use.
+     */
+    public static final String POLICY_SETTING = "Blacklist overload policy";
+    /**
+     * Setting that defines how many characters of a message are scanned under the
+     * {@link OverloadPolicy#TRUNCATE TRUNCATE} policy.
+     */
+    public static final String SCAN_LIMIT_SETTING = "Blacklist scan limit";
+    
+    private static final int QUEUE_SIZE = Settings.getIntSetting( QUEUE_SIZE_SETTING );
+    private static final int HIGH_WATER = QUEUE_SIZE * 3 / 4;
+    private static final int SCAN_LIMIT = Settings.getIntSetting( SCAN_LIMIT_SETTING );
+    private static final OverloadPolicy POLICY = OverloadPolicy.parse(
+            Settings.getStringSetting( POLICY_SETTING ) );
+    
     private static final ThreadGroup THREADS = new ThreadGroup( "Blacklist Enforcer" );
-    private static final Executor EXECUTOR = AsyncTools.createFixedThreadPool( THREADS, ( t, e ) -> {
+    private static final ThreadFactory THREAD_FACTORY = new ThreadFactory() {
+        
+        private final AtomicInteger count = new AtomicInteger();
+        
+        @Override
+        public Thread newThread( Runnable r ) {
+            
+            Thread thread = new Thread( THREADS, r, THREADS.getName() + "-" + count.incrementAndGet() );
+            thread.setDaemon( true );
+            thread.setUncaughtExceptionHandler( ( t, e ) -> {
+                
+                LOG.error( "Uncaught exception thrown while enforcing blacklist.", e );
+                
+            });
+            return thread;
+            
+        }
         
-        LOG.error( "Uncaught exception thrown while enforcing blacklist.", e );
+    };
+    private static final ThreadPoolExecutor EXECUTOR;
+    private static final EnforcerStats STATS;
+    private static final MessageDeleter DELETER = new MessageDeleter();
+    
+    static {
         
-    });
+        int threads = Runtime.getRuntime().availableProcessors();
+        ArrayBlockingQueue<Runnable> queue = new ArrayBlockingQueue<>( QUEUE_SIZE );
+        STATS = new EnforcerStats( queue, QUEUE_SIZE );
+        EXECUTOR = new ThreadPoolExecutor( threads, threads, 0, TimeUnit.MILLISECONDS, queue, THREAD_FACTORY,
+                ( r, executor ) -> { // Queue is full, block the dispatcher until there is space.
+                    
+                    STATS.recordBlocked();
+                    try {
+                        executor.getQueue().put( r );
+                    } catch ( InterruptedException e ) {
+                        LOG.warn( "Interrupted while waiting to scan message, message will not be scanned." );
+                        Thread.currentThread().interrupt();
+                    }
+                    
+                });
+        
+    }
     
     private final Blacklist blacklist;
     
@@ -78,39 +148,176 @@ public class BlacklistEnforcer {
             return; // Ignore private messages.
         }
         IUser author = message.getAuthor();
-        IGuild guild = message.getGuild();
         String content = message.getContent();
         
-        // Check for match asynchronously.
-        EXECUTOR.execute( () -> {
-            
-            Set<Restriction> restrictions = blacklist.getAllRestrictions( author, channel );
-            LOG.trace( "Restrictions for author \"{}\" in channel \"{}\" of guild \"{}\": {}.",
-                    author.getName(), channel.getName(), guild.getName(), restrictions );
-            for ( Restriction restriction : restrictions ) {
+        if ( EXECUTOR.getQueue().size() >= HIGH_WATER ) { // Overloaded.
+            switch ( POLICY ) {
                 
-                if ( restriction.test( content ) ) { // Found restriction in message.
-                    LOG.debug( "Blacklist match: \"{}\" from \"{}\" in channel \"{}\" of guild \"{}\""
-                            + " - matches {}.", content, author.getName(), channel.getName(),
-                            guild.getName(), restriction );
-                    RequestBuffer.request( () -> {
-                        
-                        try { // Attempt to delete the message.
-                            message.delete();
-                        } catch ( MissingPermissionsException e ) {
-                            LOG.debug( "Does not have permissions to delete message.", e );
-                        } catch ( DiscordException e ) {
-                            LOG.error( "Failed to delete message.", e );
-                        }
+                case SHED_TRUSTED:
+                    if ( channel.getModifiedPermissions( author ).contains( Permissions.MANAGE_MESSAGES ) ) {
+                        LOG.trace( "Overloaded, skipping message from trusted user \"{}\".", author.getName() );
+                        STATS.recordShed();
+                        return;
+                    }
+                    break;
                     
-                    });
-                    return;
-                }
+                case TRUNCATE:
+                    if ( content.length() > SCAN_LIMIT ) {
+                        content = content.substring( 0, SCAN_LIMIT );
+                        STATS.recordTruncated();
+                    }
+                    break;
+                    
+                default:
+                    break;
                 
             }
+        }
+        
+        // Check for match asynchronously.
+        final String scanned = content;
+        final long queued = System.nanoTime();
+        EXECUTOR.execute( () -> {
+            
+            long start = System.nanoTime();
+            boolean match = false;
+            try {
+                match = enforce( message, author, channel, scanned );
+            } finally {
+                STATS.recordScan( start - queued, System.nanoTime() - start, match );
+            }
             
         });
         
     }
+    
+    /**
+     * Checks if a message contains blacklisted content. If it does, deletes it.
+     *
+     * @param message The message to check.
+     * @param author The author of the message.
+     * @param channel The channel where the message was sent.
+     * @param content The content to scan.
+     * @return <tt>true</tt> if the message matched a restriction.
+     *         <tt>false</tt> otherwise.
+     */
+    private boolean enforce( IMessage message, IUser author, IChannel channel, String content ) {
+        
+        IGuild guild = channel.getGuild();
+        List<RestrictionMatcher> matchers = blacklist.getAllMatchers( author, channel );
+        LOG.trace( "Restriction scopes for author \"{}\" in channel \"{}\" of guild \"{}\": {}.",
+                author.getName(), channel.getName(), guild.getName(), matchers.size() );
+        for ( RestrictionMatcher matcher : matchers ) {
+            
+            Restriction restriction = matcher.find( content, r -> reportQuarantine( r, channel ) );
+            if ( restriction != null ) { // Found restriction in message.
+                LOG.debug( "Blacklist match: \"{}\" from \"{}\" in channel \"{}\" of guild \"{}\""
+                        + " - matches {}.", content, author.getName(), channel.getName(),
+                        guild.getName(), restriction );
+                DELETER.delete( message ); // Batched with other deletions in the channel.
+                return true;
+            }
+            
+        }
+        return false;
+        
+    }
+    
+    /**
+     * Retrieves the load statistics of the enforcer.
+     *
+     * @return The statistics.
+     */
+    public static EnforcerStats getStats() {
+        
+        return STATS;
+        
+    }
+    
+    /**
+     * Notifies the owner of a guild that a regex restriction took too long to run and was
+     * quarantined.
+     *
+     * @param restriction The quarantined restriction.
+     * @param channel The channel where the restriction was triggered.
+     */
+    private void reportQuarantine( Restriction restriction, IChannel channel ) {
+        
+        IGuild guild = channel.getGuild();
+        LOG.warn( "Blacklist restriction {} exceeded the step limit in channel \"{}\" of guild \"{}\" "
+                + "and was quarantined.", restriction, channel.getName(), guild.getName() );
+        IUser owner = guild.getOwner();
+        RequestBuffer.request( () -> {
+            
+            try {
+                owner.getOrCreatePMChannel().sendMessage( String.format( "The blacklist entry `%s` "
+                        + "in server **%s** took too long to check a message in #%s, and will be "
+                        + "ignored until it is removed. Please replace it with a simpler expression.",
+                        restriction.getText(), guild.getName(), channel.getName() ) );
+            } catch ( MissingPermissionsException e ) {
+                LOG.debug( "Does not have permissions to message the guild owner.", e );
+            } catch ( DiscordException e ) {
+                LOG.error( "Failed to report quarantined restriction.", e );
+            }
+            
+        });
+        
+    }
+    
+    /**
+     * When the roles of a user change, discards the cached restrictions for that user.
+     * 
+     * @param event Event fired by the role change.
+     */
+    @EventSubscriber
+    public void onUserRoleUpdateEvent( UserRoleUpdateEvent event ) {
+        
+        blacklist.invalidate( event.getUser(), event.getGuild() );
+        
+    }
+    
+    /**
+     * Policy applied to new messages when the enforcer is overloaded.
+     *
+     * @version 1.0
+     * @author ThiagoTGM
+     * @since 2026-10-16
+     */
+    public enum OverloadPolicy {
+        
+        /**
+         * Messages from users that can manage messages in the channel are not scanned.
+         */
+        SHED_TRUSTED,
+        
+        /**
+         * Only the first {@value BlacklistEnforcer#SCAN_LIMIT_SETTING} characters of
+         * each message are scanned.
+         */
+        TRUNCATE,
+        
+        /**
+         * All messages are fully scanned, and the dispatcher is blocked when the queue is full.
+         */
+        BLOCK;
+        
+        /**
+         * Parses a policy from its name, defaulting to {@link #BLOCK} if the name is not valid.
+         *
+         * @param name The name of the policy.
+         * @return The policy.
+         */
+        private static OverloadPolicy parse( String name ) {
+            
+            try {
+                return valueOf( name.trim().toUpperCase() );
+            } catch ( IllegalArgumentException | NullPointerException e ) {
+                LOG.warn( "Invalid blacklist overload policy \"{}\", using {}.", name, BLOCK );
+                return BLOCK;
+            }
+            
+        }
+        
+    }
 
 }
@@ -0,0 +1,226 @@
+/*
+ * This file is part of BlakeBot.
+ *
+ * BlakeBot is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * BlakeBot is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with BlakeBot. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.thiagotgm.blakebot.module.admin;
+
+import java.util.Queue;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.github.thiagotgm.blakebot.TimingStats;
+
+/**
+ * Load statistics of the {@link BlacklistEnforcer} work queue.
+ * <p>
+ * There is a single instance for the whole bot, so the counters cover every server and
+ * are cumulative since the bot started (disabling and enabling the module does not
+ * reset them). Times are measured in nanoseconds.
+ *
+ * @version 1.0
+ * @author ThiagoTGM
+ * @since 2026-10-16
+ */
+public class EnforcerStats {
+
+    private final Queue<?> queue;
+    private final int capacity;
+
+    private final TimingStats scans;
+    private final TimingStats waits;
+    private final LongAdder matched;
+    private final LongAdder shed;
+    private final LongAdder truncated;
+    private final LongAdder blocked;
+
+    /**
+     * Creates a new instance.
+     *
+     * @param queue The work queue being monitored.
+     * @param capacity The capacity of the queue.
+     */
+    protected EnforcerStats( Queue<?> queue, int capacity ) {
+
+        this.queue = queue;
+        this.capacity = capacity;
+
+        this.scans = new TimingStats();
+        this.waits = new TimingStats();
+        this.matched = new LongAdder();
+        this.shed = new LongAdder();
+        this.truncated = new LongAdder();
+        this.blocked = new LongAdder();
+
+    }
+
+    /* Methods for recording events */
+
+    /**
+     * Records a scan that was performed.
+     *
+     * @param wait How long the message waited in the queue.
+     * @param time How long the scan took.
+     * @param match Whether the message matched a restriction.
+     */
+    protected void recordScan( long wait, long time, boolean match ) {
+
+        scans.record( time );
+        waits.record( wait );
+        if ( match ) {
+            matched.increment();
+        }
+
+    }
+
+    /**
+     * Records a message that was not scanned due to overload.
+     */
+    protected void recordShed() {
+
+        shed.increment();
+
+    }
+
+    /**
+     * Records a message that was only partially scanned due to overload.
+     */
+    protected void recordTruncated() {
+
+        truncated.increment();
+
+    }
+
+    /**
+     * Records that the dispatcher had to wait for space in the queue.
+     */
+    protected void recordBlocked() {
+
+        blocked.increment();
+
+    }
+
+    /* Methods for retrieving statistics */
+
+    /**
+     * Retrieves how many messages are currently waiting to be scanned.
+     *
+     * @return The queue depth.
+     */
+    public int getQueueDepth() {
+
+        return queue.size();
+
+    }
+
+    /**
+     * Retrieves how many messages can be waiting before the dispatcher is blocked.
+     *
+     * @return The queue capacity.
+     */
+    public int getQueueCapacity() {
+
+        return capacity;
+
+    }
+
+    /**
+     * Retrieves how many messages were scanned.
+     *
+     * @return The amount of scanned messages.
+     */
+    public long getScanned() {
+
+        return scans.getCount();
+
+    }
+
+    /**
+     * Retrieves how many scanned messages matched a restriction.
+     *
+     * @return The amount of matches.
+     */
+    public long getMatched() {
+
+        return matched.sum();
+
+    }
+
+    /**
+     * Retrieves how many messages were not scanned due to overload.
+     *
+     * @return The amount of shed messages.
+     */
+    public long getShed() {
+
+        return shed.sum();
+
+    }
+
+    /**
+     * Retrieves how many messages were only partially scanned due to overload.
+     *
+     * @return The amount of truncated messages.
+     */
+    public long getTruncated() {
+
+        return truncated.sum();
+
+    }
+
+    /**
+     * Retrieves how many times the dispatcher had to wait for space in the queue.
+     *
+     * @return The amount of blocked dispatches.
+     */
+    public long getBlocked() {
+
+        return blocked.sum();
+
+    }
+
+    /**
+     * Retrieves the average time a message waited in the queue before being scanned.
+     *
+     * @return The average wait time.
+     */
+    public long getAverageWait() {
+
+        return waits.getAverage();
+
+    }
+
+    /**
+     * Retrieves the longest time a message waited in the queue before being scanned.
+     *
+     * @return The maximum wait time.
+     */
+    public long getMaxWait() {
+
+        return waits.getMax();
+
+    }
+
+    /**
+     * Retrieves the average time a scan took.
+     *
+     * @return The average scan time.
+     */
+    public long getAverageScan() {
+
+        return scans.getAverage();
+
+    }
+
+}
@@ -0,0 +1,122 @@
+/*
+ * This file is part of BlakeBot.
+ *
+ * BlakeBot is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * BlakeBot is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with BlakeBot. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.thiagotgm.blakebot.module.admin;
+
+/**
+ * Multiset of pairs of <tt>long</tt>s, that keeps the counts in an <tt>int</tt> array
+ * instead of boxing them. Keys are removed once their count reaches zero.
+ * <p>
+ * Not thread-safe.
+ *
+ * @version 1.0
+ * @author ThiagoTGM
+ * @since 2026-10-16
+ */
+public class LongPairCounter extends LongPairTable {
+    
+    private int[] counts;
+    private int[] oldCounts;
+    
+    /**
+     * Creates an empty counter.
+     */
+    public LongPairCounter() {
+        
+        allocate( initialCapacity() );
+        
+    }
+    
+    @Override
+    protected void allocate( int capacity ) {
+        
+        oldCounts = counts;
+        counts = new int[ capacity ];
+        
+    }
+    
+    @Override
+    protected void transfer( int from, int to ) {
+        
+        counts[to] = oldCounts[from];
+        
+    }
+    
+    @Override
+    protected void move( int from, int to ) {
+        
+        counts[to] = counts[from];
+        
+    }
+    
+    @Override
+    protected void clear( int slot ) {
+        
+        counts[slot] = 0;
+        
+    }
+    
+    /**
+     * Retrieves the count of a key.
+     *
+     * @param a The first part of the key.
+     * @param b The second part of the key.
+     * @return The count, 0 if the key is not present.
+     */
+    public int count( long a, long b ) {
+        
+        int slot = find( a, b );
+        return ( slot >= 0 ) ? counts[slot] : 0;
+        
+    }
+    
+    /**
+     * Increments the count of a key.
+     *
+     * @param a The first part of the key.
+     * @param b The second part of the key.
+     * @return The new count.
+     */
+    public int add( long a, long b ) {
+        
+        int slot = insert( a, b ); // May grow the array.
+        return ++counts[slot];
+        
+    }
+    
+    /**
+     * Decrements the count of a key, if it is present.
+     *
+     * @param a The first part of the key.
+     * @param b The second part of the key.
+     * @return The new count, 0 if the key is no longer (or was not) present.
+     */
+    public int remove( long a, long b ) {
+        
+        int slot = find( a, b );
+        if ( slot < 0 ) {
+            return 0;
+        }
+        int count = --counts[slot];
+        if ( count == 0 ) {
+            removeSlot( slot );
+        }
+        return count;
+        
+    }
+    
+}
@@ -0,0 +1,159 @@
+/*
+ * This file is part of BlakeBot.
+ *
+ * BlakeBot is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * BlakeBot is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with BlakeBot. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.thiagotgm.blakebot.module.admin;
+
+import java.util.function.Predicate;
+
+/**
+ * Map keyed by a pair of <tt>long</tt>s. Does not accept <tt>null</tt> values.
+ * <p>
+ * Not thread-safe.
+ *
+ * @version 1.0
+ * @author ThiagoTGM
+ * @since 2026-10-16
+ * @param <V> The type of the values.
+ */
+public class LongPairMap<V> extends LongPairTable {
+    
+    private Object[] values;
+    private Object[] oldValues;
+    
+    /**
+     * Creates an empty map.
+     */
+    public LongPairMap() {
+        
+        allocate( initialCapacity() );
+        
+    }
+    
+    @Override
+    protected void allocate( int capacity ) {
+        
+        oldValues = values;
+        values = new Object[ capacity ];
+        
+    }
+    
+    @Override
+    protected void transfer( int from, int to ) {
+        
+        values[to] = oldValues[from];
+        oldValues[from] = null;
+        
+    }
+    
+    @Override
+    protected void move( int from, int to ) {
+        
+        values[to] = values[from];
+        
+    }
+    
+    @Override
+    protected void clear( int slot ) {
+        
+        values[slot] = null;
+        
+    }
+    
+    /**
+     * Retrieves the value mapped to a key.
+     *
+     * @param a The first part of the key.
+     * @param b The second part of the key.
+     * @return The value, or <tt>null</tt> if the key is not mapped.
+     */
+    @SuppressWarnings( "unchecked" )
+    public V get( long a, long b ) {
+        
+        int slot = find( a, b );
+        return ( slot >= 0 ) ? (V) values[slot] : null;
+        
+    }
+    
+    /**
+     * Determines whether a key is mapped.
+     *
+     * @param a The first part of the key.
+     * @param b The second part of the key.
+     * @return <tt>true</tt> if the key is mapped.
+     */
+    public boolean containsKey( long a, long b ) {
+        
+        return find( a, b ) >= 0;
+        
+    }
+    
+    /**
+     * Maps a key to a value.
+     *
+     * @param a The first part of the key.
+     * @param b The second part of the key.
+     * @param value The value.
+     * @return The value previously mapped to the key, or <tt>null</tt> if there was none.
+     * @throws NullPointerException if the value is <tt>null</tt>.
+     */
+    @SuppressWarnings( "unchecked" )
+    public V put( long a, long b, V value ) throws NullPointerException {
+        
+        if ( value == null ) {
+            throw new NullPointerException( "Value cannot be null." );
+        }
+        int slot = insert( a, b );
+        V previous = (V) values[slot];
+        values[slot] = value;
+        return previous;
+        
+    }
+    
+    /**
+     * Removes the mapping of a key.
+     *
+     * @param a The first part of the key.
+     * @param b The second part of the key.
+     * @return The value that was mapped to the key, or <tt>null</tt> if there was none.
+     */
+    @SuppressWarnings( "unchecked" )
+    public V remove( long a, long b ) {
+        
+        int slot = find( a, b );
+        if ( slot < 0 ) {
+            return null;
+        }
+        V value = (V) values[slot];
+        removeSlot( slot );
+        return value;
+        
+    }
+    
+    /**
+     * Removes every mapping whose value matches the given filter.
+     *
+     * @param filter Returns <tt>true</tt> for the values to be removed.
+     * @return How many mappings were removed.
+     */
+    @SuppressWarnings( "unchecked" )
+    public int removeIf( Predicate<? super V> filter ) {
+        
+        return retain( slot -> !filter.test( (V) values[slot] ) );
+        
+    }
+    
+}
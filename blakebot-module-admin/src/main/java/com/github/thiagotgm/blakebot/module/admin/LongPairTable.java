@@ -0,0 +1,297 @@
+/*
+ * This file is part of BlakeBot.
+ *
+ * BlakeBot is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * BlakeBot is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with BlakeBot. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.thiagotgm.blakebot.module.admin;
+
+import java.util.function.IntPredicate;
+
+/**
+ * Base for open-addressing hash tables keyed by a pair of <tt>long</tt>s, such as a user ID
+ * and a channel ID, so that keys are neither boxed nor formatted into strings.
+ * <p>
+ * Collisions are resolved by linear probing, and removals shift the following entries back
+ * instead of leaving tombstones. Subclasses store the values in their own arrays, indexed by
+ * the same slots as the keys.
+ * <p>
+ * Not thread-safe.
+ *
+ * @version 1.0
+ * @author ThiagoTGM
+ * @since 2026-10-16
+ */
+abstract class LongPairTable {
+    
+    private static final int MIN_CAPACITY = 8;
+    
+    private long[] first;
+    private long[] second;
+    private boolean[] used;
+    private int size;
+    
+    /**
+     * Creates an empty table.
+     */
+    protected LongPairTable() {
+        
+        first = new long[ MIN_CAPACITY ];
+        second = new long[ MIN_CAPACITY ];
+        used = new boolean[ MIN_CAPACITY ];
+        size = 0;
+        
+    }
+    
+    /**
+     * Allocates the value storage for the given capacity. Called once by the subclass
+     * constructor, and when the table grows.
+     * <p>
+     * When growing, the old storage must be kept until {@link #transfer(int, int)} has been
+     * called for every entry.
+     *
+     * @param capacity The new capacity.
+     */
+    protected abstract void allocate( int capacity );
+    
+    /**
+     * Copies a value from the old storage to the new storage while the table grows.
+     *
+     * @param from The slot in the old storage.
+     * @param to The slot in the new storage.
+     */
+    protected abstract void transfer( int from, int to );
+    
+    /**
+     * Moves a value to another slot while an entry is removed.
+     *
+     * @param from The slot the value is in.
+     * @param to The slot the value should be moved to.
+     */
+    protected abstract void move( int from, int to );
+    
+    /**
+     * Clears the value in a slot that became empty.
+     *
+     * @param slot The slot.
+     */
+    protected abstract void clear( int slot );
+    
+    /**
+     * Retrieves the initial capacity of the table, for the first allocation.
+     *
+     * @return The capacity.
+     */
+    protected static int initialCapacity() {
+        
+        return MIN_CAPACITY;
+        
+    }
+    
+    /**
+     * Hashes a key.
+     *
+     * @param a The first part of the key.
+     * @param b The second part of the key.
+     * @return The hash.
+     */
+    private static int hash( long a, long b ) {
+        
+        long h = a * 0x9E3779B97F4A7C15L + b;
+        h ^= h >>> 32;
+        h *= 0xD6E8FEB86659FD93L;
+        h ^= h >>> 32;
+        return (int) h;
+        
+    }
+    
+    /**
+     * Finds the slot of a key.
+     *
+     * @param a The first part of the key.
+     * @param b The second part of the key.
+     * @return The slot, or -1 if the key is not in the table.
+     */
+    protected final int find( long a, long b ) {
+        
+        int mask = used.length - 1;
+        for ( int i = hash( a, b ) & mask; used[i]; i = ( i + 1 ) & mask ) {
+            
+            if ( ( first[i] == a ) && ( second[i] == b ) ) {
+                return i;
+            }
+            
+        }
+        return -1;
+        
+    }
+    
+    /**
+     * Finds the slot of a key, adding the key if it is not in the table yet. The value in
+     * the slot of a new key is the one left by {@link #clear(int)} (or the default).
+     *
+     * @param a The first part of the key.
+     * @param b The second part of the key.
+     * @return The slot.
+     */
+    protected final int insert( long a, long b ) {
+        
+        int slot = find( a, b );
+        if ( slot >= 0 ) {
+            return slot;
+        }
+        if ( ( size + 1 ) * 4 > used.length * 3 ) { // Over 75% load.
+            grow();
+        }
+        slot = freeSlot( a, b );
+        first[slot] = a;
+        second[slot] = b;
+        used[slot] = true;
+        size++;
+        return slot;
+        
+    }
+    
+    /**
+     * Finds the first free slot for a key that is not in the table.
+     *
+     * @param a The first part of the key.
+     * @param b The second part of the key.
+     * @return The slot.
+     */
+    private int freeSlot( long a, long b ) {
+        
+        int mask = used.length - 1;
+        int i = hash( a, b ) & mask;
+        while ( used[i] ) {
+            
+            i = ( i + 1 ) & mask;
+            
+        }
+        return i;
+        
+    }
+    
+    /**
+     * Doubles the capacity of the table.
+     */
+    private void grow() {
+        
+        long[] oldFirst = first;
+        long[] oldSecond = second;
+        boolean[] oldUsed = used;
+        int capacity = oldUsed.length * 2;
+        first = new long[ capacity ];
+        second = new long[ capacity ];
+        used = new boolean[ capacity ];
+        allocate( capacity );
+        for ( int i = 0; i < oldUsed.length; i++ ) {
+            
+            if ( oldUsed[i] ) {
+                int slot = freeSlot( oldFirst[i], oldSecond[i] );
+                first[slot] = oldFirst[i];
+                second[slot] = oldSecond[i];
+                used[slot] = true;
+                transfer( i, slot );
+            }
+            
+        }
+        
+    }
+    
+    /**
+     * Removes the entry in a slot.
+     *
+     * @param slot The slot.
+     */
+    protected final void removeSlot( int slot ) {
+        
+        int mask = used.length - 1;
+        int hole = slot;
+        for ( int i = ( slot + 1 ) & mask; used[i]; i = ( i + 1 ) & mask ) {
+            
+            int home = hash( first[i], second[i] ) & mask;
+            if ( ( ( i - home ) & mask ) >= ( ( i - hole ) & mask ) ) { // Can fill the hole.
+                first[hole] = first[i];
+                second[hole] = second[i];
+                move( i, hole );
+                hole = i;
+            }
+            
+        }
+        used[hole] = false;
+        clear( hole );
+        size--;
+        
+    }
+    
+    /**
+     * Removes every entry whose slot fails the given test.
+     * <p>
+     * The scan starts right after an empty slot, so the entries that a removal shifts back
+     * always come from slots that were not scanned yet, and the slot that received an entry
+     * is tested again.
+     *
+     * @param keep Tests the slot of an entry, returning <tt>true</tt> if it should be kept.
+     * @return How many entries were removed.
+     */
+    protected final int retain( IntPredicate keep ) {
+        
+        int mask = used.length - 1;
+        int start = 0;
+        while ( used[start] ) { // Load is kept under 75%, so there is always a free slot.
+            
+            start++;
+            
+        }
+        int removed = 0;
+        int scanned = 0;
+        while ( scanned < used.length ) {
+            
+            int slot = ( start + scanned ) & mask;
+            if ( used[slot] && !keep.test( slot ) ) {
+                removeSlot( slot );
+                removed++;
+            } else {
+                scanned++;
+            }
+            
+        }
+        return removed;
+        
+    }
+    
+    /**
+     * Retrieves the amount of keys in the table.
+     *
+     * @return The amount of keys.
+     */
+    public int size() {
+        
+        return size;
+        
+    }
+    
+    /**
+     * Determines whether the table is empty.
+     *
+     * @return <tt>true</tt> if there are no keys in the table.
+     */
+    public boolean isEmpty() {
+        
+        return size == 0;
+        
+    }
+    
+}
@@ -0,0 +1,188 @@
+/*
+ * This file is part of BlakeBot.
+ *
+ * BlakeBot is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * BlakeBot is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with BlakeBot. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.thiagotgm.blakebot.module.admin;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.github.thiagotgm.bot_utils.utils.AsyncTools;
+
+import sx.blah.discord.handle.obj.IChannel;
+import sx.blah.discord.handle.obj.IMessage;
+import sx.blah.discord.util.DiscordException;
+import sx.blah.discord.util.MissingPermissionsException;
+import sx.blah.discord.util.RequestBuffer;
+
+/**
+ * Deletes messages in batches, using a single bulk-delete request for all the messages
+ * of a channel that were requested to be deleted within a short window.
+ * <p>
+ * A batch is sent once {@value #WINDOW} milliseconds pass since its first message, or
+ * once it has {@value #MAX_BATCH} messages, whichever comes first. Messages that are too
+ * old to be bulk-deleted (and batches with a single message) are deleted individually.
+ *
+ * @version 1.0
+ * @author ThiagoTGM
+ * @since 2026-10-16
+ */
+public class MessageDeleter {
+
+    private static final Logger LOG = LoggerFactory.getLogger( MessageDeleter.class );
+
+    private static final long WINDOW = 250;
+    private static final int MAX_BATCH = 50;
+    /**
+     * Discord does not bulk-delete messages older than two weeks. A margin is subtracted
+     * to account for the time until the request is actually sent.
+     */
+    private static final long MAX_BULK_AGE = TimeUnit.DAYS.toMillis( 14 ) - TimeUnit.MINUTES.toMillis( 5 );
+    private static final long DISCORD_EPOCH = 1420070400000L;
+
+    private final ThreadGroup threads;
+    private final ScheduledExecutorService timer;
+    private final Map<Long,List<IMessage>> pending;
+
+    /**
+     * Creates a new deleter.
+     */
+    public MessageDeleter() {
+
+        threads = new ThreadGroup( "Message Deleter" );
+        timer = AsyncTools.createScheduledThreadPool( threads, ( t, e ) -> {
+
+            LOG.error( "Uncaught exception thrown while deleting messages.", e );
+
+        } );
+        pending = new ConcurrentHashMap<>();
+
+    }
+
+    /**
+     * Requests that a message be deleted.
+     *
+     * @param message The message to delete.
+     */
+    public void delete( IMessage message ) {
+
+        IChannel channel = message.getChannel();
+        List<List<IMessage>> full = new ArrayList<>( 1 );
+        pending.compute( channel.getLongID(), ( id, batch ) -> {
+
+            if ( batch == null ) { // Start a new batch.
+                List<IMessage> newBatch = new ArrayList<>();
+                timer.schedule( () -> flush( channel, newBatch ), WINDOW, TimeUnit.MILLISECONDS );
+                batch = newBatch;
+            }
+            batch.add( message );
+            if ( batch.size() >= MAX_BATCH ) { // Send immediately.
+                full.add( batch );
+                return null;
+            }
+            return batch;
+
+        } );
+        if ( !full.isEmpty() ) {
+            send( channel, full.get( 0 ) );
+        }
+
+    }
+
+    /**
+     * Sends a batch once its window is over, if it was not sent already.
+     *
+     * @param channel The channel of the batch.
+     * @param batch The batch to send.
+     */
+    private void flush( IChannel channel, List<IMessage> batch ) {
+
+        if ( pending.remove( channel.getLongID(), batch ) ) {
+            send( channel, batch );
+        }
+
+    }
+
+    /**
+     * Sends the requests to delete a batch of messages. The batch must have already been
+     * removed from the pending batches.
+     *
+     * @param channel The channel of the batch.
+     * @param batch The messages to delete.
+     */
+    private void send( IChannel channel, List<IMessage> batch ) {
+
+        long cutoff = System.currentTimeMillis() - MAX_BULK_AGE;
+        List<IMessage> recent = new ArrayList<>( batch.size() );
+        for ( IMessage message : batch ) {
+
+            if ( ( ( message.getLongID() >>> 22 ) + DISCORD_EPOCH ) > cutoff ) {
+                recent.add( message );
+            } else { // Too old for bulk-deletion.
+                deleteSingle( message );
+            }
+
+        }
+
+        if ( recent.size() == 1 ) {
+            deleteSingle( recent.get( 0 ) );
+        } else if ( recent.size() > 1 ) {
+            LOG.debug( "Bulk-deleting {} messages in channel \"{}\" of guild \"{}\".", recent.size(),
+                    channel.getName(), channel.getGuild().getName() );
+            RequestBuffer.request( () -> {
+
+                try { // Attempt to delete the messages.
+                    channel.bulkDelete( recent );
+                } catch ( MissingPermissionsException e ) {
+                    LOG.debug( "Does not have permissions to delete messages.", e );
+                } catch ( DiscordException e ) {
+                    LOG.error( "Failed to bulk-delete messages.", e );
+                }
+
+            } );
+        }
+
+    }
+
+    /**
+     * Deletes a single message.
+     *
+     * @param message The message to delete.
+     */
+    private void deleteSingle( IMessage message ) {
+
+        RequestBuffer.request( () -> {
+
+            try { // Attempt to delete the message.
+                message.delete();
+            } catch ( MissingPermissionsException e ) {
+                LOG.debug( "Does not have permissions to delete message.", e );
+            } catch ( DiscordException e ) {
+                LOG.error( "Failed to delete message.", e );
+            }
+
+        } );
+
+    }
+
+}
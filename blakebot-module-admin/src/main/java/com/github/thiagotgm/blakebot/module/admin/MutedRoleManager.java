@@ -0,0 +1,352 @@
+/*
+ * This file is part of BlakeBot.
+ *
+ * BlakeBot is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * BlakeBot is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with BlakeBot. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.thiagotgm.blakebot.module.admin;
+
+import java.util.EnumSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.github.thiagotgm.bot_utils.Settings;
+import com.github.thiagotgm.bot_utils.storage.DatabaseManager;
+import com.github.thiagotgm.bot_utils.storage.translate.StringTranslator;
+import com.github.thiagotgm.bot_utils.utils.AsyncTools;
+
+import sx.blah.discord.api.events.EventSubscriber;
+import sx.blah.discord.handle.impl.events.guild.GuildCreateEvent;
+import sx.blah.discord.handle.impl.events.guild.channel.ChannelCreateEvent;
+import sx.blah.discord.handle.obj.IChannel;
+import sx.blah.discord.handle.obj.IGuild;
+import sx.blah.discord.handle.obj.IRole;
+import sx.blah.discord.handle.obj.PermissionOverride;
+import sx.blah.discord.handle.obj.Permissions;
+import sx.blah.discord.util.DiscordException;
+import sx.blah.discord.util.MissingPermissionsException;
+import sx.blah.discord.util.RequestBuffer;
+
+/**
+ * Maintains the role used to time out users from an entire guild.
+ * <p>
+ * The role is created the first time it is needed in a guild, and denies sending messages
+ * through an override in each channel of the guild, so timing a user out from the guild only
+ * takes adding the role to the user. Channels that are created later are given the override
+ * by a background job that periodically reconciles the guilds where channels were created.
+ * <p>
+ * The role ID of each guild is cached in memory once looked up (including guilds that have
+ * no role yet), and roles are created while holding a lock of the guild only.
+ * <p>
+ * Using the role can be disabled through the {@value #ROLE_MODE_SETTING} setting, in which
+ * case guild timeouts are placed with a user override in each channel instead.
+ *
+ * @version 1.0
+ * @author ThiagoTGM
+ * @since 2026-10-16
+ */
+public class MutedRoleManager {
+    
+    private static final Logger LOG = LoggerFactory.getLogger( MutedRoleManager.class );
+    
+    /**
+     * Setting that defines whether guild timeouts are placed using a role.
+     */
+    public static final String ROLE_MODE_SETTING = "Timeout with role";
+    /**
+     * Setting that defines the name of the role created for guild timeouts.
+     */
+    public static final String ROLE_NAME_SETTING = "Timeout role name";
+    
+    private static final long NONE = 0;
+    private static final long RECONCILE_INTERVAL = TimeUnit.SECONDS.toMillis( 30 );
+    
+    private static final ThreadGroup THREADS = new ThreadGroup( "Muted Role Manager" );
+    private static final ScheduledExecutorService EXECUTOR = AsyncTools.createScheduledThreadPool( THREADS,
+            ( t, e ) -> {
+                
+                LOG.error( "Uncaught exception thrown while maintaining muted roles.", e );
+                
+            } );
+    
+    private static MutedRoleManager instance;
+    
+    private final boolean enabled;
+    private final String roleName;
+    private final Map<String,String> roles;
+    private final Map<Long,Long> cache;
+    private final Map<Long,Object> locks;
+    private final Map<Long,IGuild> dirty;
+    
+    /**
+     * Creates a new instance, loading the roles of each guild from the database.
+     */
+    private MutedRoleManager() {
+        
+        LOG.info( "Initializing muted role manager." );
+        enabled = Settings.getBooleanSetting( ROLE_MODE_SETTING );
+        roleName = Settings.getStringSetting( ROLE_NAME_SETTING );
+        roles = DatabaseManager.getDatabase().getDataMap(
+                "MutedRole", new StringTranslator(), new StringTranslator() );
+        cache = new ConcurrentHashMap<>();
+        locks = new ConcurrentHashMap<>();
+        dirty = new ConcurrentHashMap<>();
+        EXECUTOR.scheduleWithFixedDelay( this::reconcile, RECONCILE_INTERVAL, RECONCILE_INTERVAL,
+                TimeUnit.MILLISECONDS );
+        
+    }
+    
+    /**
+     * Returns the current instance. If there isn't one, creates it.
+     *
+     * @return The MutedRoleManager instance.
+     */
+    public static synchronized MutedRoleManager getInstance() {
+        
+        if ( instance == null ) {
+            instance = new MutedRoleManager();
+        }
+        return instance;
+        
+    }
+    
+    /**
+     * Determines whether guild timeouts should be placed using a role.
+     *
+     * @return <tt>true</tt> if roles are used for guild timeouts.
+     */
+    public boolean isEnabled() {
+        
+        return enabled;
+        
+    }
+    
+    /**
+     * Retrieves the muted role of a guild, if it was already created.
+     *
+     * @param guild The guild.
+     * @return The muted role, or <tt>null</tt> if the guild does not have one.
+     */
+    public IRole get( IGuild guild ) {
+        
+        Long roleID = cache.get( guild.getLongID() );
+        if ( roleID == null ) { // Not looked up yet.
+            String stored = roles.get( guild.getStringID() );
+            Long loaded = ( stored != null ) ? Long.valueOf( stored ) : NONE;
+            roleID = cache.putIfAbsent( guild.getLongID(), loaded ); // Keeps a newly created role.
+            if ( roleID == null ) {
+                roleID = loaded;
+            }
+        }
+        return ( roleID != NONE ) ? guild.getRoleByID( roleID ) : null;
+        
+    }
+    
+    /**
+     * Records the muted role of a guild.
+     *
+     * @param guild The guild.
+     * @param role The role.
+     */
+    private void set( IGuild guild, IRole role ) {
+        
+        roles.put( guild.getStringID(), role.getStringID() );
+        cache.put( guild.getLongID(), role.getLongID() );
+        
+    }
+    
+    /**
+     * Retrieves the muted role of a guild, creating it if the guild does not have one yet
+     * (or it was deleted).
+     * <p>
+     * If the role is created, the overrides in the existing channels are set in the
+     * background, so the role may take some time to take effect in every channel.
+     * <p>
+     * Each request made to create and set up the role is buffered separately, so a request
+     * that is retried after a rate limit does not repeat the ones that already succeeded.
+     * The role is recorded as soon as it is created, so it is reused even if setting it up
+     * fails.
+     *
+     * @param guild The guild.
+     * @return The muted role, or <tt>null</tt> if roles are not used for timeouts or
+     *         the role could not be created.
+     */
+    public IRole getOrCreate( IGuild guild ) {
+        
+        if ( !enabled ) {
+            return null;
+        }
+        IRole role = get( guild );
+        if ( role != null ) {
+            return role;
+        }
+        
+        synchronized ( locks.computeIfAbsent( guild.getLongID(), id -> new Object() ) ) {
+            role = get( guild ); // Might have been created while waiting.
+            if ( role != null ) {
+                return role;
+            }
+            
+            LOG.info( "Creating muted role in guild \"{}\".", guild.getName() );
+            IRole newRole = RequestBuffer.request( () -> {
+                
+                try {
+                    return guild.createRole();
+                } catch ( MissingPermissionsException e ) {
+                    LOG.debug( "Does not have permission to create the muted role." );
+                } catch ( DiscordException e ) {
+                    LOG.error( "Error encountered while creating the muted role.", e );
+                }
+                return null;
+                
+            }).get();
+            if ( newRole == null ) {
+                return null;
+            }
+            set( guild, newRole );
+            
+            RequestBuffer.request( () -> {
+                
+                try {
+                    newRole.changeName( roleName );
+                } catch ( MissingPermissionsException e ) {
+                    LOG.debug( "Does not have permission to rename the muted role." );
+                } catch ( DiscordException e ) {
+                    LOG.error( "Error encountered while renaming the muted role.", e );
+                }
+                
+            }).get();
+            RequestBuffer.request( () -> {
+                
+                try {
+                    newRole.changePermissions( EnumSet.noneOf( Permissions.class ) );
+                } catch ( MissingPermissionsException e ) {
+                    LOG.debug( "Does not have permission to change the muted role permissions." );
+                } catch ( DiscordException e ) {
+                    LOG.error( "Error encountered while changing the muted role permissions.", e );
+                }
+                
+            }).get();
+            EXECUTOR.execute( () -> reconcile( guild ) ); // Set the overrides right away.
+            return newRole;
+        }
+        
+    }
+    
+    /**
+     * Marks a guild as needing to be reconciled by the next run of the background job.
+     *
+     * @param guild The guild.
+     */
+    public void markDirty( IGuild guild ) {
+        
+        if ( enabled ) {
+            dirty.put( guild.getLongID(), guild );
+        }
+        
+    }
+    
+    /**
+     * Reconciles all the guilds that were marked since the last run.
+     */
+    private void reconcile() {
+        
+        Iterator<IGuild> iter = dirty.values().iterator();
+        while ( iter.hasNext() ) {
+            
+            IGuild guild = iter.next();
+            iter.remove();
+            reconcile( guild );
+            
+        }
+        
+    }
+    
+    /**
+     * Ensures that every channel in a guild has the override of the muted role, if the
+     * guild has one.
+     *
+     * @param guild The guild.
+     */
+    private void reconcile( IGuild guild ) {
+        
+        IRole role = get( guild );
+        if ( role == null ) {
+            return; // Nothing to maintain.
+        }
+        int updated = 0;
+        for ( IChannel channel : guild.getChannels() ) {
+            
+            PermissionOverride override = channel.getRoleOverrides().get( role.getLongID() );
+            if ( ( override != null ) && override.deny().contains( Permissions.SEND_MESSAGES ) ) {
+                continue; // Already set.
+            }
+            EnumSet<Permissions> allowed = 
+                    ( override != null ) ? override.allow() : EnumSet.noneOf( Permissions.class );
+            EnumSet<Permissions> denied = 
+                    ( override != null ) ? override.deny() : EnumSet.noneOf( Permissions.class );
+            allowed.remove( Permissions.SEND_MESSAGES );
+            denied.add( Permissions.SEND_MESSAGES );
+            RequestBuffer.request( () -> { // Wait so the job does not flood the buffer.
+                
+                try {
+                    channel.overrideRolePermissions( role, allowed, denied );
+                } catch ( MissingPermissionsException e ) {
+                    LOG.debug( "Does not have permission to set the muted role override." );
+                } catch ( DiscordException e ) {
+                    LOG.error( "Error encountered while setting the muted role override.", e );
+                }
+                
+            }).get();
+            updated++;
+            
+        }
+        if ( updated > 0 ) {
+            LOG.debug( "Set muted role override in {} channels of guild \"{}\".", updated, guild.getName() );
+        }
+        
+    }
+    
+    /**
+     * When a channel is created, schedules its guild to be reconciled.
+     *
+     * @param event Event fired.
+     */
+    @EventSubscriber
+    public void onChannelCreateEvent( ChannelCreateEvent event ) {
+        
+        markDirty( event.getGuild() );
+        
+    }
+    
+    /**
+     * When a guild becomes available, schedules it to be reconciled, in case channels
+     * were created while the bot was offline.
+     *
+     * @param event Event fired.
+     */
+    @EventSubscriber
+    public void onGuildCreateEvent( GuildCreateEvent event ) {
+        
+        markDirty( event.getGuild() );
+        
+    }
+    
+}
@@ -0,0 +1,405 @@
+/*
+ * This file is part of BlakeBot.
+ *
+ * BlakeBot is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * BlakeBot is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with BlakeBot. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.thiagotgm.blakebot.module.admin;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+import com.github.thiagotgm.blakebot.module.admin.Blacklist.Restriction;
+import com.github.thiagotgm.blakebot.module.admin.Blacklist.Restriction.MatchTimeoutException;
+
+/**
+ * Compiled form of the restrictions in a single blacklist scope.
+ * <p>
+ * All the {@link Restriction.Type#CONTENT CONTENT} and {@link Restriction.Type#WORD WORD}
+ * restrictions are compiled into a single case-folded Aho-Corasick automaton, so a message
+ * can be checked against all of them in one linear pass. {@link Restriction.Type#REGEX REGEX}
+ * restrictions (and entries with empty text) are kept in a fallback list and tested one by one.
+ * <p>
+ * A regex restriction that exceeds its step limit while checking a message is quarantined, and
+ * is skipped from then on until it is removed from the blacklist.
+ * <p>
+ * Other than the set of quarantined restrictions (which is thread-safe), instances are
+ * immutable, and so can be shared by any number of threads.
+ *
+ * @version 1.0
+ * @author ThiagoTGM
+ * @since 2026-10-16
+ */
+public class RestrictionMatcher {
+
+    /**
+     * Matcher with no restrictions, that never matches anything.
+     */
+    public static final RestrictionMatcher EMPTY = new RestrictionMatcher( Collections.emptySet() );
+
+    private final Node root;
+    private final Restriction[] fallback;
+    private final Set<Restriction> quarantined;
+    private final int size;
+
+    /**
+     * Compiles a matcher for the given restrictions.
+     *
+     * @param restrictions The restrictions to match against.
+     */
+    public RestrictionMatcher( Collection<Restriction> restrictions ) {
+
+        this( restrictions, Collections.emptySet() );
+
+    }
+
+    /**
+     * Compiles a matcher for the given restrictions, keeping the given restrictions
+     * quarantined (if they are present).
+     *
+     * @param restrictions The restrictions to match against.
+     * @param quarantined The restrictions that were previously quarantined.
+     */
+    public RestrictionMatcher( Collection<Restriction> restrictions, Collection<Restriction> quarantined ) {
+
+        this.root = new Node();
+        this.quarantined = ConcurrentHashMap.newKeySet();
+        for ( Restriction restriction : quarantined ) {
+
+            if ( restrictions.contains( restriction ) ) {
+                this.quarantined.add( restriction );
+            }
+
+        }
+        List<Restriction> fallback = new ArrayList<>();
+        for ( Restriction restriction : restrictions ) {
+
+            if ( ( restriction.getType() == Restriction.Type.REGEX ) || restriction.getText().isEmpty() ) {
+                fallback.add( restriction ); // Not supported by the automaton.
+            } else {
+                insert( restriction );
+            }
+
+        }
+        this.fallback = fallback.toArray( new Restriction[ fallback.size() ] );
+        this.size = restrictions.size();
+        build();
+
+    }
+
+    /**
+     * Folds the case of a character, in the same way that a case-insensitive, unicode-aware
+     * {@link java.util.regex.Pattern} compares characters.
+     *
+     * @param c The character to fold.
+     * @return The case-folded character.
+     */
+    private static char fold( char c ) {
+
+        return Character.toLowerCase( Character.toUpperCase( c ) );
+
+    }
+
+    /**
+     * Determines if the given character is a whitespace, as defined by the <tt>\s</tt>
+     * class in {@link java.util.regex.Pattern}.
+     *
+     * @param c The character to check.
+     * @return <tt>true</tt> if the character is a whitespace.
+     *         <tt>false</tt> otherwise.
+     */
+    private static boolean isSpace( char c ) {
+
+        switch ( c ) {
+
+            case ' ':
+            case '\t':
+            case '\n':
+            case '\u000B':
+            case '\f':
+            case '\r':
+                return true;
+
+            default:
+                return false;
+
+        }
+
+    }
+
+    /**
+     * Inserts a restriction into the trie.
+     *
+     * @param restriction The restriction to insert.
+     */
+    private void insert( Restriction restriction ) {
+
+        String text = restriction.getText();
+        Node node = root;
+        for ( int i = 0; i < text.length(); i++ ) {
+
+            Character c = fold( text.charAt( i ) );
+            Node next = node.building.get( c );
+            if ( next == null ) {
+                next = new Node();
+                node.building.put( c, next );
+            }
+            node = next;
+
+        }
+        node.own.add( new Output( restriction, text.length() ) );
+
+    }
+
+    /**
+     * Computes the failure links and outputs of every node (in breadth-first order) and
+     * freezes the transition tables.
+     */
+    private void build() {
+
+        Queue<Node> queue = new LinkedList<>();
+        root.fail = root;
+        root.freeze();
+        queue.add( root );
+        while ( !queue.isEmpty() ) {
+
+            Node node = queue.remove();
+            for ( int i = 0; i < node.keys.length; i++ ) {
+
+                char c = node.keys[i];
+                Node child = node.children[i];
+                if ( node == root ) {
+                    child.fail = root;
+                } else {
+                    Node fail = node.fail;
+                    while ( ( fail != root ) && ( fail.next( c ) == null ) ) {
+
+                        fail = fail.fail;
+
+                    }
+                    Node next = fail.next( c );
+                    child.fail = ( next != null ) ? next : root;
+                }
+                child.freeze();
+                queue.add( child );
+
+            }
+
+        }
+
+    }
+
+    /**
+     * Retrieves how many restrictions this matcher checks for.
+     *
+     * @return The amount of restrictions.
+     */
+    public int size() {
+
+        return size;
+
+    }
+
+    /**
+     * Determines whether this matcher has no restrictions.
+     *
+     * @return <tt>true</tt> if there are no restrictions to check for.
+     *         <tt>false</tt> otherwise.
+     */
+    public boolean isEmpty() {
+
+        return size == 0;
+
+    }
+
+    /**
+     * Retrieves the restrictions that were quarantined for exceeding their step limit.
+     *
+     * @return An unmodifiable view of the quarantined restrictions.
+     */
+    public Set<Restriction> getQuarantined() {
+
+        return Collections.unmodifiableSet( quarantined );
+
+    }
+
+    /**
+     * Searches the given message for any of the restrictions in this matcher.
+     * <p>
+     * If a regex restriction exceeds its step limit, it is quarantined, the given listener
+     * is notified, and the search continues with the remaining restrictions.
+     *
+     * @param message The message to be searched.
+     * @param quarantineListener Called with each restriction that gets quarantined during
+     *                           this search.
+     * @return The first restriction found in the message, or <tt>null</tt> if none
+     *         were found.
+     */
+    public Restriction find( String message, Consumer<Restriction> quarantineListener ) {
+
+        if ( root.keys.length > 0 ) { // Scan with the automaton.
+            Node node = root;
+            int length = message.length();
+            for ( int i = 0; i < length; i++ ) {
+
+                char c = fold( message.charAt( i ) );
+                Node next;
+                while ( ( ( next = node.next( c ) ) == null ) && ( node != root ) ) {
+
+                    node = node.fail;
+
+                }
+                node = ( next != null ) ? next : root;
+
+                for ( Output output : node.outputs ) { // Check each match.
+
+                    if ( output.restriction.getType() == Restriction.Type.CONTENT ) {
+                        return output.restriction;
+                    }
+                    int start = i + 1 - output.length;
+                    if ( ( ( start == 0 ) || isSpace( message.charAt( start - 1 ) ) ) &&
+                            ( ( i + 1 == length ) || isSpace( message.charAt( i + 1 ) ) ) ) {
+                        return output.restriction; // Word is properly delimited.
+                    }
+
+                }
+
+            }
+        }
+
+        for ( Restriction restriction : fallback ) { // Check remaining restrictions.
+
+            if ( quarantined.contains( restriction ) ) {
+                continue; // Known to be too slow.
+            }
+            try {
+                if ( restriction.test( message ) ) {
+                    return restriction;
+                }
+            } catch ( MatchTimeoutException e ) {
+                if ( quarantined.add( restriction ) ) { // Only notify once.
+                    quarantineListener.accept( restriction );
+                }
+            }
+
+        }
+        return null;
+
+    }
+
+    /**
+     * A restriction that is matched when the automaton reaches a node.
+     *
+     * @version 1.0
+     * @author ThiagoTGM
+     * @since 2026-10-16
+     */
+    private static class Output {
+
+        private final Restriction restriction;
+        private final int length;
+
+        /**
+         * Creates a new output.
+         *
+         * @param restriction The restriction matched.
+         * @param length The length of the restriction text.
+         */
+        private Output( Restriction restriction, int length ) {
+
+            this.restriction = restriction;
+            this.length = length;
+
+        }
+
+    }
+
+    /**
+     * A state of the automaton.
+     *
+     * @version 1.0
+     * @author ThiagoTGM
+     * @since 2026-10-16
+     */
+    private static class Node {
+
+        private static final Output[] NO_OUTPUTS = new Output[ 0 ];
+
+        private Map<Character,Node> building = new HashMap<>();
+        private List<Output> own = new ArrayList<>( 1 );
+
+        private char[] keys;
+        private Node[] children;
+        private Node fail;
+        private Output[] outputs;
+
+        /**
+         * Converts the transitions being built into sorted arrays, and merges the outputs
+         * of this node with the outputs of its failure node.
+         * <p>
+         * The failure node must be already frozen.
+         */
+        private void freeze() {
+
+            keys = new char[ building.size() ];
+            int i = 0;
+            for ( Character c : building.keySet() ) {
+
+                keys[i++] = c;
+
+            }
+            Arrays.sort( keys );
+            children = new Node[ keys.length ];
+            for ( i = 0; i < keys.length; i++ ) {
+
+                children[i] = building.get( keys[i] );
+
+            }
+
+            if ( ( fail != this ) && ( fail.outputs.length > 0 ) ) {
+                own.addAll( Arrays.asList( fail.outputs ) );
+            }
+            outputs = own.isEmpty() ? NO_OUTPUTS : own.toArray( new Output[ own.size() ] );
+
+            building = null;
+            own = null;
+
+        }
+
+        /**
+         * Retrieves the node reached by following the transition for the given character.
+         *
+         * @param c The (case-folded) character.
+         * @return The next node, or <tt>null</tt> if there is no such transition.
+         */
+        private Node next( char c ) {
+
+            int index = Arrays.binarySearch( keys, c );
+            return ( index >= 0 ) ? children[index] : null;
+
+        }
+
+    }
+
+}
@@ -0,0 +1,161 @@
+/*
+ * This file is part of BlakeBot.
+ *
+ * BlakeBot is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * BlakeBot is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with BlakeBot. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.thiagotgm.blakebot.module.admin;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free counter of events within a sliding time window.
+ * <p>
+ * The window is split into a fixed ring of buckets. Each bucket is a single <tt>long</tt>
+ * that packs the index of the time slice it currently counts with the count itself, so
+ * that moving a bucket to a new time slice and counting an event are a single atomic
+ * update, and no objects are allocated per event.
+ * <p>
+ * Time slices are counted from when the counter is created, so the bits left for the slice
+ * index last for over 30 years even with 1 ms buckets.
+ *
+ * @version 1.0
+ * @author ThiagoTGM
+ * @since 2026-10-16
+ */
+public class SlidingWindowCounter {
+
+    private static final int COUNT_BITS = 24;
+    private static final long COUNT_MASK = ( 1L << COUNT_BITS ) - 1;
+
+    private final AtomicLongArray buckets;
+    private final long bucketLength;
+    private final long epoch;
+
+    /**
+     * Creates a new counter.
+     *
+     * @param window The length of the window, in milliseconds.
+     * @param buckets How many buckets the window is split into. More buckets make the
+     *                window slide more smoothly.
+     * @throws IllegalArgumentException if the window is shorter than the amount of buckets,
+     *                                  or there are no buckets.
+     */
+    public SlidingWindowCounter( long window, int buckets ) throws IllegalArgumentException {
+
+        this( window, buckets, System.currentTimeMillis() );
+
+    }
+
+    /**
+     * Creates a new counter that counts time slices from the given time.
+     *
+     * @param window The length of the window, in milliseconds.
+     * @param buckets How many buckets the window is split into. More buckets make the
+     *                window slide more smoothly.
+     * @param epoch The time to count from, in milliseconds. Times given to the counter
+     *              must not be earlier than it.
+     * @throws IllegalArgumentException if the window is shorter than the amount of buckets,
+     *                                  or there are no buckets.
+     */
+    public SlidingWindowCounter( long window, int buckets, long epoch ) throws IllegalArgumentException {
+
+        if ( buckets <= 0 ) {
+            throw new IllegalArgumentException( "Must have at least one bucket." );
+        }
+        if ( window < buckets ) {
+            throw new IllegalArgumentException( "Window is too short for the amount of buckets." );
+        }
+        this.buckets = new AtomicLongArray( buckets );
+        this.bucketLength = window / buckets;
+        this.epoch = epoch;
+
+    }
+
+    /**
+     * Determines the time slice that a time falls in.
+     *
+     * @param now The time, in milliseconds.
+     * @return The index of the slice, counted from the epoch.
+     */
+    private long slice( long now ) {
+
+        return Math.max( now - epoch, 0 ) / bucketLength; // Earlier times count as the first slice.
+
+    }
+
+    /**
+     * Records events at the given time.
+     *
+     * @param now The current time, in milliseconds.
+     * @param amount How many events to record.
+     * @return The amount of events in the window, including the ones just recorded.
+     */
+    public int add( long now, int amount ) {
+
+        long slice = slice( now );
+        int index = (int) ( slice % buckets.length() );
+        long packed = slice << COUNT_BITS;
+        long current, updated;
+        do {
+
+            current = buckets.get( index );
+            if ( ( current >>> COUNT_BITS ) == slice ) { // Same time slice, increment.
+                updated = Math.min( current + amount, packed | COUNT_MASK );
+            } else { // Old time slice, restart bucket.
+                updated = packed | Math.min( amount, COUNT_MASK );
+            }
+
+        } while ( !buckets.compareAndSet( index, current, updated ) );
+        return count( now );
+
+    }
+
+    /**
+     * Records an event at the given time.
+     *
+     * @param now The current time, in milliseconds.
+     * @return The amount of events in the window, including the one just recorded.
+     */
+    public int increment( long now ) {
+
+        return add( now, 1 );
+
+    }
+
+    /**
+     * Counts the events in the window that ends at the given time.
+     *
+     * @param now The current time, in milliseconds.
+     * @return The amount of events in the window.
+     */
+    public int count( long now ) {
+
+        long slice = slice( now );
+        int length = buckets.length();
+        long count = 0;
+        for ( int i = 0; i < length; i++ ) {
+
+            long bucket = buckets.get( i );
+            long age = slice - ( bucket >>> COUNT_BITS );
+            if ( ( age >= 0 ) && ( age < length ) ) { // Still within the window.
+                count += bucket & COUNT_MASK;
+            }
+
+        }
+        return (int) Math.min( count, Integer.MAX_VALUE );
+
+    }
+
+}
@@ -0,0 +1,337 @@
+/*
+ * This file is part of BlakeBot.
+ *
+ * BlakeBot is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * BlakeBot is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with BlakeBot. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.thiagotgm.blakebot.module.admin;
+
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.github.thiagotgm.bot_utils.Settings;
+import com.github.thiagotgm.bot_utils.utils.AsyncTools;
+
+import sx.blah.discord.api.events.EventSubscriber;
+import sx.blah.discord.handle.impl.events.guild.channel.message.MessageReceivedEvent;
+import sx.blah.discord.handle.impl.events.guild.member.UserJoinEvent;
+import sx.blah.discord.handle.obj.IGuild;
+import sx.blah.discord.handle.obj.IMessage;
+import sx.blah.discord.handle.obj.IUser;
+import sx.blah.discord.handle.obj.Permissions;
+
+/**
+ * Detects users that are spamming or raiding a guild, and automatically times them out
+ * from the guild through the {@link TimeoutController}.
+ * <p>
+ * For each user in each guild, the message rate, the rate of repeated messages and the
+ * rate of mentions are tracked over a sliding window. The join rate of each guild is also
+ * tracked, and while it is above the limit, every user that joins is timed out. Users that
+ * can manage messages in the guild are never timed out.
+ * <p>
+ * The tracked state is kept in tables keyed by the guild and user IDs, split in stripes that
+ * are each guarded by their own lock, so that looking up the state of a message author does
+ * not box its IDs.
+ *
+ * @version 1.0
+ * @author ThiagoTGM
+ * @since 2026-10-16
+ */
+public class SpamDetector {
+
+    private static final Logger LOG = LoggerFactory.getLogger( SpamDetector.class );
+
+    /**
+     * Setting that defines how long users are timed out for, in seconds.
+     */
+    public static final String TIMEOUT_SETTING = "Anti-spam timeout";
+    private static final long TIMEOUT = TimeUnit.SECONDS.toMillis( Settings.getLongSetting( TIMEOUT_SETTING ) );
+
+    private static final int BUCKETS = 10;
+    private static final long MESSAGE_WINDOW = TimeUnit.SECONDS.toMillis( 5 );
+    private static final int MAX_MESSAGES = 10;
+    private static final int MAX_DUPLICATES = 5;
+    private static final int MAX_MENTIONS = 15;
+    private static final long JOIN_WINDOW = TimeUnit.SECONDS.toMillis( 10 );
+    private static final int MAX_JOINS = 10;
+    private static final long PRUNE_INTERVAL = TimeUnit.MINUTES.toMillis( 1 );
+    private static final int STRIPES = 16;
+    /**
+     * Second part of the key of the join counter of a guild.
+     */
+    private static final long GUILD_KEY = 0;
+
+    private static final ThreadGroup THREADS = new ThreadGroup( "Spam Detector" );
+    private static final ScheduledExecutorService EXECUTOR = AsyncTools.createScheduledThreadPool( THREADS,
+            ( t, e ) -> {
+
+                LOG.error( "Uncaught exception thrown while handling spam.", e );
+
+            } );
+
+    private final Stripe[] stripes;
+    private final ScheduledFuture<?> pruner;
+
+    /**
+     * Constructs a new detector.
+     */
+    public SpamDetector() {
+
+        this.stripes = new Stripe[ STRIPES ];
+        for ( int i = 0; i < STRIPES; i++ ) {
+
+            stripes[i] = new Stripe();
+
+        }
+        this.pruner = EXECUTOR.scheduleWithFixedDelay( this::prune, PRUNE_INTERVAL, PRUNE_INTERVAL,
+                TimeUnit.MILLISECONDS );
+
+    }
+
+    /**
+     * Stops the periodic cleanup of this detector, in preparation for stopping the module.
+     */
+    public void stop() {
+
+        pruner.cancel( false );
+
+    }
+
+    /**
+     * Retrieves the stripe that holds the given key.
+     *
+     * @param guildID The ID of the guild.
+     * @param userID The ID of the user, or {@value #GUILD_KEY} for the guild itself.
+     * @return The stripe.
+     */
+    private Stripe stripe( long guildID, long userID ) {
+
+        long h = ( guildID * 0x9E3779B97F4A7C15L + userID ) * 0xD6E8FEB86659FD93L;
+        return stripes[ (int) ( h >>> 32 ) & ( STRIPES - 1 ) ];
+
+    }
+
+    /**
+     * Retrieves the tracked state of a user in a guild, creating it if necessary.
+     *
+     * @param user The user.
+     * @param guild The guild.
+     * @return The state of the user.
+     */
+    private UserState getState( IUser user, IGuild guild ) {
+
+        long guildID = guild.getLongID();
+        long userID = user.getLongID();
+        Stripe stripe = stripe( guildID, userID );
+        synchronized ( stripe ) {
+
+            UserState state = stripe.users.get( guildID, userID );
+            if ( state == null ) {
+                state = new UserState();
+                stripe.users.put( guildID, userID, state );
+            }
+            return state;
+
+        }
+
+    }
+
+    /**
+     * Retrieves the join counter of a guild, creating it if necessary.
+     *
+     * @param guild The guild.
+     * @return The join counter.
+     */
+    private SlidingWindowCounter getJoins( IGuild guild ) {
+
+        long guildID = guild.getLongID();
+        Stripe stripe = stripe( guildID, GUILD_KEY );
+        synchronized ( stripe ) {
+
+            SlidingWindowCounter joins = stripe.joins.get( guildID, GUILD_KEY );
+            if ( joins == null ) {
+                joins = new SlidingWindowCounter( JOIN_WINDOW, BUCKETS );
+                stripe.joins.put( guildID, GUILD_KEY, joins );
+            }
+            return joins;
+
+        }
+
+    }
+
+    /**
+     * When a message is received, updates the rates of its author, and times the author out
+     * if any of them is over the limit.
+     *
+     * @param event Event fired by the message.
+     */
+    @EventSubscriber
+    public void onMessageReceivedEvent( MessageReceivedEvent event ) {
+
+        IMessage message = event.getMessage();
+        if ( message.getChannel().isPrivate() || message.getAuthor().isBot() ) {
+            return; // Ignore private messages and bots.
+        }
+        IUser author = message.getAuthor();
+        IGuild guild = message.getGuild();
+        long now = System.currentTimeMillis();
+
+        UserState state = getState( author, guild );
+        state.lastSeen = now;
+
+        String reason = null;
+        if ( state.messages.increment( now ) > MAX_MESSAGES ) {
+            reason = "message rate";
+        }
+
+        String content = message.getContent();
+        int hash = content.hashCode();
+        if ( !content.isEmpty() && ( hash == state.lastHash ) &&
+                ( state.duplicates.increment( now ) > MAX_DUPLICATES ) ) {
+            reason = "repeated messages";
+        }
+        state.lastHash = hash;
+
+        int mentions = message.getMentions().size() + message.getRoleMentions().size() +
+                ( ( message.mentionsEveryone() || message.mentionsHere() ) ? 1 : 0 );
+        if ( ( mentions > 0 ) && ( state.mentions.add( now, mentions ) > MAX_MENTIONS ) ) {
+            reason = "mentions";
+        }
+
+        if ( reason != null ) {
+            punish( author, guild, state, now, reason );
+        }
+
+    }
+
+    /**
+     * When a user joins a guild, updates the join rate of the guild, and times the user
+     * out if it is over the limit.
+     *
+     * @param event Event fired by the join.
+     */
+    @EventSubscriber
+    public void onUserJoinEvent( UserJoinEvent event ) {
+
+        IUser user = event.getUser();
+        IGuild guild = event.getGuild();
+        long now = System.currentTimeMillis();
+
+        if ( getJoins( guild ).increment( now ) > MAX_JOINS ) {
+            UserState state = getState( user, guild );
+            state.lastSeen = now;
+            punish( user, guild, state, now, "join rate" );
+        }
+
+    }
+
+    /**
+     * Times out a user that went over a limit, unless the user was already timed out by
+     * this detector recently or can manage messages in the guild.
+     *
+     * @param user The user.
+     * @param guild The guild where the limit was exceeded.
+     * @param state The state of the user.
+     * @param now The current time.
+     * @param reason What limit was exceeded.
+     */
+    private void punish( IUser user, IGuild guild, UserState state, long now, String reason ) {
+
+        long until = state.punishedUntil.get();
+        if ( ( until > now ) || !state.punishedUntil.compareAndSet( until, now + TIMEOUT ) ) {
+            return; // Already handled, or being handled by another thread.
+        }
+
+        EXECUTOR.execute( () -> { // Timeouts make requests, so keep them off the dispatcher.
+
+            if ( ( guild.getOwnerLongID() == user.getLongID() ) ||
+                    user.getPermissionsForGuild( guild ).contains( Permissions.MANAGE_MESSAGES ) ) {
+                LOG.debug( "Trusted user \"{}\" exceeded {} limit in guild \"{}\".", user.getName(),
+                        reason, guild.getName() );
+                return;
+            }
+            LOG.info( "User \"{}\" exceeded {} limit in guild \"{}\", timing out.", user.getName(),
+                    reason, guild.getName() );
+            TimeoutController.getInstance().timeout( user, guild, TIMEOUT ); // May have been replaced.
+
+        } );
+
+    }
+
+    /**
+     * Discards the state of users that were not active recently, and the join counters of
+     * guilds that had no recent joins.
+     */
+    private void prune() {
+
+        long now = System.currentTimeMillis();
+        long cutoff = now - Math.max( MESSAGE_WINDOW, JOIN_WINDOW );
+        for ( Stripe stripe : stripes ) {
+
+            synchronized ( stripe ) {
+
+                stripe.users.removeIf( state -> ( state.lastSeen < cutoff ) &&
+                        ( state.punishedUntil.get() < now ) );
+                stripe.joins.removeIf( joins -> joins.count( now ) == 0 );
+
+            }
+
+        }
+
+    }
+
+    /**
+     * Part of the tracked state. Access must be synchronized on the instance.
+     *
+     * @version 1.0
+     * @author ThiagoTGM
+     * @since 2026-10-16
+     */
+    private static class Stripe {
+
+        /**
+         * Join counters, keyed by guild ID and {@value SpamDetector#GUILD_KEY}.
+         */
+        private final LongPairMap<SlidingWindowCounter> joins = new LongPairMap<>();
+        /**
+         * User states, keyed by guild ID and user ID.
+         */
+        private final LongPairMap<UserState> users = new LongPairMap<>();
+
+    }
+
+    /**
+     * Tracked rates for a user in a guild.
+     *
+     * @version 1.0
+     * @author ThiagoTGM
+     * @since 2026-10-16
+     */
+    private static class UserState {
+
+        private final SlidingWindowCounter messages = new SlidingWindowCounter( MESSAGE_WINDOW, BUCKETS );
+        private final SlidingWindowCounter duplicates = new SlidingWindowCounter( MESSAGE_WINDOW, BUCKETS );
+        private final SlidingWindowCounter mentions = new SlidingWindowCounter( MESSAGE_WINDOW, BUCKETS );
+        private volatile int lastHash;
+        private volatile long lastSeen;
+        private final AtomicLong punishedUntil = new AtomicLong();
+
+    }
+
+}
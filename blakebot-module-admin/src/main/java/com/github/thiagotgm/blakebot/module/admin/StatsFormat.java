@@ -0,0 +1,46 @@
+/*
+ * This file is part of BlakeBot.
+ *
+ * BlakeBot is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * BlakeBot is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with BlakeBot. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.thiagotgm.blakebot.module.admin;
+
+/**
+ * Formatting of the values shown by the statistics subcommands of the module.
+ *
+ * @version 1.0
+ * @author ThiagoTGM
+ * @since 2026-10-16
+ */
+final class StatsFormat {
+    
+    /**
+     * Prevents instantiation.
+     */
+    private StatsFormat() {}
+    
+    /**
+     * Formats a duration for display.
+     *
+     * @param nanos The duration, in nanoseconds.
+     * @return The formatted duration, in milliseconds.
+     */
+    static String formatTime( long nanos ) {
+        
+        return String.format( "%.3f ms", nanos / 1000000.0 );
+        
+    }
+    
+}
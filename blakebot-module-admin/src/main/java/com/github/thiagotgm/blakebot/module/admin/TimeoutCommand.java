@@ -138,12 +138,16 @@ public class TimeoutCommand {
             if ( arg.getType() == Argument.Type.USER_MENTION ) {
                 IUser user = (IUser) arg.getArgument();
                 boolean success;
+                boolean timedOut;
                 if ( serverScope ) { // Apply on server-scope.
                     success = controller.timeout( user, context.getGuild(), timeout );
+                    timedOut = success || controller.hasTimeout( user, context.getGuild() );
                 } else { // Apply on channel-scope.
                     success = controller.timeout( user, context.getChannel(), timeout );
+                    timedOut = success || controller.hasTimeout( user, context.getChannel() );
                 }
-                String format = success ? "Timed out %s in this %s." : "%s is already timed out in this %s.";
+                String format = success ? "Timed out %s in this %s."
+                        : timedOut ? "%s is already timed out in this %s." : "Could not time out %s in this %s.";
                 message = String.format( format, user.mention(), scope );
             } else { // Argument not a user mention.
                 message = String.format( NOT_USER_ERROR, arg.getText() );
@@ -17,14 +17,18 @@
 
 package com.github.thiagotgm.blakebot.module.admin;
 
+import java.io.File;
+import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.EnumSet;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.Consumer;
 
 import org.slf4j.Logger;
@@ -33,25 +37,40 @@ import org.slf4j.LoggerFactory;
 import com.github.thiagotgm.bot_utils.LogoutManager;
 import com.github.thiagotgm.bot_utils.event.LogoutRequestedEvent;
 import com.github.thiagotgm.bot_utils.utils.AsyncTools;
-import com.google.common.collect.ConcurrentHashMultiset;
-import com.google.common.collect.Multiset;
 
 import sx.blah.discord.api.events.IListener;
 import sx.blah.discord.handle.obj.IChannel;
 import sx.blah.discord.handle.obj.IGuild;
+import sx.blah.discord.handle.obj.IRole;
 import sx.blah.discord.handle.obj.IUser;
 import sx.blah.discord.handle.obj.PermissionOverride;
 import sx.blah.discord.handle.obj.Permissions;
 import sx.blah.discord.util.DiscordException;
 import sx.blah.discord.util.MissingPermissionsException;
+import sx.blah.discord.util.RequestBuffer;
 import sx.blah.discord.util.RequestBuilder;
 import sx.blah.discord.util.RequestBuilder.IRequestAction;
 
 /**
  * Manager that is capable of timing out users from channels or guilds for a period of time.
  * <p>
- * Must be registered with the appropriate {@link LogoutManager} so that all pending timeouts are
- * reverted before the client logs out.
+ * Pending timeouts are scheduled in a {@link TimerWheel} and recorded in a {@link TimeoutJournal},
+ * so they are not reverted when the bot stops. Once a guild becomes available again, its
+ * timeouts must be {@link #restore(IGuild) restored}, which schedules them again (or reverts
+ * them right away, if they expired while the bot was offline).
+ * <p>
+ * Unless disabled, guild timeouts are placed by giving the user the muted role maintained by
+ * the {@link MutedRoleManager}, rather than overriding the permissions of the user in every
+ * channel of the guild.
+ * <p>
+ * The state of each guild is guarded by its own lock, so timeouts in different guilds never
+ * contend with each other. The lock is only held to reserve or release the slot of a timeout,
+ * never while making requests to Discord or writing to the journal. Timeouts are identified by the ID of the user and the ID of the
+ * channel they apply to (or {@value #GUILD_SCOPE}, for guild timeouts), without building
+ * string IDs.
+ * <p>
+ * Must be registered with the appropriate {@link LogoutManager} so that the journal is closed
+ * before the client logs out.
  *
  * @version 1.0
  * @author ThiagoTGM
@@ -59,8 +78,13 @@ import sx.blah.discord.util.RequestBuilder.IRequestAction;
  */
 public class TimeoutController implements IListener<LogoutRequestedEvent> {
     
-    private static final String CHANNEL_ID_FORMAT = "%d@%d@%d";
-    private static final String GUILD_ID_FORMAT = "%d@%d";
+    /**
+     * Scope ID used for timeouts that apply to the whole guild.
+     */
+    private static final long GUILD_SCOPE = 0;
+    private static final File JOURNAL_FILE = Paths.get( "timeouts.journal" ).toFile();
+    private static final long COMPACT_INTERVAL = TimeUnit.MINUTES.toMillis( 30 );
+    private static final int WHEEL_SIZE = 512;
     private static final Logger LOG = LoggerFactory.getLogger( TimeoutController.class );
     private static final Consumer<DiscordException> ERROR_HANDLER = e -> {
         
@@ -77,9 +101,12 @@ public class TimeoutController implements IListener<LogoutRequestedEvent> {
     private static TimeoutController instance;
     
     private final ThreadGroup threads;
-    private final ScheduledExecutorService timer;
-    private final Map<String, ScheduledUntimeout> pending;
-    private final Multiset<String> timeouts;
+    private final ExecutorService executor;
+    private final TimerWheel timer;
+    private final TimeoutJournal journal;
+    private final MutedRoleManager mutedRoles;
+    private final Map<Long, GuildTimeouts> guilds;
+    private volatile boolean terminated;
     
     /**
      * Creates a new Controller instance.
@@ -87,25 +114,34 @@ public class TimeoutController implements IListener<LogoutRequestedEvent> {
     private TimeoutController() {
         
         threads = new ThreadGroup( "TimeoutController Scheduler" );
-        timer = AsyncTools.createScheduledThreadPool( threads, ( t, e ) -> {
+        executor = AsyncTools.createFixedThreadPool( threads, ( t, e ) -> {
                 
                 LOG.error( "Uncaught exception thrown while managing timeouts.", e );
                 
             } );
-        pending = new ConcurrentHashMap<>();
-        timeouts = ConcurrentHashMultiset.create();
+        timer = new TimerWheel( threads, executor, 1, TimeUnit.SECONDS, WHEEL_SIZE );
+        journal = new TimeoutJournal( JOURNAL_FILE );
+        mutedRoles = MutedRoleManager.getInstance();
+        guilds = new ConcurrentHashMap<>();
+        terminated = false;
+        scheduleCompaction();
         
     }
     
     /**
      * Gets the currently running instance of the Controller, or creates one if none
-     * exist.
+     * exist (or the existing one was terminated).
+     * <p>
+     * When a terminated instance is replaced, its threads are shut down.
      *
      * @return The currently running instance of the Controller.
      */
-    public static TimeoutController getInstance() {
+    public static synchronized TimeoutController getInstance() {
         
-        if ( instance == null ) {
+        if ( ( instance == null ) || instance.terminated ) {
+            if ( instance != null ) {
+                instance.shutdown();
+            }
             instance = new TimeoutController();
         }
         return instance;
@@ -113,7 +149,47 @@ public class TimeoutController implements IListener<LogoutRequestedEvent> {
     }
     
     /**
-     * Executes pending tasks before the bot logs out.
+     * Stops the timer and executor threads of a terminated controller that is being
+     * replaced. Tasks already handed to the executor are allowed to finish.
+     */
+    private void shutdown() {
+        
+        LOG.debug( "Shutting down threads of replaced controller." );
+        timer.stop();
+        executor.shutdown();
+        
+    }
+    
+    /**
+     * Retrieves the timeout state of a guild, creating it if necessary.
+     *
+     * @param guildID The ID of the guild.
+     * @return The state of the guild.
+     */
+    private GuildTimeouts getState( long guildID ) {
+        
+        return guilds.computeIfAbsent( guildID, id -> new GuildTimeouts() );
+        
+    }
+    
+    /**
+     * Schedules the next periodic compaction of the journal.
+     */
+    private void scheduleCompaction() {
+        
+        timer.schedule( () -> {
+            
+            if ( !terminated ) {
+                journal.compact();
+                scheduleCompaction();
+            }
+            
+        }, COMPACT_INTERVAL, TimeUnit.MILLISECONDS );
+        
+    }
+    
+    /**
+     * Stops the controller before the bot logs out.
      *
      * @param event Event fired.
      */
@@ -124,23 +200,244 @@ public class TimeoutController implements IListener<LogoutRequestedEvent> {
     }
     
     /**
-     * Executes all pending tasks, in preparation for stopping the module.
+     * Stops the timer and closes the journal, in preparation for stopping the module.
+     * <p>
+     * Pending timeouts are <i>not</i> reverted. They remain in the journal, and are
+     * restored by the next instance.
      */
     public synchronized void terminate() {
         
+        if ( terminated ) {
+            return; // Already terminated.
+        }
         LOG.info( "Terminating." );
-        for ( ScheduledUntimeout task : pending.values() ) {
-            // Execute pending timeout reversals.
-            task.run();
+        terminated = true;
+        timer.stop();
+        journal.close();
+        int pending = 0;
+        for ( GuildTimeouts state : guilds.values() ) {
+            
+            synchronized ( state ) {
+                pending += state.pending.size();
+            }
+            
+        }
+        LOG.debug( "Terminated with {} pending timeouts.", pending );
+        
+    }
+    
+    /**
+     * Restores the timeouts in the given guild that were recorded in the journal but are
+     * not currently scheduled, such as after a restart.
+     * <p>
+     * Each timeout is restored the way it was placed, as recorded in the journal. Timeouts
+     * placed with the muted role give the role back to the user if they lost it. For
+     * timeouts placed with channel overrides, only the overrides that are still in place
+     * are tracked and later removed. Timeouts that expired while the bot was offline are
+     * reverted right away. Timeouts whose user, channel, or role no longer exist are dropped.
+     * <p>
+     * The restoration is performed asynchronously.
+     *
+     * @param guild The guild to restore timeouts in.
+     */
+    public void restore( IGuild guild ) {
+        
+        if ( terminated ) {
+            return; // Executor may already be shut down.
+        }
+        executor.execute( () -> {
             
+            int restored = 0;
+            long now = System.currentTimeMillis();
+            for ( TimeoutJournal.Entry entry : journal.getEntries( guild.getLongID() ) ) {
+                
+                if ( restore( guild, entry, now ) ) {
+                    restored++;
+                }
+                
+            }
+            if ( restored > 0 ) {
+                LOG.info( "Restored {} timeouts in guild {}.", restored, guild.getName() );
+            }
+            
+        });
+        
+    }
+    
+    /**
+     * Restores a single timeout recorded in the journal.
+     *
+     * @param guild The guild of the timeout.
+     * @param entry The timeout.
+     * @param now The current time.
+     * @return <tt>true</tt> if the timeout was restored.
+     *         <tt>false</tt> if it was already scheduled or was dropped.
+     */
+    private boolean restore( IGuild guild, TimeoutJournal.Entry entry, long now ) {
+        
+        if ( terminated ) {
+            return false;
+        }
+        long scope = entry.getChannelID();
+        IUser user = guild.getClient().fetchUser( entry.getUserID() );
+        IChannel channel = ( scope == GUILD_SCOPE ) ? null : guild.getChannelByID( scope );
+        if ( ( user == null ) || ( ( scope != GUILD_SCOPE ) && ( channel == null ) ) ) {
+            LOG.debug( "Dropping timeout of user {} in guild {}, target no longer exists.",
+                    entry.getUserID(), guild.getName() );
+            journal.untimeout( entry.getUserID(), entry.getGuildID(), scope );
+            return false;
+        }
+        
+        GuildTimeouts state = getState( guild.getLongID() );
+        ScheduledUntimeout untimeout;
+        synchronized ( state ) {
+            
+            if ( state.pending.containsKey( user.getLongID(), scope ) ) {
+                return false; // Already scheduled.
+            }
+            IRole role = null;
+            long roleID = entry.getRoleID();
+            if ( ( roleID == TimeoutJournal.UNKNOWN_ROLE ) && ( scope == GUILD_SCOPE ) ) {
+                IRole muted = mutedRoles.isEnabled() ? mutedRoles.get( guild ) : null; // Old record.
+                roleID = ( muted == null ) ? 0 : muted.getLongID();
+            }
+            if ( ( scope == GUILD_SCOPE ) && ( roleID > 0 ) ) { // Placed with the role.
+                role = guild.getRoleByID( roleID );
+                if ( role == null ) {
+                    LOG.debug( "Dropping timeout of user {} in guild {}, muted role no longer exists.",
+                            entry.getUserID(), guild.getName() );
+                    journal.untimeout( entry.getUserID(), entry.getGuildID(), scope );
+                    return false;
+                }
+            }
+            
+            List<IChannel> channels = new ArrayList<>();
+            if ( role == null ) {
+                for ( IChannel c : ( channel == null ) ? guild.getChannels() : Arrays.asList( channel ) ) {
+                    
+                    PermissionOverride override = c.getUserOverrides().get( user.getLongID() );
+                    if ( ( override != null ) && override.deny().contains( Permissions.SEND_MESSAGES ) ) {
+                        channels.add( c ); // Override is still in place, just count it.
+                        state.overrides.add( user.getLongID(), c.getLongID() );
+                    }
+                    
+                }
+            }
+            untimeout = new ScheduledUntimeout( state, user, channels, role, entry.getGuildID(), scope );
+            state.pending.put( user.getLongID(), scope, untimeout );
+            
+        }
+        
+        IRole role = untimeout.role;
+        if ( ( role != null ) && isMember( user, guild ) && !user.getRolesForGuild( guild ).contains( role ) ) {
+            setTimeout( user, role, true ); // Rejoined while the bot was offline.
+        }
+        schedule( untimeout, Math.max( entry.getExpiry() - now, 0 ) );
+        return true;
+        
+    }
+    
+    /**
+     * Gives the muted role back to a user that joined a guild where they have a pending
+     * guild timeout placed with the role, so leaving and rejoining does not escape the
+     * timeout.
+     * <p>
+     * The role is given asynchronously.
+     *
+     * @param user The user that joined.
+     * @param guild The guild.
+     */
+    public void rejoined( IUser user, IGuild guild ) {
+        
+        if ( terminated ) {
+            return; // Executor may already be shut down.
+        }
+        GuildTimeouts state = guilds.get( guild.getLongID() );
+        if ( state == null ) {
+            return; // No timeouts ever placed in the guild.
+        }
+        IRole role;
+        synchronized ( state ) {
+            ScheduledUntimeout untimeout = state.pending.get( user.getLongID(), GUILD_SCOPE );
+            role = ( untimeout == null ) ? null : untimeout.role;
+        }
+        if ( role != null ) {
+            LOG.debug( "User {} rejoined guild {} while timed out, giving muted role back.", user.getName(),
+                    guild.getName() );
+            executor.execute( () -> {
+                
+                if ( hasTimeout( user, guild ) ) { // Still timed out.
+                    setTimeout( user, role, true );
+                }
+                
+            });
+        }
+        
+    }
+    
+    /**
+     * Determines whether a user is currently a member of a guild.
+     *
+     * @param user The user.
+     * @param guild The guild.
+     * @return <tt>true</tt> if the user is in the guild.
+     */
+    private static boolean isMember( IUser user, IGuild guild ) {
+        
+        return guild.getUserByID( user.getLongID() ) != null;
+        
+    }
+    
+    /**
+     * Schedules the untimeout task of a timeout that finished being placed. The task must
+     * have been put in the pending timeouts of its guild before placing the timeout. If the
+     * timeout was lifted while it was being placed, it is reverted now instead.
+     * <p>
+     * Must be called without holding the lock of the guild.
+     *
+     * @param untimeout The task.
+     * @param delay How long until the task should run, in milliseconds.
+     */
+    private void schedule( ScheduledUntimeout untimeout, long delay ) {
+        
+        synchronized ( untimeout.state ) {
+            untimeout.placed = true;
+            if ( untimeout.pending ) {
+                untimeout.handle = timer.schedule( untimeout, delay, TimeUnit.MILLISECONDS );
+                return;
+            }
+        }
+        untimeout.revert(); // Lifted while placing.
+        
+    }
+    
+    /**
+     * Releases the slot of a timeout that could not be placed, and reverts the overrides
+     * that were set for it, if any.
+     * <p>
+     * Must be called without holding the lock of the guild.
+     *
+     * @param untimeout The untimeout task of the timeout.
+     */
+    private void abandon( ScheduledUntimeout untimeout ) {
+        
+        synchronized ( untimeout.state ) {
+            if ( untimeout.pending ) {
+                untimeout.pending = false;
+                untimeout.state.pending.remove( untimeout.user.getLongID(), untimeout.scope );
+            }
+        }
+        journal.untimeout( untimeout.user.getLongID(), untimeout.guildID, untimeout.scope );
+        if ( untimeout.role == null ) { // Counts were taken for every channel.
+            setTimeout( untimeout.state, untimeout.user, untimeout.channels, false );
         }
-        LOG.debug( "Terminated." );
         
     }
     
     /**
      * Configures a request for setting the timeout state for a given user in a given channel.
      *
+     * @param state The state of the guild of the channel.
      * @param user Target user.
      * @param channel Target channel.
      * @param timeout If <tt>true</tt>, places the user on timeout, that is, sets the channel
@@ -148,7 +445,7 @@ public class TimeoutController implements IListener<LogoutRequestedEvent> {
      *                <tt>false</tt>, removes the timeout (removes that override).
      * @return A request that will set (or unset) the timeout for the given user in the given channel.
      */
-    private IRequestAction setTimeout( IUser user, IChannel channel, boolean timeout ) {
+    private IRequestAction setTimeout( GuildTimeouts state, IUser user, IChannel channel, boolean timeout ) {
         
         LOG.trace( "Requested timeout set {} for {} in channel {} of guild {}.", timeout, user.getName(),
                 channel.getName(), channel.getGuild().getName() );
@@ -157,19 +454,16 @@ public class TimeoutController implements IListener<LogoutRequestedEvent> {
                 ( overrides != null ) ? overrides.allow() : EnumSet.noneOf( Permissions.class );
         EnumSet<Permissions> denied = 
                 ( overrides != null ) ? overrides.deny() : EnumSet.noneOf( Permissions.class );
-        String timeoutID = getTaskID( user, channel );
-        synchronized ( this ) {
+        synchronized ( state ) {
             
             if ( timeout ) { // Adds deny-permission override.
-                timeouts.add( timeoutID );
-                if ( timeouts.count( timeoutID ) > 1 ) {
+                if ( state.overrides.add( user.getLongID(), channel.getLongID() ) > 1 ) {
                     LOG.trace( "Timeout already in place." );
                     return NO_OP; // A timeout was alread in place.
                 }
                 denied.add( Permissions.SEND_MESSAGES );
             } else { // Removes deny-permission override.
-                timeouts.remove( timeoutID );
-                if ( timeouts.contains( timeoutID ) ) {
+                if ( state.overrides.remove( user.getLongID(), channel.getLongID() ) > 0 ) {
                     LOG.trace( "Equal timeout still in place." );
                     return NO_OP; // There is still another timeout in place.
                 }
@@ -196,23 +490,69 @@ public class TimeoutController implements IListener<LogoutRequestedEvent> {
     /**
      * Sets the timeout state for a user in a list of channels.
      *
+     * @param state The state of the guild of the channels.
      * @param user Target user.
      * @param channels Target channels.
      * @param timeout If <tt>true</tt>, places the user on timeout, that is, sets the channel
      *                override SEND_TEXT permission of that user on each channel to deny the permission.
      *                If <tt>false</tt>, removes the timeout (removes that override).
+     * @return <tt>true</tt> if every request succeeded.
      */
-    private void setTimeout( IUser user, List<IChannel> channels, boolean timeout ) {
+    private boolean setTimeout( GuildTimeouts state, IUser user, List<IChannel> channels, boolean timeout ) {
         
+        AtomicBoolean failed = new AtomicBoolean( false );
         RequestBuilder request = new RequestBuilder( user.getClient() ).shouldBufferRequests( true )
-                .setAsync( false ).shouldFailOnException( false ).onDiscordError( ERROR_HANDLER )
-                .onMissingPermissionsError( MISSING_PERMS_HANDLER ).doAction( NO_OP );
+                .setAsync( false ).shouldFailOnException( false ).onDiscordError( e -> {
+                    
+                    failed.set( true );
+                    ERROR_HANDLER.accept( e );
+                    
+                } ).onMissingPermissionsError( e -> {
+                    
+                    failed.set( true );
+                    MISSING_PERMS_HANDLER.accept( e );
+                    
+                } ).doAction( NO_OP );
         for ( IChannel channel : channels ) {
             
-            request.andThen( setTimeout( user, channel, timeout ) );
+            request.andThen( setTimeout( state, user, channel, timeout ) );
             
         }
         request.execute();
+        return !failed.get();
+        
+    }
+    
+    /**
+     * Sets the timeout state for a user in a guild using the muted role of the guild.
+     *
+     * @param user Target user.
+     * @param role The muted role of the guild.
+     * @param timeout If <tt>true</tt>, places the user on timeout, that is, gives the role
+     *                to the user. If <tt>false</tt>, removes the timeout (removes the role).
+     * @return <tt>true</tt> if the request succeeded.
+     */
+    private boolean setTimeout( IUser user, IRole role, boolean timeout ) {
+        
+        LOG.debug( "Setting timeout {} for {} in guild {} with role.", timeout, user.getName(),
+                role.getGuild().getName() );
+        return RequestBuffer.request( () -> {
+            
+            try {
+                if ( timeout ) {
+                    user.addRole( role );
+                } else {
+                    user.removeRole( role );
+                }
+                return true;
+            } catch ( MissingPermissionsException e ) {
+                MISSING_PERMS_HANDLER.accept( e );
+            } catch ( DiscordException e ) {
+                ERROR_HANDLER.accept( e );
+            }
+            return false;
+            
+        }).get();
         
     }
     
@@ -221,22 +561,48 @@ public class TimeoutController implements IListener<LogoutRequestedEvent> {
      *
      * @param user User to be timed out.
      * @param channels Channels to time out in.
+     * @param role The muted role to time out with, instead of the channels. If <tt>null</tt>,
+     *             the channels are used.
      * @param timeout How long the timeout should last, in milliseconds.
-     * @param taskID The ID of the timeout task.
+     * @param guildID The ID of the guild where the timeout is placed.
+     * @param scope The ID of the channel where the timeout is placed, or {@value #GUILD_SCOPE}
+     *              if it is guild-wide.
      * @return <tt>true</tt> if the user was timed out successfully.
-     *         <tt>false</tt> if the user was already timed out.
+     *         <tt>false</tt> if the user was already timed out, or the timeout could not
+     *         be placed.
      */
-    private synchronized boolean timeout( IUser user, List<IChannel> channels, long timeout, String taskID ) {
+    private boolean timeout( IUser user, List<IChannel> channels, IRole role, long timeout, long guildID,
+            long scope ) {
         
-        if ( !pending.containsKey( taskID ) ) {
-            setTimeout( user, channels, true );
-            ScheduledUntimeout untimeout = new ScheduledUntimeout( user, channels, taskID );
-            pending.put( taskID, untimeout );
-            timer.schedule( untimeout, timeout, TimeUnit.MILLISECONDS );
-            return true;
-        } else {
+        GuildTimeouts state = getState( guildID );
+        ScheduledUntimeout untimeout = new ScheduledUntimeout( state, user,
+                ( role != null ) ? Collections.<IChannel>emptyList() : channels, role, guildID, scope );
+        synchronized ( state ) { // Reserve the slot.
+            
+            if ( state.pending.containsKey( user.getLongID(), scope ) ) {
+                return false;
+            }
+            state.pending.put( user.getLongID(), scope, untimeout );
+            
+        }
+        
+        long expiry = System.currentTimeMillis() + timeout;
+        journal.timeout( user.getLongID(), guildID, scope, expiry, ( role == null ) ? 0 : role.getLongID() );
+        boolean placed = false;
+        try {
+            placed = ( role != null ) ? setTimeout( user, role, true )
+                                      : setTimeout( state, user, untimeout.channels, true );
+        } finally {
+            if ( !placed ) {
+                abandon( untimeout );
+            }
+        }
+        if ( !placed ) {
+            LOG.warn( "Failed to time out {} in guild {}, rolled back.", user.getName(), guildID );
             return false;
         }
+        schedule( untimeout, Math.max( expiry - System.currentTimeMillis(), 0 ) );
+        return true;
         
     }
     
@@ -254,7 +620,8 @@ public class TimeoutController implements IListener<LogoutRequestedEvent> {
         
         LOG.debug( "Requested timing out {}@{}@{} for {}ms.", user.getName(), channel.getName(),
                 channel.getGuild().getName(), timeout );
-        return timeout( user, Arrays.asList( channel ), timeout, getTaskID( user, channel ) );
+        return timeout( user, Arrays.asList( channel ), null, timeout, channel.getGuild().getLongID(),
+                channel.getLongID() );
         
     }
     
@@ -271,25 +638,32 @@ public class TimeoutController implements IListener<LogoutRequestedEvent> {
     public boolean timeout( IUser user, IGuild guild, long timeout ) {
         
         LOG.debug( "Requested timing out {}@{} for {}ms.", user.getName(), guild.getName(), timeout );
-        return timeout( user, guild.getChannels(), timeout, getTaskID( user, guild ) );
+        return timeout( user, guild.getChannels(), mutedRoles.getOrCreate( guild ), timeout,
+                guild.getLongID(), GUILD_SCOPE );
         
     }
     
     /**
      * Removes a currently placed timeout. 
      *
-     * @param taskID The task ID of the timeout that was placed.
+     * @param user The user that was timed out.
+     * @param guildID The ID of the guild where the timeout was placed.
+     * @param scope The ID of the channel where the timeout was placed, or {@value #GUILD_SCOPE}
+     *              if it is guild-wide.
      * @return <tt>true</tt> if the timeout was reverted successfully.
      *         <tt>false</tt> if there is no timeout currently in place with the given ID.
      */
-    private synchronized boolean untimeout( String taskID ) {
+    private boolean untimeout( IUser user, long guildID, long scope ) {
         
-        if ( pending.containsKey( taskID ) ) {
-            pending.remove( taskID ).run();
-            return true;
-        } else {
-            return false;
+        GuildTimeouts state = guilds.get( guildID );
+        if ( state == null ) {
+            return false; // No timeouts ever placed in the guild.
         }
+        ScheduledUntimeout untimeout;
+        synchronized ( state ) {
+            untimeout = state.pending.get( user.getLongID(), scope );
+        }
+        return ( untimeout != null ) && untimeout.lift();
         
     }
     
@@ -305,10 +679,10 @@ public class TimeoutController implements IListener<LogoutRequestedEvent> {
      *         <tt>false</tt> if the user is not timed out in the given channel.
      */
     public boolean untimeout( IUser user, IChannel channel ) {
-
+        
         LOG.debug( "Requested un-timing out {}@{}@{}.", user.getName(), channel.getName(),
                 channel.getGuild().getName() );
-        return untimeout( getTaskID( user, channel ) );
+        return untimeout( user, channel.getGuild().getLongID(), channel.getLongID() );
         
     }
     
@@ -326,7 +700,7 @@ public class TimeoutController implements IListener<LogoutRequestedEvent> {
     public boolean untimeout( IUser user, IGuild guild ) {
         
         LOG.debug( "Requested un-timing out {}@{}.", user.getName(), guild.getName() );
-        return untimeout( getTaskID( user, guild ) );
+        return untimeout( user, guild.getLongID(), GUILD_SCOPE );
         
     }
     
@@ -342,7 +716,7 @@ public class TimeoutController implements IListener<LogoutRequestedEvent> {
         
         LOG.trace( "Checking timeout for {}@{}@{}", user.getName(), channel.getName(),
                 channel.getGuild().getName() );
-        return pending.containsKey( getTaskID( user, channel ) );
+        return hasTimeout( user, channel.getGuild().getLongID(), channel.getLongID() );
         
     }
     
@@ -357,34 +731,49 @@ public class TimeoutController implements IListener<LogoutRequestedEvent> {
     public boolean hasTimeout( IUser user, IGuild guild ) {
         
         LOG.trace( "Checking timeout for {}@{}", user.getName(), guild.getName() );
-        return pending.containsKey( getTaskID( user, guild ) );
+        return hasTimeout( user, guild.getLongID(), GUILD_SCOPE );
         
     }
     
     /**
-     * Generates the ID of a timeout task executed over a given user in a given channel.
+     * Checks if a user has a timeout currently running.
      *
-     * @param user User the task is executed over.
-     * @param channel Channel the task was executed in.
-     * @return The task ID.
+     * @param user User to be checked.
+     * @param guildID The ID of the guild to be checked.
+     * @param scope The ID of the channel to be checked, or {@value #GUILD_SCOPE} to check for
+     *              a guild-wide timeout.
+     * @return true if the user has a timeout in the given scope.
+     *         false otherwise.
      */
-    private static String getTaskID( IUser user, IChannel channel ) {
+    private boolean hasTimeout( IUser user, long guildID, long scope ) {
         
-        return String.format( CHANNEL_ID_FORMAT, user.getLongID(), channel.getLongID(),
-                channel.getGuild().getLongID() );
+        GuildTimeouts state = guilds.get( guildID );
+        if ( state == null ) {
+            return false; // No timeouts ever placed in the guild.
+        }
+        synchronized ( state ) {
+            return state.pending.containsKey( user.getLongID(), scope );
+        }
         
     }
     
     /**
-     * Generates the ID of a timeout task executed over a given user in a given guild.
+     * Timeouts placed in a guild. Access must be synchronized on the instance.
      *
-     * @param user User the task is executed over.
-     * @param guild Guild the task was executed in.
-     * @return The task ID.
+     * @version 1.0
+     * @author ThiagoTGM
+     * @since 2026-10-16
      */
-    private static String getTaskID( IUser user, IGuild guild ) {
+    private static class GuildTimeouts {
         
-        return String.format( GUILD_ID_FORMAT, user.getLongID(), guild.getLongID() );
+        /**
+         * Untimeout tasks that are pending, keyed by user ID and scope ID.
+         */
+        private final LongPairMap<ScheduledUntimeout> pending = new LongPairMap<>();
+        /**
+         * How many timeouts are using the override of each user (by user ID and channel ID).
+         */
+        private final LongPairCounter overrides = new LongPairCounter();
         
     }
     
@@ -398,44 +787,101 @@ public class TimeoutController implements IListener<LogoutRequestedEvent> {
      */
     private class ScheduledUntimeout implements Runnable {
         
-        private volatile boolean pending;
+        private boolean pending;
+        private boolean placed;
+        private final GuildTimeouts state;
         private final List<IChannel> channels;
+        private final IRole role;
         private final IUser user;
-        private final String id;
+        private final long guildID;
+        private final long scope;
+        private volatile TimerWheel.Task handle;
         
         /**
          * Initializes an untimeout task for the given user in the given channels.
          *
+         * @param state The state of the guild where the timeout was placed.
          * @param user The user to apply the untimeout for.
          * @param channels The channels where the untimeout should be applied.
-         * @param id The ID of the task.
+         * @param role The muted role to remove, or <tt>null</tt> if the timeout was placed
+         *             in the channels.
+         * @param guildID The ID of the guild where the timeout was placed.
+         * @param scope The ID of the channel where the timeout was placed, or
+         *              {@value #GUILD_SCOPE} if it is guild-wide.
          */
-        private ScheduledUntimeout( IUser user, List<IChannel> channels, String id ) {
+        private ScheduledUntimeout( GuildTimeouts state, IUser user, List<IChannel> channels, IRole role,
+                long guildID, long scope ) {
             
             this.pending = true;
+            this.placed = false;
+            this.state = state;
             this.channels = new ArrayList<>( channels );
+            this.role = role;
             this.user = user;
-            this.id = id;
+            this.guildID = guildID;
+            this.scope = scope;
+            this.handle = null;
             
         }
-
+        
         /**
          * Performs the configured untimeout. If was already performed before, does nothing.
          */
         @Override
-        public synchronized void run() {
-
-            if ( pending ) { // Task still pending.
-                pending = false; // Task will now start.
-            } else { // Task already started.
-                return; // Nothing to do.
+        public void run() {
+            
+            lift();
+            
+        }
+        
+        /**
+         * Lifts the timeout. The slot of the timeout is released while holding the lock of
+         * the guild, and the timeout is reverted after releasing it. If the timeout is still
+         * being placed, it is reverted by the thread placing it once done.
+         *
+         * @return <tt>true</tt> if the timeout was lifted by this call.
+         *         <tt>false</tt> if it was already lifted.
+         */
+        private boolean lift() {
+            
+            synchronized ( state ) {
+                
+                if ( pending ) { // Task still pending.
+                    pending = false; // Task will now start.
+                } else { // Task already started.
+                    return false; // Nothing to do.
+                }
+                
+                state.pending.remove( user.getLongID(), scope );
+                if ( handle != null ) {
+                    handle.cancel(); // In case it was run early.
+                }
+                if ( !placed ) {
+                    return true; // Reverted once placed.
+                }
+                
             }
+            revert();
+            return true;
             
-            TimeoutController.this.pending.remove( id );
-            setTimeout( user, channels, false );
+        }
+        
+        /**
+         * Reverts the timeout. Must be called without holding the lock of the guild.
+         */
+        private void revert() {
+            
+            journal.untimeout( user.getLongID(), guildID, scope );
+            if ( role != null ) {
+                if ( isMember( user, role.getGuild() ) ) { // Role was lost when leaving otherwise.
+                    setTimeout( user, role, false );
+                }
+            } else {
+                setTimeout( state, user, channels, false );
+            }
             
         }
         
     }
-
+    
 }
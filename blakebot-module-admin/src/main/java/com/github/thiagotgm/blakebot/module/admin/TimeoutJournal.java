@@ -0,0 +1,446 @@
+/*
+ * This file is part of BlakeBot.
+ *
+ * BlakeBot is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * BlakeBot is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with BlakeBot. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.thiagotgm.blakebot.module.admin;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Append-only on-disk journal of the timeouts placed and lifted by the {@link TimeoutController},
+ * so that active timeouts survive restarts.
+ * <p>
+ * Each record has a fixed size (per type). Timeouts record the muted role they were placed
+ * with, so they are restored the same way they were placed. On startup the file is replayed to rebuild the set of active
+ * timeouts (a torn record at the end, left by a crash, is discarded). Since lifted timeouts
+ * keep taking space in the file, it is periodically compacted by rewriting only the active
+ * timeouts to a new file and atomically replacing the old one.
+ * <p>
+ * If the file cannot be written, the journal keeps working in memory only.
+ *
+ * @version 1.0
+ * @author ThiagoTGM
+ * @since 2026-10-16
+ */
+public class TimeoutJournal {
+    
+    private static final Logger LOG = LoggerFactory.getLogger( TimeoutJournal.class );
+    
+    /**
+     * Role ID of timeouts read from records written before the role was recorded.
+     */
+    public static final long UNKNOWN_ROLE = -1;
+    
+    private static final byte TIMEOUT = 1; // Old format, without the role.
+    private static final byte UNTIMEOUT = 2;
+    private static final byte ROLE_TIMEOUT = 3;
+    private static final int MIN_COMPACT_RECORDS = 1024;
+    
+    private final File file;
+    private final Map<Key,Entry> active;
+    private DataOutputStream output;
+    private int records;
+    
+    /**
+     * Opens the journal in the given file, replaying its contents.
+     *
+     * @param file The journal file.
+     */
+    public TimeoutJournal( File file ) {
+        
+        this.file = file;
+        this.active = new LinkedHashMap<>();
+        this.records = 0;
+        if ( file.exists() ) {
+            replay();
+        }
+        compact(); // Start from a clean file.
+        
+    }
+    
+    /**
+     * Rebuilds the active timeouts from the file.
+     */
+    private void replay() {
+        
+        try ( DataInputStream input = new DataInputStream(
+                new BufferedInputStream( new FileInputStream( file ) ) ) ) {
+            
+            while ( true ) {
+                
+                byte type;
+                try {
+                    type = input.readByte();
+                } catch ( EOFException e ) {
+                    break; // End of journal.
+                }
+                Entry entry = new Entry( input.readLong(), input.readLong(), input.readLong(),
+                        input.readLong(), type == ROLE_TIMEOUT ? input.readLong() : UNKNOWN_ROLE );
+                switch ( type ) {
+                    
+                    case TIMEOUT:
+                    case ROLE_TIMEOUT:
+                        active.put( entry.getKey(), entry );
+                        break;
+                    
+                    case UNTIMEOUT:
+                        active.remove( entry.getKey() );
+                        break;
+                    
+                    default:
+                        LOG.warn( "Invalid record type {} in timeout journal, stopping replay.", type );
+                        return;
+                    
+                }
+                records++;
+                
+            }
+            
+        } catch ( EOFException e ) {
+            LOG.warn( "Timeout journal ends with an incomplete record, discarding it." );
+        } catch ( IOException e ) {
+            LOG.error( "Failed to read timeout journal.", e );
+        }
+        LOG.info( "Replayed {} records from timeout journal, {} timeouts active.", records, active.size() );
+        
+    }
+    
+    /**
+     * Appends a record to the file.
+     *
+     * @param type The type of record.
+     * @param entry The entry of the record.
+     */
+    private void append( byte type, Entry entry ) {
+        
+        if ( output == null ) {
+            return; // Not persisting.
+        }
+        try {
+            output.writeByte( type );
+            output.writeLong( entry.userID );
+            output.writeLong( entry.guildID );
+            output.writeLong( entry.channelID );
+            output.writeLong( entry.expiry );
+            if ( type == ROLE_TIMEOUT ) {
+                output.writeLong( entry.roleID );
+            }
+            output.flush();
+            records++;
+        } catch ( IOException e ) {
+            LOG.error( "Failed to write to timeout journal.", e );
+        }
+        
+        if ( records >= Math.max( MIN_COMPACT_RECORDS, 2 * active.size() ) ) {
+            compact(); // Mostly lifted timeouts.
+        }
+        
+    }
+    
+    /**
+     * Records that a timeout was placed.
+     *
+     * @param userID The ID of the user timed out.
+     * @param guildID The ID of the guild where the timeout was placed.
+     * @param channelID The ID of the channel where the timeout was placed, or 0 if it is
+     *                  guild-wide.
+     * @param expiry When the timeout expires, in milliseconds since the epoch.
+     * @param roleID The ID of the muted role the timeout was placed with, or 0 if it was
+     *               placed with channel overrides.
+     */
+    public synchronized void timeout( long userID, long guildID, long channelID, long expiry, long roleID ) {
+        
+        Entry entry = new Entry( userID, guildID, channelID, expiry, roleID );
+        active.put( entry.getKey(), entry );
+        append( ROLE_TIMEOUT, entry );
+        
+    }
+    
+    /**
+     * Records that a timeout was lifted.
+     *
+     * @param userID The ID of the user timed out.
+     * @param guildID The ID of the guild where the timeout was placed.
+     * @param channelID The ID of the channel where the timeout was placed, or 0 if it is
+     *                  guild-wide.
+     */
+    public synchronized void untimeout( long userID, long guildID, long channelID ) {
+        
+        Entry entry = active.remove( new Key( userID, guildID, channelID ) );
+        if ( entry != null ) {
+            append( UNTIMEOUT, entry );
+        }
+        
+    }
+    
+    /**
+     * Retrieves the active timeouts in a guild.
+     *
+     * @param guildID The ID of the guild.
+     * @return The active timeouts.
+     */
+    public synchronized List<Entry> getEntries( long guildID ) {
+        
+        List<Entry> entries = new ArrayList<>();
+        for ( Entry entry : active.values() ) {
+            
+            if ( entry.guildID == guildID ) {
+                entries.add( entry );
+            }
+            
+        }
+        return entries;
+        
+    }
+    
+    /**
+     * Rewrites the file with only the active timeouts.
+     */
+    public synchronized void compact() {
+        
+        close();
+        File temp = new File( file.getPath() + ".tmp" );
+        boolean written = false;
+        try ( DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream( new FileOutputStream( temp ) ) ) ) {
+            
+            for ( Entry entry : active.values() ) {
+                
+                if ( entry.roleID == UNKNOWN_ROLE ) { // Keep old format, role is still unknown.
+                    out.writeByte( TIMEOUT );
+                } else {
+                    out.writeByte( ROLE_TIMEOUT );
+                }
+                out.writeLong( entry.userID );
+                out.writeLong( entry.guildID );
+                out.writeLong( entry.channelID );
+                out.writeLong( entry.expiry );
+                if ( entry.roleID != UNKNOWN_ROLE ) {
+                    out.writeLong( entry.roleID );
+                }
+                
+            }
+            written = true;
+            
+        } catch ( IOException e ) { // Also thrown if closing failed.
+            LOG.error( "Failed to compact timeout journal.", e );
+            written = false;
+        }
+        
+        try {
+            if ( written ) { // Replace old file.
+                Files.move( temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                        StandardCopyOption.ATOMIC_MOVE );
+                records = active.size();
+                LOG.debug( "Compacted timeout journal to {} records.", records );
+            } else { // Keep appending to old file.
+                Files.deleteIfExists( temp.toPath() );
+            }
+            output = new DataOutputStream( new BufferedOutputStream(
+                    new FileOutputStream( file, true ) ) );
+        } catch ( IOException e ) {
+            LOG.error( "Failed to open timeout journal, timeouts will not be persisted.", e );
+            output = null;
+        }
+        
+    }
+    
+    /**
+     * Closes the file. Further changes are only kept in memory until the journal
+     * is compacted.
+     */
+    public synchronized void close() {
+        
+        if ( output != null ) {
+            try {
+                output.close();
+            } catch ( IOException e ) {
+                LOG.error( "Failed to close timeout journal.", e );
+            }
+            output = null;
+        }
+        
+    }
+    
+    /**
+     * Identifies a timeout.
+     *
+     * @version 1.0
+     * @author ThiagoTGM
+     * @since 2026-10-16
+     */
+    private static class Key {
+        
+        private final long userID;
+        private final long guildID;
+        private final long channelID;
+        
+        /**
+         * Creates a new key.
+         *
+         * @param userID The ID of the user.
+         * @param guildID The ID of the guild.
+         * @param channelID The ID of the channel, or 0.
+         */
+        private Key( long userID, long guildID, long channelID ) {
+            
+            this.userID = userID;
+            this.guildID = guildID;
+            this.channelID = channelID;
+            
+        }
+        
+        @Override
+        public boolean equals( Object obj ) {
+            
+            if ( !( obj instanceof Key ) ) {
+                return false;
+            }
+            Key key = (Key) obj;
+            return ( userID == key.userID ) && ( guildID == key.guildID ) && ( channelID == key.channelID );
+            
+        }
+        
+        @Override
+        public int hashCode() {
+            
+            return 31 * ( 31 * Long.hashCode( userID ) + Long.hashCode( guildID ) ) + Long.hashCode( channelID );
+            
+        }
+        
+    }
+    
+    /**
+     * An active timeout.
+     *
+     * @version 1.0
+     * @author ThiagoTGM
+     * @since 2026-10-16
+     */
+    public static class Entry {
+        
+        private final long userID;
+        private final long guildID;
+        private final long channelID;
+        private final long expiry;
+        private final long roleID;
+        
+        /**
+         * Creates a new entry.
+         *
+         * @param userID The ID of the user.
+         * @param guildID The ID of the guild.
+         * @param channelID The ID of the channel, or 0.
+         * @param expiry When the timeout expires.
+         * @param roleID The ID of the muted role, 0 if none, or {@link #UNKNOWN_ROLE}.
+         */
+        private Entry( long userID, long guildID, long channelID, long expiry, long roleID ) {
+            
+            this.userID = userID;
+            this.guildID = guildID;
+            this.channelID = channelID;
+            this.expiry = expiry;
+            this.roleID = roleID;
+            
+        }
+        
+        /**
+         * Retrieves the key that identifies this entry.
+         *
+         * @return The key.
+         */
+        private Key getKey() {
+            
+            return new Key( userID, guildID, channelID );
+            
+        }
+        
+        /**
+         * Retrieves the ID of the user timed out.
+         *
+         * @return The user ID.
+         */
+        public long getUserID() {
+            
+            return userID;
+            
+        }
+        
+        /**
+         * Retrieves the ID of the guild where the timeout was placed.
+         *
+         * @return The guild ID.
+         */
+        public long getGuildID() {
+            
+            return guildID;
+            
+        }
+        
+        /**
+         * Retrieves the ID of the channel where the timeout was placed.
+         *
+         * @return The channel ID, or 0 if the timeout is guild-wide.
+         */
+        public long getChannelID() {
+            
+            return channelID;
+            
+        }
+        
+        /**
+         * Retrieves when the timeout expires.
+         *
+         * @return The expiry time, in milliseconds since the epoch.
+         */
+        public long getExpiry() {
+            
+            return expiry;
+            
+        }
+        
+        /**
+         * Retrieves the muted role the timeout was placed with.
+         *
+         * @return The role ID, 0 if the timeout was placed with channel overrides, or
+         *         {@link TimeoutJournal#UNKNOWN_ROLE} if it was recorded before roles were.
+         */
+        public long getRoleID() {
+            
+            return roleID;
+            
+        }
+        
+    }
+    
+}
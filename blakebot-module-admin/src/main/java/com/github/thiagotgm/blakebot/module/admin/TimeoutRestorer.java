@@ -0,0 +1,71 @@
+/*
+ * This file is part of BlakeBot.
+ *
+ * BlakeBot is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * BlakeBot is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with BlakeBot. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.thiagotgm.blakebot.module.admin;
+
+import sx.blah.discord.api.events.EventSubscriber;
+import sx.blah.discord.handle.impl.events.guild.GuildCreateEvent;
+import sx.blah.discord.handle.impl.events.guild.member.UserJoinEvent;
+
+/**
+ * Restores the persisted timeouts of each guild once it becomes available, and gives the
+ * muted role back to users that rejoin a guild while timed out.
+ *
+ * @version 1.0
+ * @author ThiagoTGM
+ * @since 2026-10-16
+ */
+public class TimeoutRestorer {
+    
+    private final TimeoutController controller;
+    
+    /**
+     * Creates a restorer that restores timeouts in the given controller.
+     *
+     * @param controller The controller to restore timeouts in.
+     */
+    public TimeoutRestorer( TimeoutController controller ) {
+        
+        this.controller = controller;
+        
+    }
+    
+    /**
+     * Restores the timeouts of the guild that became available.
+     *
+     * @param event Event fired.
+     */
+    @EventSubscriber
+    public void onGuildCreateEvent( GuildCreateEvent event ) {
+        
+        controller.restore( event.getGuild() );
+        
+    }
+    
+    /**
+     * Re-applies the guild timeout of a user that joined, if any.
+     *
+     * @param event Event fired.
+     */
+    @EventSubscriber
+    public void onUserJoinEvent( UserJoinEvent event ) {
+        
+        controller.rejoined( event.getUser(), event.getGuild() );
+        
+    }
+    
+}
@@ -0,0 +1,251 @@
+/*
+ * This file is part of BlakeBot.
+ *
+ * BlakeBot is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * BlakeBot is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with BlakeBot. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.thiagotgm.blakebot.module.admin;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Hashed timer wheel, for scheduling large amounts of coarse-grained tasks.
+ * <p>
+ * Scheduling and cancelling a task take constant time, regardless of how many tasks are
+ * pending. A single worker thread advances the wheel once every tick, and hands the expired
+ * tasks to an executor, so tasks run up to one tick late and should not be used for
+ * sub-tick precision.
+ *
+ * @version 1.0
+ * @author ThiagoTGM
+ * @since 2026-10-16
+ */
+public class TimerWheel {
+    
+    private static final Logger LOG = LoggerFactory.getLogger( TimerWheel.class );
+    
+    private final long tickDuration;
+    private final Task[] wheel;
+    private final int mask;
+    private final Queue<Task> incoming;
+    private final Executor executor;
+    private final Thread worker;
+    private final long startTime;
+    private volatile boolean running;
+    
+    /**
+     * Creates and starts a new timer.
+     *
+     * @param threads The group to create the worker thread in.
+     * @param executor The executor to run expired tasks in.
+     * @param tickDuration The duration of a tick.
+     * @param unit The unit of the tick duration.
+     * @param wheelSize The amount of slots in the wheel. Rounded up to a power of 2.
+     * @throws IllegalArgumentException if the tick duration or the wheel size are not positive.
+     */
+    public TimerWheel( ThreadGroup threads, Executor executor, long tickDuration, TimeUnit unit,
+            int wheelSize ) throws IllegalArgumentException {
+        
+        if ( tickDuration <= 0 ) {
+            throw new IllegalArgumentException( "Tick duration must be positive." );
+        }
+        if ( wheelSize <= 0 ) {
+            throw new IllegalArgumentException( "Wheel size must be positive." );
+        }
+        int size = Integer.highestOneBit( wheelSize );
+        if ( size < wheelSize ) {
+            size <<= 1;
+        }
+        this.tickDuration = unit.toNanos( tickDuration );
+        this.wheel = new Task[ size ];
+        this.mask = size - 1;
+        this.incoming = new ConcurrentLinkedQueue<>();
+        this.executor = executor;
+        this.startTime = System.nanoTime();
+        this.running = true;
+        this.worker = new Thread( threads, this::work, threads.getName() + " Timer" );
+        this.worker.setDaemon( true );
+        this.worker.start();
+        
+    }
+    
+    /**
+     * Schedules a task to be run after a delay.
+     *
+     * @param task The task to run.
+     * @param delay How long to wait before running the task.
+     * @param unit The unit of the delay.
+     * @return The handle of the scheduled task, that can be used to cancel it.
+     */
+    public Task schedule( Runnable task, long delay, TimeUnit unit ) {
+        
+        Task handle = new Task( task, System.nanoTime() + unit.toNanos( Math.max( delay, 0 ) ) );
+        incoming.add( handle );
+        return handle;
+        
+    }
+    
+    /**
+     * Stops the timer. Pending tasks are not run.
+     */
+    public void stop() {
+        
+        running = false;
+        worker.interrupt();
+        
+    }
+    
+    /**
+     * Main loop of the worker thread.
+     */
+    private void work() {
+        
+        long tick = 0;
+        while ( running ) {
+            
+            long deadline = startTime + ( tick + 1 ) * tickDuration;
+            long sleep = deadline - System.nanoTime();
+            if ( sleep > 0 ) {
+                try {
+                    TimeUnit.NANOSECONDS.sleep( sleep );
+                } catch ( InterruptedException e ) {
+                    continue; // Check if still running.
+                }
+            }
+            
+            transferIncoming( tick );
+            expire( tick );
+            tick++;
+            
+        }
+        LOG.debug( "Timer stopped." );
+        
+    }
+    
+    /**
+     * Places newly scheduled tasks in their slots.
+     *
+     * @param tick The current tick.
+     */
+    private void transferIncoming( long tick ) {
+        
+        Task task;
+        while ( ( task = incoming.poll() ) != null ) {
+            
+            if ( task.cancelled ) {
+                continue;
+            }
+            long ticks = Math.max( ( task.deadline - startTime ) / tickDuration, tick );
+            task.rounds = ( ticks - tick ) / wheel.length;
+            int slot = (int) ( ticks & mask );
+            task.next = wheel[slot];
+            wheel[slot] = task;
+            
+        }
+        
+    }
+    
+    /**
+     * Runs the tasks in the slot of the given tick that are due.
+     *
+     * @param tick The current tick.
+     */
+    private void expire( long tick ) {
+        
+        int slot = (int) ( tick & mask );
+        Task previous = null;
+        Task task = wheel[slot];
+        while ( task != null ) {
+            
+            Task next = task.next;
+            boolean remove;
+            if ( task.cancelled ) {
+                remove = true;
+            } else if ( task.rounds <= 0 ) { // Due.
+                remove = true;
+                try {
+                    executor.execute( task.task );
+                } catch ( RuntimeException e ) {
+                    LOG.error( "Could not run expired task.", e );
+                }
+            } else {
+                task.rounds--;
+                remove = false;
+            }
+            
+            if ( remove ) { // Unlink.
+                if ( previous == null ) {
+                    wheel[slot] = next;
+                } else {
+                    previous.next = next;
+                }
+                task.next = null;
+            } else {
+                previous = task;
+            }
+            task = next;
+            
+        }
+        
+    }
+    
+    /**
+     * Handle of a task scheduled in the timer.
+     *
+     * @version 1.0
+     * @author ThiagoTGM
+     * @since 2026-10-16
+     */
+    public static class Task {
+        
+        private final Runnable task;
+        private final long deadline;
+        private volatile boolean cancelled;
+        
+        /* Only accessed by the worker thread */
+        private long rounds;
+        private Task next;
+        
+        /**
+         * Creates a new handle.
+         *
+         * @param task The task to run.
+         * @param deadline When the task should run, in terms of {@link System#nanoTime()}.
+         */
+        private Task( Runnable task, long deadline ) {
+            
+            this.task = task;
+            this.deadline = deadline;
+            this.cancelled = false;
+            
+        }
+        
+        /**
+         * Cancels the task. If it already started running, does nothing.
+         */
+        public void cancel() {
+            
+            cancelled = true;
+            
+        }
+        
+    }
+    
+}
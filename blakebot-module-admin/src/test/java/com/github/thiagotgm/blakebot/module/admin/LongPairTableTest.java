@@ -0,0 +1,241 @@
+/*
+ * This file is part of BlakeBot.
+ *
+ * BlakeBot is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * BlakeBot is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with BlakeBot. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.thiagotgm.blakebot.module.admin;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * Unit tests for {@link LongPairTable}, through the {@link LongPairMap} and
+ * {@link LongPairCounter} subclasses.
+ * <p>
+ * Removals shift the following entries of a probe sequence back instead of leaving
+ * tombstones, so most of these tests check that every remaining key is still reachable
+ * after entries in the middle of a cluster are removed.
+ *
+ * @version 1.0
+ * @author ThiagoTGM
+ * @since 2026-10-16
+ */
+public class LongPairTableTest {
+    
+    /**
+     * Checks that the map has exactly the same mappings as the reference map.
+     *
+     * @param expected The reference map, keyed by the two parts of the key.
+     * @param map The map to check.
+     */
+    private static void assertSameMappings( Map<List<Long>,Long> expected, LongPairMap<Long> map ) {
+        
+        assertEquals( expected.size(), map.size() );
+        for ( Map.Entry<List<Long>,Long> entry : expected.entrySet() ) {
+            
+            long a = entry.getKey().get( 0 );
+            long b = entry.getKey().get( 1 );
+            assertEquals( entry.getValue(), map.get( a, b ) );
+            
+        }
+        
+    }
+    
+    /**
+     * Makes a key for the reference map.
+     *
+     * @param a The first part of the key.
+     * @param b The second part of the key.
+     * @return The key.
+     */
+    private static List<Long> key( long a, long b ) {
+        
+        List<Long> key = new ArrayList<>( 2 );
+        key.add( a );
+        key.add( b );
+        return key;
+        
+    }
+    
+    /**
+     * Keys that only differ in one part, or that have their parts swapped, are distinct.
+     */
+    @Test
+    public void testDistinctKeys() {
+        
+        LongPairMap<String> map = new LongPairMap<>();
+        assertNull( map.put( 1, 2, "a" ) );
+        assertNull( map.put( 2, 1, "b" ) );
+        assertNull( map.put( 1, 3, "c" ) );
+        assertEquals( "a", map.put( 1, 2, "d" ) );
+        
+        assertEquals( 3, map.size() );
+        assertEquals( "d", map.get( 1, 2 ) );
+        assertEquals( "b", map.get( 2, 1 ) );
+        assertEquals( "c", map.get( 1, 3 ) );
+        assertNull( map.get( 3, 1 ) );
+        assertFalse( map.containsKey( 3, 1 ) );
+        
+    }
+    
+    /**
+     * Null values are rejected.
+     */
+    @Test( expected = NullPointerException.class )
+    public void testNullValue() {
+        
+        new LongPairMap<String>().put( 1, 1, null );
+        
+    }
+    
+    /**
+     * Removing entries from the middle of clusters keeps the rest of the keys reachable,
+     * across several growths of the table.
+     */
+    @Test
+    public void testRemoveKeepsOthersReachable() {
+        
+        LongPairMap<Long> map = new LongPairMap<>();
+        Map<List<Long>,Long> expected = new HashMap<>();
+        for ( long i = 0; i < 5000; i++ ) {
+            
+            map.put( i % 7, i, i );
+            expected.put( key( i % 7, i ), i );
+            
+        }
+        for ( long i = 0; i < 5000; i += 3 ) {
+            
+            assertEquals( Long.valueOf( i ), map.remove( i % 7, i ) );
+            expected.remove( key( i % 7, i ) );
+            
+        }
+        assertSameMappings( expected, map );
+        for ( long i = 0; i < 5000; i += 3 ) {
+            
+            assertFalse( map.containsKey( i % 7, i ) );
+            assertNull( map.remove( i % 7, i ) );
+            
+        }
+        
+    }
+    
+    /**
+     * A random mix of insertions and removals in a small key space (so clusters are long
+     * and wrap around the table) matches a reference map.
+     */
+    @Test
+    public void testRandomOperations() {
+        
+        Random random = new Random( 42 );
+        LongPairMap<Long> map = new LongPairMap<>();
+        Map<List<Long>,Long> expected = new HashMap<>();
+        for ( int i = 0; i < 100000; i++ ) {
+            
+            long a = random.nextInt( 20 );
+            long b = random.nextInt( 20 );
+            if ( random.nextInt( 3 ) == 0 ) {
+                assertEquals( expected.remove( key( a, b ) ), map.remove( a, b ) );
+            } else {
+                long value = random.nextLong();
+                assertEquals( expected.put( key( a, b ), value ), map.put( a, b, value ) );
+            }
+            
+        }
+        assertSameMappings( expected, map );
+        
+    }
+    
+    /**
+     * Removing every entry that matches a filter leaves exactly the other entries, even
+     * when entries shifted back by a removal also match the filter.
+     */
+    @Test
+    public void testRemoveIf() {
+        
+        Random random = new Random( 7 );
+        for ( int round = 0; round < 200; round++ ) {
+            
+            LongPairMap<Long> map = new LongPairMap<>();
+            Map<List<Long>,Long> expected = new HashMap<>();
+            int amount = random.nextInt( 300 );
+            for ( int i = 0; i < amount; i++ ) {
+                
+                long a = random.nextInt( 30 );
+                long b = random.nextInt( 30 );
+                long value = random.nextInt( 100 );
+                map.put( a, b, value );
+                expected.put( key( a, b ), value );
+                
+            }
+            long threshold = random.nextInt( 100 );
+            int before = expected.size();
+            expected.values().removeIf( value -> value < threshold );
+            
+            assertEquals( before - expected.size(), map.removeIf( value -> value < threshold ) );
+            assertSameMappings( expected, map );
+            
+        }
+        
+    }
+    
+    /**
+     * A key can be added again after it was removed, and the table can be emptied.
+     */
+    @Test
+    public void testReinsert() {
+        
+        LongPairMap<String> map = new LongPairMap<>();
+        map.put( 5, 5, "a" );
+        assertEquals( "a", map.remove( 5, 5 ) );
+        assertTrue( map.isEmpty() );
+        assertNull( map.get( 5, 5 ) );
+        
+        map.put( 5, 5, "b" );
+        assertEquals( 1, map.size() );
+        assertEquals( "b", map.get( 5, 5 ) );
+        
+    }
+    
+    /**
+     * The counter tracks the count of each key, and drops keys whose count reaches zero.
+     */
+    @Test
+    public void testCounter() {
+        
+        LongPairCounter counter = new LongPairCounter();
+        assertEquals( 1, counter.add( 1, 2 ) );
+        assertEquals( 2, counter.add( 1, 2 ) );
+        assertEquals( 1, counter.add( 2, 1 ) );
+        assertEquals( 2, counter.size() );
+        
+        assertEquals( 1, counter.remove( 1, 2 ) );
+        assertEquals( 0, counter.remove( 1, 2 ) );
+        assertEquals( 0, counter.count( 1, 2 ) );
+        assertEquals( 1, counter.size() );
+        assertEquals( 1, counter.count( 2, 1 ) );
+        
+    }
+    
+}
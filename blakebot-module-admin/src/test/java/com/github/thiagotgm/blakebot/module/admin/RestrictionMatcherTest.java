@@ -0,0 +1,196 @@
+/*
+ * This file is part of BlakeBot.
+ *
+ * BlakeBot is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * BlakeBot is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with BlakeBot. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.thiagotgm.blakebot.module.admin;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.github.thiagotgm.blakebot.module.admin.Blacklist.Restriction;
+
+/**
+ * Unit tests for {@link RestrictionMatcher}.
+ *
+ * @version 1.0
+ * @author ThiagoTGM
+ * @since 2026-10-16
+ */
+public class RestrictionMatcherTest {
+    
+    private static final Restriction BAD = new Restriction( "bad", Restriction.Type.CONTENT );
+    private static final Restriction CAT = new Restriction( "cat", Restriction.Type.WORD );
+    private static final Restriction DIGITS = new Restriction( "\\d{3}", Restriction.Type.REGEX );
+    /**
+     * Tries every way of splitting a run of <tt>a</tt>s in 20 parts when it is not
+     * followed by a <tt>b</tt>.
+     */
+    private static final Restriction SLOW = new Restriction( "(.*a){20}b", Restriction.Type.REGEX );
+    private static final String SLOW_MESSAGE = String.join( "", Collections.nCopies( 40, "a" ) );
+    private static final String SLOW_MATCH = String.join( "", Collections.nCopies( 20, "a" ) ) + "b";
+    
+    /**
+     * Compiles a matcher for the given restrictions.
+     *
+     * @param restrictions The restrictions.
+     * @return The matcher.
+     */
+    private static RestrictionMatcher matcher( Restriction... restrictions ) {
+        
+        return new RestrictionMatcher( Arrays.asList( restrictions ) );
+        
+    }
+    
+    /**
+     * Searches a message, failing if any restriction gets quarantined.
+     *
+     * @param matcher The matcher.
+     * @param message The message.
+     * @return The restriction found.
+     */
+    private static Restriction find( RestrictionMatcher matcher, String message ) {
+        
+        return matcher.find( message, r -> { throw new AssertionError( "Quarantined " + r ); } );
+        
+    }
+    
+    /**
+     * The empty matcher never matches.
+     */
+    @Test
+    public void testEmpty() {
+        
+        assertTrue( RestrictionMatcher.EMPTY.isEmpty() );
+        assertNull( find( RestrictionMatcher.EMPTY, "anything" ) );
+        
+    }
+    
+    /**
+     * Content restrictions match anywhere, ignoring case.
+     */
+    @Test
+    public void testContent() {
+        
+        RestrictionMatcher matcher = matcher( BAD );
+        assertSame( BAD, find( matcher, "That was BADly done" ) );
+        assertSame( BAD, find( matcher, "bad" ) );
+        assertNull( find( matcher, "ba d" ) );
+        
+    }
+    
+    /**
+     * Word restrictions only match when delimited by whitespace or the ends of the message.
+     */
+    @Test
+    public void testWord() {
+        
+        RestrictionMatcher matcher = matcher( CAT );
+        assertSame( CAT, find( matcher, "cat" ) );
+        assertSame( CAT, find( matcher, "a CAT here" ) );
+        assertSame( CAT, find( matcher, "dog\tcat\ndog" ) );
+        assertSame( CAT, find( matcher, "cats and a cat" ) ); // Second occurrence is a word.
+        assertNull( find( matcher, "concatenate" ) );
+        assertNull( find( matcher, "cats" ) );
+        assertNull( find( matcher, "cat." ) );
+        
+    }
+    
+    /**
+     * A restriction contained in a longer one is found through the failure links when the
+     * longer one does not match.
+     */
+    @Test
+    public void testOverlapping() {
+        
+        Restriction longer = new Restriction( "abcd", Restriction.Type.CONTENT );
+        Restriction shorter = new Restriction( "bc", Restriction.Type.CONTENT );
+        Restriction suffix = new Restriction( "cde", Restriction.Type.CONTENT );
+        RestrictionMatcher matcher = matcher( longer, shorter, suffix );
+        
+        assertSame( shorter, find( matcher, "xabcx" ) );
+        
+        matcher = matcher( longer, suffix );
+        assertSame( longer, find( matcher, "xabcde" ) );
+        assertSame( suffix, find( matcher, "abccde" ) ); // Falls back from "abc" to "c".
+        assertNull( find( matcher, "abce" ) );
+        
+    }
+    
+    /**
+     * Regex restrictions are matched case-sensitively, alongside the automaton.
+     */
+    @Test
+    public void testRegex() {
+        
+        Restriction upper = new Restriction( "ABC", Restriction.Type.REGEX );
+        RestrictionMatcher matcher = matcher( CAT, DIGITS, upper );
+        assertEquals( 3, matcher.size() );
+        
+        assertSame( DIGITS, find( matcher, "call 555 now" ) );
+        assertSame( CAT, find( matcher, "cat 555" ) );
+        assertNull( find( matcher, "abc" ) );
+        assertSame( upper, find( matcher, "xABCx" ) );
+        
+    }
+    
+    /**
+     * A regex that exceeds the step limit is quarantined and reported once, and the
+     * other restrictions are still checked.
+     */
+    @Test
+    public void testQuarantine() {
+        
+        RestrictionMatcher matcher = matcher( SLOW, BAD, DIGITS );
+        List<Restriction> reported = new ArrayList<>();
+        
+        assertNull( matcher.find( SLOW_MESSAGE, reported::add ) );
+        assertEquals( Collections.singletonList( SLOW ), reported );
+        assertTrue( matcher.getQuarantined().contains( SLOW ) );
+        
+        assertSame( DIGITS, matcher.find( SLOW_MESSAGE + " 123", reported::add ) );
+        assertSame( BAD, matcher.find( "bad", reported::add ) );
+        assertNull( matcher.find( SLOW_MATCH, reported::add ) ); // Skipped even though it would match.
+        assertEquals( 1, reported.size() );
+        
+    }
+    
+    /**
+     * Quarantined restrictions carry over to a recompiled matcher, but only while they
+     * are still in it.
+     */
+    @Test
+    public void testKeepQuarantined() {
+        
+        List<Restriction> quarantined = Collections.singletonList( SLOW );
+        RestrictionMatcher kept = new RestrictionMatcher( Arrays.asList( SLOW, BAD ), quarantined );
+        assertEquals( quarantined, new ArrayList<>( kept.getQuarantined() ) );
+        assertNull( find( kept, SLOW_MATCH ) );
+        
+        RestrictionMatcher dropped = new RestrictionMatcher( Arrays.asList( BAD ), quarantined );
+        assertTrue( dropped.getQuarantined().isEmpty() );
+        
+    }
+    
+}
@@ -0,0 +1,144 @@
+/*
+ * This file is part of BlakeBot.
+ *
+ * BlakeBot is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * BlakeBot is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with BlakeBot. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.thiagotgm.blakebot.module.admin;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+/**
+ * Unit tests for {@link SlidingWindowCounter}.
+ * <p>
+ * All tests use a fixed epoch and explicit times, with a window of 1000 ms split in 10
+ * buckets of 100 ms.
+ *
+ * @version 1.0
+ * @author ThiagoTGM
+ * @since 2026-10-16
+ */
+public class SlidingWindowCounterTest {
+    
+    private static final long WINDOW = 1000;
+    private static final int BUCKETS = 10;
+    private static final long EPOCH = 1_000_000;
+    
+    /**
+     * Creates a counter for the tests.
+     *
+     * @return The counter.
+     */
+    private static SlidingWindowCounter counter() {
+        
+        return new SlidingWindowCounter( WINDOW, BUCKETS, EPOCH );
+        
+    }
+    
+    /**
+     * Events in the same and in different buckets within the window are all counted.
+     */
+    @Test
+    public void testCountWithinWindow() {
+        
+        SlidingWindowCounter counter = counter();
+        assertEquals( 1, counter.increment( EPOCH ) );
+        assertEquals( 2, counter.increment( EPOCH + 50 ) );
+        assertEquals( 3, counter.increment( EPOCH + 150 ) );
+        assertEquals( 8, counter.add( EPOCH + 950, 5 ) );
+        assertEquals( 8, counter.count( EPOCH + 999 ) );
+        
+    }
+    
+    /**
+     * Events stop being counted once their bucket slides out of the window.
+     */
+    @Test
+    public void testExpiry() {
+        
+        SlidingWindowCounter counter = counter();
+        counter.add( EPOCH + 10, 2 );
+        counter.add( EPOCH + 120, 3 );
+        
+        assertEquals( 5, counter.count( EPOCH + 999 ) );
+        assertEquals( 3, counter.count( EPOCH + 1000 ) ); // First bucket left the window.
+        assertEquals( 3, counter.count( EPOCH + 1099 ) );
+        assertEquals( 0, counter.count( EPOCH + 1100 ) );
+        assertEquals( 0, counter.count( EPOCH + 50_000 ) );
+        
+    }
+    
+    /**
+     * A bucket that is reused for a later time slice starts counting from zero.
+     */
+    @Test
+    public void testBucketReuse() {
+        
+        SlidingWindowCounter counter = counter();
+        counter.add( EPOCH, 4 );
+        assertEquals( 1, counter.increment( EPOCH + WINDOW ) ); // Same bucket, next round.
+        assertEquals( 1, counter.increment( EPOCH + 3 * WINDOW + 20 ) ); // Several rounds later.
+        
+    }
+    
+    /**
+     * Times before the epoch are counted in the first time slice.
+     */
+    @Test
+    public void testBeforeEpoch() {
+        
+        SlidingWindowCounter counter = counter();
+        counter.increment( EPOCH - 500 );
+        assertEquals( 1, counter.count( EPOCH ) );
+        assertEquals( 2, counter.increment( EPOCH + 99 ) );
+        
+    }
+    
+    /**
+     * The count of a bucket saturates instead of overflowing into the time slice.
+     */
+    @Test
+    public void testSaturation() {
+        
+        SlidingWindowCounter counter = counter();
+        int max = ( 1 << 24 ) - 1;
+        assertEquals( max, counter.add( EPOCH, Integer.MAX_VALUE ) );
+        assertEquals( max, counter.increment( EPOCH ) );
+        assertEquals( max + 1, counter.increment( EPOCH + 100 ) ); // Other buckets still count.
+        
+    }
+    
+    /**
+     * A counter needs at least one bucket.
+     */
+    @Test( expected = IllegalArgumentException.class )
+    public void testNoBuckets() {
+        
+        new SlidingWindowCounter( WINDOW, 0, EPOCH );
+        
+    }
+    
+    /**
+     * Buckets must be at least 1 ms long.
+     */
+    @Test( expected = IllegalArgumentException.class )
+    public void testWindowTooShort() {
+        
+        new SlidingWindowCounter( 5, BUCKETS, EPOCH );
+        
+    }
+    
+}
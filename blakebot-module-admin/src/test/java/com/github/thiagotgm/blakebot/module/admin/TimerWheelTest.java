@@ -0,0 +1,185 @@
+/*
+ * This file is part of BlakeBot.
+ *
+ * BlakeBot is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * BlakeBot is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with BlakeBot. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.thiagotgm.blakebot.module.admin;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Unit tests for {@link TimerWheel}.
+ * <p>
+ * The timer ticks every millisecond and runs expired tasks on its own thread, so the
+ * tests only check that tasks never run before their deadline and do run within a
+ * generous amount of time after it.
+ *
+ * @version 1.0
+ * @author ThiagoTGM
+ * @since 2026-10-16
+ */
+public class TimerWheelTest {
+    
+    private static final Executor DIRECT = Runnable::run;
+    private static final long WAIT = 5;
+    
+    private TimerWheel timer;
+    
+    /**
+     * Creates a timer with a small wheel, so that delays of a few milliseconds already
+     * take more than one round.
+     */
+    @Before
+    public void setUp() {
+        
+        timer = new TimerWheel( new ThreadGroup( "TimerWheelTest" ), DIRECT, 1, TimeUnit.MILLISECONDS, 4 );
+        
+    }
+    
+    /**
+     * Stops the timer.
+     */
+    @After
+    public void tearDown() {
+        
+        timer.stop();
+        
+    }
+    
+    /**
+     * Schedules a task that records when it ran, and waits for it.
+     *
+     * @param delay The delay, in milliseconds.
+     * @return How long after scheduling the task ran, in nanoseconds.
+     * @throws InterruptedException if interrupted while waiting.
+     */
+    private long runAfter( long delay ) throws InterruptedException {
+        
+        CountDownLatch latch = new CountDownLatch( 1 );
+        AtomicLong ran = new AtomicLong();
+        long start = System.nanoTime();
+        timer.schedule( () -> {
+            
+            ran.set( System.nanoTime() );
+            latch.countDown();
+            
+        }, delay, TimeUnit.MILLISECONDS );
+        assertTrue( "Task did not run.", latch.await( WAIT, TimeUnit.SECONDS ) );
+        return ran.get() - start;
+        
+    }
+    
+    /**
+     * A task within the first round of the wheel runs after its delay.
+     *
+     * @throws InterruptedException if interrupted while waiting.
+     */
+    @Test
+    public void testShortDelay() throws InterruptedException {
+        
+        assertTrue( runAfter( 3 ) >= TimeUnit.MILLISECONDS.toNanos( 3 ) );
+        
+    }
+    
+    /**
+     * A task several rounds of the wheel away is not run when its slot first comes up.
+     *
+     * @throws InterruptedException if interrupted while waiting.
+     */
+    @Test
+    public void testMultipleRounds() throws InterruptedException {
+        
+        assertTrue( runAfter( 50 ) >= TimeUnit.MILLISECONDS.toNanos( 50 ) );
+        
+    }
+    
+    /**
+     * Tasks with no delay (or a negative one) are run on the next tick.
+     *
+     * @throws InterruptedException if interrupted while waiting.
+     */
+    @Test
+    public void testNoDelay() throws InterruptedException {
+        
+        runAfter( 0 );
+        runAfter( -10 );
+        
+    }
+    
+    /**
+     * A cancelled task is not run, while other tasks in the same slot still are.
+     *
+     * @throws InterruptedException if interrupted while waiting.
+     */
+    @Test
+    public void testCancel() throws InterruptedException {
+        
+        AtomicBoolean ran = new AtomicBoolean( false );
+        TimerWheel.Task task = timer.schedule( () -> ran.set( true ), 20, TimeUnit.MILLISECONDS );
+        task.cancel();
+        runAfter( 20 );
+        runAfter( 40 );
+        assertFalse( "Cancelled task ran.", ran.get() );
+        
+    }
+    
+    /**
+     * Pending tasks are not run after the timer is stopped.
+     *
+     * @throws InterruptedException if interrupted while waiting.
+     */
+    @Test
+    public void testStop() throws InterruptedException {
+        
+        AtomicBoolean ran = new AtomicBoolean( false );
+        timer.schedule( () -> ran.set( true ), 20, TimeUnit.MILLISECONDS );
+        timer.stop();
+        Thread.sleep( 100 );
+        assertFalse( "Task ran after the timer stopped.", ran.get() );
+        
+    }
+    
+    /**
+     * The tick duration must be positive.
+     */
+    @Test( expected = IllegalArgumentException.class )
+    public void testInvalidTick() {
+        
+        new TimerWheel( new ThreadGroup( "TimerWheelTest" ), DIRECT, 0, TimeUnit.MILLISECONDS, 4 );
+        
+    }
+    
+    /**
+     * The wheel must have at least one slot.
+     */
+    @Test( expected = IllegalArgumentException.class )
+    public void testInvalidSize() {
+        
+        new TimerWheel( new ThreadGroup( "TimerWheelTest" ), DIRECT, 1, TimeUnit.MILLISECONDS, 0 );
+        
+    }
+    
+}
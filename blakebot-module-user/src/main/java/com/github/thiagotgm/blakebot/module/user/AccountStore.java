@@ -0,0 +1,882 @@
+/*
+ * This file is part of BlakeBot.
+ *
+ * BlakeBot is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * BlakeBot is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with BlakeBot. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.thiagotgm.blakebot.module.user;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Map;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToLongFunction;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.github.thiagotgm.bot_utils.ExitManager;
+import com.github.thiagotgm.bot_utils.Settings;
+import com.github.thiagotgm.bot_utils.utils.AsyncTools;
+
+/**
+ * Store of the frequently used per-user values of the user module (balance, level and
+ * EXP, votes, and last daily), kept in primitive arrays keyed by user ID.
+ * <p>
+ * The store is where these values are kept: each user takes one slot across a few
+ * parallel arrays, instead of a string key and a boxed or translated value in a database
+ * map for each of the managers. It is saved to a compact binary file every
+ * {@link #SAVE_INTERVAL} seconds, if anything changed, and when the program exits. The
+ * file is written under a temporary name and then moved over the previous one, so a save
+ * that fails midway leaves the previous file intact.
+ * <p>
+ * Older versions kept the values in the databases. The first time a manager uses the
+ * store, it imports the values of its database (see {@link #isImported(Field)}), and from
+ * then on it no longer uses the database for them.
+ * <p>
+ * The table is split into segments that are locked independently, and the file is
+ * written one segment at a time, so saving never blocks the whole store.
+ *
+ * @version 1.0
+ * @author ThiagoTGM
+ * @since 2026-10-16
+ */
+public class AccountStore implements ExitManager.ExitListener {
+    
+    private static final Logger LOG = LoggerFactory.getLogger( AccountStore.class );
+    private static final ThreadGroup THREADS = new ThreadGroup( "Account Store" );
+    
+    /**
+     * Value returned for values that were never set.
+     */
+    public static final long UNKNOWN = Long.MIN_VALUE;
+    
+    /**
+     * Setting that defines {@link #SAVE_INTERVAL}.
+     */
+    public static final String SAVE_INTERVAL_SETTING = "Account save interval";
+    /**
+     * How often the store is saved, in seconds.
+     */
+    public static final int SAVE_INTERVAL = Settings.getIntSetting( SAVE_INTERVAL_SETTING );
+    private static final long STATS_INTERVAL = 3600; // Seconds.
+    
+    private static final String FILE = "accounts.bin";
+    private static final int MAGIC = 0x42424153;
+    private static final int VERSION = 2;
+    private static final int BUFFER_SIZE = 1 << 16;
+    
+    private static final int FIELDS = Field.values().length;
+    /**
+     * Flag of the slots that changed since they were last saved.
+     */
+    private static final int DIRTY = 1 << FIELDS;
+    private static final int FIELD_FLAGS = DIRTY - 1;
+    
+    private static final int SEGMENTS = 16;
+    
+    private static AccountStore instance;
+    
+    /**
+     * Retrieves the running instance of the store, loading the saved store if there is one.
+     *
+     * @return The instance.
+     */
+    public static synchronized AccountStore getInstance() {
+        
+        if ( instance == null ) {
+            instance = new AccountStore();
+            ExitManager.registerListener( instance );
+        }
+        return instance;
+        
+    }
+    
+    /**
+     * Packs two ints into a long, such as a level and its EXP or the upvotes and downvotes
+     * of a user.
+     *
+     * @param high The value for the high bits.
+     * @param low The value for the low bits.
+     * @return The packed value.
+     */
+    public static long pack( int high, int low ) {
+        
+        return ( (long) high << 32 ) | ( low & 0xFFFFFFFFL );
+        
+    }
+    
+    /**
+     * Retrieves the high int of a packed value.
+     *
+     * @param packed The packed value.
+     * @return The high int.
+     */
+    public static int high( long packed ) {
+        
+        return (int) ( packed >>> 32 );
+        
+    }
+    
+    /**
+     * Retrieves the low int of a packed value.
+     *
+     * @param packed The packed value.
+     * @return The low int.
+     */
+    public static int low( long packed ) {
+        
+        return (int) packed;
+        
+    }
+    
+    private final Segment[] segments;
+    private final Object saveLock;
+    private volatile int imported;
+    private boolean saveNeeded;
+    private final WriteBehindStats stats;
+    private final ScheduledExecutorService scheduler;
+    
+    /**
+     * Creates a new store, loading the saved store if there is one.
+     */
+    private AccountStore() {
+        
+        this.segments = new Segment[ SEGMENTS ];
+        for ( int i = 0; i < SEGMENTS; i++ ) {
+            
+            segments[i] = new Segment();
+            
+        }
+        this.saveLock = new Object();
+        this.imported = 0;
+        this.saveNeeded = false;
+        this.stats = new WriteBehindStats( this::getDirty );
+        load();
+        
+        this.scheduler = AsyncTools.createScheduledThreadPool( THREADS, ( t, e ) -> {
+            
+            LOG.error( "Error while maintaining account store.", e );
+            
+        });
+        scheduler.scheduleWithFixedDelay( this::trySave, SAVE_INTERVAL, SAVE_INTERVAL, TimeUnit.SECONDS );
+        scheduler.scheduleWithFixedDelay( this::logStats, STATS_INTERVAL, STATS_INTERVAL, TimeUnit.SECONDS );
+        
+        LOG.debug( "Account save interval is {} seconds.", SAVE_INTERVAL );
+        
+    }
+    
+    /**
+     * Retrieves the segment that holds an ID.
+     *
+     * @param id The ID.
+     * @return The segment.
+     */
+    private Segment segmentFor( long id ) {
+        
+        return segments[LongTable.segment( id, SEGMENTS )];
+        
+    }
+    
+    /**
+     * Retrieves a value.
+     *
+     * @param id The user ID.
+     * @param field The field of the value.
+     * @return The value, or {@link #UNKNOWN} if it was never set.
+     */
+    private long get( long id, Field field ) {
+        
+        return segmentFor( id ).get( id, field.ordinal() );
+        
+    }
+    
+    /**
+     * Sets a value.
+     *
+     * @param id The user ID.
+     * @param field The field of the value.
+     * @param value The value.
+     */
+    private void set( long id, Field field, long value ) {
+        
+        segmentFor( id ).set( id, field.ordinal(), value );
+        
+    }
+    
+    /**
+     * Retrieves the balance of a user.
+     *
+     * @param id The user ID.
+     * @return The balance, or {@link #UNKNOWN} if it was never set.
+     */
+    public long getBalance( long id ) {
+        
+        return get( id, Field.BALANCE );
+        
+    }
+    
+    /**
+     * Sets the balance of a user.
+     *
+     * @param id The user ID.
+     * @param balance The balance.
+     */
+    public void setBalance( long id, long balance ) {
+        
+        set( id, Field.BALANCE, balance );
+        
+    }
+    
+    /**
+     * Retrieves the level and EXP of a user.
+     *
+     * @param id The user ID.
+     * @return The level and EXP, {@link #pack(int, int) packed} in that order, or
+     *         {@link #UNKNOWN} if they were never set.
+     */
+    public long getLevel( long id ) {
+        
+        return get( id, Field.LEVEL );
+        
+    }
+    
+    /**
+     * Sets the level and EXP of a user.
+     *
+     * @param id The user ID.
+     * @param level The level.
+     * @param exp The EXP towards the next level.
+     */
+    public void setLevel( long id, int level, int exp ) {
+        
+        set( id, Field.LEVEL, pack( level, exp ) );
+        
+    }
+    
+    /**
+     * Retrieves the votes towards the reputation of a user.
+     *
+     * @param id The user ID.
+     * @return The upvotes and downvotes, {@link #pack(int, int) packed} in that order, or
+     *         {@link #UNKNOWN} if they were never set.
+     */
+    public long getVotes( long id ) {
+        
+        return get( id, Field.VOTES );
+        
+    }
+    
+    /**
+     * Sets the votes towards the reputation of a user.
+     *
+     * @param id The user ID.
+     * @param upvotes The amount of upvotes.
+     * @param downvotes The amount of downvotes.
+     */
+    public void setVotes( long id, int upvotes, int downvotes ) {
+        
+        set( id, Field.VOTES, pack( upvotes, downvotes ) );
+        
+    }
+    
+    /**
+     * Retrieves when a user last got a daily.
+     *
+     * @param id The user ID.
+     * @return The value set by {@link #setLastDaily(long, long)}, or {@link #UNKNOWN} if it
+     *         was never set.
+     */
+    public long getLastDaily( long id ) {
+        
+        return get( id, Field.DAILY );
+        
+    }
+    
+    /**
+     * Sets when a user last got a daily.
+     *
+     * @param id The user ID.
+     * @param day The day, in the format used by the caller.
+     */
+    public void setLastDaily( long id, long day ) {
+        
+        set( id, Field.DAILY, day );
+        
+    }
+    
+    /**
+     * Determines whether the values of a field were already imported from the database
+     * used by older versions.
+     *
+     * @param field The field.
+     * @return <tt>true</tt> if the field was imported.
+     */
+    public boolean isImported( Field field ) {
+        
+        return ( imported & ( 1 << field.ordinal() ) ) != 0;
+        
+    }
+    
+    /**
+     * Imports the values of a field from a database map used by older versions, keyed by
+     * the string ID of the user. Values that were already set are kept instead, so an
+     * imported value never replaces a newer one.
+     * <p>
+     * The field is not marked as imported, so that several maps can be imported into it.
+     * Once done, {@link #setImported(Field)} must be called.
+     *
+     * @param field The field.
+     * @param map The map to import.
+     * @param converter Converts the values in the map into the format used by the setter of
+     *                  the field.
+     * @param <V> The type of the values in the map.
+     */
+    public <V> void importValues( Field field, Map<String,V> map, ToLongFunction<? super V> converter ) {
+        
+        long start = System.nanoTime();
+        int count = 0;
+        for ( Map.Entry<String,V> entry : map.entrySet() ) {
+            
+            long id;
+            try {
+                id = Long.parseLong( entry.getKey() );
+            } catch ( NumberFormatException e ) {
+                id = 0;
+            }
+            if ( id == 0 ) {
+                LOG.warn( "Invalid user ID \"{}\" while importing {} values.", entry.getKey(), field );
+                continue;
+            }
+            segmentFor( id ).load( id, field.ordinal(), converter.applyAsLong( entry.getValue() ) );
+            count++;
+            
+        }
+        LOG.info( "Imported {} {} values from the database in {} ms.", count, field,
+                TimeUnit.NANOSECONDS.toMillis( System.nanoTime() - start ) );
+        
+    }
+    
+    /**
+     * Marks that the values of a field finished being imported, and saves the store, so
+     * they are not imported again.
+     *
+     * @param field The field.
+     * @throws UncheckedIOException if an error occurred while saving.
+     */
+    public void setImported( Field field ) throws UncheckedIOException {
+        
+        synchronized ( saveLock ) {
+            imported |= 1 << field.ordinal();
+            saveNeeded = true;
+        }
+        save();
+        
+    }
+    
+    /**
+     * Calls the given visitor for every user that has a value in the given field. Each
+     * segment is copied while locked, and the visitor is called after releasing it.
+     *
+     * @param field The field.
+     * @param visitor The visitor.
+     */
+    public void forEach( Field field, Visitor visitor ) {
+        
+        int index = field.ordinal();
+        for ( Segment segment : segments ) {
+            
+            long[] ids;
+            long[] values;
+            int count = 0;
+            synchronized ( segment ) {
+                ids = new long[ segment.size() ];
+                values = new long[ ids.length ];
+                for ( int slot = 0; slot < segment.capacity(); slot++ ) {
+                    
+                    if ( ( segment.flags[slot] & ( 1 << index ) ) != 0 ) { // Empty slots have no flags.
+                        ids[count] = segment.keyAt( slot );
+                        values[count++] = segment.values[index][slot];
+                    }
+                    
+                }
+            }
+            for ( int i = 0; i < count; i++ ) {
+                
+                visitor.visit( ids[i], values[i] );
+                
+            }
+            
+        }
+        
+    }
+    
+    /**
+     * Retrieves how many users are in the store.
+     *
+     * @return The amount of users.
+     */
+    public int size() {
+        
+        int size = 0;
+        for ( Segment segment : segments ) {
+            
+            synchronized ( segment ) {
+                size += segment.size();
+            }
+            
+        }
+        return size;
+        
+    }
+    
+    /**
+     * Retrieves how many users changed since the store was last saved.
+     *
+     * @return The amount of changed users.
+     */
+    private int getDirty() {
+        
+        int dirty = 0;
+        for ( Segment segment : segments ) {
+            
+            synchronized ( segment ) {
+                dirty += segment.dirty;
+            }
+            
+        }
+        return dirty;
+        
+    }
+    
+    /**
+     * Retrieves the statistics of the saves of the store.
+     *
+     * @return The statistics.
+     */
+    public WriteBehindStats getStats() {
+        
+        return stats;
+        
+    }
+    
+    /**
+     * Loads the saved store, if there is one.
+     * <p>
+     * If the file cannot be read, it is renamed so that it is not overwritten by the next
+     * save, and the store starts empty, so the managers import their databases again.
+     */
+    private void load() {
+        
+        File file = new File( FILE );
+        if ( !file.exists() ) {
+            return;
+        }
+        long start = System.nanoTime();
+        int count = 0;
+        try ( FileInputStream in = new FileInputStream( file ) ) {
+            
+            CheckedInputStream checked = new CheckedInputStream(
+                    new BufferedInputStream( in, BUFFER_SIZE ), new CRC32() );
+            DataInputStream input = new DataInputStream( checked );
+            if ( ( input.readInt() != MAGIC ) || ( input.readInt() != VERSION ) ) {
+                throw new IOException( "Unknown format." );
+            }
+            int imported = input.readInt();
+            int blocks = input.readInt();
+            for ( int block = 0; block < blocks; block++ ) {
+                
+                int users = input.readInt();
+                for ( int i = 0; i < users; i++ ) {
+                    
+                    long id = input.readLong();
+                    if ( id == 0 ) {
+                        throw new IOException( "Invalid user ID." );
+                    }
+                    int flags = input.readByte();
+                    for ( int field = 0; field < FIELDS; field++ ) {
+                        
+                        if ( ( flags & ( 1 << field ) ) != 0 ) {
+                            segmentFor( id ).set( id, field, input.readLong() );
+                        }
+                        
+                    }
+                    
+                }
+                count += users;
+                
+            }
+            long checksum = checked.getChecksum().getValue();
+            if ( ( input.readLong() != checksum ) || ( input.read() != -1 ) ) {
+                throw new IOException( "Checksum does not match." );
+            }
+            this.imported = imported;
+        } catch ( IOException e ) {
+            File corrupt = new File( FILE + ".corrupt-" + System.currentTimeMillis() );
+            LOG.error( "Failed to load saved account store, moving it to \"{}\" and starting empty.",
+                    corrupt, e );
+            for ( int i = 0; i < SEGMENTS; i++ ) { // Discard partially loaded data.
+                
+                segments[i] = new Segment();
+                
+            }
+            if ( !file.renameTo( corrupt ) ) {
+                throw new UncheckedIOException( "Could not move unreadable account store.", e );
+            }
+            return;
+        }
+        for ( Segment segment : segments ) { // Loaded values are already saved.
+            
+            segment.clean();
+            
+        }
+        LOG.info( "Loaded {} accounts in {} ms.", count,
+                TimeUnit.NANOSECONDS.toMillis( System.nanoTime() - start ) );
+        
+    }
+    
+    /**
+     * Saves the store, if anything changed since it was last saved.
+     * <p>
+     * Each segment is copied while locked and written after releasing it, so changes made
+     * while saving only wait for the copy of their segment.
+     *
+     * @throws UncheckedIOException if an error occurred while saving. The previously saved
+     *                              file is left as it was.
+     */
+    public void save() throws UncheckedIOException {
+        
+        synchronized ( saveLock ) {
+            if ( !saveNeeded && ( getDirty() == 0 ) ) {
+                return; // Nothing changed.
+            }
+            saveNeeded = true; // Until the new file is in place.
+            long start = System.nanoTime();
+            File file = new File( FILE );
+            File temp = new File( FILE + ".tmp" );
+            int count = 0;
+            try {
+                try ( FileOutputStream out = new FileOutputStream( temp ) ) {
+                    
+                    CheckedOutputStream checked = new CheckedOutputStream(
+                            new BufferedOutputStream( out, BUFFER_SIZE ), new CRC32() );
+                    DataOutputStream output = new DataOutputStream( checked );
+                    output.writeInt( MAGIC );
+                    output.writeInt( VERSION );
+                    output.writeInt( imported );
+                    output.writeInt( SEGMENTS );
+                    for ( Segment segment : segments ) {
+                        
+                        count += segment.write( output );
+                        
+                    }
+                    output.writeLong( checked.getChecksum().getValue() );
+                    output.flush();
+                    out.getFD().sync();
+                    
+                }
+                Files.move( temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                        StandardCopyOption.ATOMIC_MOVE );
+            } catch ( IOException e ) {
+                throw new UncheckedIOException( "Failed to save account store.", e );
+            }
+            saveNeeded = false;
+            long time = System.nanoTime() - start;
+            stats.recordFlush( count, time );
+            LOG.debug( "Saved {} accounts in {} ms.", count, TimeUnit.NANOSECONDS.toMillis( time ) );
+        }
+        
+    }
+    
+    /**
+     * Saves the store, if anything changed since it was last saved, logging any error
+     * instead of throwing it.
+     *
+     * @return <tt>true</tt> if the store was saved (or nothing changed).<br>
+     *         <tt>false</tt> if an error occurred.
+     */
+    public boolean trySave() {
+        
+        try {
+            save();
+            return true;
+        } catch ( UncheckedIOException e ) {
+            LOG.error( "Failed to save account store.", e );
+            return false;
+        }
+        
+    }
+    
+    /**
+     * Logs the statistics of the saves of the store.
+     */
+    private void logStats() {
+        
+        LOG.info( "Account store: {} accounts, {} saves wrote {} accounts, {} changed since the last save. "
+                + "Save time: {} ms average, {} ms max, {} ms last.", size(), stats.getFlushes(),
+                stats.getFlushed(), stats.getDirty(),
+                TimeUnit.NANOSECONDS.toMillis( stats.getAverageFlushTime() ),
+                TimeUnit.NANOSECONDS.toMillis( stats.getMaxFlushTime() ),
+                TimeUnit.NANOSECONDS.toMillis( stats.getLastFlushTime() ) );
+        
+    }
+    
+    /**
+     * Saves the store before the program exits.
+     */
+    @Override
+    public void handle() {
+        
+        scheduler.shutdown();
+        trySave();
+        logStats();
+        
+    }
+    
+    /**
+     * The values kept for each user.
+     *
+     * @version 1.0
+     * @author ThiagoTGM
+     * @since 2026-10-16
+     */
+    public enum Field {
+        
+        /**
+         * The balance of the user.
+         */
+        BALANCE,
+        
+        /**
+         * The level and EXP of the user.
+         */
+        LEVEL,
+        
+        /**
+         * The votes towards the reputation of the user.
+         */
+        VOTES,
+        
+        /**
+         * When the user last got a daily.
+         */
+        DAILY
+        
+    }
+    
+    /**
+     * Receives the values of a field for each user.
+     *
+     * @version 1.0
+     * @author ThiagoTGM
+     * @since 2026-10-16
+     */
+    @FunctionalInterface
+    public interface Visitor {
+        
+        /**
+         * Receives the value of a user.
+         *
+         * @param id The user ID.
+         * @param value The value.
+         */
+        void visit( long id, long value );
+        
+    }
+    
+    /**
+     * A segment of the table.
+     *
+     * @version 1.0
+     * @author ThiagoTGM
+     * @since 2026-10-16
+     */
+    private static class Segment extends LongTable {
+        
+        private long[][] values;
+        private byte[] flags;
+        private long[][] oldValues;
+        private byte[] oldFlags;
+        private int dirty;
+        
+        /**
+         * Creates an empty segment.
+         */
+        private Segment() {
+            
+            allocate( initialCapacity() );
+            this.dirty = 0;
+            
+        }
+        
+        @Override
+        protected void allocate( int capacity ) {
+            
+            oldValues = values;
+            oldFlags = flags;
+            values = new long[ FIELDS ][ capacity ];
+            flags = new byte[ capacity ];
+            
+        }
+        
+        @Override
+        protected void transfer( int from, int to ) {
+            
+            for ( int field = 0; field < FIELDS; field++ ) {
+                
+                values[field][to] = oldValues[field][from];
+                
+            }
+            flags[to] = oldFlags[from];
+            
+        }
+        
+        @Override
+        protected void release() {
+            
+            oldValues = null;
+            oldFlags = null;
+            
+        }
+        
+        /**
+         * Retrieves a value.
+         *
+         * @param id The ID.
+         * @param field The field.
+         * @return The value, or {@link AccountStore#UNKNOWN} if not set.
+         */
+        private synchronized long get( long id, int field ) {
+            
+            int slot = find( id );
+            return ( ( slot < 0 ) || ( ( flags[slot] & ( 1 << field ) ) == 0 ) ) ? UNKNOWN
+                    : values[field][slot];
+            
+        }
+        
+        /**
+         * Sets a value.
+         *
+         * @param id The ID.
+         * @param field The field.
+         * @param value The value.
+         */
+        private synchronized void set( long id, int field, long value ) {
+            
+            int slot = insert( id );
+            values[field][slot] = value;
+            if ( ( flags[slot] & DIRTY ) == 0 ) {
+                dirty++;
+            }
+            flags[slot] |= ( 1 << field ) | DIRTY;
+            
+        }
+        
+        /**
+         * Sets a value, unless it is already set.
+         *
+         * @param id The ID.
+         * @param field The field.
+         * @param value The value.
+         */
+        private synchronized void load( long id, int field, long value ) {
+            
+            if ( get( id, field ) == UNKNOWN ) {
+                set( id, field, value );
+            }
+            
+        }
+        
+        /**
+         * Marks every slot as saved.
+         */
+        private synchronized void clean() {
+            
+            for ( int i = 0; i < flags.length; i++ ) {
+                
+                flags[i] &= ~DIRTY;
+                
+            }
+            dirty = 0;
+            
+        }
+        
+        /**
+         * Writes the users in the segment, and marks them as saved.
+         *
+         * @param output The stream to write to.
+         * @return How many users were written.
+         * @throws IOException if an error occurred while writing.
+         */
+        private int write( DataOutputStream output ) throws IOException {
+            
+            long[] ids;
+            long[][] values;
+            byte[] flags;
+            synchronized ( this ) {
+                ids = new long[ size() ];
+                values = new long[ FIELDS ][ ids.length ];
+                flags = new byte[ ids.length ];
+                int count = 0;
+                for ( int slot = 0; slot < capacity(); slot++ ) {
+                    
+                    if ( keyAt( slot ) == 0 ) {
+                        continue; // Empty slot.
+                    }
+                    ids[count] = keyAt( slot );
+                    for ( int field = 0; field < FIELDS; field++ ) {
+                        
+                        values[field][count] = this.values[field][slot];
+                        
+                    }
+                    flags[count++] = this.flags[slot];
+                    
+                }
+                clean();
+            }
+            
+            output.writeInt( ids.length );
+            for ( int i = 0; i < ids.length; i++ ) {
+                
+                output.writeLong( ids[i] );
+                output.writeByte( flags[i] & FIELD_FLAGS );
+                for ( int field = 0; field < FIELDS; field++ ) {
+                    
+                    if ( ( flags[i] & ( 1 << field ) ) != 0 ) {
+                        output.writeLong( values[field][i] );
+                    }
+                    
+                }
+                
+            }
+            return ids.length;
+            
+        }
+        
+    }
+    
+}
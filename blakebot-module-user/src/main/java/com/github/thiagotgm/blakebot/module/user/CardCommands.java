@@ -19,7 +19,13 @@ package com.github.thiagotgm.blakebot.module.user;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.function.BiFunction;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
 import com.github.thiagotgm.blakebot.module.user.CardManager.Card;
 import com.github.thiagotgm.blakebot.module.user.CardManager.UserCards;
 import com.github.thiagotgm.bot_utils.utils.Utils;
@@ -30,10 +36,12 @@ import com.github.thiagotgm.modular_commands.api.Argument.Type;
 import com.github.thiagotgm.modular_commands.command.annotation.FailureHandler;
 import com.github.thiagotgm.modular_commands.command.annotation.MainCommand;
 import com.github.thiagotgm.modular_commands.command.annotation.SubCommand;
-import com.github.thiagotgm.modular_commands.command.annotation.SuccessHandler;
 
+import sx.blah.discord.api.internal.json.objects.EmbedObject;
 import sx.blah.discord.handle.obj.IUser;
 import sx.blah.discord.util.DiscordException;
+import sx.blah.discord.util.EmbedBuilder;
+import sx.blah.discord.util.MissingPermissionsException;
 
 /**
  * Commands to interact with the card system.
@@ -44,6 +52,8 @@ import sx.blah.discord.util.DiscordException;
  */
 public class CardCommands {
 
+    private static final Logger LOG = LoggerFactory.getLogger( CardCommands.class );
+
     /**
      * Gets the target specified in the first arg of the given context.
      * 
@@ -73,10 +83,50 @@ public class CardCommands {
 
     }
 
-    private static final String SUCCESS_HANDLER = "success";
+    /**
+     * Replies to a card command once the card operation completes, so that the
+     * command thread does not wait for it.
+     * 
+     * @param context
+     *            The context of the command.
+     * @param operation
+     *            The card operation.
+     * @param success
+     *            The message to reply with if the operation succeeded.
+     * @param failure
+     *            The message to reply with if the operation failed.
+     * @return <tt>true</tt>, as any failure is replied to when the operation
+     *         completes.
+     */
+    private static boolean replyWhenDone( CommandContext context, CompletableFuture<Boolean> operation,
+            String success, String failure ) {
+
+        operation.whenComplete( ( result, e ) -> {
+
+            String message;
+            Throwable cause = e instanceof CompletionException ? e.getCause() : e;
+            if ( cause == null ) {
+                message = result ? success : failure;
+            } else if ( cause instanceof IllegalArgumentException ) {
+                message = cause.getMessage(); // Expected.
+            } else {
+                message = "Sorry, I couldn't do that.";
+            }
+            try {
+                context.getReplyBuilder().withContent( message ).build();
+            } catch ( DiscordException | MissingPermissionsException ex ) {
+                LOG.warn( "Could not reply to card command.", ex );
+            }
+
+        } );
+        return true;
+
+    }
+
     private static final String FAILURE_HANDLER = "failure";
 
     private static final String GET_SUBCOMMAND = "Get custom card";
+    private static final String SEARCH_SUBCOMMAND = "Search custom cards";
     private static final String ADD_CARD_SUBCOMMAND = "Add custom card";
     private static final String REMOVE_CARD_SUBCOMMAND = "Remove custom card";
     private static final String CHANGE_TITLE_SUBCOMMAND = "Change custom card title";
@@ -96,6 +146,15 @@ public class CardCommands {
     private static final String SET_AUTHOR_URL_SUBCOMMAND = "Set custom card author URL";
     private static final String SET_AUTHOR_ICON_SUBCOMMAND = "Set custom card author icon";
 
+    private static final String CACHE_STATS_SUBCOMMAND = "Custom card cache stats";
+
+    private static final int SEARCH_PAGE_SIZE = 10;
+    private static final int SEARCH_MAX_PAGE = CardIndex.MAX_SKIP / SEARCH_PAGE_SIZE + 1;
+    // Keep the embed within the limits of 256 characters in the title and 2048 in the description.
+    private static final int SEARCH_MAX_QUERY_LENGTH = 200;
+    private static final int SEARCH_MAX_RESULT_TITLE_LENGTH = 80;
+    private static final int SEARCH_MAX_RESULT_AUTHOR_LENGTH = 40;
+
     private final CardManager manager = CardManager.getInstance();
 
     @MainCommand(
@@ -106,11 +165,11 @@ public class CardCommands {
                     + " cards at the same time, and may purchase more card slots using the " + "bot currency (up to "
                     + UserCards.MAX_CARDS + " cards)!",
             usage = "{}card <subcommand>",
-            subCommands = { GET_SUBCOMMAND, ADD_CARD_SUBCOMMAND, REMOVE_CARD_SUBCOMMAND, CHANGE_TITLE_SUBCOMMAND,
+            subCommands = { GET_SUBCOMMAND, SEARCH_SUBCOMMAND, ADD_CARD_SUBCOMMAND, REMOVE_CARD_SUBCOMMAND, CHANGE_TITLE_SUBCOMMAND,
                     BUY_SLOT_SUBCOMMAND, SET_FIELD_SUBCOMMAND, REMOVE_FIELD_SUBCOMMAND, SET_DESCRIPTION_SUBCOMMAND,
                     SET_URL_SUBCOMMAND, SET_FOOTER_SUBCOMMAND, SET_FOOTER_ICON_SUBCOMMAND, SET_IMAGE_SUBCOMMAND,
                     SET_THUMBNAIL_SUBCOMMAND, SET_AUTHOR_SUBCOMMAND, SET_AUTHOR_URL_SUBCOMMAND,
-                    SET_AUTHOR_ICON_SUBCOMMAND },
+                    SET_AUTHOR_ICON_SUBCOMMAND, CACHE_STATS_SUBCOMMAND },
             ignorePublic = true,
             ignorePrivate = true )
     public void cardCommand( CommandContext context ) {
@@ -143,13 +202,13 @@ public class CardCommands {
         }
 
         String name = args.get( 0 );
-        Card card = manager.getCard( target, name );
-        if ( card == null ) {
+        EmbedObject embed = manager.getCardEmbed( target, name );
+        if ( embed == null ) {
             context.setHelper( "**" + target.getName() + "** has no custom card named '" + name + "'!" );
             return false;
         }
         try {
-            context.getReplyBuilder().withEmbed( card.getEmbed() ).build(); // Send card.
+            context.getReplyBuilder().withEmbed( embed ).build(); // Send card.
         } catch ( DiscordException e ) {
             context.setHelper( e ); // Store exception.
             throw e;
@@ -159,6 +218,95 @@ public class CardCommands {
 
     }
 
+    @SubCommand(
+            name = SEARCH_SUBCOMMAND,
+            aliases = { "search", "find" },
+            description = "Searches the custom cards of all users by title and author. Cards "
+                    + "match if, for each word in the query, a word in their title or author "
+                    + "starts with it. A page number may be given after the query to see "
+                    + "more results.",
+            usage = "{}card search|find <query> [page]",
+            failureHandler = FAILURE_HANDLER )
+    public boolean searchCommand( CommandContext context ) {
+
+        List<String> args = new ArrayList<>( context.getArgs() );
+        int page = 1;
+        if ( args.size() > 1 ) { // Check if last arg is the page.
+            try {
+                page = Integer.parseInt( args.get( args.size() - 1 ) );
+                args.remove( args.size() - 1 );
+            } catch ( NumberFormatException e ) {
+                // Last arg is part of the query.
+            }
+        }
+        if ( args.isEmpty() ) {
+            context.setHelper( "Must specify what to search for!" );
+            return false;
+        }
+        if ( page < 1 ) {
+            context.setHelper( "Page must be a positive number." );
+            return false;
+        }
+        if ( page > SEARCH_MAX_PAGE ) {
+            context.setHelper( "Only the first " + SEARCH_MAX_PAGE + " pages of results can be seen. "
+                    + "Try a more specific query." );
+            return false;
+        }
+
+        String query = String.join( " ", args );
+        List<CardIndex.Entry> results = manager.searchCards( query, ( page - 1 ) * SEARCH_PAGE_SIZE,
+                SEARCH_PAGE_SIZE + 1 ); // One extra to know if there are more.
+        boolean more = results.size() > SEARCH_PAGE_SIZE;
+        if ( more ) {
+            results = results.subList( 0, SEARCH_PAGE_SIZE );
+        }
+
+        StringBuilder builder = new StringBuilder();
+        for ( CardIndex.Entry result : results ) {
+
+            IUser owner = context.getEvent().getClient().getUserByID( result.getOwner() );
+            builder.append( String.format( "**%s** (owned by %s)",
+                    shorten( result.getTitle(), SEARCH_MAX_RESULT_TITLE_LENGTH ),
+                    owner == null ? String.valueOf( result.getOwner() ) : owner.getName() + "#"
+                            + owner.getDiscriminator() ) );
+            if ( result.getAuthor() != null ) {
+                builder.append( " - by " ).append( shorten( result.getAuthor(), SEARCH_MAX_RESULT_AUTHOR_LENGTH ) );
+            }
+            builder.append( '\n' );
+
+        }
+        if ( results.isEmpty() ) {
+            builder.append( page == 1 ? "No cards found." : "No cards in this page." );
+        }
+        if ( !manager.isIndexLoaded() ) {
+            builder.append( "\n*Cards are still being indexed, so some may be missing.*" );
+        }
+
+        EmbedBuilder embed = new EmbedBuilder()
+                .withTitle( "Cards matching '" + shorten( query, SEARCH_MAX_QUERY_LENGTH ) + "'" )
+                .withDesc( builder.toString() )
+                .withFooterText( more && ( page < SEARCH_MAX_PAGE ) ? String.format( "Page %d | Use page %d to see more cards", page, page + 1 )
+                                      : String.format( "Page %d", page ) );
+        context.getReplyBuilder().withEmbed( embed.build() ).build();
+        return true;
+
+    }
+
+    /**
+     * Shortens a text to the given length, marking where it was cut.
+     * 
+     * @param text
+     *            The text.
+     * @param length
+     *            The maximum length.
+     * @return The text, shortened if necessary.
+     */
+    private static String shorten( String text, int length ) {
+
+        return text.length() <= length ? text : text.substring( 0, length - 3 ) + "...";
+
+    }
+
     @SubCommand(
             name = ADD_CARD_SUBCOMMAND,
             aliases = { "add" },
@@ -166,7 +314,6 @@ public class CardCommands {
                     + "The card will only be added only if you aren't currently using all "
                     + "your card slots. Also, the title must be limited to " + Card.MAX_TITLE_LENGTH + " characters.",
             usage = "{}card add <card name>",
-            successHandler = SUCCESS_HANDLER,
             failureHandler = FAILURE_HANDLER )
     public boolean addCardCommand( CommandContext context ) {
 
@@ -176,13 +323,8 @@ public class CardCommands {
         }
         String cardTitle = context.getArgs().get( 0 );
 
-        if ( manager.addCard( context.getAuthor(), cardTitle ) ) {
-            context.setHelper( "Added card '" + cardTitle + "'!" );
-            return true;
-        } else {
-            context.setHelper( "You are already using all of your card slots!" );
-            return false;
-        }
+        return replyWhenDone( context, manager.addCardAsync( context.getAuthor(), cardTitle ),
+                "Added card '" + cardTitle + "'!", "You are already using all of your card slots!" );
 
     }
 
@@ -191,7 +333,6 @@ public class CardCommands {
             aliases = { "remove", "rm" },
             description = "Removes a custom card with the given name (title) from yourself.",
             usage = "{}card remove|rm <card name>",
-            successHandler = SUCCESS_HANDLER,
             failureHandler = FAILURE_HANDLER )
     public boolean removeCardCommand( CommandContext context ) {
 
@@ -201,13 +342,8 @@ public class CardCommands {
         }
         String cardTitle = context.getArgs().get( 0 );
 
-        if ( manager.removeCard( context.getAuthor(), cardTitle ) ) {
-            context.setHelper( "Removed card '" + cardTitle + "'!" );
-            return true;
-        } else {
-            context.setHelper( "You don't have a card titled '" + cardTitle + "'!" );
-            return false;
-        }
+        return replyWhenDone( context, manager.removeCardAsync( context.getAuthor(), cardTitle ),
+                "Removed card '" + cardTitle + "'!", "You don't have a card titled '" + cardTitle + "'!" );
 
     }
 
@@ -217,7 +353,6 @@ public class CardCommands {
             description = "Changes the name (title) of the custom card with the given name to the "
                     + "given new name. The new title must be limited to " + Card.MAX_TITLE_LENGTH + " characters.",
             usage = "{}card changetitle|ct|settitle|st|edittitle|edit <current card name> <new card name>",
-            successHandler = SUCCESS_HANDLER,
             failureHandler = FAILURE_HANDLER )
     public boolean changeTitleCommand( CommandContext context ) {
 
@@ -228,13 +363,9 @@ public class CardCommands {
         String curTitle = context.getArgs().get( 0 );
         String newTitle = context.getArgs().get( 1 );
 
-        if ( manager.setCardTitle( context.getAuthor(), curTitle, newTitle ) ) {
-            context.setHelper( "Changed card name from '" + curTitle + "' to '" + newTitle + "'!" );
-            return true;
-        } else {
-            context.setHelper( "You don't have a card titled '" + curTitle + "'!" );
-            return false;
-        }
+        return replyWhenDone( context, manager.setCardTitleAsync( context.getAuthor(), curTitle, newTitle ),
+                "Changed card name from '" + curTitle + "' to '" + newTitle + "'!",
+                "You don't have a card titled '" + curTitle + "'!" );
 
     }
 
@@ -244,17 +375,12 @@ public class CardCommands {
             description = "Buys an extra custom card slot for $" + UserCards.EXTRA_CARD_COST + ", with a maximum of "
                     + UserCards.MAX_CARDS + " total slots.",
             usage = "{}card buyslot|buy",
-            successHandler = SUCCESS_HANDLER,
             failureHandler = FAILURE_HANDLER )
     public boolean buySlotCommand( CommandContext context ) {
 
-        if ( manager.buySlot( context.getAuthor() ) ) {
-            context.setHelper( "You now have another card slot! :money_with_wings:" );
-            return true;
-        } else {
-            context.setHelper( "You do not have enough funds to buy another slot!" );
-            return false;
-        }
+        return replyWhenDone( context, manager.buySlotAsync( context.getAuthor() ),
+                "You now have another card slot! :money_with_wings:",
+                "You do not have enough funds to buy another slot!" );
 
     }
 
@@ -269,7 +395,6 @@ public class CardCommands {
                     + Card.MAX_FIELD_TEXT_LENGTH + " characters.\nNOTE: "
                     + "When displaying the card, the fields are ordered by the title.",
             usage = "{}card setfield|setf <card name> <field name> <field text>",
-            successHandler = SUCCESS_HANDLER,
             failureHandler = FAILURE_HANDLER )
     public boolean setFieldCommand( CommandContext context ) {
 
@@ -281,13 +406,9 @@ public class CardCommands {
         String fieldName = context.getArgs().get( 1 );
         String fieldText = context.getArgs().get( 2 );
 
-        if ( manager.setField( context.getAuthor(), cardTitle, fieldName, fieldText ) ) {
-            context.setHelper( "Set text of field '" + fieldName + "' to '" + fieldText + "'!" );
-            return true;
-        } else {
-            context.setHelper( "The card '" + cardTitle + "' already has the maximum amount of fields!" );
-            return false;
-        }
+        return replyWhenDone( context, manager.setFieldAsync( context.getAuthor(), cardTitle, fieldName, fieldText ),
+                "Set text of field '" + fieldName + "' to '" + fieldText + "'!",
+                "The card '" + cardTitle + "' already has the maximum amount of fields!" );
 
     }
 
@@ -296,7 +417,6 @@ public class CardCommands {
             aliases = { "removefield", "rmf" },
             description = "Removes the field with the given name from the given card.",
             usage = "{}card removefield|rmf <card name> <field name>",
-            successHandler = SUCCESS_HANDLER,
             failureHandler = FAILURE_HANDLER )
     public boolean removeFieldCommand( CommandContext context ) {
 
@@ -307,13 +427,9 @@ public class CardCommands {
         String cardTitle = context.getArgs().get( 0 );
         String fieldName = context.getArgs().get( 1 );
 
-        if ( manager.setField( context.getAuthor(), cardTitle, fieldName, null ) ) {
-            context.setHelper( "Removed field '" + fieldName + "'!" );
-            return true;
-        } else {
-            context.setHelper( "The card '" + cardTitle + "' does not have a field named '" + fieldName + "'!" );
-            return false;
-        }
+        return replyWhenDone( context, manager.setFieldAsync( context.getAuthor(), cardTitle, fieldName, null ),
+                "Removed field '" + fieldName + "'!",
+                "The card '" + cardTitle + "' does not have a field named '" + fieldName + "'!" );
 
     }
 
@@ -327,16 +443,15 @@ public class CardCommands {
      *            used to make the error message if necessary.
      * @param setter
      *            The operation that takes the card title and the attribute value
-     *            (value may be <tt>null</tt>), in this order, and returns whether
-     *            the operation was successful.
-     * @return <tt>true</tt> if set successfully. <tt>false</tt> if there was an
-     *         error (the helper object of the context is set to the appropriate
-     *         error message).
-     * @throws IllegalArgumentException
-     *             if the setter threw such exception.
+     *            (value may be <tt>null</tt>), in this order, and returns the
+     *            future of the operation.
+     * @return <tt>true</tt> if the operation was started (the reply is sent when
+     *         it completes). <tt>false</tt> if the arguments are invalid (the
+     *         helper object of the context is set to the appropriate error
+     *         message).
      */
     private boolean setAttribute( CommandContext context, String attributeName,
-            BiFunction<String, String, Boolean> setter ) throws IllegalArgumentException {
+            BiFunction<String, String, CompletableFuture<Boolean>> setter ) {
 
         List<String> args = context.getArgs();
         if ( args.isEmpty() ) {
@@ -345,14 +460,9 @@ public class CardCommands {
         }
         String cardTitle = args.get( 0 );
         String value = args.size() >= 2 ? args.get( 1 ) : null;
-        if ( setter.apply( cardTitle, value ) ) {
-            context.setHelper(
-                    ( value == null ? "Removed " : "Set " ) + attributeName + " of card '" + cardTitle + "'!" );
-            return true;
-        } else {
-            context.setHelper( "You don't have a card titled '" + cardTitle + "'!" );
-            return false;
-        }
+        return replyWhenDone( context, setter.apply( cardTitle, value ),
+                ( value == null ? "Removed " : "Set " ) + attributeName + " of card '" + cardTitle + "'!",
+                "You don't have a card titled '" + cardTitle + "'!" );
 
     }
 
@@ -363,12 +473,11 @@ public class CardCommands {
                     + "given, the current description is deleted.\nThe description is " + "limited to "
                     + Card.MAX_DESCRIPTION_LENGTH + " characters.",
             usage = "{}card setdescription|setd <card name> [description]",
-            successHandler = SUCCESS_HANDLER,
             failureHandler = FAILURE_HANDLER )
     public boolean setDescriptionCommand( CommandContext context ) {
 
         return setAttribute( context, "description",
-                ( title, description ) -> manager.setDescription( context.getAuthor(), title, description ) );
+                ( title, description ) -> manager.setDescriptionAsync( context.getAuthor(), title, description ) );
 
     }
 
@@ -380,11 +489,10 @@ public class CardCommands {
                     + "checked for validity, but if it is invalid, the card will fail to "
                     + "be shown until the URL is replaced with a valid URL (or removed).",
             usage = "{}card seturl <card name> [URL]",
-            successHandler = SUCCESS_HANDLER,
             failureHandler = FAILURE_HANDLER )
     public boolean setUrlCommand( CommandContext context ) {
 
-        return setAttribute( context, "URL", ( title, url ) -> manager.setUrl( context.getAuthor(), title, url ) );
+        return setAttribute( context, "URL", ( title, url ) -> manager.setUrlAsync( context.getAuthor(), title, url ) );
 
     }
 
@@ -395,12 +503,11 @@ public class CardCommands {
                     + "given, the current footer is deleted.\nThe footer is " + "limited to " + Card.MAX_FOOTER_LENGTH
                     + " characters.",
             usage = "{}card setfooter|setft <card name> [footer]",
-            successHandler = SUCCESS_HANDLER,
             failureHandler = FAILURE_HANDLER )
     public boolean setFooterCommand( CommandContext context ) {
 
         return setAttribute( context, "footer",
-                ( title, footer ) -> manager.setFooter( context.getAuthor(), title, footer ) );
+                ( title, footer ) -> manager.setFooterAsync( context.getAuthor(), title, footer ) );
 
     }
 
@@ -412,12 +519,11 @@ public class CardCommands {
                     + "\nThe URL is not checked for validity, but if it is invalid, the "
                     + "card will fail to be shown until the icon URL is replaced with a " + "valid URL (or removed).",
             usage = "{}card setfootericon|setfti <card name> [icon URL]",
-            successHandler = SUCCESS_HANDLER,
             failureHandler = FAILURE_HANDLER )
     public boolean setFooterIconCommand( CommandContext context ) {
 
         return setAttribute( context, "footer icon",
-                ( title, iconUrl ) -> manager.setFooterIcon( context.getAuthor(), title, iconUrl ) );
+                ( title, iconUrl ) -> manager.setFooterIconAsync( context.getAuthor(), title, iconUrl ) );
 
     }
 
@@ -429,12 +535,11 @@ public class CardCommands {
                     + "\nThe URL is not checked for validity, but if it is invalid, the "
                     + "card will fail to be shown until the image URL is replaced with a " + "valid URL (or removed).",
             usage = "{}card setimage|seti <card name> [image URL]",
-            successHandler = SUCCESS_HANDLER,
             failureHandler = FAILURE_HANDLER )
     public boolean setImageCommand( CommandContext context ) {
 
         return setAttribute( context, "image",
-                ( title, imageUrl ) -> manager.setImage( context.getAuthor(), title, imageUrl ) );
+                ( title, imageUrl ) -> manager.setImageAsync( context.getAuthor(), title, imageUrl ) );
 
     }
 
@@ -447,12 +552,11 @@ public class CardCommands {
                     + "card will fail to be shown until the thumbnail URL is replaced with "
                     + "a valid URL (or removed).",
             usage = "{}card setthumbnail|setth <card name> [image URL]",
-            successHandler = SUCCESS_HANDLER,
             failureHandler = FAILURE_HANDLER )
     public boolean setThumbnailCommand( CommandContext context ) {
 
         return setAttribute( context, "thumbnail",
-                ( title, imageUrl ) -> manager.setThumbnail( context.getAuthor(), title, imageUrl ) );
+                ( title, imageUrl ) -> manager.setThumbnailAsync( context.getAuthor(), title, imageUrl ) );
 
     }
 
@@ -463,12 +567,11 @@ public class CardCommands {
                     + "the card). If no name is given, the current author is deleted.\nThe "
                     + "author name is limited to " + Card.MAX_AUTHOR_LENGTH + " characters.",
             usage = "{}card setauthor|seta <card name> [author name]",
-            successHandler = SUCCESS_HANDLER,
             failureHandler = FAILURE_HANDLER )
     public boolean setAuthorCommand( CommandContext context ) {
 
         return setAttribute( context, "author",
-                ( title, footer ) -> manager.setAuthor( context.getAuthor(), title, footer ) );
+                ( title, footer ) -> manager.setAuthorAsync( context.getAuthor(), title, footer ) );
 
     }
 
@@ -480,12 +583,11 @@ public class CardCommands {
                     + "URL is not checked for validity, but if it is invalid, the card will "
                     + "fail to be shown until the URL is replaced with a valid URL (or removed).",
             usage = "{}card setauthorurl|setaurl <card name> [URL]",
-            successHandler = SUCCESS_HANDLER,
             failureHandler = FAILURE_HANDLER )
     public boolean setAuthorUrlCommand( CommandContext context ) {
 
         return setAttribute( context, "author URL",
-                ( title, url ) -> manager.setAuthorUrl( context.getAuthor(), title, url ) );
+                ( title, url ) -> manager.setAuthorUrlAsync( context.getAuthor(), title, url ) );
 
     }
 
@@ -497,19 +599,30 @@ public class CardCommands {
                     + "\nThe URL is not checked for validity, but if it is invalid, the "
                     + "card will fail to be shown until the icon URL is replaced with a " + "valid URL (or removed).",
             usage = "{}card setauthoricon|setai <card name> [icon URL]",
-            successHandler = SUCCESS_HANDLER,
             failureHandler = FAILURE_HANDLER )
     public boolean setAuthorIconCommand( CommandContext context ) {
 
         return setAttribute( context, "author icon",
-                ( title, iconUrl ) -> manager.setAuthorIcon( context.getAuthor(), title, iconUrl ) );
+                ( title, iconUrl ) -> manager.setAuthorIconAsync( context.getAuthor(), title, iconUrl ) );
 
     }
 
-    @SuccessHandler( SUCCESS_HANDLER )
-    public void successHandler( CommandContext context ) {
-
-        context.getReplyBuilder().withContent( (String) context.getHelper().get() ).build();
+    @SubCommand(
+            name = CACHE_STATS_SUBCOMMAND,
+            aliases = { "cachestats" },
+            description = "Shows how often shown cards are found in the embed cache.",
+            usage = "{}card cachestats",
+            requiresOwner = true )
+    public void cacheStatsCommand( CommandContext context ) {
+
+        EmbedCache cache = manager.getEmbedCache();
+        EmbedBuilder builder = new EmbedBuilder().withTitle( "Custom card embed cache" );
+        builder.appendField( "Cached", cache.size() + "/" + cache.getCapacity(), true );
+        builder.appendField( "Hit rate", String.format( "%.1f%%", cache.getHitRate() ), true );
+        builder.appendField( "Hits", String.valueOf( cache.getHits() ), true );
+        builder.appendField( "Misses", String.valueOf( cache.getMisses() ), true );
+        builder.appendField( "Evictions", String.valueOf( cache.getEvictions() ), true );
+        context.getReplyBuilder().withEmbed( builder.build() ).build();
 
     }
 
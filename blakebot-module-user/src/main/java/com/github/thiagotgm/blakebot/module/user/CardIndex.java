@@ -0,0 +1,544 @@
+/*
+ * This file is part of BlakeBot.
+ *
+ * BlakeBot is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * BlakeBot is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with BlakeBot. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.thiagotgm.blakebot.module.user;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+/**
+ * Index of custom cards by the words in their titles and authors, kept in a prefix trie.
+ * <p>
+ * Each word of the title and of the author of a card is inserted in the trie in lower
+ * case, and the node where the word ends holds the card. Every node also counts the cards
+ * held in its subtree. A search walks down to the node of each word of the query, picks
+ * the one with the fewest cards, and goes through its subtree in alphabetical order,
+ * keeping the cards that also have a word starting with each of the other words of the
+ * query. The walk stops as soon as the requested page is filled, so the cost of a search
+ * depends on how many results are skipped and retrieved rather than on the amount of
+ * indexed cards. Skipped results are still walked through, so the amount that can be
+ * skipped is {@link #MAX_SKIP limited}.
+ *
+ * @version 1.0
+ * @author ThiagoTGM
+ * @since 2026-10-16
+ */
+public class CardIndex {
+    
+    /**
+     * The maximum amount of results that a search can skip.
+     */
+    public static final int MAX_SKIP = 1000;
+    
+    private static final Pattern SEPARATOR = Pattern.compile( "[^\\p{L}\\p{N}]+" );
+    
+    private final Node root;
+    private final ReadWriteLock lock;
+    private int size;
+    
+    /**
+     * Creates a new, empty index.
+     */
+    public CardIndex() {
+        
+        this.root = new Node();
+        this.lock = new ReentrantReadWriteLock();
+        this.size = 0;
+        
+    }
+    
+    /**
+     * Splits a text into the words that are indexed.
+     *
+     * @param text The text. May be <tt>null</tt>.
+     * @return The words, in lower case.
+     */
+    private static List<String> tokenize( String text ) {
+        
+        List<String> tokens = new ArrayList<>();
+        if ( text != null ) {
+            for ( String token : SEPARATOR.split( text.toLowerCase( Locale.ROOT ) ) ) {
+                
+                if ( !token.isEmpty() ) {
+                    tokens.add( token );
+                }
+                
+            }
+        }
+        return tokens;
+        
+    }
+    
+    /**
+     * Retrieves the distinct words of a card.
+     *
+     * @param title The title of the card.
+     * @param author The author of the card. May be <tt>null</tt>.
+     * @return The words of the title and the author.
+     */
+    private static String[] tokenize( String title, String author ) {
+        
+        Set<String> tokens = new LinkedHashSet<>( tokenize( title ) );
+        tokens.addAll( tokenize( author ) );
+        return tokens.toArray( new String[ tokens.size() ] );
+        
+    }
+    
+    /**
+     * Retrieves the node of a word.
+     *
+     * @param word The word.
+     * @return The node, or <tt>null</tt> if no indexed word starts with the given word.
+     */
+    private Node find( String word ) {
+        
+        Node node = root;
+        for ( int i = 0; ( i < word.length() ) && ( node != null ); i++ ) {
+            
+            node = node.child( word.charAt( i ), false );
+            
+        }
+        return node;
+        
+    }
+    
+    /**
+     * Adds a card to the index. If the card is already indexed, nothing is changed.
+     *
+     * @param owner The ID of the user that owns the card.
+     * @param title The title of the card.
+     * @param author The author of the card, or <tt>null</tt> if it has none.
+     */
+    public void add( long owner, String title, String author ) {
+        
+        Entry entry = new Entry( owner, title, author );
+        lock.writeLock().lock();
+        try {
+            if ( ( entry.tokens.length == 0 ) || contains( entry ) ) {
+                return; // Nothing to index or already indexed.
+            }
+            for ( String token : entry.tokens ) {
+                
+                Node node = root;
+                node.count++;
+                for ( int i = 0; i < token.length(); i++ ) {
+                    
+                    node = node.child( token.charAt( i ), true );
+                    node.count++;
+                    
+                }
+                if ( node.entries == null ) {
+                    node.entries = new HashSet<>();
+                }
+                node.entries.add( entry );
+                
+            }
+            size++;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        
+    }
+    
+    /**
+     * Removes a card from the index.
+     *
+     * @param owner The ID of the user that owns the card.
+     * @param title The title of the card.
+     * @param author The author the card was indexed with, or <tt>null</tt> if it had none.
+     */
+    public void remove( long owner, String title, String author ) {
+        
+        Entry entry = new Entry( owner, title, author );
+        lock.writeLock().lock();
+        try {
+            if ( !contains( entry ) ) {
+                return; // Not indexed.
+            }
+            for ( String token : entry.tokens ) {
+                
+                root.remove( token, 0, entry );
+                
+            }
+            size--;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        
+    }
+    
+    /**
+     * Changes the author of an indexed card.
+     *
+     * @param owner The ID of the user that owns the card.
+     * @param title The title of the card.
+     * @param oldAuthor The author the card was indexed with, or <tt>null</tt> if it had none.
+     * @param newAuthor The new author of the card, or <tt>null</tt> if it has none.
+     */
+    public void update( long owner, String title, String oldAuthor, String newAuthor ) {
+        
+        lock.writeLock().lock();
+        try { // Write lock is reentrant.
+            remove( owner, title, oldAuthor );
+            add( owner, title, newAuthor );
+        } finally {
+            lock.writeLock().unlock();
+        }
+        
+    }
+    
+    /**
+     * Determines whether a card is indexed, by checking the node of its first word.
+     *
+     * @param entry The card.
+     * @return <tt>true</tt> if the card is indexed.
+     */
+    private boolean contains( Entry entry ) {
+        
+        if ( entry.tokens.length == 0 ) {
+            return false; // Card has no words to index.
+        }
+        Node node = find( entry.tokens[0] );
+        return ( node != null ) && ( node.entries != null ) && node.entries.contains( entry );
+        
+    }
+    
+    /**
+     * Retrieves how many cards are indexed.
+     *
+     * @return The amount of cards.
+     */
+    public int size() {
+        
+        lock.readLock().lock();
+        try {
+            return size;
+        } finally {
+            lock.readLock().unlock();
+        }
+        
+    }
+    
+    /**
+     * Searches for cards that, for every word in the query, have a word in the title or
+     * author that starts with it. Results are ordered by the word matched by the query
+     * word that matches the fewest cards.
+     *
+     * @param query The query.
+     * @param skip How many results to skip.
+     * @param count The maximum amount of results to retrieve.
+     * @return The results. Empty if the query has no words.
+     * @throws IllegalArgumentException if <tt>skip</tt> or <tt>count</tt> is negative, or
+     *                                  <tt>skip</tt> is greater than {@value #MAX_SKIP}.
+     */
+    public List<Entry> search( String query, int skip, int count ) throws IllegalArgumentException {
+        
+        if ( ( skip < 0 ) || ( count < 0 ) ) {
+            throw new IllegalArgumentException( "Skip and count cannot be negative." );
+        }
+        if ( skip > MAX_SKIP ) {
+            throw new IllegalArgumentException( "Cannot skip more than " + MAX_SKIP + " results." );
+        }
+        
+        List<String> words = tokenize( query );
+        List<Entry> results = new ArrayList<>( Math.min( count, 64 ) );
+        if ( words.isEmpty() || ( count == 0 ) ) {
+            return results;
+        }
+        
+        lock.readLock().lock();
+        try {
+            Node start = null;
+            int driver = -1;
+            for ( int i = 0; i < words.size(); i++ ) {
+                
+                Node node = find( words.get( i ) );
+                if ( node == null ) {
+                    return results; // No card has a word with that prefix.
+                }
+                if ( ( start == null ) || ( node.count < start.count ) ) {
+                    start = node;
+                    driver = i;
+                }
+                
+            }
+            String prefix = words.get( driver );
+            List<String> others = new ArrayList<>( words );
+            others.remove( driver );
+            
+            Set<Entry> seen = new HashSet<>();
+            Deque<Node> stack = new ArrayDeque<>();
+            stack.push( start );
+            while ( !stack.isEmpty() && ( results.size() < count ) ) {
+                
+                Node node = stack.pop();
+                if ( node.entries != null ) {
+                    for ( Entry entry : node.entries ) {
+                        
+                        if ( matches( entry, others )
+                                && ( ( entry.count( prefix ) == 1 ) || seen.add( entry ) ) ) {
+                            if ( skip > 0 ) {
+                                skip--;
+                            } else if ( results.add( entry ) && ( results.size() == count ) ) {
+                                break; // Page is full.
+                            }
+                        }
+                        
+                    }
+                }
+                for ( int i = node.size - 1; i >= 0; i-- ) { // Visit in alphabetical order.
+                    
+                    stack.push( node.children[i] );
+                    
+                }
+                
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return results;
+        
+    }
+    
+    /**
+     * Determines whether a card has a word that starts with each of the given words.
+     *
+     * @param entry The card.
+     * @param words The words.
+     * @return <tt>true</tt> if all words are matched.
+     */
+    private static boolean matches( Entry entry, List<String> words ) {
+        
+        if ( words.isEmpty() ) {
+            return true;
+        }
+        for ( String word : words ) {
+            
+            if ( entry.count( word ) == 0 ) {
+                return false;
+            }
+            
+        }
+        return true;
+        
+    }
+    
+    /**
+     * A node in the trie.
+     *
+     * @version 1.0
+     * @author ThiagoTGM
+     * @since 2026-10-16
+     */
+    private static class Node {
+        
+        private static final char[] NO_KEYS = new char[ 0 ];
+        private static final Node[] NO_CHILDREN = new Node[ 0 ];
+        
+        private char[] keys = NO_KEYS;
+        private Node[] children = NO_CHILDREN;
+        private int size = 0;
+        /**
+         * Cards with a word that ends in this node.
+         */
+        private Set<Entry> entries;
+        /**
+         * How many cards are held in the subtree of this node, counting a card once for
+         * each word it has in the subtree.
+         */
+        private int count = 0;
+        
+        /**
+         * Retrieves the child for a character.
+         *
+         * @param c The character.
+         * @param create Whether to create the child if it does not exist.
+         * @return The child, or <tt>null</tt> if it does not exist and was not created.
+         */
+        private Node child( char c, boolean create ) {
+            
+            int index = Arrays.binarySearch( keys, 0, size, c );
+            if ( index >= 0 ) {
+                return children[index];
+            }
+            if ( !create ) {
+                return null;
+            }
+            index = -index - 1;
+            if ( size == keys.length ) {
+                int capacity = Math.max( 2, size * 2 );
+                keys = Arrays.copyOf( keys, capacity );
+                children = Arrays.copyOf( children, capacity );
+            }
+            System.arraycopy( keys, index, keys, index + 1, size - index );
+            System.arraycopy( children, index, children, index + 1, size - index );
+            Node child = new Node();
+            keys[index] = c;
+            children[index] = child;
+            size++;
+            return child;
+            
+        }
+        
+        /**
+         * Removes a word of an indexed card, deleting the nodes that become empty.
+         *
+         * @param token The word.
+         * @param depth The depth of this node.
+         * @param entry The card.
+         * @return <tt>true</tt> if this node became empty.
+         */
+        private boolean remove( String token, int depth, Entry entry ) {
+            
+            count--;
+            if ( depth == token.length() ) {
+                entries.remove( entry );
+                if ( entries.isEmpty() ) {
+                    entries = null;
+                }
+            } else {
+                int index = Arrays.binarySearch( keys, 0, size, token.charAt( depth ) );
+                if ( ( index >= 0 ) && children[index].remove( token, depth + 1, entry ) ) {
+                    System.arraycopy( keys, index + 1, keys, index, size - index - 1 );
+                    System.arraycopy( children, index + 1, children, index, size - index - 1 );
+                    size--;
+                    children[size] = null;
+                }
+            }
+            return ( entries == null ) && ( size == 0 );
+            
+        }
+        
+    }
+    
+    /**
+     * An indexed card.
+     *
+     * @version 1.0
+     * @author ThiagoTGM
+     * @since 2026-10-16
+     */
+    public static class Entry {
+        
+        private final long owner;
+        private final String title;
+        private final String author;
+        /**
+         * Distinct words of the title and the author.
+         */
+        private final String[] tokens;
+        
+        /**
+         * Creates a new entry.
+         *
+         * @param owner The ID of the user that owns the card.
+         * @param title The title of the card.
+         * @param author The author of the card, or <tt>null</tt>.
+         */
+        private Entry( long owner, String title, String author ) {
+            
+            this.owner = owner;
+            this.title = title;
+            this.author = author;
+            this.tokens = tokenize( title, author );
+            
+        }
+        
+        /**
+         * Counts the words of the card that start with a prefix.
+         *
+         * @param prefix The prefix.
+         * @return The amount of words.
+         */
+        private int count( String prefix ) {
+            
+            int count = 0;
+            for ( String token : tokens ) {
+                
+                if ( token.startsWith( prefix ) ) {
+                    count++;
+                }
+                
+            }
+            return count;
+            
+        }
+        
+        /**
+         * Retrieves the ID of the user that owns the card.
+         *
+         * @return The ID.
+         */
+        public long getOwner() {
+            
+            return owner;
+            
+        }
+        
+        /**
+         * Retrieves the title of the card.
+         *
+         * @return The title.
+         */
+        public String getTitle() {
+            
+            return title;
+            
+        }
+        
+        /**
+         * Retrieves the author of the card.
+         *
+         * @return The author, or <tt>null</tt> if the card has none.
+         */
+        public String getAuthor() {
+            
+            return author;
+            
+        }
+        
+        @Override
+        public boolean equals( Object obj ) {
+            
+            if ( !( obj instanceof Entry ) ) {
+                return false;
+            }
+            Entry entry = (Entry) obj;
+            return ( owner == entry.owner ) && title.equals( entry.title );
+            
+        }
+        
+        @Override
+        public int hashCode() {
+            
+            return Long.hashCode( owner ) * 31 + title.hashCode();
+            
+        }
+        
+    }
+    
+}
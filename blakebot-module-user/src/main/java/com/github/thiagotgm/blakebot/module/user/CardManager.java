@@ -20,17 +20,24 @@ package com.github.thiagotgm.blakebot.module.user;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
-import java.util.LinkedList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.SortedMap;
 import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
+import java.util.function.Supplier;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.github.thiagotgm.bot_utils.Settings;
 import com.github.thiagotgm.bot_utils.storage.Data;
 import com.github.thiagotgm.bot_utils.storage.DatabaseManager;
 import com.github.thiagotgm.bot_utils.storage.Storable;
@@ -51,6 +58,16 @@ import sx.blah.discord.util.EmbedBuilder;
 
 /**
  * Manages the custom card system.
+ * <p>
+ * The text of each card field is stored in its own entry, under the path of the card,
+ * while the card itself only stores the names of its fields. Editing the text of a
+ * field then only writes that text. The list of cards of each user only stores the
+ * titles of the cards, and any other information is obtained from the cards when
+ * needed.
+ * <p>
+ * The card data of a user is kept in memory after it is first requested, and replaced by
+ * the tasks that change it, so the same instance is shared by every request until the
+ * data changes.
  * 
  * @author ThiagoTGM
  * @version 1.0
@@ -73,6 +90,24 @@ public class CardManager {
 
     } );
 
+    /**
+     * Setting that defines {@link #EMBED_CACHE_SIZE}.
+     */
+    public static final String EMBED_CACHE_SIZE_SETTING = "Card embed cache size";
+    /**
+     * How many card embeds are kept in memory.
+     */
+    public static final int EMBED_CACHE_SIZE = Settings.getIntSetting( EMBED_CACHE_SIZE_SETTING );
+    /**
+     * Setting that defines {@link #USER_CACHE_SIZE}.
+     */
+    public static final String USER_CACHE_SIZE_SETTING = "Card user cache size";
+    /**
+     * How many users have their card data kept in memory.
+     */
+    public static final int USER_CACHE_SIZE = Settings.getIntSetting( USER_CACHE_SIZE_SETTING );
+    private static final int USER_CACHE_STRIPES = 1024; // Must be a power of 2.
+
     private static CardManager instance;
 
     /**
@@ -90,7 +125,13 @@ public class CardManager {
     }
 
     private final Tree<String, Card> cardMap;
+    private final Tree<String, String> fieldMap;
     private final Map<String, UserCards> userMap;
+    private final VersionedCache<String, UserCards> userCache;
+    private final EmbedCache embeds;
+    private final ProfileCache profiles;
+    private final CardIndex index;
+    private volatile boolean indexLoaded;
 
     /**
      * Instantiates a manager.
@@ -99,8 +140,124 @@ public class CardManager {
 
         cardMap = Graphs.synchronizedTree( DatabaseManager.getDatabase().getDataTree( "CustomCards",
                 new StringTranslator(), new StorableTranslator<>( () -> new Card() ) ) );
+        fieldMap = Graphs.synchronizedTree( DatabaseManager.getDatabase().getDataTree( "CustomCardFields",
+                new StringTranslator(), new StringTranslator() ) );
         userMap = Collections.synchronizedMap( DatabaseManager.getDatabase().getDataMap( "UserCustomCards",
                 new StringTranslator(), new StorableTranslator<>( () -> new UserCards() ) ) );
+        userCache = new VersionedCache<>( USER_CACHE_SIZE, USER_CACHE_STRIPES, 0, TimeUnit.SECONDS );
+        embeds = new EmbedCache( EMBED_CACHE_SIZE );
+        profiles = ProfileCache.getInstance();
+        index = new CardIndex();
+        indexLoaded = false;
+
+        Thread loader = new Thread( THREADS, this::loadIndex, "Custom Card Index Loader" );
+        loader.setDaemon( true );
+        loader.start();
+
+    }
+
+    /**
+     * Builds the search index with the cards of every user.
+     * <p>
+     * The cards of each user are indexed by a task in the card executor, so the users
+     * are indexed in parallel while each one is still serialized with the changes to
+     * their cards. Changes made while loading are indexed by the changing task itself.
+     */
+    private void loadIndex() {
+
+        long start = System.nanoTime();
+        List<String> users;
+        synchronized ( userMap ) {
+            users = new ArrayList<>( userMap.keySet() );
+        }
+        CompletableFuture<?>[] tasks = new CompletableFuture<?>[ users.size() ];
+        for ( int i = 0; i < tasks.length; i++ ) {
+
+            String userID = users.get( i );
+            tasks[i] = CompletableFuture.runAsync( () -> indexUser( userID ),
+                    task -> EXECUTOR.execute( userID, task ) );
+
+        }
+        CompletableFuture.allOf( tasks ).whenComplete( ( v, e ) -> {
+
+            if ( e != null ) {
+                LOG.error( "Error while indexing custom cards.", e );
+            }
+            indexLoaded = true;
+            LOG.info( "Indexed {} custom cards in {} ms.", index.size(),
+                    TimeUnit.NANOSECONDS.toMillis( System.nanoTime() - start ) );
+
+        } );
+
+    }
+
+    /**
+     * Adds the cards of a user to the search index. Must run in the card executor.
+     *
+     * @param userID
+     *            The string ID of the user.
+     */
+    private void indexUser( String userID ) {
+
+        long owner;
+        try {
+            owner = Long.parseLong( userID );
+        } catch ( NumberFormatException e ) {
+            LOG.warn( "Invalid user ID \"{}\" in custom card system.", userID );
+            return;
+        }
+        UserCards cards = userMap.get( userID ); // Current list, not the one when loading started.
+        if ( cards == null ) {
+            return;
+        }
+        for ( CardEntry entry : cards.getCards() ) {
+
+            Card card = cardMap.get( userID, entry.getTitle() );
+            if ( card != null ) {
+                index.add( owner, card.title, card.author );
+            }
+
+        }
+
+    }
+
+    /**
+     * Searches all the cards by the words in their titles and authors.
+     * <p>
+     * A card matches if, for every word in the query, its title or author has a word that
+     * starts with it (ignoring case).
+     *
+     * @param query
+     *            The query.
+     * @param skip
+     *            How many matching cards to skip.
+     * @param count
+     *            The maximum amount of cards to retrieve.
+     * @return The matching cards.
+     * @throws NullPointerException
+     *             if the query is <tt>null</tt>.
+     * @throws IllegalArgumentException
+     *             if <tt>skip</tt> or <tt>count</tt> is negative.
+     */
+    public List<CardIndex.Entry> searchCards( String query, int skip, int count )
+            throws NullPointerException, IllegalArgumentException {
+
+        if ( query == null ) {
+            throw new NullPointerException( "Query cannot be null." );
+        }
+        return index.search( query, skip, count );
+
+    }
+
+    /**
+     * Determines whether the search index finished loading. Until then, searches only
+     * find the cards that were already indexed.
+     *
+     * @return <tt>true</tt> if all cards are indexed.
+     */
+    public boolean isIndexLoaded() {
+
+        return indexLoaded;
 
     }
 
@@ -122,12 +279,141 @@ public class CardManager {
             throw new NullPointerException( "Arguments cannot be null." );
         }
 
-        return cardMap.get( user.getStringID(), title );
+        return loadCard( user.getStringID(), title );
+
+    }
+
+    /**
+     * Loads a card, along with the text of its fields.
+     * 
+     * @param userID
+     *            The string ID of the user that owns the card.
+     * @param title
+     *            The title of the card.
+     * @return The card, or <tt>null</tt> if there is no such card.
+     */
+    private Card loadCard( String userID, String title ) {
+
+        Card card = cardMap.get( userID, title );
+        if ( card == null ) {
+            return null;
+        }
+        Iterator<Map.Entry<String, String>> fields = card.fields.entrySet().iterator();
+        while ( fields.hasNext() ) {
+
+            Map.Entry<String, String> field = fields.next();
+            if ( field.getValue() == null ) { // Stored separately.
+                String text = fieldMap.get( userID, title, field.getKey() );
+                if ( text == null ) {
+                    LOG.warn( "Missing text of field '{}' in card '{}' of user {}.", field.getKey(), title, userID );
+                    fields.remove();
+                } else {
+                    field.setValue( text );
+                }
+            }
+
+        }
+        return card;
+
+    }
+
+    /**
+     * Stores a card. If the text of its fields was not stored separately yet, it is
+     * stored before the card.
+     * 
+     * @param userID
+     *            The string ID of the user that owns the card.
+     * @param card
+     *            The card.
+     */
+    private void saveCard( String userID, Card card ) {
+
+        if ( card.fieldsPending ) {
+            for ( Map.Entry<String, String> field : card.fields.entrySet() ) {
+
+                fieldMap.put( field.getValue(), userID, card.title, field.getKey() );
+
+            }
+            card.fieldsPending = false;
+        }
+        cardMap.put( card, userID, card.title );
+
+    }
+
+    /**
+     * Deletes the separately stored text of the fields of a card.
+     * 
+     * @param userID
+     *            The string ID of the user that owns the card.
+     * @param title
+     *            The title of the card.
+     * @param card
+     *            The card.
+     */
+    private void deleteFields( String userID, String title, Card card ) {
+
+        for ( String fieldName : card.fields.keySet() ) {
+
+            fieldMap.remove( userID, title, fieldName );
+
+        }
+
+    }
+
+    /**
+     * Retrieves the embed of the card owned by the given user with the given title.
+     * <p>
+     * Built embeds are cached, so popular cards do not need to be loaded and built
+     * again every time they are shown.
+     * 
+     * @param user
+     *            The user that owns the card.
+     * @param title
+     *            The title of the card.
+     * @return The embed, or <tt>null</tt> if there is no card owned by the given
+     *         user with the given title.
+     * @throws NullPointerException
+     *             if either argument is <tt>null</tt>.
+     */
+    public EmbedObject getCardEmbed( IUser user, String title ) throws NullPointerException {
+
+        if ( ( user == null ) || ( title == null ) ) {
+            throw new NullPointerException( "Arguments cannot be null." );
+        }
+
+        String userID = user.getStringID();
+        long version = embeds.getVersion( userID, title ); // Get before the card to not cache a stale embed.
+        EmbedObject embed = embeds.get( userID, title );
+        if ( embed == null ) {
+            Card card = loadCard( userID, title );
+            if ( card == null ) {
+                return null;
+            }
+            embed = card.getEmbed();
+            embeds.put( userID, title, version, embed );
+        }
+        return embed;
+
+    }
+
+    /**
+     * Retrieves the cache of card embeds, to check its statistics.
+     * 
+     * @return The embed cache.
+     */
+    public EmbedCache getEmbedCache() {
+
+        return embeds;
 
     }
 
     /**
      * Retrieves the given user's current custom card data.
+     * <p>
+     * The data of the most recently used users is kept in a bounded cache, and shared with
+     * other callers until it changes, at which point a new instance is used. Data that is
+     * not cached is loaded without holding any lock of the cache, and is not cached if it
+     * changed in the meantime.
      * 
      * @param user
      *            The user.
@@ -140,11 +426,127 @@ public class CardManager {
         if ( user == null ) {
             throw new NullPointerException( "User cannot be null." );
         }
-        UserCards cards = userMap.get( user.getStringID() );
+        String userID = user.getStringID();
+        UserCards cards = userCache.get( userID, userID.hashCode() );
+        if ( cards == null ) {
+            long version = userCache.getVersion( userID.hashCode() ); // Get before loading to not cache stale data.
+            cards = userMap.get( userID );
+            if ( cards == null ) {
+                return new UserCards(); // Users with no data are not kept.
+            }
+            publish( userID, cards );
+            userCache.put( userID, userID.hashCode(), version, cards );
+        }
+        return cards;
+
+    }
+
+    /**
+     * Loads a copy of the card data of a user from the database, to be changed by a card
+     * task. Must run in the card executor.
+     * 
+     * @param userID
+     *            The string ID of the user.
+     * @return The user's cards and allowance.
+     */
+    private UserCards loadUserCards( String userID ) {
+
+        UserCards cards = userMap.get( userID );
         return cards == null ? new UserCards() : cards;
 
     }
 
+    /**
+     * Stores the card data of a user after it was changed, and replaces the copy kept in
+     * memory. Must run in the card executor, and the data must not be changed afterwards.
+     * 
+     * @param userID
+     *            The string ID of the user.
+     * @param cards
+     *            The new card data.
+     */
+    private void saveUserCards( String userID, UserCards cards ) {
+
+        userMap.put( userID, cards );
+        publish( userID, cards );
+        userCache.invalidate( userID.hashCode() );
+        userCache.put( userID, userID.hashCode(), userCache.getVersion( userID.hashCode() ), cards );
+
+    }
+
+    /**
+     * Prepares card data to be shared with other threads.
+     * 
+     * @param userID
+     *            The string ID of the user.
+     * @param cards
+     *            The card data.
+     */
+    private static void publish( String userID, UserCards cards ) {
+
+        cards.setOwner( userID );
+        cards.getCards(); // Build the snapshot before it is shared.
+
+    }
+
+    /**
+     * Runs a card operation in the executor, under the key of the given user.
+     * 
+     * @param userID
+     *            The string ID of the user.
+     * @param operation
+     *            The operation.
+     * @return A future that completes with the result of the operation. If the
+     *         operation threw an {@link IllegalArgumentException}, the future
+     *         completes exceptionally with it. If any other error happened, it is
+     *         logged and the future completes with <tt>false</tt>.
+     */
+    private static CompletableFuture<Boolean> submit( String userID, Supplier<Boolean> operation ) {
+
+        return CompletableFuture.supplyAsync( operation, task -> EXECUTOR.execute( userID, task ) )
+                .exceptionally( e -> {
+
+                    Throwable cause = e instanceof CompletionException ? e.getCause() : e;
+                    if ( cause instanceof IllegalArgumentException ) {
+                        throw (IllegalArgumentException) cause; // Expected.
+                    }
+                    LOG.error( "Error while updating custom card.", cause );
+                    return false;
+
+                } );
+
+    }
+
+    /**
+     * Waits for a card operation to finish.
+     * 
+     * @param operation
+     *            The future of the operation.
+     * @param description
+     *            Description of the operation, used in the log if interrupted.
+     * @return The result of the operation, or <tt>false</tt> if it could not be
+     *         retrieved.
+     * @throws IllegalArgumentException
+     *             if the operation failed with such an exception.
+     */
+    private static boolean await( CompletableFuture<Boolean> operation, String description )
+            throws IllegalArgumentException {
+
+        try {
+            return operation.get();
+        } catch ( InterruptedException e ) {
+            LOG.error( "Interrupted while waiting for " + description + ".", e );
+            return false;
+        } catch ( ExecutionException e ) {
+            if ( e.getCause() instanceof IllegalArgumentException ) {
+                throw (IllegalArgumentException) e.getCause(); // Expected.
+            } else {
+                return false;
+            }
+        }
+
+    }
+
     /**
      * Adds a blank card with the given title for the given user.
      * <p>
@@ -169,34 +571,47 @@ public class CardManager {
      */
     public boolean addCard( IUser user, String cardTitle ) throws NullPointerException, IllegalArgumentException {
 
+        return await( addCardAsync( user, cardTitle ), "card add" );
+
+    }
+
+    /**
+     * Asynchronous version of {@link #addCard(IUser, String)}.
+     * 
+     * @param user
+     *            The user.
+     * @param cardTitle
+     *            The card title.
+     * @return A future that completes with the result described in
+     *         {@link #addCard(IUser, String)}, or exceptionally with an
+     *         {@link IllegalArgumentException} in the cases where that method
+     *         throws one.
+     * @throws NullPointerException
+     *             if either argument is <tt>null</tt>.
+     */
+    public CompletableFuture<Boolean> addCardAsync( IUser user, String cardTitle )
+            throws NullPointerException {
+
         if ( ( user == null ) || ( cardTitle == null ) ) {
             throw new NullPointerException( "Arguments cannot be null." );
         }
 
         String userID = user.getStringID();
-        try {
-            return EXECUTOR.submit( userID, () -> {
-
-                UserCards cards = getUserCards( user );
-                Card card = new Card( cardTitle );
-                if ( !cards.addCard( card ) ) {
-                    return false; // Reached allowance.
-                }
-                cardMap.put( card, userID, cardTitle );
-                userMap.put( userID, cards );
-                return true;
+        return submit( userID, () -> {
 
-            } ).get();
-        } catch ( InterruptedException e ) {
-            LOG.error( "Interrupted while waiting for card add.", e );
-            return false;
-        } catch ( ExecutionException e ) {
-            if ( e.getCause() instanceof IllegalArgumentException ) {
-                throw (IllegalArgumentException) e.getCause(); // Expected.
-            } else {
-                return false;
+            UserCards cards = loadUserCards( userID );
+            Card card = new Card( cardTitle );
+            if ( !cards.addCard( card ) ) {
+                return false; // Reached allowance.
             }
-        }
+            saveCard( userID, card );
+            saveUserCards( userID, cards );
+            embeds.invalidate( userID, cardTitle );
+            index.add( user.getLongID(), card.title, card.author );
+            profiles.invalidate( user.getLongID() );
+            return true;
+
+        } );
 
     }
 
@@ -219,34 +634,48 @@ public class CardManager {
      */
     public boolean removeCard( IUser user, String cardTitle ) throws NullPointerException {
 
+        return await( removeCardAsync( user, cardTitle ), "card remove" );
+
+    }
+
+    /**
+     * Asynchronous version of {@link #removeCard(IUser, String)}.
+     * 
+     * @param user
+     *            The user.
+     * @param cardTitle
+     *            The card title.
+     * @return A future that completes with the result described in
+     *         {@link #removeCard(IUser, String)}, or exceptionally with an
+     *         {@link IllegalArgumentException} in the cases where that method
+     *         throws one.
+     * @throws NullPointerException
+     *             if either argument is <tt>null</tt>.
+     */
+    public CompletableFuture<Boolean> removeCardAsync( IUser user, String cardTitle )
+            throws NullPointerException {
+
         if ( ( user == null ) || ( cardTitle == null ) ) {
             throw new NullPointerException( "Arguments cannot be null." );
         }
 
         String userID = user.getStringID();
-        try {
-            return EXECUTOR.submit( userID, () -> {
-
-                Card card = cardMap.remove( userID, cardTitle );
-                if ( card == null ) {
-                    return false; // Card doesn't exist.
-                }
-                UserCards cards = userMap.get( userID );
-                cards.removeCard( card ); // Remove from list.
-                userMap.put( userID, cards );
-                return true;
+        return submit( userID, () -> {
 
-            } ).get();
-        } catch ( InterruptedException e ) {
-            LOG.error( "Interrupted while waiting for card remove.", e );
-            return false;
-        } catch ( ExecutionException e ) {
-            if ( e.getCause() instanceof IllegalArgumentException ) {
-                throw (IllegalArgumentException) e.getCause(); // Expected.
-            } else {
-                return false;
+            Card card = cardMap.remove( userID, cardTitle );
+            if ( card == null ) {
+                return false; // Card doesn't exist.
             }
-        }
+            deleteFields( userID, cardTitle, card );
+            UserCards cards = loadUserCards( userID );
+            cards.removeCard( card ); // Remove from list.
+            saveUserCards( userID, cards );
+            embeds.invalidate( userID, cardTitle );
+            index.remove( user.getLongID(), cardTitle, card.author );
+            profiles.invalidate( user.getLongID() );
+            return true;
+
+        } );
 
     }
 
@@ -277,44 +706,63 @@ public class CardManager {
     public boolean setCardTitle( IUser user, String curTitle, String newTitle )
             throws NullPointerException, IllegalArgumentException {
 
+        return await( setCardTitleAsync( user, curTitle, newTitle ), "card title set" );
+
+    }
+
+    /**
+     * Asynchronous version of {@link #setCardTitle(IUser, String, String)}.
+     * 
+     * @param user
+     *            The user that owns the card.
+     * @param curTitle
+     *            The current title of the card.
+     * @param newTitle
+     *            The title to change the card to.
+     * @return A future that completes with the result described in
+     *         {@link #setCardTitle(IUser, String, String)}, or exceptionally with an
+     *         {@link IllegalArgumentException} in the cases where that method
+     *         throws one.
+     * @throws NullPointerException
+     *             if either argument is <tt>null</tt>.
+     */
+    public CompletableFuture<Boolean> setCardTitleAsync( IUser user, String curTitle, String newTitle )
+            throws NullPointerException {
+
         if ( ( user == null ) || ( curTitle == null ) || ( newTitle == null ) ) {
             throw new NullPointerException( "Arguments cannot be null." );
         }
 
-        new Card( newTitle ); // Check new title is valid.
-
         String userID = user.getStringID();
-        try {
-            return EXECUTOR.submit( userID, () -> {
+        return submit( userID, () -> {
 
-                if ( cardMap.containsPath( userID, newTitle ) ) { // New title already taken.
-                    throw new IllegalArgumentException( "A card with the new title already exists!" );
-                }
-
-                Card card = cardMap.remove( userID, curTitle ); // Remove from old title key.
-                if ( card == null ) {
-                    return false; // Card doesn't exist.
-                }
-                UserCards cards = userMap.get( userID );
-                cards.removeCard( card ); // Remove from list.
-
-                card.setTitle( newTitle ); // Update title.
-                cardMap.put( card, userID, newTitle ); // Insert with new title key.
-                cards.addCard( card );
-                userMap.put( userID, cards ); // Update list.
-                return true;
+            new Card( newTitle ); // Check new title is valid.
+            if ( cardMap.containsPath( userID, newTitle ) ) { // New title already taken.
+                throw new IllegalArgumentException( "A card with the new title already exists!" );
+            }
 
-            } ).get();
-        } catch ( InterruptedException e ) {
-            LOG.error( "Interrupted while waiting for card title set.", e );
-            return false;
-        } catch ( ExecutionException e ) {
-            if ( e.getCause() instanceof IllegalArgumentException ) {
-                throw (IllegalArgumentException) e.getCause(); // Expected.
-            } else {
-                return false;
+            Card card = loadCard( userID, curTitle );
+            if ( card == null ) {
+                return false; // Card doesn't exist.
             }
-        }
+            UserCards cards = loadUserCards( userID );
+            cards.removeCard( card ); // Remove from list.
+
+            card.setTitle( newTitle ); // Update title.
+            card.fieldsPending = true; // Fields need to be stored under the new title.
+            saveCard( userID, card ); // Insert with new title key.
+            cardMap.remove( userID, curTitle ); // Remove from old title key.
+            deleteFields( userID, curTitle, card );
+            cards.addCard( card );
+            saveUserCards( userID, cards ); // Update list.
+            embeds.invalidate( userID, curTitle );
+            embeds.invalidate( userID, newTitle );
+            index.remove( user.getLongID(), curTitle, card.author );
+            index.add( user.getLongID(), newTitle, card.author );
+            profiles.invalidate( user.getLongID() );
+            return true;
+
+        } );
 
     }
 
@@ -339,39 +787,48 @@ public class CardManager {
      */
     public boolean buySlot( IUser user ) throws NullPointerException, IllegalArgumentException {
 
+        return await( buySlotAsync( user ), "slot purchase" );
+
+    }
+
+    /**
+     * Asynchronous version of {@link #buySlot(IUser)}.
+     * 
+     * @param user
+     *            The user to purchase a slot for.
+     * @return A future that completes with the result described in
+     *         {@link #buySlot(IUser)}, or exceptionally with an
+     *         {@link IllegalArgumentException} in the cases where that method
+     *         throws one.
+     * @throws NullPointerException
+     *             if the user is <tt>null</tt>.
+     */
+    public CompletableFuture<Boolean> buySlotAsync( IUser user )
+            throws NullPointerException {
+
         if ( user == null ) {
             throw new NullPointerException( "User cannot be null." );
         }
 
         String userID = user.getStringID();
-        try {
-            return EXECUTOR.submit( userID, () -> {
+        return submit( userID, () -> {
 
-                UserCards cards = userMap.get( userID );
-                if ( !cards.canIncrementCardAllowance() ) { // Check that can increment.
-                    throw new IllegalArgumentException( "You already have all card slots unlocked!" );
-                }
+            UserCards cards = loadUserCards( userID );
+            if ( !cards.canIncrementCardAllowance() ) { // Check that can increment.
+                throw new IllegalArgumentException( "You already have all card slots unlocked!" );
+            }
 
-                if ( CurrencyManager.getInstance().withdraw( user, UserCards.EXTRA_CARD_COST ) < 0 ) {
-                    return false; // Not enough funds (or currency error).
-                }
+            if ( CurrencyManager.getInstance().withdraw( user, UserCards.EXTRA_CARD_COST ) < 0 ) {
+                return false; // Not enough funds (or currency error).
+            }
 
-                cards.incrementCardAllowance();
-                userMap.put( userID, cards ); // Update user data.
+            cards.incrementCardAllowance();
+            saveUserCards( userID, cards ); // Update user data.
+            profiles.invalidate( user.getLongID() );
 
-                return true;
+            return true;
 
-            } ).get();
-        } catch ( InterruptedException e ) {
-            LOG.error( "Interrupted while waiting for slot purchase.", e );
-            return false;
-        } catch ( ExecutionException e ) {
-            if ( e.getCause() instanceof IllegalArgumentException ) {
-                throw (IllegalArgumentException) e.getCause(); // Expected.
-            } else {
-                return false;
-            }
-        }
+        } );
 
     }
 
@@ -416,41 +873,67 @@ public class CardManager {
     public boolean setField( IUser user, String cardTitle, String fieldName, String fieldText )
             throws NullPointerException, IllegalArgumentException {
 
+        return await( setFieldAsync( user, cardTitle, fieldName, fieldText ), "card field set" );
+
+    }
+
+    /**
+     * Asynchronous version of {@link #setField(IUser, String, String, String)}.
+     * 
+     * @param user
+     *            The user that owns the card.
+     * @param cardTitle
+     *            The title of the card to edit.
+     * @param fieldName
+     *            The name of the field.
+     * @param fieldText
+     *            The text to set to the field, or <tt>null</tt> to delete it.
+     * @return A future that completes with the result described in
+     *         {@link #setField(IUser, String, String, String)}, or exceptionally with an
+     *         {@link IllegalArgumentException} in the cases where that method
+     *         throws one.
+     * @throws NullPointerException
+     *             if <tt>user</tt>, <tt>cardTitle</tt>, or <tt>fieldName</tt> is
+     *             <tt>null</tt>.
+     */
+    public CompletableFuture<Boolean> setFieldAsync( IUser user, String cardTitle, String fieldName,
+            String fieldText )
+            throws NullPointerException {
+
         if ( ( user == null ) || ( cardTitle == null ) || ( fieldName == null ) ) {
             throw new NullPointerException( "User, card name, and card title cannot be null." );
         }
 
         String userID = user.getStringID();
-        try {
-            return EXECUTOR.submit( userID, () -> {
+        return submit( userID, () -> {
 
-                Card card = cardMap.get( userID, cardTitle );
-                if ( card == null ) {
-                    throw new IllegalArgumentException( "You don't have a card with that title!" );
-                }
+            Card card = cardMap.get( userID, cardTitle ); // Text of fields is not needed.
+            if ( card == null ) {
+                throw new IllegalArgumentException( "You don't have a card with that title!" );
+            }
 
-                if ( !card.setField( fieldName, fieldText ) ) {
-                    return false;
+            boolean existed = card.fields.containsKey( fieldName );
+            if ( !card.setField( fieldName, fieldText ) ) {
+                return false;
+            }
+            if ( fieldText == null ) { // Remove the name before the text.
+                saveCard( userID, card );
+                fieldMap.remove( userID, cardTitle, fieldName );
+            } else { // Store the text before the name.
+                fieldMap.put( fieldText, userID, cardTitle, fieldName );
+                if ( !existed || card.fieldsPending ) { // Only the text changed otherwise.
+                    saveCard( userID, card );
                 }
-                cardMap.put( card, userID, cardTitle ); // Update card.
-
-                UserCards cards = userMap.get( userID );
-                cards.updateCard( card );
-                userMap.put( userID, cards ); // Update user data.
+            }
+            embeds.invalidate( userID, cardTitle );
+            if ( existed == ( fieldText == null ) ) { // Field count changed.
+                userCache.invalidate( userID.hashCode() ); // Entries keep the old count.
+                profiles.invalidate( user.getLongID() );
+            }
 
-                return true;
+            return true;
 
-            } ).get();
-        } catch ( InterruptedException e ) {
-            LOG.error( "Interrupted while waiting for card field set.", e );
-            return false;
-        } catch ( ExecutionException e ) {
-            if ( e.getCause() instanceof IllegalArgumentException ) {
-                throw (IllegalArgumentException) e.getCause(); // Expected.
-            } else {
-                return false;
-            }
-        }
+        } );
 
     }
 
@@ -468,45 +951,39 @@ public class CardManager {
      *            The title of the card to edit.
      * @param setter
      *            The operation that sets the attribute.
-     * @return <tt>true</tt> if the attribute was set. <tt>false</tt> if the given
-     *         user does not have a card with the given title.
+     * @return A future that completes with <tt>true</tt> if the attribute was set,
+     *         <tt>false</tt> if the given user does not have a card with the given
+     *         title, or exceptionally if the <tt>setter</tt> threw an
+     *         {@link IllegalArgumentException}.
      * @throws NullPointerException
      *             if the user or card title is <tt>null</tt>.
-     * @throws IllegalArgumentException
-     *             if the <tt>setter</tt> threw such an exception.
      */
-    private boolean setAttribute( IUser user, String cardTitle, Consumer<Card> setter )
-            throws NullPointerException, IllegalArgumentException {
+    private CompletableFuture<Boolean> setAttribute( IUser user, String cardTitle, Consumer<Card> setter )
+            throws NullPointerException {
 
         if ( ( user == null ) || ( cardTitle == null ) ) {
             throw new NullPointerException( "User and card name cannot be null." );
         }
 
         String userID = user.getStringID();
-        try {
-            return EXECUTOR.submit( userID, () -> {
+        return submit( userID, () -> {
 
-                Card card = cardMap.get( userID, cardTitle );
-                if ( card == null ) {
-                    return false;
-                }
+            Card card = cardMap.get( userID, cardTitle );
+            if ( card == null ) {
+                return false;
+            }
 
-                setter.accept( card );
-                cardMap.put( card, userID, cardTitle ); // Update card.
+            String author = card.author;
+            setter.accept( card );
+            saveCard( userID, card ); // Update card.
+            embeds.invalidate( userID, cardTitle );
+            if ( !Objects.equals( author, card.author ) ) {
+                index.update( user.getLongID(), cardTitle, author, card.author );
+            }
 
-                return true;
+            return true;
 
-            } ).get();
-        } catch ( InterruptedException e ) {
-            LOG.error( "Interrupted while waiting for card field set.", e );
-            return false;
-        } catch ( ExecutionException e ) {
-            if ( e.getCause() instanceof IllegalArgumentException ) {
-                throw (IllegalArgumentException) e.getCause(); // Expected.
-            } else {
-                return false;
-            }
-        }
+        } );
 
     }
 
@@ -538,6 +1015,29 @@ public class CardManager {
     public boolean setDescription( IUser user, String cardTitle, String description )
             throws NullPointerException, IllegalArgumentException {
 
+        return await( setDescriptionAsync( user, cardTitle, description ), "card attribute set" );
+
+    }
+
+    /**
+     * Asynchronous version of {@link #setDescription(IUser, String, String)}.
+     * 
+     * @param user
+     *            The user that owns the card.
+     * @param cardTitle
+     *            The title of the card to edit.
+     * @param description
+     *            The value to be set, or <tt>null</tt> to remove the current one.
+     * @return A future that completes with the result described in
+     *         {@link #setDescription(IUser, String, String)}, or exceptionally with an
+     *         {@link IllegalArgumentException} in the cases where that method
+     *         throws one.
+     * @throws NullPointerException
+     *             if the user or card title is <tt>null</tt>.
+     */
+    public CompletableFuture<Boolean> setDescriptionAsync( IUser user, String cardTitle, String description )
+            throws NullPointerException {
+
         return setAttribute( user, cardTitle, card -> card.setDescription( description ) );
 
     }
@@ -563,6 +1063,29 @@ public class CardManager {
      */
     public boolean setUrl( IUser user, String cardTitle, String url ) throws NullPointerException {
 
+        return await( setUrlAsync( user, cardTitle, url ), "card attribute set" );
+
+    }
+
+    /**
+     * Asynchronous version of {@link #setUrl(IUser, String, String)}.
+     * 
+     * @param user
+     *            The user that owns the card.
+     * @param cardTitle
+     *            The title of the card to edit.
+     * @param url
+     *            The value to be set, or <tt>null</tt> to remove the current one.
+     * @return A future that completes with the result described in
+     *         {@link #setUrl(IUser, String, String)}, or exceptionally with an
+     *         {@link IllegalArgumentException} in the cases where that method
+     *         throws one.
+     * @throws NullPointerException
+     *             if the user or card title is <tt>null</tt>.
+     */
+    public CompletableFuture<Boolean> setUrlAsync( IUser user, String cardTitle, String url )
+            throws NullPointerException {
+
         return setAttribute( user, cardTitle, card -> card.setUrl( url ) );
 
     }
@@ -595,6 +1118,29 @@ public class CardManager {
     public boolean setFooter( IUser user, String cardTitle, String footer )
             throws NullPointerException, IllegalArgumentException {
 
+        return await( setFooterAsync( user, cardTitle, footer ), "card attribute set" );
+
+    }
+
+    /**
+     * Asynchronous version of {@link #setFooter(IUser, String, String)}.
+     * 
+     * @param user
+     *            The user that owns the card.
+     * @param cardTitle
+     *            The title of the card to edit.
+     * @param footer
+     *            The value to be set, or <tt>null</tt> to remove the current one.
+     * @return A future that completes with the result described in
+     *         {@link #setFooter(IUser, String, String)}, or exceptionally with an
+     *         {@link IllegalArgumentException} in the cases where that method
+     *         throws one.
+     * @throws NullPointerException
+     *             if the user or card title is <tt>null</tt>.
+     */
+    public CompletableFuture<Boolean> setFooterAsync( IUser user, String cardTitle, String footer )
+            throws NullPointerException {
+
         return setAttribute( user, cardTitle, card -> card.setFooter( footer ) );
 
     }
@@ -621,6 +1167,29 @@ public class CardManager {
      */
     public boolean setFooterIcon( IUser user, String cardTitle, String iconUrl ) throws NullPointerException {
 
+        return await( setFooterIconAsync( user, cardTitle, iconUrl ), "card attribute set" );
+
+    }
+
+    /**
+     * Asynchronous version of {@link #setFooterIcon(IUser, String, String)}.
+     * 
+     * @param user
+     *            The user that owns the card.
+     * @param cardTitle
+     *            The title of the card to edit.
+     * @param iconUrl
+     *            The value to be set, or <tt>null</tt> to remove the current one.
+     * @return A future that completes with the result described in
+     *         {@link #setFooterIcon(IUser, String, String)}, or exceptionally with an
+     *         {@link IllegalArgumentException} in the cases where that method
+     *         throws one.
+     * @throws NullPointerException
+     *             if the user or card title is <tt>null</tt>.
+     */
+    public CompletableFuture<Boolean> setFooterIconAsync( IUser user, String cardTitle, String iconUrl )
+            throws NullPointerException {
+
         return setAttribute( user, cardTitle, card -> card.setFooterIcon( iconUrl ) );
 
     }
@@ -647,6 +1216,29 @@ public class CardManager {
      */
     public boolean setImage( IUser user, String cardTitle, String imageUrl ) throws NullPointerException {
 
+        return await( setImageAsync( user, cardTitle, imageUrl ), "card attribute set" );
+
+    }
+
+    /**
+     * Asynchronous version of {@link #setImage(IUser, String, String)}.
+     * 
+     * @param user
+     *            The user that owns the card.
+     * @param cardTitle
+     *            The title of the card to edit.
+     * @param imageUrl
+     *            The value to be set, or <tt>null</tt> to remove the current one.
+     * @return A future that completes with the result described in
+     *         {@link #setImage(IUser, String, String)}, or exceptionally with an
+     *         {@link IllegalArgumentException} in the cases where that method
+     *         throws one.
+     * @throws NullPointerException
+     *             if the user or card title is <tt>null</tt>.
+     */
+    public CompletableFuture<Boolean> setImageAsync( IUser user, String cardTitle, String imageUrl )
+            throws NullPointerException {
+
         return setAttribute( user, cardTitle, card -> card.setImage( imageUrl ) );
 
     }
@@ -673,6 +1265,29 @@ public class CardManager {
      */
     public boolean setThumbnail( IUser user, String cardTitle, String imageUrl ) throws NullPointerException {
 
+        return await( setThumbnailAsync( user, cardTitle, imageUrl ), "card attribute set" );
+
+    }
+
+    /**
+     * Asynchronous version of {@link #setThumbnail(IUser, String, String)}.
+     * 
+     * @param user
+     *            The user that owns the card.
+     * @param cardTitle
+     *            The title of the card to edit.
+     * @param imageUrl
+     *            The value to be set, or <tt>null</tt> to remove the current one.
+     * @return A future that completes with the result described in
+     *         {@link #setThumbnail(IUser, String, String)}, or exceptionally with an
+     *         {@link IllegalArgumentException} in the cases where that method
+     *         throws one.
+     * @throws NullPointerException
+     *             if the user or card title is <tt>null</tt>.
+     */
+    public CompletableFuture<Boolean> setThumbnailAsync( IUser user, String cardTitle, String imageUrl )
+            throws NullPointerException {
+
         return setAttribute( user, cardTitle, card -> card.setThumbnail( imageUrl ) );
 
     }
@@ -705,6 +1320,29 @@ public class CardManager {
     public boolean setAuthor( IUser user, String cardTitle, String name )
             throws NullPointerException, IllegalArgumentException {
 
+        return await( setAuthorAsync( user, cardTitle, name ), "card attribute set" );
+
+    }
+
+    /**
+     * Asynchronous version of {@link #setAuthor(IUser, String, String)}.
+     * 
+     * @param user
+     *            The user that owns the card.
+     * @param cardTitle
+     *            The title of the card to edit.
+     * @param name
+     *            The value to be set, or <tt>null</tt> to remove the current one.
+     * @return A future that completes with the result described in
+     *         {@link #setAuthor(IUser, String, String)}, or exceptionally with an
+     *         {@link IllegalArgumentException} in the cases where that method
+     *         throws one.
+     * @throws NullPointerException
+     *             if the user or card title is <tt>null</tt>.
+     */
+    public CompletableFuture<Boolean> setAuthorAsync( IUser user, String cardTitle, String name )
+            throws NullPointerException {
+
         return setAttribute( user, cardTitle, card -> card.setAuthor( name ) );
 
     }
@@ -731,6 +1369,29 @@ public class CardManager {
      */
     public boolean setAuthorUrl( IUser user, String cardTitle, String url ) throws NullPointerException {
 
+        return await( setAuthorUrlAsync( user, cardTitle, url ), "card attribute set" );
+
+    }
+
+    /**
+     * Asynchronous version of {@link #setAuthorUrl(IUser, String, String)}.
+     * 
+     * @param user
+     *            The user that owns the card.
+     * @param cardTitle
+     *            The title of the card to edit.
+     * @param url
+     *            The value to be set, or <tt>null</tt> to remove the current one.
+     * @return A future that completes with the result described in
+     *         {@link #setAuthorUrl(IUser, String, String)}, or exceptionally with an
+     *         {@link IllegalArgumentException} in the cases where that method
+     *         throws one.
+     * @throws NullPointerException
+     *             if the user or card title is <tt>null</tt>.
+     */
+    public CompletableFuture<Boolean> setAuthorUrlAsync( IUser user, String cardTitle, String url )
+            throws NullPointerException {
+
         return setAttribute( user, cardTitle, card -> card.setAuthorUrl( url ) );
 
     }
@@ -757,6 +1418,29 @@ public class CardManager {
      */
     public boolean setAuthorIcon( IUser user, String cardTitle, String iconUrl ) throws NullPointerException {
 
+        return await( setAuthorIconAsync( user, cardTitle, iconUrl ), "card attribute set" );
+
+    }
+
+    /**
+     * Asynchronous version of {@link #setAuthorIcon(IUser, String, String)}.
+     * 
+     * @param user
+     *            The user that owns the card.
+     * @param cardTitle
+     *            The title of the card to edit.
+     * @param iconUrl
+     *            The value to be set, or <tt>null</tt> to remove the current one.
+     * @return A future that completes with the result described in
+     *         {@link #setAuthorIcon(IUser, String, String)}, or exceptionally with an
+     *         {@link IllegalArgumentException} in the cases where that method
+     *         throws one.
+     * @throws NullPointerException
+     *             if the user or card title is <tt>null</tt>.
+     */
+    public CompletableFuture<Boolean> setAuthorIconAsync( IUser user, String cardTitle, String iconUrl )
+            throws NullPointerException {
+
         return setAttribute( user, cardTitle, card -> card.setAuthorIcon( iconUrl ) );
 
     }
@@ -812,7 +1496,16 @@ public class CardManager {
         private String author;
         private String authorURL;
         private String authorIcon;
+        /**
+         * Text of each field, keyed by name. Until the text is loaded, the value is
+         * <tt>null</tt>.
+         */
         private final SortedMap<String, String> fields;
+        /**
+         * Whether the text of the fields is only in memory and must be stored
+         * separately when the card is stored.
+         */
+        private boolean fieldsPending;
 
         /**
          * Initializes a card with no attributes.
@@ -1145,9 +1838,12 @@ public class CardManager {
         private static final String AUTHOR_URL_ATTRIBUTE = "author_url";
         private static final String AUTHOR_ICON_ATTRIBUTE = "author_icon";
         private static final String FIELDS_ATTRIBUTE = "fields";
+        private static final String FIELD_NAMES_ATTRIBUTE = "field_names";
 
         private static final Translator<Map<String,
                 String>> FIELDS_TRANSLATOR = new MapTranslator<>( new StringTranslator(), new StringTranslator() );
+        private static final Translator<List<String>> FIELD_NAMES_TRANSLATOR = new ListTranslator<>(
+                new StringTranslator() );
 
         /**
          * Stores this card into a Data.
@@ -1185,8 +1881,8 @@ public class CardManager {
             if ( authorIcon != null ) {
                 map.put( AUTHOR_ICON_ATTRIBUTE, Data.stringData( authorIcon ) );
             }
-            if ( !fields.isEmpty() ) {
-                map.put( FIELDS_ATTRIBUTE, FIELDS_TRANSLATOR.toData( fields ) );
+            if ( !fields.isEmpty() ) { // Text is stored separately.
+                map.put( FIELD_NAMES_ATTRIBUTE, FIELD_NAMES_TRANSLATOR.toData( new ArrayList<>( fields.keySet() ) ) );
             }
 
             return Data.mapData( map );
@@ -1288,10 +1984,20 @@ public class CardManager {
                 authorIcon = authorIconData.getString();
             }
 
+            fields.clear(); // Delete any current fields.
+            fieldsPending = false;
             Data fieldsData = map.get( FIELDS_ATTRIBUTE );
-            if ( fieldsData != null ) { // Has fields.
-                fields.clear(); // Delete any current fields.
+            if ( fieldsData != null ) { // Has fields stored with the card (older format).
                 fields.putAll( FIELDS_TRANSLATOR.fromData( fieldsData ) );
+                fieldsPending = true;
+            }
+            Data fieldNamesData = map.get( FIELD_NAMES_ATTRIBUTE );
+            if ( fieldNamesData != null ) { // Has fields stored separately.
+                for ( String fieldName : FIELD_NAMES_TRANSLATOR.fromData( fieldNamesData ) ) {
+
+                    fields.put( fieldName, null );
+
+                }
             }
 
         }
@@ -1308,10 +2014,10 @@ public class CardManager {
     public static class CardEntry implements Storable {
 
         private static final String TITLE_ATTRIBUTE = "title";
-        private static final String FIELD_COUNT_ATTRIBUTE = "fieldCount";
 
         private String title;
-        private int fieldCount;
+        private String owner;
+        private volatile int fieldCount = -1;
 
         /**
          * Initializes a blank entry.
@@ -1343,7 +2049,6 @@ public class CardManager {
         public CardEntry( Card card ) {
 
             this( card.title );
-            fieldCount = card.getFieldCount();
 
         }
 
@@ -1360,12 +2065,19 @@ public class CardManager {
 
         /**
          * Retrieves the amount of fields in the card that this entry represents.
+         * <p>
+         * The amount is not stored in the entry, so it is obtained from the card the
+         * first time it is requested.
          * 
          * @return The amount of fields.
          */
         public int getFieldCount() {
 
-            return fieldCount;
+            if ( ( fieldCount < 0 ) && ( owner != null ) ) {
+                Card card = getInstance().cardMap.get( owner, title );
+                fieldCount = card == null ? 0 : card.getFieldCount();
+            }
+            return Math.max( fieldCount, 0 );
 
         }
 
@@ -1374,7 +2086,6 @@ public class CardManager {
 
             Map<String, Data> map = new HashMap<>();
             map.put( TITLE_ATTRIBUTE, Data.stringData( title ) );
-            map.put( FIELD_COUNT_ATTRIBUTE, Data.numberData( fieldCount ) );
             return Data.mapData( map );
 
         }
@@ -1395,15 +2106,7 @@ public class CardManager {
                 throw new TranslationException( "Title data is not a string." );
             }
             title = titleData.getString();
-
-            Data fieldCountData = map.get( FIELD_COUNT_ATTRIBUTE );
-            if ( fieldCountData == null ) {
-                throw new TranslationException( "Missing field count data." );
-            }
-            if ( !fieldCountData.isNumber() ) {
-                throw new TranslationException( "Field count data is not a number." );
-            }
-            fieldCount = (int) fieldCountData.getNumberInteger();
+            fieldCount = -1; // Obtained from the card when needed.
 
         }
 
@@ -1434,6 +2137,10 @@ public class CardManager {
 
     /**
      * Represents a user's data in the card system.
+     * <p>
+     * Cards are indexed by title, in the order they were added. The list returned by
+     * {@link #getCards()} is an unmodifiable snapshot that is shared until the cards
+     * change.
      * 
      * @author ThiagoTGM
      * @version 1.0
@@ -1458,7 +2165,8 @@ public class CardManager {
                 new StorableTranslator<>( () -> new CardEntry() ) );
 
         private int cardAllowance;
-        private final List<CardEntry> cards;
+        private final Map<String, CardEntry> cards;
+        private volatile List<CardEntry> snapshot;
 
         /**
          * Creates an instance with no cards and the {@link #STARTING_CARDS initial
@@ -1467,7 +2175,8 @@ public class CardManager {
         private UserCards() {
 
             cardAllowance = STARTING_CARDS;
-            cards = new LinkedList<>();
+            cards = new LinkedHashMap<>();
+            snapshot = Collections.emptyList();
 
         }
 
@@ -1527,11 +2236,15 @@ public class CardManager {
         /**
          * Retrieves the user's cards.
          * 
-         * @return The cards.
+         * @return The cards, in the order they were added. The list is unmodifiable,
+         *         and does not change if the cards change.
          */
         public List<CardEntry> getCards() {
 
-            return new ArrayList<>( cards );
+            if ( snapshot == null ) { // Changed since the last snapshot.
+                snapshot = Collections.unmodifiableList( new ArrayList<>( cards.values() ) );
+            }
+            return snapshot;
 
         }
 
@@ -1545,7 +2258,7 @@ public class CardManager {
          */
         public boolean hasCard( String title ) {
 
-            return cards.contains( new CardEntry( title ) );
+            return cards.containsKey( title );
 
         }
 
@@ -1560,7 +2273,7 @@ public class CardManager {
          */
         public boolean hasCard( Card card ) {
 
-            return cards.contains( new CardEntry( card ) );
+            return cards.containsKey( card.title );
 
         }
 
@@ -1578,13 +2291,13 @@ public class CardManager {
          */
         private boolean addCard( Card card ) throws IllegalArgumentException {
 
-            CardEntry c = new CardEntry( card );
-            if ( cards.contains( c ) ) {
+            if ( cards.containsKey( card.title ) ) {
                 throw new IllegalArgumentException( "A card with this title already exists!" );
             }
 
             if ( getCardCount() < cardAllowance ) {
-                cards.add( c );
+                cards.put( card.title, new CardEntry( card ) );
+                snapshot = null;
                 return true;
             } else {
                 return false; // Already have filled allowance.
@@ -1603,23 +2316,28 @@ public class CardManager {
          */
         private boolean removeCard( Card card ) {
 
-            return cards.remove( new CardEntry( card ) );
+            if ( cards.remove( card.title ) == null ) {
+                return false;
+            }
+            snapshot = null;
+            return true;
 
         }
 
         /**
-         * Updates the registration of the given card in this user's list (e.g. updates
-         * the field count of the card with the same title).
+         * Sets the user that owns the cards, so that information about the cards can
+         * be obtained when needed.
          * 
-         * @param card
-         *            The card to update.
-         * @return <tt>true</tt> if updated successfully. <tt>false</tt> if the user
-         *         does not have the given card.
+         * @param owner
+         *            The string ID of the user.
          */
-        private boolean updateCard( Card card ) {
+        private void setOwner( String owner ) {
+
+            for ( CardEntry card : cards.values() ) {
 
-            CardEntry entry = new CardEntry( card );
-            return cards.remove( entry ) && cards.add( entry );
+                card.owner = owner;
+
+            }
 
         }
 
@@ -1631,7 +2349,7 @@ public class CardManager {
 
             Map<String, Data> map = new HashMap<>();
             map.put( CARD_ALLOWANCE_ATTRIBUTE, Data.numberData( cardAllowance ) );
-            map.put( CARDS_ATTRIBUTE, CARDS_TRANSLATOR.toData( cards ) );
+            map.put( CARDS_ATTRIBUTE, CARDS_TRANSLATOR.toData( getCards() ) );
             return Data.mapData( map );
 
         }
@@ -1659,7 +2377,12 @@ public class CardManager {
             }
             List<CardEntry> cards = CARDS_TRANSLATOR.fromData( cardsData );
             this.cards.clear();
-            this.cards.addAll( cards );
+            for ( CardEntry card : cards ) {
+
+                this.cards.put( card.title, card );
+
+            }
+            snapshot = null;
 
         }
 
@@ -0,0 +1,173 @@
+/*
+ * This file is part of BlakeBot.
+ *
+ * BlakeBot is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * BlakeBot is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with BlakeBot. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.github.thiagotgm.blakebot.module.user;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tracks which users are on cooldown by keeping the last time each user was rewarded,
+ * in primitive arrays.
+ * <p>
+ * Checking and starting a cooldown does not allocate any objects. Since expired entries do
+ * not affect the result, they are only removed by calling {@link #prune(long)} periodically.
+ * <p>
+ * The table is split into segments that are locked independently, so users in different
+ * segments do not contend with each other.
+ *
+ * @version 1.0
+ * @author ThiagoTGM
+ * @since 2026-10-16
+ */
+public class CooldownTracker {
+    
+    private static final int SEGMENTS = 16;
+    
+    private final long cooldown;
+    private final Segment[] segments;
+    
+    /**
+     * Creates a new tracker.
+     *
+     * @param cooldown How long the cooldown lasts.
+     * @param unit The unit of the cooldown.
+     */
+    public CooldownTracker( long cooldown, TimeUnit unit ) {
+        
+        this.cooldown = unit.toNanos( cooldown );
+        this.segments = new Segment[ SEGMENTS ];
+        for ( int i = 0; i < SEGMENTS; i++ ) {
+            
+            segments[i] = new Segment();
+            
+        }
+        
+    }
+    
+    /**
+     * Starts the cooldown of a user, unless the user is already on cooldown.
+     *
+     * @param id The ID of the user.
+     * @param now The current time, in terms of {@link System#nanoTime()}.
+     * @return <tt>true</tt> if the user was not on cooldown (and now is).
+     *         <tt>false</tt> if the user is still on cooldown.
+     */
+    public boolean tryAcquire( long id, long now ) {
+        
+        return segments[LongTable.segment( id, SEGMENTS )].tryAcquire( id, now, cooldown );
+        
+    }
+    
+    /**
+     * Removes the entries of users whose cooldown is over.
+     *
+     * @param now The current time, in terms of {@link System#nanoTime()}.
+     * @return How many users are still on cooldown.
+     */
+    public int prune( long now ) {
+        
+        int remaining = 0;
+        for ( Segment segment : segments ) {
+            
+            remaining += segment.prune( now, cooldown );
+            
+        }
+        return remaining;
+        
+    }
+    
+    /**
+     * A segment of the table.
+     *
+     * @version 1.0
+     * @author ThiagoTGM
+     * @since 2026-10-16
+     */
+    private static class Segment extends LongTable {
+        
+        private long[] times;
+        private long[] oldTimes;
+        
+        /**
+         * Creates an empty segment.
+         */
+        private Segment() {
+            
+            allocate( initialCapacity() );
+            
+        }
+        
+        @Override
+        protected void allocate( int capacity ) {
+            
+            oldTimes = times;
+            times = new long[ capacity ];
+            
+        }
+        
+        @Override
+        protected void transfer( int from, int to ) {
+            
+            times[to] = oldTimes[from];
+            
+        }
+        
+        @Override
+        protected void release() {
+            
+            oldTimes = null;
+            
+        }
+        
+        /**
+         * Starts the cooldown of a user, unless the user is already on cooldown.
+         *
+         * @param id The ID of the user.
+         * @param now The current time.
+         * @param cooldown The duration of the cooldown.
+         * @return <tt>true</tt> if the user was not on cooldown.
+         */
+        private synchronized boolean tryAcquire( long id, long now, long cooldown ) {
+            
+            int slot = find( id );
+            if ( slot < 0 ) {
+                slot = insert( id );
+            } else if ( now - times[slot] < cooldown ) {
+                return false; // Still on cooldown.
+            }
+            times[slot] = now;
+            return true;
+            
+        }
+        
+        /**
+         * Removes the entries whose cooldown is over, shrinking the table if it became
+         * mostly empty.
+         *
+         * @param now The current time.
+         * @param cooldown The duration of the cooldown.
+         * @return How many entries remain.
+         */
+        private synchronized int prune( long now, long cooldown ) {
+            
+            retain( slot -> now - times[slot] < cooldown );
+            return size();
+            
+        }
+        
+    }
+    
+}
@@ -0,0 +1,728 @@
+/*
+ * This file is part of BlakeBot.
+ *
+ * BlakeBot is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * BlakeBot is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with BlakeBot. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.thiagotgm.blakebot.module.user;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Append-only ledger of every change made to currency balances, kept in memory-mapped
+ * files.
+ * <p>
+ * Each operation is stored as a single entry that contains one posting for every account
+ * it changed, so a transfer is never recorded partially. Entries are framed by their length
+ * both before and after them, and the leading length is written last, so an entry that was
+ * interrupted by a crash reads as the end of the ledger. The ledger is split in fixed-size
+ * segment files, and an entry is identified by its position across all segments.
+ * <p>
+ * Each posting also stores the position of the previous entry of the same user, so the
+ * history of a user is read by following that chain, without going through the rest of
+ * the ledger. The latest entry of each user is only updated once the entry is complete,
+ * so histories are read without holding the lock used to append entries.
+ * <p>
+ * A snapshot stores the position up to which all entries were applied to the stored
+ * balances, along with the latest entry of each user. On startup, only the entries after
+ * the snapshot are replayed.
+ *
+ * @version 1.0
+ * @author ThiagoTGM
+ * @since 2026-10-16
+ */
+public class CurrencyLedger {
+    
+    private static final Logger LOG = LoggerFactory.getLogger( CurrencyLedger.class );
+    
+    private static final int SEGMENT_SIZE = 64 * 1024 * 1024;
+    private static final int HEADER_SIZE = Long.BYTES + Byte.BYTES + Integer.BYTES;
+    private static final int POSTING_SIZE = 4 * Long.BYTES;
+    private static final int FRAME_SIZE = 2 * Integer.BYTES;
+    private static final String SNAPSHOT_FILE = "snapshot";
+    private static final long NONE = -1;
+    
+    private final File directory;
+    private final Map<Integer,MappedByteBuffer> segments;
+    private final Pointers latest;
+    private long position;
+    
+    /**
+     * Opens the ledger in the given directory, replaying the entries after the last
+     * snapshot.
+     *
+     * @param directory The directory of the ledger files.
+     * @param recovered Receives the ID and the recorded balance of each user with a posting
+     *                  after the snapshot, in the order they were recorded.
+     * @throws UncheckedIOException if the ledger could not be opened.
+     */
+    public CurrencyLedger( File directory, BiConsumer<Long,Long> recovered )
+            throws UncheckedIOException {
+        
+        this.directory = directory;
+        this.segments = new ConcurrentHashMap<>();
+        this.latest = new Pointers();
+        this.position = 0;
+        
+        if ( !directory.isDirectory() && !directory.mkdirs() ) {
+            throw new UncheckedIOException( new IOException( "Could not create ledger directory." ) );
+        }
+        try {
+            readSnapshot();
+            replay( recovered );
+        } catch ( IOException e ) {
+            throw new UncheckedIOException( "Failed to open currency ledger.", e );
+        }
+        
+    }
+    
+    /**
+     * Retrieves the file of a segment.
+     *
+     * @param segment The segment number.
+     * @return The file.
+     */
+    private File segmentFile( int segment ) {
+        
+        return new File( directory, String.format( "%08d.ledger", segment ) );
+        
+    }
+    
+    /**
+     * Retrieves the mapped buffer of a segment, mapping it if necessary.
+     * <p>
+     * Buffers are only read and written with absolute indexes, so they can be shared
+     * between threads.
+     *
+     * @param segment The segment number.
+     * @return The buffer.
+     * @throws IOException if the segment could not be mapped.
+     */
+    private MappedByteBuffer segment( int segment ) throws IOException {
+        
+        MappedByteBuffer buffer = segments.get( segment );
+        if ( buffer == null ) {
+            synchronized ( segments ) {
+                buffer = segments.get( segment );
+                if ( buffer == null ) { // Not mapped by another thread in the meantime.
+                    try ( FileChannel channel = FileChannel.open( segmentFile( segment ).toPath(),
+                            StandardOpenOption.CREATE, StandardOpenOption.READ,
+                            StandardOpenOption.WRITE ) ) {
+                        buffer = channel.map( FileChannel.MapMode.READ_WRITE, 0, SEGMENT_SIZE );
+                    }
+                    segments.put( segment, buffer );
+                }
+            }
+        }
+        return buffer;
+        
+    }
+    
+    /**
+     * Loads the last snapshot, if there is one.
+     *
+     * @throws IOException if the snapshot could not be read.
+     */
+    private void readSnapshot() throws IOException {
+        
+        File file = new File( directory, SNAPSHOT_FILE );
+        if ( !file.exists() ) {
+            return;
+        }
+        try ( DataInputStream input = new DataInputStream(
+                new BufferedInputStream( new FileInputStream( file ) ) ) ) {
+            
+            position = input.readLong();
+            int users = input.readInt();
+            for ( int i = 0; i < users; i++ ) {
+                
+                long user = input.readLong();
+                if ( user == 0 ) {
+                    throw new IOException( "Invalid user ID in snapshot." );
+                }
+                latest.put( user, input.readLong() );
+                
+            }
+            
+        }
+        LOG.debug( "Loaded ledger snapshot at position {} with {} users.", position, latest.size() );
+        
+    }
+    
+    /**
+     * Replays the entries after the current position, and moves the position to the end
+     * of the ledger.
+     *
+     * @param recovered Receives the recorded balances.
+     * @throws IOException if a segment could not be mapped.
+     */
+    private void replay( BiConsumer<Long,Long> recovered ) throws IOException {
+        
+        int entries = 0;
+        while ( true ) {
+            
+            int segment = (int) ( position / SEGMENT_SIZE );
+            int offset = (int) ( position % SEGMENT_SIZE );
+            MappedByteBuffer buffer = segment( segment );
+            int length = ( offset + Integer.BYTES <= SEGMENT_SIZE ) ? buffer.getInt( offset ) : 0;
+            if ( length == 0 ) { // End of segment.
+                if ( segmentFile( segment + 1 ).exists() ) {
+                    position = (long) ( segment + 1 ) * SEGMENT_SIZE;
+                    continue;
+                }
+                break; // End of ledger.
+            }
+            if ( ( length < HEADER_SIZE ) || ( offset + length + FRAME_SIZE > SEGMENT_SIZE ) ||
+                    ( buffer.getInt( offset + Integer.BYTES + length ) != length ) ) {
+                LOG.warn( "Currency ledger ends with an incomplete entry, discarding it." );
+                for ( int i = offset; i < SEGMENT_SIZE; i++ ) {
+                    
+                    buffer.put( i, (byte) 0 );
+                    
+                }
+                break;
+            }
+            
+            int base = offset + Integer.BYTES + HEADER_SIZE;
+            int count = buffer.getInt( base - Integer.BYTES );
+            for ( int i = 0; i < count; i++ ) {
+                
+                int posting = base + i * POSTING_SIZE;
+                long user = buffer.getLong( posting );
+                latest.put( user, position );
+                recovered.accept( user, buffer.getLong( posting + 2 * Long.BYTES ) );
+                
+            }
+            position += length + FRAME_SIZE;
+            entries++;
+            
+        }
+        LOG.info( "Replayed {} entries from currency ledger.", entries );
+        
+    }
+    
+    /**
+     * Records an operation.
+     * <p>
+     * The latest entry of each account is only moved to the new entry after it is
+     * complete, so concurrent {@link #getHistory(long, int, int) history reads} never see
+     * a partially written entry.
+     * @param type The type of operation.
+     * @param postings The change made to each account.
+     * @throws IllegalArgumentException if there are no postings, or too many to fit in a
+     *                                  segment.
+     * @throws UncheckedIOException if a new segment could not be created.
+     */
+    public synchronized void append( Type type, List<Posting> postings )
+            throws IllegalArgumentException, UncheckedIOException {
+        
+        int length = HEADER_SIZE + postings.size() * POSTING_SIZE;
+        if ( postings.isEmpty() || ( length + FRAME_SIZE > SEGMENT_SIZE ) ) {
+            throw new IllegalArgumentException( "Invalid amount of postings." );
+        }
+        if ( ( position % SEGMENT_SIZE ) + length + FRAME_SIZE > SEGMENT_SIZE ) { // Go to next segment.
+            position = ( position / SEGMENT_SIZE + 1 ) * SEGMENT_SIZE;
+        }
+        
+        MappedByteBuffer buffer;
+        try {
+            buffer = segment( (int) ( position / SEGMENT_SIZE ) );
+        } catch ( IOException e ) {
+            throw new UncheckedIOException( "Could not open ledger segment.", e );
+        }
+        int offset = (int) ( position % SEGMENT_SIZE );
+        long[] previous = new long[ postings.size() ];
+        for ( int i = 0; i < previous.length; i++ ) {
+            
+            previous[i] = latest.get( postings.get( i ).user );
+            
+        }
+        int index = offset + Integer.BYTES;
+        buffer.putLong( index, System.currentTimeMillis() );
+        buffer.put( index + Long.BYTES, (byte) type.ordinal() );
+        buffer.putInt( index + Long.BYTES + Byte.BYTES, postings.size() );
+        index += HEADER_SIZE;
+        for ( int i = 0; i < previous.length; i++ ) {
+            
+            Posting posting = postings.get( i );
+            buffer.putLong( index, posting.user );
+            buffer.putLong( index + Long.BYTES, posting.amount );
+            buffer.putLong( index + 2 * Long.BYTES, posting.balance );
+            buffer.putLong( index + 3 * Long.BYTES, previous[i] );
+            index += POSTING_SIZE;
+            
+        }
+        buffer.putInt( index, length );
+        buffer.putInt( offset, length ); // Written last to commit the entry.
+        for ( Posting posting : postings ) { // Publish the entry to history reads.
+            
+            latest.put( posting.user, position );
+            
+        }
+        position += length + FRAME_SIZE;
+        
+    }
+    
+    /**
+     * Retrieves the history of a user, from the most recent operation to the oldest.
+     * <p>
+     * Only complete entries are reachable from the latest entry of a user, so the history
+     * is read without blocking operations from being recorded.
+     * @param user The ID of the user.
+     * @param skip How many of the most recent operations to skip.
+     * @param count The maximum amount of operations to retrieve.
+     * @return The operations.
+     * @throws UncheckedIOException if a segment could not be read.
+     */
+    public List<Transaction> getHistory( long user, int skip, int count )
+            throws UncheckedIOException {
+        
+        List<Transaction> history = new ArrayList<>( count );
+        long entry = latest.get( user );
+        try {
+            while ( ( entry != NONE ) && ( history.size() < count ) ) {
+                
+                MappedByteBuffer buffer = segment( (int) ( entry / SEGMENT_SIZE ) );
+                int index = (int) ( entry % SEGMENT_SIZE ) + Integer.BYTES;
+                long timestamp = buffer.getLong( index );
+                Type type = Type.values()[buffer.get( index + Long.BYTES )];
+                int postings = buffer.getInt( index + Long.BYTES + Byte.BYTES );
+                index += HEADER_SIZE;
+                
+                boolean found = false;
+                long amount = 0;
+                long balance = 0;
+                long previous = NONE;
+                long[] others = new long[ postings - 1 ];
+                int other = 0;
+                for ( int i = 0; i < postings; i++ ) {
+                    
+                    int posting = index + i * POSTING_SIZE;
+                    long id = buffer.getLong( posting );
+                    if ( !found && ( id == user ) ) { // Own posting.
+                        found = true;
+                        amount = buffer.getLong( posting + Long.BYTES );
+                        balance = buffer.getLong( posting + 2 * Long.BYTES );
+                        previous = buffer.getLong( posting + 3 * Long.BYTES );
+                    } else if ( other < others.length ) {
+                        others[other++] = id;
+                    }
+                    
+                }
+                if ( !found ) {
+                    LOG.error( "Ledger entry {} does not have a posting for user {}.", entry, user );
+                    break;
+                }
+                if ( skip > 0 ) {
+                    skip--;
+                } else {
+                    history.add( new Transaction( timestamp, type, amount, balance, others ) );
+                }
+                entry = previous;
+                
+            }
+        } catch ( IOException e ) {
+            throw new UncheckedIOException( "Could not read ledger segment.", e );
+        }
+        return history;
+        
+    }
+    
+    /**
+     * Captures the current position of the ledger and the latest entry of each user, to be
+     * written as a snapshot. The caller must ensure that all entries recorded so far were
+     * applied to the stored balances.
+     * <p>
+     * Only the ledger itself is locked, while the latest entries are copied into
+     * primitive arrays.
+     *
+     * @return The captured state.
+     */
+    public synchronized Snapshot capture() {
+        
+        return latest.capture( position );
+        
+    }
+    
+    /**
+     * Writes a snapshot, after forcing the ledger to disk, and atomically replaces the
+     * previous one.
+     *
+     * @param snapshot The state to write.
+     * @throws UncheckedIOException if the snapshot could not be written.
+     */
+    public void writeSnapshot( Snapshot snapshot ) throws UncheckedIOException {
+        
+        for ( MappedByteBuffer buffer : segments.values() ) {
+            
+            buffer.force();
+            
+        }
+        
+        File file = new File( directory, SNAPSHOT_FILE );
+        File temp = new File( directory, SNAPSHOT_FILE + ".tmp" );
+        try {
+            try ( DataOutputStream out = new DataOutputStream(
+                    new BufferedOutputStream( new FileOutputStream( temp ) ) ) ) {
+                
+                out.writeLong( snapshot.position );
+                out.writeInt( snapshot.users.length );
+                for ( int i = 0; i < snapshot.users.length; i++ ) {
+                    
+                    out.writeLong( snapshot.users[i] );
+                    out.writeLong( snapshot.entries[i] );
+                    
+                }
+                
+            }
+            Files.move( temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE );
+        } catch ( IOException e ) {
+            throw new UncheckedIOException( "Failed to write ledger snapshot.", e );
+        }
+        LOG.debug( "Wrote ledger snapshot at position {}.", snapshot.position );
+        
+    }
+    
+    /**
+     * Type of operation recorded in the ledger.
+     *
+     * @version 1.0
+     * @author ThiagoTGM
+     * @since 2026-10-16
+     */
+    public enum Type {
+        
+        /**
+         * Currency was added to an account.
+         */
+        DEPOSIT,
+        
+        /**
+         * Currency was taken from an account.
+         */
+        WITHDRAWAL,
+        
+        /**
+         * Currency was moved between accounts.
+         */
+        TRANSFER
+        
+    }
+    
+    /**
+     * The change made to an account by an operation.
+     *
+     * @version 1.0
+     * @author ThiagoTGM
+     * @since 2026-10-16
+     */
+    public static class Posting {
+        
+        private final long user;
+        private final long amount;
+        private final long balance;
+        
+        /**
+         * Creates a new posting.
+         *
+         * @param user The ID of the user that owns the account.
+         * @param amount How much the balance changed (negative if currency was taken).
+         * @param balance The balance after the change.
+         */
+        public Posting( long user, long amount, long balance ) {
+            
+            this.user = user;
+            this.amount = amount;
+            this.balance = balance;
+            
+        }
+        
+        /**
+         * Retrieves the user that owns the account.
+         *
+         * @return The ID of the user.
+         */
+        public long getUser() {
+            
+            return user;
+            
+        }
+        
+        /**
+         * Retrieves how much the balance changed.
+         *
+         * @return The change, negative if currency was taken.
+         */
+        public long getAmount() {
+            
+            return amount;
+            
+        }
+        
+        /**
+         * Retrieves the balance after the change.
+         *
+         * @return The balance.
+         */
+        public long getBalance() {
+            
+            return balance;
+            
+        }
+        
+    }
+    
+    /**
+     * An operation in the history of a user.
+     *
+     * @version 1.0
+     * @author ThiagoTGM
+     * @since 2026-10-16
+     */
+    public static class Transaction {
+        
+        private final long timestamp;
+        private final Type type;
+        private final long amount;
+        private final long balance;
+        private final long[] others;
+        
+        /**
+         * Creates a new transaction.
+         *
+         * @param timestamp When the operation happened.
+         * @param type The type of operation.
+         * @param amount How much the balance of the user changed.
+         * @param balance The balance of the user after the operation.
+         * @param others The IDs of the other users involved.
+         */
+        private Transaction( long timestamp, Type type, long amount, long balance, long[] others ) {
+            
+            this.timestamp = timestamp;
+            this.type = type;
+            this.amount = amount;
+            this.balance = balance;
+            this.others = others;
+            
+        }
+        
+        /**
+         * Retrieves when the operation happened.
+         *
+         * @return The time, in milliseconds since the epoch.
+         */
+        public long getTimestamp() {
+            
+            return timestamp;
+            
+        }
+        
+        /**
+         * Retrieves the type of operation.
+         *
+         * @return The type.
+         */
+        public Type getType() {
+            
+            return type;
+            
+        }
+        
+        /**
+         * Retrieves how much the balance of the user changed.
+         *
+         * @return The change, negative if currency was taken.
+         */
+        public long getAmount() {
+            
+            return amount;
+            
+        }
+        
+        /**
+         * Retrieves the balance of the user after the operation.
+         *
+         * @return The balance.
+         */
+        public long getBalance() {
+            
+            return balance;
+            
+        }
+        
+        /**
+         * Retrieves the other users involved in the operation, such as the sender or the
+         * recipients of a transfer.
+         *
+         * @return The IDs of the users.
+         */
+        public long[] getOthers() {
+            
+            return others.clone();
+            
+        }
+        
+    }
+    
+    /**
+     * State of the ledger captured for a snapshot.
+     *
+     * @version 1.0
+     * @author ThiagoTGM
+     * @since 2026-10-16
+     */
+    public static class Snapshot {
+        
+        private final long position;
+        private final long[] users;
+        private final long[] entries;
+        
+        /**
+         * Creates a new snapshot.
+         *
+         * @param position The position up to which entries were applied.
+         * @param users The IDs of the users.
+         * @param entries The latest entry of each user, in the same order.
+         */
+        private Snapshot( long position, long[] users, long[] entries ) {
+            
+            this.position = position;
+            this.users = users;
+            this.entries = entries;
+            
+        }
+        
+    }
+    
+    /**
+     * The latest entry of each user, kept in primitive arrays.
+     * <p>
+     * Guarded by its own lock, so history reads only wait for the lookup, never for an
+     * entry being appended.
+     *
+     * @version 1.0
+     * @author ThiagoTGM
+     * @since 2026-10-16
+     */
+    private static class Pointers extends LongTable {
+        
+        private long[] entries;
+        private long[] oldEntries;
+        
+        /**
+         * Creates an empty table.
+         */
+        private Pointers() {
+            
+            allocate( initialCapacity() );
+            
+        }
+        
+        @Override
+        protected void allocate( int capacity ) {
+            
+            oldEntries = entries;
+            entries = new long[ capacity ];
+            
+        }
+        
+        @Override
+        protected void transfer( int from, int to ) {
+            
+            entries[to] = oldEntries[from];
+            
+        }
+        
+        @Override
+        protected void release() {
+            
+            oldEntries = null;
+            
+        }
+        
+        /**
+         * Retrieves the latest entry of a user.
+         *
+         * @param user The ID of the user.
+         * @return The position of the entry, or {@link CurrencyLedger#NONE} if the user has
+         *         no entries.
+         */
+        private synchronized long get( long user ) {
+            
+            int slot = find( user );
+            return slot < 0 ? NONE : entries[slot];
+            
+        }
+        
+        /**
+         * Sets the latest entry of a user.
+         *
+         * @param user The ID of the user.
+         * @param entry The position of the entry.
+         */
+        private synchronized void put( long user, long entry ) {
+            
+            int slot = insert( user ); // May reallocate the entries.
+            entries[slot] = entry;
+            
+        }
+        
+        /**
+         * Copies the table into a snapshot.
+         *
+         * @param position The position of the ledger.
+         * @return The snapshot.
+         */
+        private synchronized Snapshot capture( long position ) {
+            
+            long[] users = new long[ size() ];
+            long[] entries = new long[ users.length ];
+            int count = 0;
+            for ( int slot = 0; slot < capacity(); slot++ ) {
+                
+                if ( keyAt( slot ) != 0 ) {
+                    users[count] = keyAt( slot );
+                    entries[count++] = this.entries[slot];
+                }
+                
+            }
+            return new Snapshot( position, users, entries );
+            
+        }
+        
+    }
+    
+}
@@ -17,13 +17,27 @@
 
 package com.github.thiagotgm.blakebot.module.user;
 
+import java.io.File;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.github.thiagotgm.blakebot.module.user.CurrencyLedger.Posting;
+import com.github.thiagotgm.blakebot.module.user.CurrencyLedger.Transaction;
+import com.github.thiagotgm.bot_utils.ExitManager;
 import com.github.thiagotgm.bot_utils.Settings;
 import com.github.thiagotgm.bot_utils.storage.DatabaseManager;
 import com.github.thiagotgm.bot_utils.storage.translate.LongTranslator;
@@ -31,16 +45,36 @@ import com.github.thiagotgm.bot_utils.storage.translate.StringTranslator;
 import com.github.thiagotgm.bot_utils.utils.AsyncTools;
 import com.github.thiagotgm.bot_utils.utils.KeyedExecutorService;
 
+import sx.blah.discord.handle.obj.IGuild;
 import sx.blah.discord.handle.obj.IUser;
 
 /**
  * Manages the currency system.
+ * <p>
+ * The balances are kept in the {@link AccountStore}. Balances stored in the database by
+ * older versions are imported into it the first time the manager is created.
+ * <p>
+ * Users are also ranked by their balance in a {@link RankIndex}, that is updated by the
+ * same tasks that change the balances, so that leaderboard queries do not need to go
+ * through every stored balance. The index is loaded from the store in the background
+ * when the manager is created.
+ * <p>
+ * Every change to a balance is made while holding the lock of the account, and operations
+ * that change several accounts (transfers) take the locks of all of them, always in the
+ * same order, so that no other change to those accounts can be made in the middle of them
+ * and there is no risk of deadlocks.
+ * <p>
+ * Every change is also recorded in a {@link CurrencyLedger} once the balances are
+ * written (if it cannot be recorded, the previous balances are written back), and a
+ * snapshot of the ledger is taken periodically and when the program exits, right after
+ * saving the store. On startup, the balances recorded in the ledger after the last
+ * snapshot are re-applied, since the store only saves its changes periodically.
  * 
  * @author ThiagoTGM
  * @version 1.0
  * @since 2018-09-06
  */
-public class CurrencyManager {
+public class CurrencyManager implements ExitManager.ExitListener {
 	
 	private static final Logger LOG = LoggerFactory.getLogger( CurrencyManager.class );
 	private static final ThreadGroup THREADS = new ThreadGroup( "Currency System" );
@@ -67,6 +101,10 @@ public class CurrencyManager {
 	 */
 	public static final long NOT_ENOUGH_FUNDS = -1;
 	
+	private static final int LOCK_STRIPES = 64;
+	private static final String LEDGER_DIRECTORY = "currency-ledger";
+	private static final long SNAPSHOT_INTERVAL = 5;
+	
 	private static CurrencyManager instance;
 	
 	/**
@@ -78,6 +116,7 @@ public class CurrencyManager {
 		
 		if ( instance == null ) {
 			instance = new CurrencyManager();
+			ExitManager.registerListener( instance );
 		}
 		return instance;
 		
@@ -102,15 +141,287 @@ public class CurrencyManager {
 		
 	}
 	
-	private final Map<String,Long> currencyMap;
+	private final RankIndex ranks;
+	private volatile boolean ranksLoaded;
+	private final ReentrantLock[] locks;
+	private final AccountStore store;
+	private final ProfileCache profiles;
+	private final CurrencyLedger ledger;
+	private final ScheduledExecutorService scheduler;
 	
 	/**
 	 * Instantiates a manager.
 	 */
 	private CurrencyManager() {
 		
-		currencyMap = Collections.synchronizedMap( DatabaseManager.getDatabase()
-				.getDataMap( "CurrencySystem", new StringTranslator(), new LongTranslator() ) );
+		store = AccountStore.getInstance();
+		if ( !store.isImported( AccountStore.Field.BALANCE ) ) {
+			store.importValues( AccountStore.Field.BALANCE, DatabaseManager.getDatabase()
+					.getDataMap( "CurrencySystem", new StringTranslator(), new LongTranslator() ),
+					balance -> balance );
+			store.setImported( AccountStore.Field.BALANCE );
+		}
+		profiles = ProfileCache.getInstance();
+		CurrencyLedger ledger;
+		try { // Re-apply balances that might not have been saved.
+			ledger = new CurrencyLedger( new File( LEDGER_DIRECTORY ), store::setBalance );
+		} catch ( UncheckedIOException e ) {
+			LOG.error( "Could not open currency ledger, transactions will not be recorded "
+					+ "and transfers are disabled.", e );
+			ledger = null;
+		}
+		this.ledger = ledger;
+		scheduler = AsyncTools.createScheduledThreadPool( THREADS, ( t, e ) -> {
+			
+			LOG.error( "Error while maintaining currency system.", e );
+			
+		});
+		if ( ledger != null ) {
+			scheduler.scheduleWithFixedDelay( this::snapshot, SNAPSHOT_INTERVAL, SNAPSHOT_INTERVAL,
+					TimeUnit.MINUTES );
+		}
+		ranks = new RankIndex();
+		ranksLoaded = false;
+		locks = new ReentrantLock[ LOCK_STRIPES ];
+		for ( int i = 0; i < LOCK_STRIPES; i++ ) {
+			
+			locks[i] = new ReentrantLock();
+			
+		}
+		scheduler.execute( this::loadRanks );
+		
+	}
+	
+	/**
+	 * Loads the balance of every stored user into the rank index, in a single batch.
+	 * <p>
+	 * Users whose balance changed while loading are already in the index with a newer
+	 * value, so they are not overwritten.
+	 */
+	private void loadRanks() {
+		
+		long start = System.nanoTime();
+		RankIndex.Batch batch = new RankIndex.Batch( store.size() );
+		store.forEach( AccountStore.Field.BALANCE, batch::add );
+		ranks.putAllIfAbsent( batch );
+		ranksLoaded = true;
+		LOG.info( "Ranked {} users by balance in {} ms.", ranks.size(),
+				TimeUnit.NANOSECONDS.toMillis( System.nanoTime() - start ) );
+		
+	}
+	
+	/**
+	 * Determines whether the ranking of users by balance finished loading. Until then,
+	 * ranks only consider the users whose balance changed since the manager was created.
+	 * 
+	 * @return <tt>true</tt> if the ranking is complete.
+	 */
+	public boolean isRankingLoaded() {
+		
+		return ranksLoaded;
+		
+	}
+	
+	/**
+	 * Retrieves the rank of a user in terms of balance, among all users.
+	 * 
+	 * @param user The user.
+	 * @return The rank of the user (1 is the highest), or 0 if the user never held currency.
+	 * @throws NullPointerException if the user is <tt>null</tt>.
+	 */
+	public int getRank( IUser user ) throws NullPointerException {
+		
+		if ( user == null ) {
+			throw new NullPointerException( "User cannot be null." );
+		}
+		
+		return ranks.getRank( user.getLongID() );
+		
+	}
+	
+	/**
+	 * Retrieves the users in a range of ranks, in terms of balance, among all users.
+	 * 
+	 * @param start The first rank to retrieve (1 is the highest).
+	 * @param count The maximum amount of users to retrieve.
+	 * @return The ranked users, with their balance as the score.
+	 * @throws IllegalArgumentException if the start rank is not positive or the count is negative.
+	 */
+	public List<RankIndex.Entry> getLeaderboard( int start, int count ) throws IllegalArgumentException {
+		
+		return ranks.getRange( start, count );
+		
+	}
+	
+	/**
+	 * Retrieves how many users are ranked among all users.
+	 * 
+	 * @return The amount of ranked users.
+	 */
+	public int getRankedCount() {
+		
+		return ranks.size();
+		
+	}
+	
+	/**
+	 * Ranks the members of a guild in terms of balance.
+	 * 
+	 * @param guild The guild.
+	 * @return The members of the guild that ever held currency, in rank order, with ranks
+	 *         relative to each other.
+	 * @throws NullPointerException if the guild is <tt>null</tt>.
+	 */
+	public List<RankIndex.Entry> getGuildLeaderboard( IGuild guild ) throws NullPointerException {
+		
+		if ( guild == null ) {
+			throw new NullPointerException( "Guild cannot be null." );
+		}
+		
+		List<IUser> members = guild.getUsers();
+		long[] ids = new long[ members.size() ];
+		for ( int i = 0; i < ids.length; i++ ) {
+			
+			ids[i] = members.get( i ).getLongID();
+			
+		}
+		return ranks.getRanking( ids );
+		
+	}
+	
+	/**
+	 * Locks the accounts of the given users. The locks are always taken in the same order,
+	 * so concurrent calls cannot deadlock.
+	 * 
+	 * @param ids The IDs of the users.
+	 * @return The lock stripes that were locked, to be given to {@link #unlock(int[])}.
+	 */
+	private int[] lock( long... ids ) {
+		
+		int[] stripes = new int[ ids.length ];
+		for ( int i = 0; i < ids.length; i++ ) {
+			
+			stripes[i] = (int) ( ( ids[i] ^ ( ids[i] >>> 32 ) ) & ( LOCK_STRIPES - 1 ) );
+			
+		}
+		Arrays.sort( stripes );
+		int count = 0;
+		for ( int stripe : stripes ) { // Each stripe is only locked once.
+			
+			if ( ( count == 0 ) || ( stripes[count - 1] != stripe ) ) {
+				locks[stripe].lock();
+				stripes[count++] = stripe;
+			}
+			
+		}
+		return count == stripes.length ? stripes : Arrays.copyOf( stripes, count );
+		
+	}
+	
+	/**
+	 * Unlocks accounts locked by {@link #lock(long...)}.
+	 * 
+	 * @param stripes The lock stripes that were locked.
+	 */
+	private void unlock( int[] stripes ) {
+		
+		for ( int i = stripes.length - 1; i >= 0; i-- ) {
+			
+			locks[stripes[i]].unlock();
+			
+		}
+		
+	}
+	
+	/**
+	 * Records an operation in the ledger. Must be called while holding the locks of the
+	 * changed accounts, after writing the new balances.
+	 * <p>
+	 * If the operation cannot be recorded, the balances from before the operation are
+	 * written back, so that the ledger never misses a change that was kept.
+	 * 
+	 * @param type The type of operation.
+	 * @param postings The change made to each account.
+	 * @throws RuntimeException if the operation could not be recorded.
+	 */
+	private void record( CurrencyLedger.Type type, List<Posting> postings ) throws RuntimeException {
+		
+		if ( ledger == null ) {
+			return;
+		}
+		try {
+			ledger.append( type, postings );
+		} catch ( RuntimeException e ) {
+			LOG.error( "Could not record {} in the ledger, reverting it.", type, e );
+			for ( Posting posting : postings ) {
+				
+				updateBalance( posting.getUser(), posting.getBalance() - posting.getAmount() );
+				
+			}
+			throw e;
+		}
+		
+	}
+	
+	/**
+	 * Takes a snapshot of the ledger.
+	 * <p>
+	 * Operations are only recorded after their balances were written to the store, so
+	 * every operation before the captured position is already in the store, without
+	 * locking any account. The store is saved before writing the snapshot, so that the
+	 * operations it covers are not lost if the program stops.
+	 */
+	private void snapshot() {
+		
+		if ( ledger == null ) {
+			return;
+		}
+		CurrencyLedger.Snapshot snapshot = ledger.capture();
+		store.save();
+		ledger.writeSnapshot( snapshot );
+		
+	}
+	
+	/**
+	 * Takes a final snapshot of the ledger before the program exits.
+	 */
+	@Override
+	public void handle() {
+		
+		scheduler.shutdown();
+		try {
+			snapshot();
+		} catch ( UncheckedIOException e ) {
+			LOG.error( "Failed to take ledger snapshot on exit.", e );
+		}
+		
+	}
+	
+	/**
+	 * Retrieves the balance of a user. Must be called while holding the lock of the account.
+	 * 
+	 * @param id The ID of the user.
+	 * @return The balance.
+	 */
+	private long getBalance( long id ) {
+		
+		long balance = store.getBalance( id );
+		return balance == AccountStore.UNKNOWN ? 0 : balance; // Never held currency.
+		
+	}
+	
+	/**
+	 * Writes the new balance of an account. Must be called while holding the lock of the
+	 * account.
+	 * 
+	 * @param id The ID of the user.
+	 * @param balance The new balance.
+	 */
+	private void updateBalance( long id, long balance ) {
+		
+		store.setBalance( id, balance );
+		ranks.put( id, balance );
+		profiles.invalidate( id );
 		
 	}
 	
@@ -136,10 +447,16 @@ public class CurrencyManager {
 		String userID = user.getStringID();
 		return EXECUTOR.submit( userID, () -> {
 			
-			Long curAmount = currencyMap.get( userID );
-			long newAmount = ( curAmount == null ? 0 : curAmount ) + amount;
-			currencyMap.put( userID, newAmount );
-			return newAmount;
+			int[] stripes = lock( user.getLongID() );
+			try {
+				long newAmount = getBalance( user.getLongID() ) + amount;
+				updateBalance( user.getLongID(), newAmount );
+				record( CurrencyLedger.Type.DEPOSIT,
+						Collections.singletonList( new Posting( user.getLongID(), amount, newAmount ) ) );
+				return newAmount;
+			} finally {
+				unlock( stripes );
+			}
 			
 		});
 		
@@ -218,13 +535,19 @@ public class CurrencyManager {
 		String userID = user.getStringID();
 		return EXECUTOR.submit( userID, () -> {
 			
-			Long curAmount = currencyMap.get( userID );
-			long newAmount = ( curAmount == null ? 0 : curAmount ) - amount;
-			if ( newAmount < 0 ) { // Not enough stored.
-				return NOT_ENOUGH_FUNDS;
-			} else { // Save new amount.
-				currencyMap.put( userID, newAmount );
-				return newAmount;
+			int[] stripes = lock( user.getLongID() );
+			try {
+				long newAmount = getBalance( user.getLongID() ) - amount;
+				if ( newAmount < 0 ) { // Not enough stored.
+					return NOT_ENOUGH_FUNDS;
+				} else { // Save new amount.
+					updateBalance( user.getLongID(), newAmount );
+					record( CurrencyLedger.Type.WITHDRAWAL,
+							Collections.singletonList( new Posting( user.getLongID(), -amount, newAmount ) ) );
+					return newAmount;
+				}
+			} finally {
+				unlock( stripes );
 			}
 			
 		});
@@ -282,6 +605,203 @@ public class CurrencyManager {
 		
 	}
 	
+	/**
+	 * Submits a request to move currency from a user to other users.
+	 * <p>
+	 * The task is keyed by the sender, and changes all the accounts while holding their locks,
+	 * so the store is always saved either before or after all of them changed. The transfer
+	 * is then recorded in the ledger, so it is re-applied on the next startup if the
+	 * program stops before the store is saved.
+	 * <p>
+	 * If the ledger is not available, the transfer is refused, since a transfer that is
+	 * only partially saved could not be recovered.
+	 * 
+	 * @param from The user to take currency from.
+	 * @param amounts The amount to give to each user, keyed by user ID.
+	 * @param total The sum of the amounts.
+	 * @return The Future representing the request.
+	 */
+	private Future<Long> requestTransfer( IUser from, Map<Long,Long> amounts, long total ) {
+		
+		String fromID = from.getStringID();
+		if ( ledger == null ) {
+			LOG.error( "Refusing transfer from user {}: the currency ledger is not available.", fromID );
+			return CompletableFuture.completedFuture( ERROR );
+		}
+		long[] ids = new long[ amounts.size() + 1 ];
+		ids[0] = from.getLongID();
+		int i = 1;
+		for ( long id : amounts.keySet() ) {
+			
+			ids[i++] = id;
+			
+		}
+		return EXECUTOR.submit( fromID, () -> {
+			
+			int[] stripes = lock( ids );
+			try {
+				long newAmount = getBalance( from.getLongID() ) - total;
+				if ( newAmount < 0 ) { // Not enough stored.
+					return NOT_ENOUGH_FUNDS;
+				}
+				
+				long[] balances = new long[ amounts.size() ];
+				List<Posting> postings = new ArrayList<>( amounts.size() + 1 );
+				postings.add( new Posting( from.getLongID(), -total, newAmount ) );
+				int j = 0;
+				for ( Map.Entry<Long,Long> amount : amounts.entrySet() ) {
+					
+					balances[j] = Math.addExact( getBalance( amount.getKey() ), amount.getValue() );
+					postings.add( new Posting( amount.getKey(), amount.getValue(), balances[j++] ) );
+					
+				}
+				updateBalance( from.getLongID(), newAmount );
+				j = 0;
+				for ( long id : amounts.keySet() ) {
+					
+					updateBalance( id, balances[j++] );
+					
+				}
+				record( CurrencyLedger.Type.TRANSFER, postings );
+				return newAmount;
+			} finally {
+				unlock( stripes );
+			}
+			
+		});
+		
+	}
+	
+	/**
+	 * Waits for a transfer to finish.
+	 * 
+	 * @param request The Future representing the transfer.
+	 * @return The result of the transfer, or {@value #ERROR} if it failed.
+	 */
+	private long awaitTransfer( Future<Long> request ) {
+		
+		try {
+			return request.get();
+		} catch ( InterruptedException e ) {
+			LOG.error( "Interrupted while waiting for transfer." );
+			return ERROR;
+		} catch ( ExecutionException e ) {
+			LOG.error( "Error while transferring currency.", e.getCause() );
+			return ERROR;
+		}
+		
+	}
+	
+	/**
+	 * Moves the given amount of currency from a user to another user.
+	 * <p>
+	 * No other change to either account is made while the transfer is applied, and if the
+	 * sender does not have enough currency neither balance is changed. If the program stops
+	 * before the balances are saved, the transfer is re-applied from the ledger on the next
+	 * startup. It is not necessary for the caller to synchronize calls to this method.
+	 * 
+	 * @param from The user to take currency from.
+	 * @param to The user to give currency to.
+	 * @param amount The amount of currency to move.
+	 * @return The amount of currency held by the sender after the transfer.<br>
+	 *         If there was an error while transferring, or the ledger is not
+	 *         available, returns {@value #ERROR}.<br>
+	 *         If the given amount is greater than what the sender currently holds, returns
+	 *         {@value #NOT_ENOUGH_FUNDS} (no balance is changed).
+	 * @throws NullPointerException if either user is <tt>null</tt>.
+	 * @throws IllegalArgumentException if the given amount is negative, or both users are
+	 *                                  the same.
+	 */
+	public long transfer( IUser from, IUser to, long amount )
+			throws NullPointerException, IllegalArgumentException {
+		
+		if ( ( from == null ) || ( to == null ) ) {
+			throw new NullPointerException( "Users cannot be null." );
+		}
+		if ( amount < 0 ) {
+			throw new IllegalArgumentException( "Amount cannot be negative." );
+		}
+		if ( from.getLongID() == to.getLongID() ) {
+			throw new IllegalArgumentException( "Cannot transfer to the same user." );
+		}
+		
+		return awaitTransfer( requestTransfer( from, Collections.singletonMap( to.getLongID(), amount ),
+				amount ) );
+		
+	}
+	
+	/**
+	 * Moves currency from a user to several other users, such as for payouts.
+	 * <p>
+	 * If the sender does not have enough to pay every recipient, no balance is changed.
+	 * Otherwise, all the balances are updated without any other change to those accounts
+	 * being made in the middle. If the program stops before the balances are saved, the
+	 * transfer is re-applied from the ledger on the next startup. It is not necessary for
+	 * the caller to synchronize calls to this method.
+	 * 
+	 * @param from The user to take currency from.
+	 * @param amounts The amount of currency to give to each user.
+	 * @return The amount of currency held by the sender after the transfer.<br>
+	 *         If there was an error while transferring, or the ledger is not
+	 *         available, returns {@value #ERROR}.<br>
+	 *         If the total amount is greater than what the sender currently holds, returns
+	 *         {@value #NOT_ENOUGH_FUNDS} (no balance is changed).
+	 * @throws NullPointerException if the sender, a recipient or an amount is <tt>null</tt>.
+	 * @throws IllegalArgumentException if an amount is negative, the total amount is too
+	 *                                  large, or the sender is one of the recipients.
+	 */
+	public long transferMany( IUser from, Map<IUser,Long> amounts )
+			throws NullPointerException, IllegalArgumentException {
+		
+		if ( from == null ) {
+			throw new NullPointerException( "Sender cannot be null." );
+		}
+		Map<Long,Long> byID = new LinkedHashMap<>();
+		long total = 0;
+		for ( Map.Entry<IUser,Long> amount : amounts.entrySet() ) {
+			
+			if ( ( amount.getKey() == null ) || ( amount.getValue() == null ) ) {
+				throw new NullPointerException( "Recipients and amounts cannot be null." );
+			}
+			if ( amount.getValue() < 0 ) {
+				throw new IllegalArgumentException( "Amount cannot be negative." );
+			}
+			if ( amount.getKey().getLongID() == from.getLongID() ) {
+				throw new IllegalArgumentException( "Cannot transfer to the same user." );
+			}
+			try {
+				total = Math.addExact( total, amount.getValue() );
+			} catch ( ArithmeticException e ) {
+				throw new IllegalArgumentException( "Total amount is too large.", e );
+			}
+			byID.merge( amount.getKey().getLongID(), amount.getValue(), Long::sum );
+			
+		}
+		
+		return awaitTransfer( requestTransfer( from, byID, total ) );
+		
+	}
+	
+	/**
+	 * Retrieves the transaction history of a user, from the most recent transaction to the
+	 * oldest.
+	 * 
+	 * @param user The user.
+	 * @param skip How many of the most recent transactions to skip.
+	 * @param count The maximum amount of transactions to retrieve.
+	 * @return The transactions. If the ledger is not available, the list is empty.
+	 * @throws NullPointerException if the user is <tt>null</tt>.
+	 */
+	public List<Transaction> getHistory( IUser user, int skip, int count ) throws NullPointerException {
+		
+		if ( user == null ) {
+			throw new NullPointerException( "User cannot be null." );
+		}
+		
+		return ledger == null ? Collections.emptyList() : ledger.getHistory( user.getLongID(), skip, count );
+		
+	}
+	
 	/**
 	 * Retrieves the amount of currency currently held by the given user.
 	 * 
@@ -290,8 +810,12 @@ public class CurrencyManager {
 	 */
 	public long getCurrency( IUser user ) {
 		
-		Long amount = currencyMap.get( user.getStringID() );
-		return amount == null ? 0 : amount;
+		int[] stripes = lock( user.getLongID() ); // Do not race with a change when loading.
+		try {
+			return getBalance( user.getLongID() );
+		} finally {
+			unlock( stripes );
+		}
 		
 	}
 
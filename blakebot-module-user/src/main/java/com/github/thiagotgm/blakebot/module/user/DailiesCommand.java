@@ -17,12 +17,12 @@
 
 package com.github.thiagotgm.blakebot.module.user;
 
+import java.time.DateTimeException;
+import java.time.Instant;
 import java.time.LocalDate;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
 import java.time.format.DateTimeParseException;
-import java.util.Collections;
-import java.util.Map;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -32,6 +32,7 @@ import com.github.thiagotgm.bot_utils.storage.Data;
 import com.github.thiagotgm.bot_utils.storage.DatabaseManager;
 import com.github.thiagotgm.bot_utils.storage.TranslationException;
 import com.github.thiagotgm.bot_utils.storage.Translator;
+import com.github.thiagotgm.bot_utils.storage.translate.LongTranslator;
 import com.github.thiagotgm.bot_utils.storage.translate.StringTranslator;
 import com.github.thiagotgm.bot_utils.utils.AsyncTools;
 import com.github.thiagotgm.bot_utils.utils.KeyedExecutorService;
@@ -43,6 +44,14 @@ import sx.blah.discord.util.EmbedBuilder;
 
 /**
  * Command that gives currency to the calling user, but only once per day.
+ * <p>
+ * The last claim of each user is stored as a single number, with the day of the claim
+ * (counted from the epoch, in the {@link #RESET_ZONE reset timezone}) in the upper 32
+ * bits and the amount of consecutive days claimed up to it in the lower 32 bits.
+ * <p>
+ * The claims are kept in the {@link AccountStore}. Claims stored in the database by older
+ * versions, including the ones stored as timestamps, are imported into it the first time
+ * the command is created.
  * 
  * @author ThiagoTGM
  * @version 1.0
@@ -73,15 +82,145 @@ public class DailiesCommand {
 	 */
 	public static final long DAILY_AMOUNT = Settings.getLongSetting( DAILY_AMOUNT_SETTING );
 	
-	private final Map<String,ZonedDateTime> cooldownMap;
+	/**
+	 * Setting that defines {@link #RESET_ZONE}.
+	 */
+	public static final String RESET_ZONE_SETTING = "Daily reset timezone";
+	/**
+	 * Timezone in which the day changes for the purpose of dailies. If the setting is
+	 * empty or invalid, the system timezone is used.
+	 */
+	public static final ZoneId RESET_ZONE = parseZone( Settings.getStringSetting( RESET_ZONE_SETTING ) );
+	
+	/**
+	 * Claim stored for users that never got a daily.
+	 */
+	private static final long NEVER = 0;
+	
+	private static volatile Day today = new Day( Long.MIN_VALUE, Long.MIN_VALUE );
+	
+	private final AccountStore store;
+	private final ProfileCache profiles;
 	
 	/**
 	 * Creates a new instance.
 	 */
 	public DailiesCommand() {
 		
-		cooldownMap = Collections.synchronizedMap( DatabaseManager.getDatabase().getDataMap(
-				"DailyCurrency", new StringTranslator(), new ZonedDateTimeTranslator() ) );
+		store = AccountStore.getInstance();
+		if ( !store.isImported( AccountStore.Field.DAILY ) ) {
+			store.importValues( AccountStore.Field.DAILY, DatabaseManager.getDatabase().getDataMap(
+					"DailyClaims", new StringTranslator(), new LongTranslator() ), claim -> claim );
+			store.importValues( AccountStore.Field.DAILY, DatabaseManager.getDatabase().getDataMap(
+					"DailyCurrency", new StringTranslator(), new ZonedDateTimeTranslator() ),
+					time -> claim( time.withZoneSameInstant( RESET_ZONE ).toLocalDate().toEpochDay(), 1 ) );
+			store.setImported( AccountStore.Field.DAILY );
+		}
+		profiles = ProfileCache.getInstance();
+		
+	}
+	
+	/**
+	 * Parses the reset timezone.
+	 * 
+	 * @param zone The ID of the timezone.
+	 * @return The timezone, or the system timezone if the ID is empty or invalid.
+	 */
+	private static ZoneId parseZone( String zone ) {
+		
+		if ( ( zone == null ) || zone.trim().isEmpty() ) {
+			return ZoneId.systemDefault();
+		}
+		try {
+			return ZoneId.of( zone.trim() );
+		} catch ( DateTimeException e ) {
+			LOG.warn( "Invalid daily reset timezone \"{}\", using the system timezone.", zone );
+			return ZoneId.systemDefault();
+		}
+		
+	}
+	
+	/**
+	 * Retrieves the current day, counted from the epoch in the reset timezone.
+	 * <p>
+	 * The day is only calculated again once it ends, so most calls just compare the
+	 * current time with the end of the day.
+	 * 
+	 * @return The current day.
+	 */
+	protected static long today() {
+		
+		long now = System.currentTimeMillis();
+		Day day = today;
+		if ( now >= day.end ) { // Day changed.
+			long epochDay = Instant.ofEpochMilli( now ).atZone( RESET_ZONE ).toLocalDate().toEpochDay();
+			long end = LocalDate.ofEpochDay( epochDay + 1 ).atStartOfDay( RESET_ZONE ).toInstant().toEpochMilli();
+			day = new Day( epochDay, end );
+			today = day;
+		}
+		return day.epochDay;
+		
+	}
+	
+	/**
+	 * Retrieves how long until the current day ends and dailies become available again.
+	 * 
+	 * @return The time until the reset, in milliseconds.
+	 */
+	protected static long untilReset() {
+		
+		today(); // Make sure the day is up to date.
+		return today.end - System.currentTimeMillis();
+		
+	}
+	
+	/**
+	 * Packs a claim into the stored format.
+	 * 
+	 * @param day The day of the claim.
+	 * @param streak The amount of consecutive days claimed.
+	 * @return The claim.
+	 */
+	private static long claim( long day, int streak ) {
+		
+		return ( day << 32 ) | ( streak & 0xFFFFFFFFL );
+		
+	}
+	
+	/**
+	 * Retrieves the day of a claim.
+	 * 
+	 * @param claim The claim.
+	 * @return The day.
+	 */
+	private static long dayOf( long claim ) {
+		
+		return claim >> 32;
+		
+	}
+	
+	/**
+	 * Retrieves the streak of a claim.
+	 * 
+	 * @param claim The claim.
+	 * @return The amount of consecutive days claimed.
+	 */
+	private static int streakOf( long claim ) {
+		
+		return (int) claim;
+		
+	}
+	
+	/**
+	 * Retrieves the last claim of the given user.
+	 * 
+	 * @param user The user.
+	 * @return The claim.
+	 */
+	private long getClaim( IUser user ) {
+		
+		long claim = store.getLastDaily( user.getLongID() );
+		return claim == AccountStore.UNKNOWN ? NEVER : claim;
 		
 	}
 	
@@ -99,10 +238,26 @@ public class DailiesCommand {
 			throw new NullPointerException( "User cannot be null." );
 		}
 		
-		ZonedDateTime time = cooldownMap.get( user.getStringID() );
+		return today() > dayOf( getClaim( user ) );
+		
+	}
+	
+	/**
+	 * Retrieves the current streak of the given user, that is, how many consecutive days
+	 * up to today or yesterday they obtained their daily money.
+	 * 
+	 * @param user The user.
+	 * @return The streak. 0 if the user did not obtain it today nor yesterday.
+	 * @throws NullPointerException if the given user is <tt>null</tt>.
+	 */
+	public int getStreak( IUser user ) throws NullPointerException {
+		
+		if ( user == null ) {
+			throw new NullPointerException( "User cannot be null." );
+		}
 		
-		return time == null ? true : LocalDate.now().isAfter(
-				time.withZoneSameInstant( ZoneId.systemDefault() ).toLocalDate() );
+		long claim = getClaim( user );
+		return today() - dayOf( claim ) <= 1 ? streakOf( claim ) : 0;
 		
 	}
 	
@@ -118,24 +273,57 @@ public class DailiesCommand {
 		
 		EXECUTOR.execute( user.getStringID(), () -> {
 			
-			if ( !isAvailable( user ) ) { // Was already called today.
+			long last = getClaim( user );
+			long day = today();
+			if ( day <= dayOf( last ) ) { // Was already called today.
 				context.getReplyBuilder().withContent( "You already got you dailies today, " + user.getName() +
 						"!\nTry again tomorrow." ).build();
 				return;
 			}
 			
 			long newValue = CurrencyManager.getInstance().deposit( user, DAILY_AMOUNT );
-			cooldownMap.put( user.getStringID(), ZonedDateTime.now() ); // Register time called.
+			int streak = dayOf( last ) == day - 1 ? streakOf( last ) + 1 : 1;
+			long claim = claim( day, streak );
+			store.setLastDaily( user.getLongID(), claim ); // Register day called.
+			profiles.invalidate( user.getLongID() );
 			context.getReplyBuilder().withEmbed( new EmbedBuilder().withTitle( "Dailies :moneybag:" )
 					.withColor( UserModule.EMBED_COLOR ).withDesc(
 					user.getName() + ", you got **" + CurrencyManager.format( DAILY_AMOUNT ) +
-					"** from your daily!\nYou now have: **" + CurrencyManager.format( newValue ) + "**" )
+					"** from your daily!\nYou now have: **" + CurrencyManager.format( newValue ) + "**" +
+					( streak > 1 ? "\nStreak: **" + streak + "** days in a row!" : "" ) )
 					.build() ).build();
 		
 		});
 		
 	}
 
+	/**
+	 * A day in the reset timezone.
+	 * 
+	 * @author ThiagoTGM
+	 * @version 1.0
+	 * @since 2026-10-16
+	 */
+	private static class Day {
+		
+		private final long epochDay;
+		private final long end;
+		
+		/**
+		 * Creates a new day.
+		 * 
+		 * @param epochDay The day, counted from the epoch.
+		 * @param end When the day ends, in milliseconds since the epoch.
+		 */
+		public Day( long epochDay, long end ) {
+			
+			this.epochDay = epochDay;
+			this.end = end;
+			
+		}
+		
+	}
+
 	/* Translator for the timestamp */
 	
 	/**
@@ -0,0 +1,235 @@
+/*
+ * This file is part of BlakeBot.
+ *
+ * BlakeBot is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * BlakeBot is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with BlakeBot. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.thiagotgm.blakebot.module.user;
+
+import java.util.concurrent.TimeUnit;
+
+import sx.blah.discord.api.internal.json.objects.EmbedObject;
+
+/**
+ * Bounded cache of the embeds built for custom cards, evicting the least recently used
+ * embed when full.
+ * <p>
+ * Embeds are keyed by the owner of the card and its title, and kept in a
+ * {@link VersionedCache} where each card is its own group, so an embed built from an
+ * older version of the card is never returned, even if it was put in the cache after the
+ * change.
+ * <p>
+ * All the counters are cumulative since the cache was created.
+ *
+ * @version 1.0
+ * @author ThiagoTGM
+ * @since 2026-10-16
+ */
+public class EmbedCache {
+    
+    private static final int VERSION_STRIPES = 4096; // Must be a power of 2.
+    
+    private final VersionedCache<Key,EmbedObject> embeds;
+    
+    /**
+     * Creates a new cache.
+     *
+     * @param capacity The maximum amount of embeds to keep.
+     * @throws IllegalArgumentException if the capacity is not positive.
+     */
+    public EmbedCache( int capacity ) throws IllegalArgumentException {
+        
+        this.embeds = new VersionedCache<>( capacity, VERSION_STRIPES, 0, TimeUnit.SECONDS );
+        
+    }
+    
+    /**
+     * Retrieves the group of a card.
+     *
+     * @param owner The string ID of the owner of the card.
+     * @param title The title of the card.
+     * @return The hash of the group.
+     */
+    private static int group( String owner, String title ) {
+        
+        return owner.hashCode() * 31 + title.hashCode();
+        
+    }
+    
+    /**
+     * Retrieves the current version of a card. Must be called before the card is loaded.
+     *
+     * @param owner The string ID of the owner of the card.
+     * @param title The title of the card.
+     * @return The version.
+     */
+    public long getVersion( String owner, String title ) {
+        
+        return embeds.getVersion( group( owner, title ) );
+        
+    }
+    
+    /**
+     * Retrieves the embed of the current version of a card.
+     *
+     * @param owner The string ID of the owner of the card.
+     * @param title The title of the card.
+     * @return The embed, or <tt>null</tt> if it is not cached.
+     */
+    public EmbedObject get( String owner, String title ) {
+        
+        return embeds.get( new Key( owner, title ), group( owner, title ) );
+        
+    }
+    
+    /**
+     * Caches the embed of a version of a card, unless the card already changed.
+     *
+     * @param owner The string ID of the owner of the card.
+     * @param title The title of the card.
+     * @param version The version of the card the embed was built from.
+     * @param embed The embed.
+     */
+    public void put( String owner, String title, long version, EmbedObject embed ) {
+        
+        embeds.put( new Key( owner, title ), group( owner, title ), version, embed );
+        
+    }
+    
+    /**
+     * Invalidates the cached embed of a card, incrementing its version. Must be called
+     * after the card is changed.
+     *
+     * @param owner The string ID of the owner of the card.
+     * @param title The title of the card.
+     */
+    public void invalidate( String owner, String title ) {
+        
+        embeds.invalidate( group( owner, title ) );
+        embeds.remove( new Key( owner, title ) );
+        
+    }
+    
+    /**
+     * Retrieves the maximum amount of embeds kept.
+     *
+     * @return The capacity.
+     */
+    public int getCapacity() {
+        
+        return embeds.getCapacity();
+        
+    }
+    
+    /**
+     * Retrieves how many embeds are currently cached.
+     *
+     * @return The amount of cached embeds.
+     */
+    public int size() {
+        
+        return embeds.size();
+        
+    }
+    
+    /**
+     * Retrieves how many lookups found the embed in the cache.
+     *
+     * @return The amount of hits.
+     */
+    public long getHits() {
+        
+        return embeds.getHits();
+        
+    }
+    
+    /**
+     * Retrieves how many lookups did not find the embed in the cache.
+     *
+     * @return The amount of misses.
+     */
+    public long getMisses() {
+        
+        return embeds.getMisses();
+        
+    }
+    
+    /**
+     * Retrieves how many embeds were evicted to make space for others.
+     *
+     * @return The amount of evictions.
+     */
+    public long getEvictions() {
+        
+        return embeds.getEvictions();
+        
+    }
+    
+    /**
+     * Retrieves the percentage of lookups that found the embed in the cache.
+     *
+     * @return The hit rate (%). If there were no lookups, returns 0.
+     */
+    public double getHitRate() {
+        
+        return embeds.getHitRate();
+        
+    }
+    
+    /**
+     * Key of a cached embed.
+     *
+     * @version 1.0
+     * @author ThiagoTGM
+     * @since 2026-10-16
+     */
+    private static class Key {
+        
+        private final String owner;
+        private final String title;
+        
+        /**
+         * Creates a new key.
+         *
+         * @param owner The string ID of the owner of the card.
+         * @param title The title of the card.
+         */
+        public Key( String owner, String title ) {
+            
+            this.owner = owner;
+            this.title = title;
+            
+        }
+        
+        @Override
+        public boolean equals( Object obj ) {
+            
+            if ( !( obj instanceof Key ) ) {
+                return false;
+            }
+            Key key = (Key) obj;
+            return owner.equals( key.owner ) && title.equals( key.title );
+            
+        }
+        
+        @Override
+        public int hashCode() {
+            
+            return owner.hashCode() * 31 + title.hashCode();
+            
+        }
+        
+    }
+    
+}
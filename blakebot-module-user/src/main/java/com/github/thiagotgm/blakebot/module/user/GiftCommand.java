@@ -102,12 +102,14 @@ public class GiftCommand {
 			return false;
 		}
 		
-		CurrencyManager manager = CurrencyManager.getInstance();
-		if ( manager.withdraw( caller, amount ) < 0 ) {
+		long result = CurrencyManager.getInstance().transfer( caller, target, amount );
+		if ( result == CurrencyManager.NOT_ENOUGH_FUNDS ) {
 			context.setHelper( "You do not have enough money to send this gift!" );
 			return false;
+		} else if ( result == CurrencyManager.ERROR ) {
+			context.setHelper( "Sorry, I couldn't send the gift." );
+			return false;
 		}
-		manager.deposit( target, amount );
 		
 		context.getReplyBuilder().withContent( String.format( "**%s** just gifted "
 				+ "**%s** to **%s**! :tada::moneybag:", caller.getName(), 
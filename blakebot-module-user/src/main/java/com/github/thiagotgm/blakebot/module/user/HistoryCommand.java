@@ -0,0 +1,159 @@
+/*
+ * This file is part of BlakeBot.
+ *
+ * BlakeBot is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * BlakeBot is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with BlakeBot. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.thiagotgm.blakebot.module.user;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+
+import com.github.thiagotgm.blakebot.module.user.CurrencyLedger.Transaction;
+import com.github.thiagotgm.modular_commands.api.CommandContext;
+import com.github.thiagotgm.modular_commands.command.annotation.MainCommand;
+
+import sx.blah.discord.api.IDiscordClient;
+import sx.blah.discord.handle.obj.IUser;
+import sx.blah.discord.util.EmbedBuilder;
+
+/**
+ * Command to view the currency transaction history of a user.
+ *
+ * @version 1.0
+ * @author ThiagoTGM
+ * @since 2026-10-16
+ */
+public class HistoryCommand {
+	
+	private static final Clock CLOCK = Clock.systemDefaultZone();
+	private static final DateTimeFormatter TIME_FORMAT = DateTimeFormatter.ofPattern( "yyyy-MM-dd HH:mm" )
+			.withZone( ZoneId.systemDefault() );
+	private static final int PAGE_SIZE = 10;
+	private static final int MAX_PAGE = 100; // Skipped transactions are still read.
+	private static final int MAX_LISTED_USERS = 3; // Keeps a page within the embed size limit.
+	
+	/**
+	 * Formats the given users involved in a transaction. If there are more than
+	 * {@value #MAX_LISTED_USERS} users to format, only their amount is given.
+	 *
+	 * @param client The client to get the users from.
+	 * @param ids The IDs of the users.
+	 * @param count How many of the users to format.
+	 * @return The formatted users.
+	 */
+	private static String formatUsers( IDiscordClient client, long[] ids, int count ) {
+		
+		if ( Math.min( count, ids.length ) > MAX_LISTED_USERS ) {
+			return Math.min( count, ids.length ) + " users";
+		}
+		StringBuilder builder = new StringBuilder();
+		for ( int i = 0; i < Math.min( count, ids.length ); i++ ) {
+			
+			if ( builder.length() > 0 ) {
+				builder.append( ", " );
+			}
+			IUser user = client.getUserByID( ids[i] );
+			builder.append( user == null ? String.valueOf( ids[i] ) : user.getName() );
+			
+		}
+		return builder.toString();
+		
+	}
+	
+	@MainCommand(
+			name = "Currency history",
+			aliases = { "history", "transactions" },
+			description = "Displays your most recent currency transactions. A page number may "
+					+ "be given to see older transactions.",
+			usage = "{}history|transactions [page]",
+			replyPrivately = true
+			)
+	public void historyCommand( CommandContext context ) {
+		
+		int page = 1;
+		if ( !context.getArgs().isEmpty() ) {
+			try {
+				page = Integer.parseInt( context.getArgs().get( 0 ) );
+			} catch ( NumberFormatException e ) {
+				page = 0;
+			}
+			if ( page < 1 ) {
+				context.getReplyBuilder().withContent( "Page must be a positive number." ).build();
+				return;
+			}
+			if ( page > MAX_PAGE ) {
+				context.getReplyBuilder().withContent( "Only the " + MAX_PAGE + " most recent pages can be seen." )
+						.build();
+				return;
+			}
+		}
+		
+		IUser user = context.getAuthor();
+		List<Transaction> history = CurrencyManager.getInstance().getHistory( user,
+				( page - 1 ) * PAGE_SIZE, PAGE_SIZE + 1 ); // One extra to know if there are more.
+		boolean more = history.size() > PAGE_SIZE;
+		if ( more ) {
+			history = history.subList( 0, PAGE_SIZE );
+		}
+		
+		StringBuilder builder = new StringBuilder();
+		for ( Transaction transaction : history ) {
+			
+			builder.append( String.format( "`%s` **%s%s** ", TIME_FORMAT.format(
+					Instant.ofEpochMilli( transaction.getTimestamp() ) ),
+					transaction.getAmount() < 0 ? "-" : "+",
+					CurrencyManager.format( Math.abs( transaction.getAmount() ) ) ) );
+			switch ( transaction.getType() ) {
+				
+				case DEPOSIT:
+					builder.append( "deposit" );
+					break;
+				
+				case WITHDRAWAL:
+					builder.append( "withdrawal" );
+					break;
+				
+				case TRANSFER: // The sender is always the first user.
+					long[] others = transaction.getOthers();
+					if ( transaction.getAmount() < 0 ) {
+						builder.append( "sent to " ).append( formatUsers( context.getEvent().getClient(),
+								others, others.length ) );
+					} else {
+						builder.append( "received from " ).append( formatUsers( context.getEvent().getClient(),
+								others, 1 ) );
+					}
+					break;
+				
+			}
+			builder.append( String.format( " (balance: %s)\n", CurrencyManager.format( transaction.getBalance() ) ) );
+			
+		}
+		if ( history.isEmpty() ) {
+			builder.append( page == 1 ? "No transactions yet." : "No transactions in this page." );
+		}
+		
+		EmbedBuilder embed = new EmbedBuilder().withTimestamp( CLOCK.instant() )
+				.withColor( UserModule.EMBED_COLOR ).withTitle( user.getName() + "'s Transactions" )
+				.withDesc( builder.toString() )
+				.withFooterText( more && ( page < MAX_PAGE ) ? String.format( "Page %d | Use page %d to see older transactions", page, page + 1 )
+				                      : String.format( "Page %d", page ) );
+		context.getReplyBuilder().withEmbed( embed.build() ).build();
+		
+	}
+	
+}
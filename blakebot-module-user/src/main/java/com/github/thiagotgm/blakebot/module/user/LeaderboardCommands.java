@@ -0,0 +1,249 @@
+/*
+ * This file is part of BlakeBot.
+ *
+ * BlakeBot is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * BlakeBot is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with BlakeBot. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.thiagotgm.blakebot.module.user;
+
+import java.time.Clock;
+import java.util.List;
+import java.util.function.LongFunction;
+
+import com.github.thiagotgm.bot_utils.utils.Utils;
+import com.github.thiagotgm.modular_commands.api.Argument;
+import com.github.thiagotgm.modular_commands.api.Argument.Type;
+import com.github.thiagotgm.modular_commands.api.CommandContext;
+import com.github.thiagotgm.modular_commands.command.annotation.MainCommand;
+
+import sx.blah.discord.api.IDiscordClient;
+import sx.blah.discord.handle.obj.IUser;
+import sx.blah.discord.util.EmbedBuilder;
+
+/**
+ * Commands for viewing how users rank in the leveling and currency systems.
+ *
+ * @version 1.0
+ * @author ThiagoTGM
+ * @since 2026-10-16
+ */
+public class LeaderboardCommands {
+	
+	private static final Clock CLOCK = Clock.systemDefaultZone();
+	private static final int PAGE_SIZE = 10;
+	private static final String GLOBAL_ARG = "global";
+	
+	/**
+	 * Retrieves the display name of a ranked user.
+	 *
+	 * @param client The client to get the user from.
+	 * @param id The ID of the user.
+	 * @return The name of the user.
+	 */
+	private static String getName( IDiscordClient client, long id ) {
+		
+		IUser user = client.getUserByID( id );
+		return user == null ? "Unknown user (" + id + ")" : user.getName() + "#" + user.getDiscriminator();
+		
+	}
+	
+	/**
+	 * Parses the page number argument of a leaderboard command.
+	 *
+	 * @param context The context of the command.
+	 * @param arg The argument to parse, or <tt>null</tt> if it was not given.
+	 * @param total The total amount of ranked users.
+	 * @return The page number, or 0 if the argument was invalid (an error message is sent).
+	 */
+	private static int parsePage( CommandContext context, String arg, int total ) {
+		
+		if ( arg == null ) {
+			return 1;
+		}
+		int pages = Math.max( ( total + PAGE_SIZE - 1 ) / PAGE_SIZE, 1 );
+		int page;
+		try {
+			page = Integer.parseInt( arg );
+		} catch ( NumberFormatException e ) {
+			context.getReplyBuilder().withContent( "Page must be a number." ).build();
+			return 0;
+		}
+		if ( ( page < 1 ) || ( page > pages ) ) {
+			context.getReplyBuilder().withContent( "Page must be between 1 and " + pages + "." ).build();
+			return 0;
+		}
+		return page;
+		
+	}
+	
+	/**
+	 * Replies with a page of a leaderboard.
+	 *
+	 * @param context The context of the command.
+	 * @param title The title of the leaderboard.
+	 * @param entries The entries in the page.
+	 * @param page The page number.
+	 * @param total The total amount of ranked users.
+	 * @param format Formats the score of an entry.
+	 * @param loaded Whether the ranking finished loading.
+	 * @param footer Extra text to show in the footer, or <tt>null</tt>.
+	 */
+	private static void replyPage( CommandContext context, String title, List<RankIndex.Entry> entries,
+			int page, int total, LongFunction<String> format, boolean loaded, String footer ) {
+		
+		StringBuilder builder = new StringBuilder();
+		for ( RankIndex.Entry entry : entries ) {
+			
+			builder.append( String.format( "**%d.** %s - %s\n", entry.getRank(),
+					getName( context.getEvent().getClient(), entry.getID() ),
+					format.apply( entry.getScore() ) ) );
+			
+		}
+		if ( entries.isEmpty() ) {
+			builder.append( "Nobody is ranked yet." );
+		}
+		
+		int pages = Math.max( ( total + PAGE_SIZE - 1 ) / PAGE_SIZE, 1 );
+		String footerText = String.format( "Page %d/%d", page, pages );
+		if ( footer != null ) {
+			footerText += " | " + footer;
+		}
+		EmbedBuilder embed = new EmbedBuilder().withTimestamp( CLOCK.instant() )
+				.withColor( UserModule.EMBED_COLOR ).withTitle( title )
+				.withDesc( builder.toString() ).withFooterText( footerText );
+		if ( !loaded ) {
+			embed.appendField( "Note", "Ranking is still loading, some users may be missing.", false );
+		}
+		context.getReplyBuilder().withEmbed( embed.build() ).build();
+		
+	}
+	
+	@MainCommand(
+			name = "Leaderboard command",
+			aliases = { "leaderboard", "lb" },
+			description = "Displays the users with the most total EXP. A page number may be "
+					+ "given to see lower ranks.",
+			usage = "{}leaderboard|lb [page]"
+			)
+	public void leaderboardCommand( CommandContext context ) {
+		
+		LevelingManager manager = LevelingManager.getInstance();
+		int total = manager.getRankedCount();
+		int page = parsePage( context, context.getArgs().isEmpty() ? null : context.getArgs().get( 0 ), total );
+		if ( page == 0 ) {
+			return; // Invalid page.
+		}
+		
+		replyPage( context, "EXP Leaderboard", manager.getLeaderboard( ( page - 1 ) * PAGE_SIZE + 1, PAGE_SIZE ),
+				page, total, exp -> exp + " EXP", manager.isRankingLoaded(), null );
+		
+	}
+	
+	@MainCommand(
+			name = "Rank command",
+			aliases = { "rank" },
+			description = "Displays the rank of a user in total EXP. If no user is specified, "
+					+ "shows the rank of the calling user.\nThe user may be specified either by "
+					+ "mentioning them, or by giving their name and discriminator in the form "
+					+ "[name]#[discriminator].",
+			usage = "{}rank [user]"
+			)
+	public void rankCommand( CommandContext context ) {
+		
+		IUser user = context.getAuthor();
+		List<Argument> args = context.getArguments();
+		if ( !args.isEmpty() ) {
+			Argument arg = args.get( 0 );
+			user = ( arg.getType() == Type.USER_MENTION ) ? (IUser) arg.getArgument()
+			                                               : Utils.getUser( arg.getText(),
+			                                                       context.getEvent().getClient() );
+			if ( user == null ) {
+				context.getReplyBuilder().withContent( "User not found." ).build();
+				return;
+			}
+		}
+		
+		LevelingManager manager = LevelingManager.getInstance();
+		int rank = manager.getRank( user );
+		if ( rank == 0 ) {
+			context.getReplyBuilder().withContent( String.format( "%s has not gained any EXP yet.",
+					user.getName() ) ).build();
+			return;
+		}
+		
+		EmbedBuilder embed = new EmbedBuilder().withTimestamp( CLOCK.instant() )
+				.withColor( UserModule.EMBED_COLOR ).withThumbnail( user.getAvatarURL() )
+				.withTitle( user.getName() + "'s Rank" );
+		embed.appendField( "Rank", String.format( "#%d of %d", rank, manager.getRankedCount() ), true );
+		embed.appendField( "Level", "Lvl. " + manager.getLevelState( user ).getLevel(), true );
+		embed.appendField( "Total EXP", String.valueOf( manager.getLevelState( user ).getTotalExp() ), true );
+		context.getReplyBuilder().withEmbed( embed.build() ).build();
+		
+	}
+	
+	@MainCommand(
+			name = "Currency leaderboard command",
+			aliases = { "richest", "baltop" },
+			description = "Displays the users with the most money. When used in a server, only "
+					+ "ranks the members of the server, unless \"" + GLOBAL_ARG + "\" is given. "
+					+ "A page number may be given to see lower ranks.",
+			usage = "{}richest|baltop [" + GLOBAL_ARG + "] [page]"
+			)
+	public void richestCommand( CommandContext context ) {
+		
+		CurrencyManager manager = CurrencyManager.getInstance();
+		List<String> args = context.getArgs();
+		boolean global = context.getChannel().isPrivate();
+		if ( !args.isEmpty() && args.get( 0 ).equalsIgnoreCase( GLOBAL_ARG ) ) {
+			global = true;
+			args = args.subList( 1, args.size() );
+		}
+		String pageArg = args.isEmpty() ? null : args.get( 0 );
+		IUser author = context.getAuthor();
+		
+		if ( global ) {
+			int total = manager.getRankedCount();
+			int page = parsePage( context, pageArg, total );
+			if ( page == 0 ) {
+				return; // Invalid page.
+			}
+			int rank = manager.getRank( author );
+			replyPage( context, "Richest Users", manager.getLeaderboard( ( page - 1 ) * PAGE_SIZE + 1, PAGE_SIZE ),
+					page, total, CurrencyManager::format, manager.isRankingLoaded(),
+					rank == 0 ? null : "Your rank: #" + rank );
+		} else {
+			List<RankIndex.Entry> ranking = manager.getGuildLeaderboard( context.getGuild() );
+			int page = parsePage( context, pageArg, ranking.size() );
+			if ( page == 0 ) {
+				return; // Invalid page.
+			}
+			int rank = 0;
+			for ( RankIndex.Entry entry : ranking ) {
+				
+				if ( entry.getID() == author.getLongID() ) {
+					rank = entry.getRank();
+					break;
+				}
+				
+			}
+			int start = Math.min( ( page - 1 ) * PAGE_SIZE, ranking.size() );
+			replyPage( context, "Richest Users in " + context.getGuild().getName(),
+					ranking.subList( start, Math.min( start + PAGE_SIZE, ranking.size() ) ), page,
+					ranking.size(), CurrencyManager::format, manager.isRankingLoaded(),
+					rank == 0 ? null : "Your rank: #" + rank );
+		}
+		
+	}
+	
+}
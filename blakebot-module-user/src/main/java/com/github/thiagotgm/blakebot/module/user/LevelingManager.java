@@ -18,12 +18,9 @@
 package com.github.thiagotgm.blakebot.module.user;
 
 import java.time.Clock;
-import java.util.Collections;
 import java.util.HashMap;
-import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
-import java.util.Set;
-import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.TimeUnit;
@@ -31,6 +28,7 @@ import java.util.concurrent.TimeUnit;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.github.thiagotgm.bot_utils.ExitManager;
 import com.github.thiagotgm.bot_utils.Settings;
 import com.github.thiagotgm.bot_utils.storage.Data;
 import com.github.thiagotgm.bot_utils.storage.DatabaseManager;
@@ -49,12 +47,24 @@ import sx.blah.discord.util.MessageBuilder;
 
 /**
  * Manages the user leveling system.
+ * <p>
+ * The levels and EXP of users are kept in the {@link AccountStore}: EXP is given in memory,
+ * and the changed states are saved with the rest of the store, in batches. Leveling states
+ * stored in the database by older versions are imported into it the first time the
+ * manager is created.
+ * <p>
+ * EXP cooldowns are tracked as timestamps in a {@link CooldownTracker} that is pruned
+ * periodically, instead of scheduling a task to lift each cooldown.
+ * <p>
+ * Users are also ranked by their total EXP in a {@link RankIndex} that is updated on every
+ * EXP gain, so that leaderboard queries do not need to go through every stored state. The
+ * index is loaded from the store in the background when the manager is created.
  * 
  * @author ThiagoTGM
  * @version 1.0
  * @since 2018-09-05
  */
-public class LevelingManager {
+public class LevelingManager implements ExitManager.ExitListener {
 
     private static final Logger LOG = LoggerFactory.getLogger( LevelingManager.class );
     private static final ThreadGroup THREADS = new ThreadGroup( "Leveling System" );
@@ -79,6 +89,7 @@ public class LevelingManager {
      * seconds.
      */
     public static final int COOLDOWN = Settings.getIntSetting( COOLDOWN_SETTING );
+    private static final long PRUNE_INTERVAL = Math.max( COOLDOWN, 60 );
 
     private static LevelingManager instance;
 
@@ -91,6 +102,7 @@ public class LevelingManager {
 
         if ( instance == null ) {
             instance = new LevelingManager();
+            ExitManager.registerListener( instance );
         }
         return instance;
 
@@ -110,19 +122,40 @@ public class LevelingManager {
 
     }
 
-    private final Map<String, LevelState> stateMap;
-    private final Set<String> cooldownUsers;
-    private final ScheduledExecutorService cooldownRemover;
+    private final AccountStore store;
+    private final ProfileCache profiles;
+    private final ScheduledExecutorService scheduler;
+    private final CooldownTracker cooldowns;
+    private final RankIndex ranks;
+    private volatile boolean ranksLoaded;
 
     /**
      * Instantiates a manager.
      */
     private LevelingManager() {
 
-        stateMap = Collections.synchronizedMap( DatabaseManager.getDatabase().getDataMap( "LevelSystem",
-                new StringTranslator(), new StorableTranslator<>( () -> new LevelState() ) ) );
-        cooldownUsers = Collections.synchronizedSet( new HashSet<>() );
-        cooldownRemover = Executors.newSingleThreadScheduledExecutor( t -> new Thread( t, "EXP Cooldown Remover" ) );
+        store = AccountStore.getInstance();
+        if ( !store.isImported( AccountStore.Field.LEVEL ) ) {
+            store.importValues( AccountStore.Field.LEVEL, DatabaseManager.getDatabase().getDataMap( "LevelSystem",
+                    new StringTranslator(), new StorableTranslator<>( () -> new LevelState() ) ),
+                    state -> AccountStore.pack( state.getLevel(), (int) state.getExp() ) );
+            store.setImported( AccountStore.Field.LEVEL );
+        }
+        profiles = ProfileCache.getInstance();
+        scheduler = AsyncTools.createScheduledThreadPool( THREADS, ( t, e ) -> {
+
+            LOG.error( "Error while maintaining leveling system.", e );
+
+        } );
+        cooldowns = new CooldownTracker( COOLDOWN, TimeUnit.SECONDS );
+        scheduler.scheduleWithFixedDelay( () -> {
+
+            LOG.trace( "{} users on EXP cooldown.", cooldowns.prune( System.nanoTime() ) );
+
+        }, PRUNE_INTERVAL, PRUNE_INTERVAL, TimeUnit.SECONDS );
+        ranks = new RankIndex();
+        ranksLoaded = false;
+        scheduler.execute( this::loadRanks );
 
         LOG.debug( "EXP cooldown is {} seconds.", COOLDOWN );
 
@@ -143,8 +176,89 @@ public class LevelingManager {
             throw new NullPointerException( "User cannot be null." );
         }
 
-        LevelState state = stateMap.get( user.getStringID() );
-        return state == null ? new LevelState() : state;
+        long packed = store.getLevel( user.getLongID() );
+        return packed == AccountStore.UNKNOWN ? new LevelState() : new LevelState( packed );
+
+    }
+
+    /**
+     * Loads the total EXP of every stored user into the rank index, in a single batch.
+     * <p>
+     * Users that gained EXP while loading are already in the index with a newer value, so
+     * they are not overwritten.
+     */
+    private void loadRanks() {
+
+        long start = System.nanoTime();
+        RankIndex.Batch batch = new RankIndex.Batch( store.size() );
+        store.forEach( AccountStore.Field.LEVEL, ( id, packed ) -> {
+
+            batch.add( id, new LevelState( packed ).getTotalExp() );
+
+        } );
+        ranks.putAllIfAbsent( batch );
+        ranksLoaded = true;
+        LOG.info( "Ranked {} users by EXP in {} ms.", ranks.size(),
+                TimeUnit.NANOSECONDS.toMillis( System.nanoTime() - start ) );
+
+    }
+
+    /**
+     * Determines whether the ranking of users by EXP finished loading. Until then, ranks
+     * only consider the users that gained EXP since the manager was created.
+     * 
+     * @return <tt>true</tt> if the ranking is complete.
+     */
+    public boolean isRankingLoaded() {
+
+        return ranksLoaded;
+
+    }
+
+    /**
+     * Retrieves the rank of a user in terms of total EXP.
+     * 
+     * @param user
+     *            The user.
+     * @return The rank of the user (1 is the highest), or 0 if the user never gained EXP.
+     * @throws NullPointerException
+     *             if the user is <tt>null</tt>.
+     */
+    public int getRank( IUser user ) throws NullPointerException {
+
+        if ( user == null ) {
+            throw new NullPointerException( "User cannot be null." );
+        }
+
+        return ranks.getRank( user.getLongID() );
+
+    }
+
+    /**
+     * Retrieves the users in a range of ranks, in terms of total EXP.
+     * 
+     * @param start
+     *            The first rank to retrieve (1 is the highest).
+     * @param count
+     *            The maximum amount of users to retrieve.
+     * @return The ranked users, with their total EXP as the score.
+     * @throws IllegalArgumentException
+     *             if the start rank is not positive or the count is negative.
+     */
+    public List<RankIndex.Entry> getLeaderboard( int start, int count ) throws IllegalArgumentException {
+
+        return ranks.getRange( start, count );
+
+    }
+
+    /**
+     * Retrieves how many users are ranked.
+     * 
+     * @return The amount of ranked users.
+     */
+    public int getRankedCount() {
+
+        return ranks.size();
 
     }
 
@@ -169,23 +283,39 @@ public class LevelingManager {
 
         LOG.trace( "Giving EXP to {}#{}.", user.getName(), user.getDiscriminator() );
 
-        LevelState level = stateMap.get( user.getStringID() );
-        if ( level == null ) { // User not in the system yet.
-            level = new LevelState();
-        }
+        long id = user.getLongID();
+        long packed = store.getLevel( id );
+        LevelState level = packed == AccountStore.UNKNOWN ? new LevelState() // User might not be in the system yet.
+                                                          : new LevelState( packed );
         boolean result = level.gainExp(); // Give EXP.
-        stateMap.put( user.getStringID(), level ); // Store updated state.
+        store.setLevel( id, level.getLevel(), (int) level.getExp() ); // Calls are serialized per user.
+        ranks.put( id, level.getTotalExp() );
+        profiles.invalidate( id );
 
         return result ? level.getLevel() : 0; // Return whether leveled up.
 
     }
 
+    /**
+     * Stops the maintenance tasks before the program exits. The states themselves are
+     * saved by the store.
+     */
+    @Override
+    public void handle() {
+
+        scheduler.shutdown();
+
+    }
+
     /**
      * Handles a received message.
      * <p>
      * If the author is not currently on cooldown, gives EXP to the author of the
-     * message. If the author leveled up with the given EXP and the author is not a
-     * bot, sends a message to indicate the levelup.
+     * message and starts the cooldown. If the author leveled up with the given EXP
+     * and the author is not a bot, sends a message to indicate the levelup.
+     * <p>
+     * The cooldown is checked before any task is submitted, so messages sent while on
+     * cooldown are discarded without allocating anything.
      * <p>
      * The experience gain is internally executed asynchronously with the
      * appropriate mechanisms to ensure no race conditions occur for multiple calls
@@ -199,29 +329,26 @@ public class LevelingManager {
     public void handleMessage( MessageReceivedEvent e ) {
 
         IUser user = e.getAuthor();
+        if ( !cooldowns.tryAcquire( user.getLongID(), System.nanoTime() ) ) {
+            return; // On cooldown.
+        }
         EXECUTOR.execute( user.getStringID(), () -> {
 
-            if ( !cooldownUsers.contains( user.getStringID() ) ) { // Not on cooldown.
-                int newLevel = gainExp( user ); // Give EXP.
-                if ( newLevel != 0 ) {
-                    long currencyGift = getCurrencyGift( newLevel );
-                    long newAmount = CurrencyManager.getInstance().deposit( user, currencyGift );
-                    if ( !user.isBot() ) { // Send message only to non-bots.
-                        new MessageBuilder( e.getClient() ).withChannel( e.getChannel() )
-                                .withEmbed( new EmbedBuilder().withTimestamp( CLOCK.instant() )
-                                        .withColor( UserModule.EMBED_COLOR )
-                                        .withTitle( user.getName() + " has leveled up! :tada:" )
-                                        .withDesc( "Hooray! You got **" + CurrencyManager.format( currencyGift )
-                                                + "** as a gift! :moneybag:" )
-                                        .appendField( "Level", String.valueOf( newLevel ), true )
-                                        .appendField( "Money", CurrencyManager.format( newAmount ), true ).build() )
-                                .build(); // Leveled up!
-                    }
+            int newLevel = gainExp( user ); // Give EXP.
+            if ( newLevel != 0 ) {
+                long currencyGift = getCurrencyGift( newLevel );
+                long newAmount = CurrencyManager.getInstance().deposit( user, currencyGift );
+                if ( !user.isBot() ) { // Send message only to non-bots.
+                    new MessageBuilder( e.getClient() ).withChannel( e.getChannel() )
+                            .withEmbed( new EmbedBuilder().withTimestamp( CLOCK.instant() )
+                                    .withColor( UserModule.EMBED_COLOR )
+                                    .withTitle( user.getName() + " has leveled up! :tada:" )
+                                    .withDesc( "Hooray! You got **" + CurrencyManager.format( currencyGift )
+                                            + "** as a gift! :moneybag:" )
+                                    .appendField( "Level", String.valueOf( newLevel ), true )
+                                    .appendField( "Money", CurrencyManager.format( newAmount ), true ).build() )
+                            .build(); // Leveled up!
                 }
-                cooldownUsers.add( user.getStringID() ); // Add to cooldown set.
-                cooldownRemover.schedule( () -> {
-                    cooldownUsers.remove( user.getStringID() );
-                }, COOLDOWN, TimeUnit.SECONDS ); // Auto-removed after cooldown elapsed.
             }
 
         } );
@@ -265,6 +392,20 @@ public class LevelingManager {
 
         }
 
+        /**
+         * Instantiates a LevelState from a level and EXP {@link AccountStore#pack(int, int) packed}
+         * in the account store.
+         * 
+         * @param packed
+         *            The packed level and EXP.
+         */
+        protected LevelState( long packed ) {
+
+            this.level = AccountStore.high( packed );
+            this.exp = AccountStore.low( packed );
+
+        }
+
         /**
          * Retrieves the level.
          * 
@@ -287,6 +428,18 @@ public class LevelingManager {
 
         }
 
+        /**
+         * Determines the total amount of EXP gained to reach the current level and EXP.
+         * 
+         * @return The total EXP.
+         */
+        public long getTotalExp() {
+
+            long previous = level - 1; // Sum of getExpToNextLevel() for all previous levels.
+            return 65 * previous * level + 70 * previous + exp;
+
+        }
+
         /**
          * Determines how much EXP is necessary to reach the next level.
          * 
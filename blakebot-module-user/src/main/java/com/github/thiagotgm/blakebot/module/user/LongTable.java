@@ -0,0 +1,286 @@
+/*
+ * This file is part of BlakeBot.
+ *
+ * BlakeBot is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * BlakeBot is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with BlakeBot. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.thiagotgm.blakebot.module.user;
+
+import java.util.function.IntPredicate;
+
+/**
+ * Base for open-addressing hash tables keyed by a <tt>long</tt>, such as a user ID, so that
+ * keys are never boxed.
+ * <p>
+ * Collisions are resolved by linear probing. Subclasses store the values in their own
+ * arrays, indexed by the same slots as the keys. Since Discord IDs are never 0, a key of 0
+ * marks an empty slot, and cannot be stored.
+ * <p>
+ * Not thread-safe. Tables that are shared between threads are usually split into
+ * independently locked segments, using {@link #segment(long, int)} to pick the segment of
+ * a key.
+ *
+ * @version 1.0
+ * @author ThiagoTGM
+ * @since 2026-10-16
+ */
+abstract class LongTable {
+    
+    private static final int MIN_CAPACITY = 16;
+    private static final long EMPTY = 0;
+    
+    private long[] keys;
+    private int size;
+    
+    /**
+     * Creates an empty table.
+     */
+    protected LongTable() {
+        
+        keys = new long[ MIN_CAPACITY ];
+        size = 0;
+        
+    }
+    
+    /**
+     * Allocates the value storage for the given capacity. Called once by the subclass
+     * constructor, and when the table is rebuilt.
+     * <p>
+     * When rebuilding, the old storage must be kept until {@link #release()} is called.
+     *
+     * @param capacity The new capacity.
+     */
+    protected abstract void allocate( int capacity );
+    
+    /**
+     * Copies a value from the old storage to the new storage while the table is rebuilt.
+     *
+     * @param from The slot in the old storage.
+     * @param to The slot in the new storage.
+     */
+    protected abstract void transfer( int from, int to );
+    
+    /**
+     * Releases the old storage once every entry was transferred out of it.
+     */
+    protected abstract void release();
+    
+    /**
+     * Retrieves the initial capacity of the table, for the first allocation.
+     *
+     * @return The capacity.
+     */
+    protected static int initialCapacity() {
+        
+        return MIN_CAPACITY;
+        
+    }
+    
+    /**
+     * Hashes a key.
+     *
+     * @param key The key.
+     * @return The hash.
+     */
+    private static int hash( long key ) {
+        
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) ( h ^ ( h >>> 32 ) );
+        
+    }
+    
+    /**
+     * Picks the segment that holds a key, out of a power of two amount of segments. The
+     * segment is taken from the highest bits of the hash, so keys in the same segment
+     * still spread over all of its slots.
+     *
+     * @param key The key.
+     * @param segments The amount of segments. Must be a power of two, and at most 16.
+     * @return The index of the segment.
+     */
+    static int segment( long key, int segments ) {
+        
+        return ( hash( key ) >>> 28 ) & ( segments - 1 );
+        
+    }
+    
+    /**
+     * Finds the slot of a key.
+     *
+     * @param key The key.
+     * @return The slot, or -1 if the key is not in the table.
+     */
+    protected final int find( long key ) {
+        
+        int mask = keys.length - 1;
+        for ( int i = hash( key ) & mask; keys[i] != EMPTY; i = ( i + 1 ) & mask ) {
+            
+            if ( keys[i] == key ) {
+                return i;
+            }
+            
+        }
+        return -1;
+        
+    }
+    
+    /**
+     * Finds the slot of a key, adding the key if it is not in the table yet. The value in
+     * the slot of a new key is the default one.
+     *
+     * @param key The key.
+     * @return The slot.
+     * @throws IllegalArgumentException if the key is 0.
+     */
+    protected final int insert( long key ) throws IllegalArgumentException {
+        
+        if ( key == EMPTY ) {
+            throw new IllegalArgumentException( "Key cannot be 0." );
+        }
+        int slot = find( key );
+        if ( slot >= 0 ) {
+            return slot;
+        }
+        if ( ( size + 1 ) * 4 > keys.length * 3 ) { // Over 75% load.
+            rebuild( keys.length * 2 );
+        }
+        slot = freeSlot( key );
+        keys[slot] = key;
+        size++;
+        return slot;
+        
+    }
+    
+    /**
+     * Finds the first free slot for a key that is not in the table.
+     *
+     * @param key The key.
+     * @return The slot.
+     */
+    private int freeSlot( long key ) {
+        
+        int mask = keys.length - 1;
+        int i = hash( key ) & mask;
+        while ( keys[i] != EMPTY ) {
+            
+            i = ( i + 1 ) & mask;
+            
+        }
+        return i;
+        
+    }
+    
+    /**
+     * Rebuilds the table with the given capacity, skipping the empty slots.
+     *
+     * @param capacity The new capacity. Must be a power of two, with room for every key.
+     */
+    private void rebuild( int capacity ) {
+        
+        long[] oldKeys = keys;
+        keys = new long[ capacity ];
+        size = 0;
+        allocate( capacity );
+        for ( int i = 0; i < oldKeys.length; i++ ) {
+            
+            if ( oldKeys[i] != EMPTY ) {
+                int slot = freeSlot( oldKeys[i] );
+                keys[slot] = oldKeys[i];
+                size++;
+                transfer( i, slot );
+            }
+            
+        }
+        release();
+        
+    }
+    
+    /**
+     * Removes every entry whose slot does not pass the given filter, then shrinks the table
+     * to leave room for the remaining entries to grow.
+     *
+     * @param keep Receives the slot of each entry, returning whether to keep it.
+     * @return The amount of entries removed.
+     */
+    protected final int retain( IntPredicate keep ) {
+        
+        int removed = 0;
+        for ( int i = 0; i < keys.length; i++ ) {
+            
+            if ( ( keys[i] != EMPTY ) && !keep.test( i ) ) {
+                keys[i] = EMPTY; // Probing is fixed by the rebuild below.
+                removed++;
+            }
+            
+        }
+        if ( removed > 0 ) {
+            int live = size - removed;
+            int capacity = MIN_CAPACITY;
+            while ( capacity < live * 4 ) { // Leave room to grow.
+                
+                capacity *= 2;
+                
+            }
+            rebuild( capacity );
+        }
+        return removed;
+        
+    }
+    
+    /**
+     * Retrieves the amount of slots in the table.
+     *
+     * @return The capacity.
+     */
+    protected final int capacity() {
+        
+        return keys.length;
+        
+    }
+    
+    /**
+     * Retrieves the key in a slot.
+     *
+     * @param slot The slot.
+     * @return The key, or 0 if the slot is empty.
+     */
+    protected final long keyAt( int slot ) {
+        
+        return keys[slot];
+        
+    }
+    
+    /**
+     * Retrieves the amount of keys in the table.
+     *
+     * @return The amount of keys.
+     */
+    public int size() {
+        
+        return size;
+        
+    }
+    
+    /**
+     * Determines whether the table is empty.
+     *
+     * @return <tt>true</tt> if there are no keys in the table.
+     */
+    public boolean isEmpty() {
+        
+        return size == 0;
+        
+    }
+    
+}
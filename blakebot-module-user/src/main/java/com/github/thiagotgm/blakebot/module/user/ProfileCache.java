@@ -0,0 +1,201 @@
+/*
+ * This file is part of BlakeBot.
+ *
+ * BlakeBot is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * BlakeBot is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with BlakeBot. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.thiagotgm.blakebot.module.user;
+
+import java.util.concurrent.TimeUnit;
+
+import com.github.thiagotgm.bot_utils.Settings;
+
+import sx.blah.discord.api.internal.json.objects.EmbedObject;
+
+/**
+ * Short-lived cache of the profile embeds shown by the {@link ProfileCommand}, evicting
+ * the least recently used embed when full.
+ * <p>
+ * Embeds are keyed by the user and the server they were shown in (since the nickname
+ * depends on the server), and expire after a {@link #DURATION fixed time}. They are kept
+ * in a {@link VersionedCache} where each user is a group, and the managers that store
+ * data shown in profiles {@link #invalidate(long) invalidate} the embeds of a user when
+ * that data changes.
+ *
+ * @version 1.0
+ * @author ThiagoTGM
+ * @since 2026-10-16
+ */
+public class ProfileCache {
+    
+    /**
+     * Setting that defines {@link #DURATION}.
+     */
+    public static final String DURATION_SETTING = "Profile cache duration";
+    /**
+     * How long a profile embed is kept, in seconds.
+     */
+    public static final int DURATION = Settings.getIntSetting( DURATION_SETTING );
+    /**
+     * Setting that defines {@link #CAPACITY}.
+     */
+    public static final String CAPACITY_SETTING = "Profile cache size";
+    /**
+     * How many profile embeds are kept in memory.
+     */
+    public static final int CAPACITY = Settings.getIntSetting( CAPACITY_SETTING );
+    
+    private static final int VERSION_STRIPES = 1024; // Must be a power of 2.
+    
+    private static ProfileCache instance;
+    
+    /**
+     * Retrieves the running instance of the cache.
+     *
+     * @return The instance.
+     */
+    public synchronized static ProfileCache getInstance() {
+        
+        if ( instance == null ) {
+            instance = new ProfileCache();
+        }
+        return instance;
+        
+    }
+    
+    private final VersionedCache<Key,EmbedObject> embeds;
+    
+    /**
+     * Instantiates a cache.
+     */
+    private ProfileCache() {
+        
+        this.embeds = new VersionedCache<>( CAPACITY, VERSION_STRIPES, DURATION, TimeUnit.SECONDS );
+        
+    }
+    
+    /**
+     * Retrieves the group of a user.
+     *
+     * @param user The ID of the user.
+     * @return The hash of the group.
+     */
+    private static int group( long user ) {
+        
+        return Long.hashCode( user * 0x9E3779B97F4A7C15L );
+        
+    }
+    
+    /**
+     * Retrieves the current version of the data of a user. Must be called before the
+     * data that goes in the embed is looked up.
+     *
+     * @param user The ID of the user.
+     * @return The version.
+     */
+    public long getVersion( long user ) {
+        
+        return embeds.getVersion( group( user ) );
+        
+    }
+    
+    /**
+     * Retrieves the profile embed of a user.
+     *
+     * @param user The ID of the user.
+     * @param guild The ID of the server where the profile is shown, or 0 if in a private
+     *              channel.
+     * @return The embed, or <tt>null</tt> if it is not cached, expired, or the data of the
+     *         user changed since it was built.
+     */
+    public EmbedObject get( long user, long guild ) {
+        
+        return embeds.get( new Key( user, guild ), group( user ) );
+        
+    }
+    
+    /**
+     * Caches the profile embed of a user.
+     *
+     * @param user The ID of the user.
+     * @param guild The ID of the server where the profile is shown, or 0 if in a private
+     *              channel.
+     * @param version The version of the data of the user obtained before the data in the
+     *                embed was looked up.
+     * @param embed The embed.
+     */
+    public void put( long user, long guild, long version, EmbedObject embed ) {
+        
+        embeds.put( new Key( user, guild ), group( user ), version, embed );
+        
+    }
+    
+    /**
+     * Invalidates the cached profile embeds of a user. Must be called after data shown in
+     * the profile of the user is changed.
+     *
+     * @param user The ID of the user.
+     */
+    public void invalidate( long user ) {
+        
+        embeds.invalidate( group( user ) );
+        
+    }
+    
+    /**
+     * Key of a cached embed.
+     *
+     * @version 1.0
+     * @author ThiagoTGM
+     * @since 2026-10-16
+     */
+    private static class Key {
+        
+        private final long user;
+        private final long guild;
+        
+        /**
+         * Creates a new key.
+         *
+         * @param user The ID of the user.
+         * @param guild The ID of the server.
+         */
+        public Key( long user, long guild ) {
+            
+            this.user = user;
+            this.guild = guild;
+            
+        }
+        
+        @Override
+        public boolean equals( Object obj ) {
+            
+            if ( !( obj instanceof Key ) ) {
+                return false;
+            }
+            Key key = (Key) obj;
+            return ( user == key.user ) && ( guild == key.guild );
+            
+        }
+        
+        @Override
+        public int hashCode() {
+            
+            return Long.hashCode( user ) * 31 + Long.hashCode( guild );
+            
+        }
+        
+    }
+    
+}
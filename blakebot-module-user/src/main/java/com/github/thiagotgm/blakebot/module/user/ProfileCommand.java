@@ -20,19 +20,30 @@ package com.github.thiagotgm.blakebot.module.user;
 import java.time.Clock;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import com.github.thiagotgm.blakebot.module.user.CardManager.Card;
 import com.github.thiagotgm.blakebot.module.user.CardManager.CardEntry;
 import com.github.thiagotgm.blakebot.module.user.CardManager.UserCards;
 import com.github.thiagotgm.blakebot.module.user.LevelingManager.LevelState;
 import com.github.thiagotgm.blakebot.module.user.ReputationManager.Reputation;
+import com.github.thiagotgm.bot_utils.Settings;
 import com.github.thiagotgm.bot_utils.storage.DatabaseManager;
 import com.github.thiagotgm.bot_utils.storage.translate.StringTranslator;
+import com.github.thiagotgm.bot_utils.utils.AsyncTools;
 import com.github.thiagotgm.modular_commands.api.Argument;
 import com.github.thiagotgm.modular_commands.api.Argument.Type;
 import com.github.thiagotgm.modular_commands.api.CommandContext;
 import com.github.thiagotgm.modular_commands.command.annotation.MainCommand;
 
+import sx.blah.discord.api.internal.json.objects.EmbedObject;
 import sx.blah.discord.handle.obj.IUser;
 import sx.blah.discord.util.EmbedBuilder;
 
@@ -45,10 +56,33 @@ import sx.blah.discord.util.EmbedBuilder;
  */
 public class ProfileCommand {
 	
+	private static final Logger LOG = LoggerFactory.getLogger( ProfileCommand.class );
+	private static final ThreadGroup THREADS = new ThreadGroup( "Profile Lookups" );
+	/**
+	 * Executor used to look up the data shown in a profile in parallel.
+	 */
+	private static final Executor EXECUTOR = AsyncTools.createFixedThreadPool( THREADS, ( t, e ) -> {
+		
+		LOG.error( "Error while looking up profile data.", e );
+		
+	});
+	
+	/**
+	 * Setting that defines {@link #TIMEOUT}.
+	 */
+	public static final String TIMEOUT_SETTING = "Profile lookup timeout";
+	/**
+	 * How long to wait for the data shown in a profile, in milliseconds. Data that is
+	 * not found within this time is shown as unavailable.
+	 */
+	public static final int TIMEOUT = Settings.getIntSetting( TIMEOUT_SETTING );
+	
 	private static final Clock CLOCK = Clock.systemDefaultZone();
 	private static final int EXP_BAR_SIZE = 10;
+	private static final String UNAVAILABLE = "*Unavailable*";
 	
 	private final Map<String,String> infoData;
+	private final ProfileCache cache;
 	
 	/**
 	 * Instantiates a command.
@@ -57,6 +91,90 @@ public class ProfileCommand {
 		
 		infoData = DatabaseManager.getDatabase().getDataMap( "CustomInfo",
 				new StringTranslator(), new StringTranslator() );
+		cache = ProfileCache.getInstance();
+		
+	}
+	
+	/**
+	 * Retrieves the result of a lookup, if it finished successfully.
+	 * 
+	 * @param lookup The lookup.
+	 * @param <T> The type of data being looked up.
+	 * @return The result, or <tt>null</tt> if the lookup did not finish or failed.
+	 */
+	private static <T> T result( CompletableFuture<T> lookup ) {
+		
+		if ( !lookup.isDone() || lookup.isCompletedExceptionally() ) {
+			return null;
+		}
+		return lookup.join();
+		
+	}
+	
+	/**
+	 * Cancels the lookups that did not finish yet. Lookups that did not start yet are
+	 * skipped when their turn in the executor comes, so they do not pile up behind slow
+	 * lookups.
+	 * 
+	 * @param lookups The lookups.
+	 */
+	private static void cancel( CompletableFuture<?>... lookups ) {
+		
+		for ( CompletableFuture<?> lookup : lookups ) {
+			
+			lookup.cancel( false );
+			
+		}
+		
+	}
+	
+	/**
+	 * Formats the EXP progress of a user.
+	 * 
+	 * @param state The level state of the user.
+	 * @return The formatted progress.
+	 */
+	private static String formatExp( LevelState state ) {
+		
+		long exp = state.getExp();
+		long maxExp = state.getExpToNextLevel();
+		float percent = (float) exp / maxExp;
+		int progress = Math.round( percent * 100 );
+		int bars = Math.round( percent * EXP_BAR_SIZE );
+		StringBuilder barBuilder = new StringBuilder();
+		int i = 0;
+		for ( ; i < bars; i++ ) {
+			
+			barBuilder.append( '*' );
+			
+		}
+		for ( ; i < EXP_BAR_SIZE; i++ ) {
+			
+			barBuilder.append( '.' );
+			
+		}
+		return String.format( "%d/%d `[%s]` %d%%", exp, maxExp, barBuilder.toString(), progress );
+		
+	}
+	
+	/**
+	 * Formats the custom cards of a user.
+	 * 
+	 * @param cards The cards of the user.
+	 * @return The formatted cards.
+	 */
+	private static String formatCards( UserCards cards ) {
+		
+		StringBuilder builder = new StringBuilder();
+		for ( CardEntry card : cards.getCards() ) {
+			
+			builder.append( String.format( "- %s (**%d** fields total, %d max.)\n", card.getTitle(),
+					card.getFieldCount(), Card.MAX_FIELDS ) );
+			
+		}
+		builder.append( String.format( "(**%d** cards total, %d max.)", cards.getCardCount(),
+				cards.getCardAllowance() ) );
+		return builder.toString();
 		
 	}
 	
@@ -77,6 +195,50 @@ public class ProfileCommand {
 			user = context.getAuthor();
 		}
 
+		long guild = context.getChannel().isPrivate() ? 0 : context.getGuild().getLongID();
+		EmbedObject cached = cache.get( user.getLongID(), guild );
+		if ( cached != null ) {
+			context.getReplyBuilder().withEmbed( cached ).build();
+			return;
+		}
+		long version = cache.getVersion( user.getLongID() ); // Get before the data to not cache stale data.
+		
+		// Look up everything at the same time.
+		CompletableFuture<String> infoLookup = CompletableFuture.supplyAsync(
+				() -> infoData.get( user.getStringID() ), EXECUTOR );
+		CompletableFuture<LevelState> levelLookup = CompletableFuture.supplyAsync(
+				() -> LevelingManager.getInstance().getLevelState( user ), EXECUTOR );
+		CompletableFuture<Long> currencyLookup = CompletableFuture.supplyAsync(
+				() -> CurrencyManager.getInstance().getCurrency( user ), EXECUTOR );
+		CompletableFuture<String> dailiesLookup = CompletableFuture.supplyAsync( () -> {
+			
+			int streak = UserModule.DAILIES.getStreak( user );
+			return ( UserModule.DAILIES.isAvailable( user ) ? "Available" : "Not available" )
+					+ ( streak > 1 ? String.format( " (%d day streak)", streak ) : "" );
+			
+		}, EXECUTOR );
+		CompletableFuture<Reputation> repLookup = CompletableFuture.supplyAsync(
+				() -> ReputationManager.getInstance().getReputation( user ), EXECUTOR );
+		CompletableFuture<String> cardsLookup = CompletableFuture.supplyAsync(
+				() -> formatCards( CardManager.getInstance().getUserCards( user ) ), EXECUTOR );
+		CompletableFuture<Void> all = CompletableFuture.allOf( infoLookup, levelLookup, currencyLookup,
+				dailiesLookup, repLookup, cardsLookup );
+		
+		boolean complete = false;
+		try {
+			all.get( TIMEOUT, TimeUnit.MILLISECONDS );
+			complete = true;
+		} catch ( TimeoutException e ) {
+			LOG.warn( "Profile lookup for {} timed out.", user.getStringID() );
+			cancel( infoLookup, levelLookup, currencyLookup, dailiesLookup, repLookup, cardsLookup );
+		} catch ( ExecutionException e ) {
+			LOG.error( "Profile lookup for " + user.getStringID() + " failed.", e.getCause() );
+		} catch ( InterruptedException e ) {
+			LOG.warn( "Interrupted while looking up profile.", e );
+			cancel( infoLookup, levelLookup, currencyLookup, dailiesLookup, repLookup, cardsLookup );
+			Thread.currentThread().interrupt();
+		}
+
 		EmbedBuilder embed = new EmbedBuilder().withTimestamp( CLOCK.instant() )
 				.withColor( UserModule.EMBED_COLOR );
 		
@@ -89,9 +251,11 @@ public class ProfileCommand {
 				embed.appendField( "Nickname", nickname, true );
 			}
 		}
-		String customInfo = infoData.get( user.getStringID() );
+		String customInfo = result( infoLookup );
 		if ( customInfo == null ) {
-			if ( user.isBot() ) {
+			if ( !infoLookup.isDone() || infoLookup.isCompletedExceptionally() ) {
+				customInfo = UNAVAILABLE;
+			} else if ( user.isBot() ) {
 				customInfo = "Hi, I am a bot!";
 			} else {
 				customInfo = "Wow such empty";
@@ -100,54 +264,32 @@ public class ProfileCommand {
 		embed.appendField( "Custom Info", customInfo, false );
 		
 		// Level info.
-		LevelState state = LevelingManager.getInstance().getLevelState( user );
-		embed.appendField( "Level", "Lvl. " + state.getLevel(), true );
-		long exp = state.getExp();
-		long maxExp = state.getExpToNextLevel();
-		float percent = (float) exp / maxExp;
-		int progress = Math.round( percent * 100 );
-		int bars = Math.round( percent * EXP_BAR_SIZE );
-		StringBuilder barBuilder = new StringBuilder();
-		int i = 0;
-		for ( ; i < bars; i++ ) {
-			
-			barBuilder.append( '*' );
-			
-		}
-		for ( ; i < EXP_BAR_SIZE; i++ ) {
-			
-			barBuilder.append( '.' );
-			
-		}
-		embed.appendField( "EXP", String.format( "%d/%d `[%s]` %d%%", exp, maxExp,
-				barBuilder.toString(), progress ), true );
+		LevelState state = result( levelLookup );
+		embed.appendField( "Level", state == null ? UNAVAILABLE : "Lvl. " + state.getLevel(), true );
+		embed.appendField( "EXP", state == null ? UNAVAILABLE : formatExp( state ), true );
 		
 		// Currency info.
-		embed.appendField( "Money",
-				CurrencyManager.format( CurrencyManager.getInstance().getCurrency( user ) ), true );
-		embed.appendField( "Dailies", UserModule.DAILIES.isAvailable( user ) ? "Available"
-				                                                             : "Not available", true );
+		Long currency = result( currencyLookup );
+		embed.appendField( "Money", currency == null ? UNAVAILABLE : CurrencyManager.format( currency ), true );
+		String dailies = result( dailiesLookup );
+		embed.appendField( "Dailies", dailies == null ? UNAVAILABLE : dailies, true );
 		
 		// Reputation info.
-		Reputation rep = ReputationManager.getInstance().getReputation( user );
-		embed.appendField( "Reputation", String.format( "%+d", rep.getOverall() ), true );
-		embed.appendField( "Reputation Details", String.format( "%d votes, %.1f%% positive",
-				rep.getTotalVotes(), rep.getPositivePercentage() ), true );
+		Reputation rep = result( repLookup );
+		embed.appendField( "Reputation", rep == null ? UNAVAILABLE : String.format( "%+d", rep.getOverall() ), true );
+		embed.appendField( "Reputation Details", rep == null ? UNAVAILABLE : String.format(
+				"%d votes, %.1f%% positive", rep.getTotalVotes(), rep.getPositivePercentage() ), true );
 		
 		// Card info.
-		UserCards cards = CardManager.getInstance().getUserCards( user );
-		StringBuilder builder = new StringBuilder();
-		for ( CardEntry card : cards.getCards() ) {
-			
-			builder.append( String.format( "- %s (**%d** fields total, %d max.)\n", card.getTitle(),
-					card.getFieldCount(), Card.MAX_FIELDS ) );
-			
-		}
-		builder.append( String.format( "(**%d** cards total, %d max.)", cards.getCardCount(),
-				cards.getCardAllowance() ) );
-		embed.appendField( "Custom Cards", builder.toString(), false );
+		String cards = result( cardsLookup );
+		embed.appendField( "Custom Cards", cards == null ? UNAVAILABLE : cards, false );
 		
-		context.getReplyBuilder().withEmbed( embed.build() ).build();
+		EmbedObject built = embed.build();
+		// Only keep profiles with all the data, and not past the reset of the dailies.
+		if ( complete && ( DailiesCommand.untilReset() > TimeUnit.SECONDS.toMillis( ProfileCache.DURATION ) ) ) {
+			cache.put( user.getLongID(), guild, version, built );
+		}
+		context.getReplyBuilder().withEmbed( built ).build();
 		
 	}
 	
@@ -169,6 +311,7 @@ public class ProfileCommand {
 		
 		String info = context.getArgs().get( 0 );
 		infoData.put( context.getAuthor().getStringID(), info );
+		cache.invalidate( context.getAuthor().getLongID() );
 		context.getReplyBuilder().withContent( String.format( "Set custom info to \"%s\"!", info ) ).build();
 		
 	}
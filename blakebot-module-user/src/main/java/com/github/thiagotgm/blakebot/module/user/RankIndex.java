@@ -0,0 +1,591 @@
+/*
+ * This file is part of BlakeBot.
+ *
+ * BlakeBot is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * BlakeBot is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with BlakeBot. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.thiagotgm.blakebot.module.user;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * In-memory ranking of users by a score, for leaderboards.
+ * <p>
+ * Implemented as an indexable skip list: each link also stores how many entries it skips
+ * over, so that updating the score of a user, finding the rank of a user and finding the
+ * entry at a given rank all take <i>O(log n)</i> expected time. Entries are ordered by
+ * descending score, and users with the same score are ordered by ascending ID.
+ * <p>
+ * Loading many entries at once, such as when the index is created, should be done with
+ * {@link #putAllIfAbsent(Batch)}, that sorts the entries and links each level in a single
+ * pass, instead of searching for the position of each entry.
+ * <p>
+ * All the operations are thread-safe.
+ *
+ * @version 1.0
+ * @author ThiagoTGM
+ * @since 2026-10-16
+ */
+public class RankIndex {
+    
+    private static final int MAX_LEVEL = 32;
+    
+    private Node head;
+    private Map<Long,Node> nodes;
+    private int level;
+    
+    /**
+     * Creates a new, empty index.
+     */
+    public RankIndex() {
+        
+        this.head = new Node( 0, 0, MAX_LEVEL );
+        this.nodes = new HashMap<>();
+        this.level = 1;
+        
+    }
+    
+    /**
+     * Determines if an entry is ordered before the given position.
+     *
+     * @param node The entry.
+     * @param score The score of the position.
+     * @param id The user ID of the position.
+     * @return <tt>true</tt> if the entry is ordered before the position.
+     */
+    private static boolean before( Node node, long score, long id ) {
+        
+        return ( node.score > score ) || ( ( node.score == score ) && ( node.id < id ) );
+        
+    }
+    
+    /**
+     * Picks the level of a new entry. Each level is used by a quarter of the entries in
+     * the level below it.
+     *
+     * @return The level.
+     */
+    private static int randomLevel() {
+        
+        int level = 1;
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        while ( ( level < MAX_LEVEL ) && ( random.nextInt( 4 ) == 0 ) ) {
+            
+            level++;
+            
+        }
+        return level;
+        
+    }
+    
+    /**
+     * Inserts a new entry.
+     *
+     * @param id The user ID.
+     * @param score The score.
+     */
+    private void insert( long id, long score ) {
+        
+        Node[] update = new Node[ MAX_LEVEL ];
+        int[] rank = new int[ MAX_LEVEL ];
+        Node node = head;
+        for ( int i = level - 1; i >= 0; i-- ) { // Find where to link the entry in each level.
+            
+            rank[i] = ( i == level - 1 ) ? 0 : rank[i + 1];
+            while ( ( node.next[i] != null ) && before( node.next[i], score, id ) ) {
+                
+                rank[i] += node.span[i];
+                node = node.next[i];
+                
+            }
+            update[i] = node;
+            
+        }
+        
+        int newLevel = randomLevel();
+        if ( newLevel > level ) { // Start new levels from the head.
+            for ( int i = level; i < newLevel; i++ ) {
+                
+                rank[i] = 0;
+                update[i] = head;
+                head.span[i] = nodes.size();
+                
+            }
+            level = newLevel;
+        }
+        
+        Node inserted = new Node( id, score, newLevel );
+        for ( int i = 0; i < newLevel; i++ ) {
+            
+            inserted.next[i] = update[i].next[i];
+            update[i].next[i] = inserted;
+            inserted.span[i] = update[i].span[i] - ( rank[0] - rank[i] );
+            update[i].span[i] = rank[0] - rank[i] + 1;
+            
+        }
+        for ( int i = newLevel; i < level; i++ ) { // Links above now skip one more entry.
+            
+            update[i].span[i]++;
+            
+        }
+        nodes.put( id, inserted );
+        
+    }
+    
+    /**
+     * Unlinks an entry.
+     *
+     * @param removed The entry to unlink.
+     */
+    private void delete( Node removed ) {
+        
+        Node node = head;
+        for ( int i = level - 1; i >= 0; i-- ) {
+            
+            while ( ( node.next[i] != null ) && before( node.next[i], removed.score, removed.id ) ) {
+                
+                node = node.next[i];
+                
+            }
+            if ( node.next[i] == removed ) {
+                node.span[i] += removed.span[i] - 1;
+                node.next[i] = removed.next[i];
+            } else { // Link skips over the entry.
+                node.span[i]--;
+            }
+            
+        }
+        while ( ( level > 1 ) && ( head.next[level - 1] == null ) ) {
+            
+            level--;
+            
+        }
+        nodes.remove( removed.id );
+        
+    }
+    
+    /**
+     * Sets the score of a user, adding the user to the index if necessary.
+     *
+     * @param id The user ID.
+     * @param score The new score.
+     */
+    public synchronized void put( long id, long score ) {
+        
+        Node node = nodes.get( id );
+        if ( node != null ) {
+            if ( node.score == score ) {
+                return; // No change.
+            }
+            delete( node );
+        }
+        insert( id, score );
+        
+    }
+    
+    /**
+     * Adds a user to the index, unless it is already in the index.
+     *
+     * @param id The user ID.
+     * @param score The score.
+     * @return <tt>true</tt> if the user was added, <tt>false</tt> if it was already in
+     *         the index.
+     */
+    public synchronized boolean putIfAbsent( long id, long score ) {
+        
+        if ( nodes.containsKey( id ) ) {
+            return false;
+        }
+        insert( id, score );
+        return true;
+        
+    }
+    
+    /**
+     * Adds many users to the index, unless they are already in it.
+     * <p>
+     * The given entries are sorted and linked into a new list without holding the lock
+     * of the index. The lock is only taken at the end, to replace the current list with
+     * the new one and move over the users that were already in the index (usually the
+     * ones whose score changed while loading), whose scores take precedence.
+     *
+     * @param batch The entries to add. Must not have the same user more than once.
+     */
+    public void putAllIfAbsent( Batch batch ) {
+        
+        Node[] sorted = new Node[ batch.size ];
+        for ( int i = 0; i < sorted.length; i++ ) {
+            
+            sorted[i] = new Node( batch.ids[i], batch.scores[i], randomLevel() );
+            
+        }
+        Arrays.sort( sorted, ( n1, n2 ) -> before( n1, n2.score, n2.id ) ? -1 : 1 );
+        
+        Node newHead = new Node( 0, 0, MAX_LEVEL );
+        Map<Long,Node> newNodes = new HashMap<>( sorted.length * 4 / 3 + 1 );
+        Node[] last = new Node[ MAX_LEVEL ];
+        int[] lastRank = new int[ MAX_LEVEL ];
+        Arrays.fill( last, newHead );
+        int newLevel = 1;
+        for ( int rank = 1; rank <= sorted.length; rank++ ) { // Link each level in order.
+            
+            Node node = sorted[rank - 1];
+            for ( int i = 0; i < node.next.length; i++ ) {
+                
+                last[i].next[i] = node;
+                last[i].span[i] = rank - lastRank[i];
+                last[i] = node;
+                lastRank[i] = rank;
+                
+            }
+            newLevel = Math.max( newLevel, node.next.length );
+            newNodes.put( node.id, node );
+            
+        }
+        for ( int i = 0; i < newLevel; i++ ) { // Last links skip to the end.
+            
+            last[i].span[i] = sorted.length - lastRank[i];
+            
+        }
+        
+        synchronized ( this ) {
+            List<Node> current = new ArrayList<>( nodes.size() );
+            for ( Node node = head.next[0]; node != null; node = node.next[0] ) {
+                
+                current.add( node );
+                
+            }
+            head = newHead;
+            nodes = newNodes;
+            level = newLevel;
+            for ( Node node : current ) {
+                
+                put( node.id, node.score );
+                
+            }
+        }
+        
+    }
+    
+    /**
+     * Removes a user from the index.
+     *
+     * @param id The user ID.
+     * @return <tt>true</tt> if the user was in the index.
+     */
+    public synchronized boolean remove( long id ) {
+        
+        Node node = nodes.get( id );
+        if ( node == null ) {
+            return false;
+        }
+        delete( node );
+        return true;
+        
+    }
+    
+    /**
+     * Retrieves the rank of a user.
+     *
+     * @param id The user ID.
+     * @return The rank of the user, where the user with the highest score has rank 1, or
+     *         0 if the user is not in the index.
+     */
+    public synchronized int getRank( long id ) {
+        
+        Node target = nodes.get( id );
+        if ( target == null ) {
+            return 0;
+        }
+        int rank = 0;
+        Node node = head;
+        for ( int i = level - 1; i >= 0; i-- ) {
+            
+            while ( ( node.next[i] != null ) && ( ( node.next[i] == target ) ||
+                    before( node.next[i], target.score, target.id ) ) ) {
+                
+                rank += node.span[i];
+                node = node.next[i];
+                
+            }
+            if ( node == target ) {
+                return rank;
+            }
+            
+        }
+        throw new IllegalStateException( "Indexed user not found in ranking." );
+        
+    }
+    
+    /**
+     * Retrieves the entries in a range of ranks.
+     *
+     * @param start The first rank to retrieve (1 is the highest).
+     * @param count The maximum amount of entries to retrieve.
+     * @return The entries, in rank order. May have less than the requested amount if
+     *         the range goes past the end of the index.
+     * @throws IllegalArgumentException if the start rank is not positive, or the count
+     *                                  is negative.
+     */
+    public synchronized List<Entry> getRange( int start, int count ) throws IllegalArgumentException {
+        
+        if ( start < 1 ) {
+            throw new IllegalArgumentException( "Rank must be positive." );
+        }
+        if ( count < 0 ) {
+            throw new IllegalArgumentException( "Count cannot be negative." );
+        }
+        List<Entry> entries = new ArrayList<>( Math.min( count, Math.max( nodes.size() - start + 1, 0 ) ) );
+        if ( start > nodes.size() ) {
+            return entries;
+        }
+        
+        int traversed = 0;
+        Node node = head;
+        for ( int i = level - 1; i >= 0; i-- ) { // Find the entry before the start.
+            
+            while ( ( node.next[i] != null ) && ( traversed + node.span[i] < start ) ) {
+                
+                traversed += node.span[i];
+                node = node.next[i];
+                
+            }
+            
+        }
+        for ( node = node.next[0]; ( node != null ) && ( entries.size() < count ); node = node.next[0] ) {
+            
+            entries.add( new Entry( node.id, node.score, start + entries.size() ) );
+            
+        }
+        return entries;
+        
+    }
+    
+    /**
+     * Ranks a subset of the users in the index, such as the members of a guild.
+     * <p>
+     * Takes <i>O(m log m)</i> time, where <i>m</i> is the amount of given users,
+     * regardless of the size of the index.
+     *
+     * @param ids The IDs of the users to rank. Must not have duplicates.
+     * @return The given users that are in the index, in rank order, with ranks relative to
+     *         each other.
+     */
+    public synchronized List<Entry> getRanking( long[] ids ) {
+        
+        List<Node> found = new ArrayList<>( ids.length );
+        for ( long id : ids ) {
+            
+            Node node = nodes.get( id );
+            if ( node != null ) {
+                found.add( node );
+            }
+            
+        }
+        found.sort( ( n1, n2 ) -> before( n1, n2.score, n2.id ) ? -1 : 1 );
+        
+        List<Entry> entries = new ArrayList<>( found.size() );
+        for ( Node node : found ) {
+            
+            entries.add( new Entry( node.id, node.score, entries.size() + 1 ) );
+            
+        }
+        return entries;
+        
+    }
+    
+    /**
+     * Retrieves the score of a user.
+     *
+     * @param id The user ID.
+     * @return The score, or 0 if the user is not in the index.
+     */
+    public synchronized long getScore( long id ) {
+        
+        Node node = nodes.get( id );
+        return node == null ? 0 : node.score;
+        
+    }
+    
+    /**
+     * Retrieves how many users are in the index.
+     *
+     * @return The amount of users.
+     */
+    public synchronized int size() {
+        
+        return nodes.size();
+        
+    }
+    
+    /**
+     * An entry in the skip list.
+     *
+     * @version 1.0
+     * @author ThiagoTGM
+     * @since 2026-10-16
+     */
+    private static class Node {
+        
+        private final long id;
+        private final long score;
+        private final Node[] next;
+        private final int[] span;
+        
+        /**
+         * Creates a new entry.
+         *
+         * @param id The user ID.
+         * @param score The score.
+         * @param level The level of the entry.
+         */
+        private Node( long id, long score, int level ) {
+            
+            this.id = id;
+            this.score = score;
+            this.next = new Node[ level ];
+            this.span = new int[ level ];
+            
+        }
+        
+    }
+    
+    /**
+     * Entries to be added to an index at once, with {@link RankIndex#putAllIfAbsent(Batch)}.
+     * Kept in primitive arrays until they are added.
+     * <p>
+     * Not thread-safe.
+     *
+     * @version 1.0
+     * @author ThiagoTGM
+     * @since 2026-10-16
+     */
+    public static class Batch {
+        
+        private long[] ids;
+        private long[] scores;
+        private int size;
+        
+        /**
+         * Creates an empty batch.
+         *
+         * @param capacity The expected amount of entries.
+         */
+        public Batch( int capacity ) {
+            
+            this.ids = new long[ Math.max( capacity, 16 ) ];
+            this.scores = new long[ ids.length ];
+            this.size = 0;
+            
+        }
+        
+        /**
+         * Adds an entry to the batch.
+         *
+         * @param id The user ID.
+         * @param score The score.
+         */
+        public void add( long id, long score ) {
+            
+            if ( size == ids.length ) {
+                ids = Arrays.copyOf( ids, size * 2 );
+                scores = Arrays.copyOf( scores, size * 2 );
+            }
+            ids[size] = id;
+            scores[size++] = score;
+            
+        }
+        
+        /**
+         * Retrieves how many entries are in the batch.
+         *
+         * @return The amount of entries.
+         */
+        public int size() {
+            
+            return size;
+            
+        }
+        
+    }
+    
+    /**
+     * A ranked user.
+     *
+     * @version 1.0
+     * @author ThiagoTGM
+     * @since 2026-10-16
+     */
+    public static class Entry {
+        
+        private final long id;
+        private final long score;
+        private final int rank;
+        
+        /**
+         * Creates a new entry.
+         *
+         * @param id The user ID.
+         * @param score The score.
+         * @param rank The rank.
+         */
+        private Entry( long id, long score, int rank ) {
+            
+            this.id = id;
+            this.score = score;
+            this.rank = rank;
+            
+        }
+        
+        /**
+         * Retrieves the ID of the user.
+         *
+         * @return The user ID.
+         */
+        public long getID() {
+            
+            return id;
+            
+        }
+        
+        /**
+         * Retrieves the score of the user.
+         *
+         * @return The score.
+         */
+        public long getScore() {
+            
+            return score;
+            
+        }
+        
+        /**
+         * Retrieves the rank of the user.
+         *
+         * @return The rank, where 1 is the highest.
+         */
+        public int getRank() {
+            
+            return rank;
+            
+        }
+        
+    }
+    
+}
@@ -17,7 +17,6 @@
 
 package com.github.thiagotgm.blakebot.module.user;
 
-import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.concurrent.ExecutionException;
@@ -40,6 +39,10 @@ import sx.blah.discord.handle.obj.IUser;
 
 /**
  * Manages the reputation system.
+ * <p>
+ * The upvotes and downvotes of each user are kept in the {@link AccountStore}. Reputations
+ * stored in the database by older versions are imported into it the first time the
+ * manager is created. The individual votes are still kept in the database.
  * 
  * @author ThiagoTGM
  * @version 1.0
@@ -86,19 +89,26 @@ public class ReputationManager {
 		
 	}
 	
-	private final Map<String,Reputation> reputationMap;
 	private final Tree<String,Vote> voteMap;
+	private final AccountStore store;
+	private final ProfileCache profiles;
 	
 	/**
 	 * Instantiates a manager.
 	 */
 	private ReputationManager() {
 		
-		reputationMap = Collections.synchronizedMap( DatabaseManager.getDatabase().getDataMap(
-				"ReputationSystem", new StringTranslator(),
-				new StorableTranslator<>( () -> new Reputation() ) ) );
 		voteMap = Graphs.synchronizedTree( DatabaseManager.getDatabase().getDataTree(
 				"ReputationVotes", new StringTranslator(), new VoteTranslator() ) );
+		store = AccountStore.getInstance();
+		if ( !store.isImported( AccountStore.Field.VOTES ) ) {
+			store.importValues( AccountStore.Field.VOTES, DatabaseManager.getDatabase().getDataMap(
+					"ReputationSystem", new StringTranslator(),
+					new StorableTranslator<>( () -> new Reputation() ) ),
+					rep -> AccountStore.pack( (int) rep.upvotes, (int) rep.downvotes ) );
+			store.setImported( AccountStore.Field.VOTES );
+		}
+		profiles = ProfileCache.getInstance();
 		
 	}
 	
@@ -115,8 +125,8 @@ public class ReputationManager {
 			throw new NullPointerException( "User argument cannot be null." );
 		}
 		
-		Reputation rep = reputationMap.get( user.getStringID() );
-		return rep == null ? new Reputation() : rep;
+		long votes = store.getVotes( user.getLongID() );
+		return votes == AccountStore.UNKNOWN ? new Reputation() : new Reputation( votes );
 		
 	}
 	
@@ -173,12 +183,10 @@ public class ReputationManager {
 				final Vote oldVote = curVote;
 				EXECUTOR.execute( targetID, () -> {
 					
-					Reputation rep = reputationMap.get( targetID ); // Get current rep.
-					if ( rep == null ) { // No reputation yet.
-						rep = new Reputation();
-					}
+					Reputation rep = getReputation( target ); // Get current rep.
 					rep.changeVote( oldVote, vote ); // Change vote.
-					reputationMap.put( targetID, rep ); // Update rep.
+					store.setVotes( target.getLongID(), (int) rep.upvotes, (int) rep.downvotes );
+					profiles.invalidate( target.getLongID() );
 					
 				});
 				
@@ -225,6 +233,19 @@ public class ReputationManager {
 			
 		}
 		
+		/**
+		 * Construct a new instance from votes {@link AccountStore#pack(int, int) packed}
+		 * in the account store.
+		 * 
+		 * @param votes The packed upvotes and downvotes.
+		 */
+		protected Reputation( long votes ) {
+			
+			upvotes = AccountStore.high( votes );
+			downvotes = AccountStore.low( votes );
+			
+		}
+		
 		/**
 		 * Returns the overall reputation, that is, 
 		 * <tt>upvotes - downvotes</tt>.
@@ -47,6 +47,7 @@ public class UserModule implements IModule {
     public void disable() {
     	
     	client.getDispatcher().unregisterListener( levelManager );
+    	AccountStore.getInstance().trySave(); // Save pending changes.
         
         CommandRegistry.getRegistry( client ).removeSubRegistry( this ); // Remove commands.
         client = null; // Remove client.
@@ -80,6 +81,8 @@ public class UserModule implements IModule {
         registry.registerAnnotatedCommands( new ReputationCommands() );
         registry.registerAnnotatedCommands( new CardCommands() );
         registry.registerAnnotatedCommands( new GiftCommand() );
+        registry.registerAnnotatedCommands( new LeaderboardCommands() );
+        registry.registerAnnotatedCommands( new HistoryCommand() );
         
     }
 
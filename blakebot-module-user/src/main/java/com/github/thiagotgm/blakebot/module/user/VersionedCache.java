@@ -0,0 +1,303 @@
+/*
+ * This file is part of BlakeBot.
+ *
+ * BlakeBot is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * BlakeBot is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with BlakeBot. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.thiagotgm.blakebot.module.user;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded cache of values built from stored data, such as embeds, evicting the least
+ * recently used value when full.
+ * <p>
+ * Each value belongs to a group, identified by a hash given by the caller, such as the ID
+ * of the user whose data the value shows. Groups are split among a fixed amount of version
+ * counters, so the versions take the same memory regardless of how many groups exist. The
+ * version of a group must be retrieved before the data that goes in a value is looked up,
+ * and the group must be {@link #invalidate(int) invalidated} after that data changes, so a
+ * value built from older data is never returned, even if it was put in the cache after the
+ * change (a change may also invalidate the values of other groups that share its counter).
+ * Values may also expire after a fixed time.
+ * <p>
+ * All the counters are cumulative since the cache was created.
+ *
+ * @version 1.0
+ * @author ThiagoTGM
+ * @since 2026-10-16
+ * @param <K> The type of the keys.
+ * @param <V> The type of the values.
+ */
+public class VersionedCache<K,V> {
+    
+    private final int capacity;
+    private final long duration;
+    private final Map<K,Cached<V>> values;
+    private final AtomicLongArray versions;
+    private final LongAdder hits;
+    private final LongAdder misses;
+    private final LongAdder evictions;
+    
+    /**
+     * Creates a new cache.
+     *
+     * @param capacity The maximum amount of values to keep.
+     * @param stripes The amount of version counters. Must be a power of 2.
+     * @param duration How long a value is kept, or 0 if values do not expire.
+     * @param unit The unit of the duration.
+     * @throws IllegalArgumentException if the capacity is not positive, the amount of
+     *                                  counters is not a power of 2, or the duration is
+     *                                  negative.
+     */
+    public VersionedCache( int capacity, int stripes, long duration, TimeUnit unit )
+            throws IllegalArgumentException {
+        
+        if ( capacity <= 0 ) {
+            throw new IllegalArgumentException( "Capacity must be positive." );
+        }
+        if ( ( stripes <= 0 ) || ( Integer.bitCount( stripes ) != 1 ) ) {
+            throw new IllegalArgumentException( "Amount of version counters must be a power of 2." );
+        }
+        if ( duration < 0 ) {
+            throw new IllegalArgumentException( "Duration cannot be negative." );
+        }
+        
+        this.capacity = capacity;
+        this.duration = unit.toNanos( duration );
+        this.values = new LinkedHashMap<K,Cached<V>>( 16, 0.75f, true ) {
+            
+            private static final long serialVersionUID = 1L;
+            
+            @Override
+            protected boolean removeEldestEntry( Map.Entry<K,Cached<V>> eldest ) {
+                
+                if ( size() > VersionedCache.this.capacity ) {
+                    evictions.increment();
+                    return true;
+                }
+                return false;
+                
+            }
+            
+        };
+        this.versions = new AtomicLongArray( stripes );
+        this.hits = new LongAdder();
+        this.misses = new LongAdder();
+        this.evictions = new LongAdder();
+        
+    }
+    
+    /**
+     * Retrieves the version counter used for a group.
+     *
+     * @param group The hash of the group.
+     * @return The index of the counter.
+     */
+    private int stripe( int group ) {
+        
+        return ( group ^ ( group >>> 16 ) ) & ( versions.length() - 1 );
+        
+    }
+    
+    /**
+     * Retrieves the current version of a group. Must be called before the data that goes
+     * in a value is looked up.
+     *
+     * @param group The hash of the group.
+     * @return The version.
+     */
+    public long getVersion( int group ) {
+        
+        return versions.get( stripe( group ) );
+        
+    }
+    
+    /**
+     * Retrieves a value.
+     *
+     * @param key The key of the value.
+     * @param group The hash of the group of the value.
+     * @return The value, or <tt>null</tt> if it is not cached, expired, or the data of its
+     *         group changed since it was built.
+     */
+    public V get( K key, int group ) {
+        
+        synchronized ( values ) {
+            Cached<V> cached = values.get( key );
+            if ( cached != null ) {
+                if ( ( cached.version == getVersion( group ) ) &&
+                        ( ( duration == 0 ) || ( System.nanoTime() - cached.time <= duration ) ) ) {
+                    hits.increment();
+                    return cached.value;
+                }
+                values.remove( key ); // Outdated.
+            }
+        }
+        misses.increment();
+        return null;
+        
+    }
+    
+    /**
+     * Caches a value, unless the data of its group already changed.
+     *
+     * @param key The key of the value.
+     * @param group The hash of the group of the value.
+     * @param version The version of the group obtained before the data in the value was
+     *                looked up.
+     * @param value The value.
+     */
+    public void put( K key, int group, long version, V value ) {
+        
+        if ( version != getVersion( group ) ) {
+            return; // Data already changed.
+        }
+        synchronized ( values ) {
+            values.put( key, new Cached<>( value, version, System.nanoTime() ) );
+        }
+        
+    }
+    
+    /**
+     * Invalidates the cached values of a group, incrementing its version. Must be called
+     * after the data of the group is changed.
+     *
+     * @param group The hash of the group.
+     */
+    public void invalidate( int group ) {
+        
+        versions.incrementAndGet( stripe( group ) );
+        
+    }
+    
+    /**
+     * Removes a value from the cache, so that it does not take space until it is evicted.
+     *
+     * @param key The key of the value.
+     */
+    public void remove( K key ) {
+        
+        synchronized ( values ) {
+            values.remove( key );
+        }
+        
+    }
+    
+    /**
+     * Retrieves the maximum amount of values kept.
+     *
+     * @return The capacity.
+     */
+    public int getCapacity() {
+        
+        return capacity;
+        
+    }
+    
+    /**
+     * Retrieves how many values are currently cached.
+     *
+     * @return The amount of cached values.
+     */
+    public int size() {
+        
+        synchronized ( values ) {
+            return values.size();
+        }
+        
+    }
+    
+    /**
+     * Retrieves how many lookups found the value in the cache.
+     *
+     * @return The amount of hits.
+     */
+    public long getHits() {
+        
+        return hits.sum();
+        
+    }
+    
+    /**
+     * Retrieves how many lookups did not find the value in the cache.
+     *
+     * @return The amount of misses.
+     */
+    public long getMisses() {
+        
+        return misses.sum();
+        
+    }
+    
+    /**
+     * Retrieves how many values were evicted to make space for others.
+     *
+     * @return The amount of evictions.
+     */
+    public long getEvictions() {
+        
+        return evictions.sum();
+        
+    }
+    
+    /**
+     * Retrieves the percentage of lookups that found the value in the cache.
+     *
+     * @return The hit rate (%). If there were no lookups, returns 0.
+     */
+    public double getHitRate() {
+        
+        long hitCount = hits.sum();
+        long total = hitCount + misses.sum();
+        return total == 0 ? 0.0 : ( hitCount * 100.0 ) / total;
+        
+    }
+    
+    /**
+     * A cached value.
+     *
+     * @version 1.0
+     * @author ThiagoTGM
+     * @since 2026-10-16
+     * @param <V> The type of the value.
+     */
+    private static class Cached<V> {
+        
+        private final V value;
+        private final long version;
+        private final long time;
+        
+        /**
+         * Creates a new cached value.
+         *
+         * @param value The value.
+         * @param version The version of the group it was built from.
+         * @param time When it was cached, as given by {@link System#nanoTime()}.
+         */
+        public Cached( V value, long version, long time ) {
+            
+            this.value = value;
+            this.version = version;
+            this.time = time;
+            
+        }
+        
+    }
+    
+}
@@ -0,0 +1,133 @@
+/*
+ * This file is part of BlakeBot.
+ *
+ * BlakeBot is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * BlakeBot is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with BlakeBot. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.github.thiagotgm.blakebot.module.user;
+
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntSupplier;
+
+import com.github.thiagotgm.blakebot.TimingStats;
+
+/**
+ * Statistics of a write-behind cache, that keeps changes in memory and periodically flushes
+ * them to storage.
+ * <p>
+ * All the counters are cumulative since the cache was created. Times are measured
+ * in nanoseconds.
+ *
+ * @version 1.0
+ * @author ThiagoTGM
+ * @since 2026-10-16
+ */
+public class WriteBehindStats {
+    
+    private final IntSupplier dirty;
+    private final TimingStats flushes;
+    private final LongAdder flushed;
+    
+    /**
+     * Creates a new instance.
+     *
+     * @param dirty Supplies the current amount of dirty entries.
+     */
+    protected WriteBehindStats( IntSupplier dirty ) {
+        
+        this.dirty = dirty;
+        this.flushes = new TimingStats();
+        this.flushed = new LongAdder();
+        
+    }
+    
+    /**
+     * Records a flush that wrote at least one entry.
+     *
+     * @param entries How many entries were written.
+     * @param time How long the flush took.
+     */
+    protected void recordFlush( int entries, long time ) {
+        
+        flushes.record( time );
+        flushed.add( entries );
+        
+    }
+    
+    /**
+     * Retrieves how many entries currently have changes that were not flushed.
+     *
+     * @return The amount of dirty entries.
+     */
+    public int getDirty() {
+        
+        return dirty.getAsInt();
+        
+    }
+    
+    /**
+     * Retrieves how many flushes were performed.
+     *
+     * @return The amount of flushes.
+     */
+    public long getFlushes() {
+        
+        return flushes.getCount();
+        
+    }
+    
+    /**
+     * Retrieves how many entries were written in total.
+     *
+     * @return The amount of written entries.
+     */
+    public long getFlushed() {
+        
+        return flushed.sum();
+        
+    }
+    
+    /**
+     * Retrieves the average time a flush took.
+     *
+     * @return The average flush time.
+     */
+    public long getAverageFlushTime() {
+        
+        return flushes.getAverage();
+        
+    }
+    
+    /**
+     * Retrieves the longest time a flush took.
+     *
+     * @return The maximum flush time.
+     */
+    public long getMaxFlushTime() {
+        
+        return flushes.getMax();
+        
+    }
+    
+    /**
+     * Retrieves how long the last flush took.
+     *
+     * @return The last flush time.
+     */
+    public long getLastFlushTime() {
+        
+        return flushes.getLast();
+        
+    }
+    
+}
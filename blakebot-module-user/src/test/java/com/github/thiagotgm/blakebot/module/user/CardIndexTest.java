@@ -0,0 +1,256 @@
+/*
+ * This file is part of BlakeBot.
+ *
+ * BlakeBot is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * BlakeBot is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with BlakeBot. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.thiagotgm.blakebot.module.user;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.Test;
+
+/**
+ * Unit tests for {@link CardIndex}.
+ *
+ * @version 1.0
+ * @author ThiagoTGM
+ * @since 2026-10-16
+ */
+public class CardIndexTest {
+    
+    /**
+     * Retrieves the titles of the search results.
+     *
+     * @param results The results.
+     * @return The titles, in result order.
+     */
+    private static List<String> titles( List<CardIndex.Entry> results ) {
+        
+        List<String> titles = new ArrayList<>( results.size() );
+        for ( CardIndex.Entry entry : results ) {
+            
+            titles.add( entry.getTitle() );
+            
+        }
+        return titles;
+        
+    }
+    
+    /**
+     * Searches for all the cards that match a query.
+     *
+     * @param index The index.
+     * @param query The query.
+     * @return The titles of the results, in any order.
+     */
+    private static Set<String> search( CardIndex index, String query ) {
+        
+        return new HashSet<>( titles( index.search( query, 0, Integer.MAX_VALUE ) ) );
+        
+    }
+    
+    /**
+     * Creates a set of titles.
+     *
+     * @param titles The titles.
+     * @return The set.
+     */
+    private static Set<String> set( String... titles ) {
+        
+        return new HashSet<>( Arrays.asList( titles ) );
+        
+    }
+    
+    /**
+     * Query words match the start of any word of the title or the author, ignoring case
+     * and punctuation, and every word of the query must be matched.
+     */
+    @Test
+    public void testSearch() {
+        
+        CardIndex index = new CardIndex();
+        index.add( 1, "Blue-Eyes White Dragon", "Kaiba" );
+        index.add( 1, "Dark Magician", "Yugi" );
+        index.add( 2, "Red-Eyes Black Dragon", "Jonouchi" );
+        index.add( 2, "Untitled", null );
+        assertEquals( 4, index.size() );
+        
+        assertEquals( set( "Blue-Eyes White Dragon", "Red-Eyes Black Dragon" ), search( index, "drag" ) );
+        assertEquals( set( "Blue-Eyes White Dragon", "Red-Eyes Black Dragon" ), search( index, "EYES" ) );
+        assertEquals( set( "Red-Eyes Black Dragon" ), search( index, "dragon, jono" ) );
+        assertEquals( set( "Dark Magician" ), search( index, "yu" ) );
+        assertEquals( set( "Untitled" ), search( index, "untitled" ) );
+        assertTrue( search( index, "dragon yugi" ).isEmpty() );
+        assertTrue( search( index, "dragons" ).isEmpty() );
+        assertTrue( search( index, "  ...  " ).isEmpty() ); // No words.
+        
+    }
+    
+    /**
+     * A card with several words that start with the query is only returned once.
+     */
+    @Test
+    public void testNoDuplicates() {
+        
+        CardIndex index = new CardIndex();
+        index.add( 1, "Star Stark Starling", "Stan" );
+        List<CardIndex.Entry> results = index.search( "sta", 0, 10 );
+        assertEquals( 1, results.size() );
+        assertEquals( 1, results.get( 0 ).getOwner() );
+        assertEquals( "Stan", results.get( 0 ).getAuthor() );
+        
+    }
+    
+    /**
+     * Adding a card that is already indexed changes nothing, and cards of different
+     * owners are distinct.
+     */
+    @Test
+    public void testAddTwice() {
+        
+        CardIndex index = new CardIndex();
+        index.add( 1, "Card", "Author" );
+        index.add( 1, "Card", "Author" );
+        assertEquals( 1, index.size() );
+        index.add( 2, "Card", "Author" );
+        assertEquals( 2, index.size() );
+        assertEquals( 2, index.search( "card", 0, 10 ).size() );
+        
+    }
+    
+    /**
+     * Removed cards stop being found, even by prefixes shared with other cards, and can be
+     * added back.
+     */
+    @Test
+    public void testRemove() {
+        
+        CardIndex index = new CardIndex();
+        index.add( 1, "Apple Pie", "Alice" );
+        index.add( 1, "Apricot Jam", "Bob" );
+        index.remove( 1, "Apple Pie", "Alice" );
+        assertEquals( 1, index.size() );
+        assertEquals( set( "Apricot Jam" ), search( index, "ap" ) );
+        assertTrue( search( index, "alice" ).isEmpty() );
+        assertTrue( search( index, "pie" ).isEmpty() );
+        
+        index.remove( 1, "Apple Pie", "Alice" ); // Not indexed anymore.
+        index.remove( 2, "Apricot Jam", "Bob" ); // Different owner.
+        assertEquals( 1, index.size() );
+        
+        index.remove( 1, "Apricot Jam", "Bob" );
+        assertEquals( 0, index.size() );
+        assertTrue( search( index, "a" ).isEmpty() );
+        
+        index.add( 1, "Apple Pie", "Alice" );
+        assertEquals( set( "Apple Pie" ), search( index, "a" ) );
+        
+    }
+    
+    /**
+     * Changing the author of a card changes which queries find it.
+     */
+    @Test
+    public void testUpdate() {
+        
+        CardIndex index = new CardIndex();
+        index.add( 1, "Card", "Alice" );
+        index.update( 1, "Card", "Alice", "Bob" );
+        assertEquals( 1, index.size() );
+        assertTrue( search( index, "alice" ).isEmpty() );
+        assertEquals( set( "Card" ), search( index, "bob" ) );
+        
+        index.update( 1, "Card", "Bob", null );
+        assertTrue( search( index, "bob" ).isEmpty() );
+        assertEquals( set( "Card" ), search( index, "card" ) );
+        assertNull( index.search( "card", 0, 1 ).get( 0 ).getAuthor() );
+        
+    }
+    
+    /**
+     * Pages are disjoint, follow the alphabetical order of the matched words, and together
+     * cover every result.
+     */
+    @Test
+    public void testPaging() {
+        
+        CardIndex index = new CardIndex();
+        List<String> expected = new ArrayList<>();
+        for ( int i = 0; i < 250; i++ ) {
+            
+            String title = String.format( "word%03d", i );
+            index.add( i % 3, title, null );
+            expected.add( title );
+            
+        }
+        
+        List<String> found = new ArrayList<>();
+        for ( int skip = 0; skip < 300; skip += 20 ) {
+            
+            List<CardIndex.Entry> page = index.search( "word", skip, 20 );
+            assertEquals( Math.max( Math.min( 20, 250 - skip ), 0 ), page.size() );
+            found.addAll( titles( page ) );
+            
+        }
+        assertEquals( expected, found );
+        assertTrue( index.search( "word", 10, 0 ).isEmpty() );
+        
+    }
+    
+    /**
+     * Up to {@value CardIndex#MAX_SKIP} results can be skipped.
+     */
+    @Test
+    public void testMaxSkip() {
+        
+        CardIndex index = new CardIndex();
+        for ( int i = 0; i <= CardIndex.MAX_SKIP; i++ ) {
+            
+            index.add( 1, "Card " + i, null );
+            
+        }
+        assertEquals( 1, index.search( "card", CardIndex.MAX_SKIP, 10 ).size() );
+        
+    }
+    
+    /**
+     * Skipping more than {@value CardIndex#MAX_SKIP} results is not allowed.
+     */
+    @Test( expected = IllegalArgumentException.class )
+    public void testSkipTooLarge() {
+        
+        new CardIndex().search( "card", CardIndex.MAX_SKIP + 1, 10 );
+        
+    }
+    
+    /**
+     * Negative skips are not allowed.
+     */
+    @Test( expected = IllegalArgumentException.class )
+    public void testNegativeSkip() {
+        
+        new CardIndex().search( "card", -1, 10 );
+        
+    }
+    
+}
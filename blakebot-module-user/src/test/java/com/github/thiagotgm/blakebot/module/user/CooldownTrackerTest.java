@@ -0,0 +1,125 @@
+/*
+ * This file is part of BlakeBot.
+ *
+ * BlakeBot is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * BlakeBot is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with BlakeBot. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.thiagotgm.blakebot.module.user;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+/**
+ * Unit tests for {@link CooldownTracker}.
+ * <p>
+ * All tests use explicit times, with a cooldown of 10 seconds.
+ *
+ * @version 1.0
+ * @author ThiagoTGM
+ * @since 2026-10-16
+ */
+public class CooldownTrackerTest {
+    
+    private static final long COOLDOWN = TimeUnit.SECONDS.toNanos( 10 );
+    private static final long START = 1_000_000_000L;
+    
+    /**
+     * Creates a tracker for the tests.
+     *
+     * @return The tracker.
+     */
+    private static CooldownTracker tracker() {
+        
+        return new CooldownTracker( 10, TimeUnit.SECONDS );
+        
+    }
+    
+    /**
+     * A user is on cooldown until the full cooldown passed since the last time it was
+     * started.
+     */
+    @Test
+    public void testCooldown() {
+        
+        CooldownTracker tracker = tracker();
+        assertTrue( tracker.tryAcquire( 1, START ) );
+        assertFalse( tracker.tryAcquire( 1, START + 1 ) );
+        assertFalse( tracker.tryAcquire( 1, START + COOLDOWN - 1 ) );
+        assertTrue( tracker.tryAcquire( 1, START + COOLDOWN ) );
+        assertFalse( tracker.tryAcquire( 1, START + COOLDOWN + 1 ) ); // Restarted.
+        
+    }
+    
+    /**
+     * Users have independent cooldowns.
+     */
+    @Test
+    public void testIndependentUsers() {
+        
+        CooldownTracker tracker = tracker();
+        for ( long id = 1; id <= 1000; id++ ) {
+            
+            assertTrue( tracker.tryAcquire( id, START ) );
+            
+        }
+        assertFalse( tracker.tryAcquire( 500, START + 1 ) );
+        assertTrue( tracker.tryAcquire( 1001, START + 1 ) );
+        
+    }
+    
+    /**
+     * Pruning only drops the users whose cooldown is over, and the users that were kept
+     * are still on cooldown.
+     */
+    @Test
+    public void testPrune() {
+        
+        CooldownTracker tracker = tracker();
+        for ( long id = 1; id <= 1000; id++ ) {
+            
+            tracker.tryAcquire( id, ( id % 2 == 0 ) ? START : START + COOLDOWN / 2 );
+            
+        }
+        assertEquals( 1000, tracker.prune( START + COOLDOWN / 4 ) );
+        assertEquals( 500, tracker.prune( START + COOLDOWN ) ); // Even IDs expired.
+        for ( long id = 1; id <= 1000; id++ ) {
+            
+            assertEquals( id % 2 == 0, tracker.tryAcquire( id, START + COOLDOWN + 1 ) );
+            
+        }
+        assertEquals( 0, tracker.prune( START + 10 * COOLDOWN ) );
+        
+    }
+    
+    /**
+     * Cooldowns still work when the time wraps around, as {@link System#nanoTime()} may.
+     */
+    @Test
+    public void testOverflow() {
+        
+        CooldownTracker tracker = tracker();
+        long now = Long.MAX_VALUE - COOLDOWN / 2;
+        assertTrue( tracker.tryAcquire( 1, now ) );
+        assertFalse( tracker.tryAcquire( 1, now + COOLDOWN - 1 ) ); // Wrapped around.
+        assertEquals( 1, tracker.prune( now + COOLDOWN - 1 ) );
+        assertTrue( tracker.tryAcquire( 1, now + COOLDOWN ) );
+        
+    }
+    
+}
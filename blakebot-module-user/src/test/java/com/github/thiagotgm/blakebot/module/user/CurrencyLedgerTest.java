@@ -0,0 +1,333 @@
+/*
+ * This file is part of BlakeBot.
+ *
+ * BlakeBot is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * BlakeBot is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with BlakeBot. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.thiagotgm.blakebot.module.user;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.github.thiagotgm.blakebot.module.user.CurrencyLedger.Posting;
+import com.github.thiagotgm.blakebot.module.user.CurrencyLedger.Transaction;
+import com.github.thiagotgm.blakebot.module.user.CurrencyLedger.Type;
+
+/**
+ * Unit tests for {@link CurrencyLedger}.
+ * <p>
+ * Each test uses a new ledger directory. Reopening a ledger on the same directory
+ * simulates a restart of the bot.
+ *
+ * @version 1.0
+ * @author ThiagoTGM
+ * @since 2026-10-16
+ */
+public class CurrencyLedgerTest {
+    
+    private static final String FIRST_SEGMENT = "00000000.ledger";
+    
+    private File directory;
+    private List<long[]> recovered;
+    
+    /**
+     * Creates the ledger directory.
+     *
+     * @throws IOException if the directory could not be created.
+     */
+    @Before
+    public void setUp() throws IOException {
+        
+        directory = Files.createTempDirectory( "ledger" ).toFile();
+        recovered = new ArrayList<>();
+        
+    }
+    
+    /**
+     * Deletes the ledger directory.
+     */
+    @After
+    public void tearDown() {
+        
+        for ( File file : directory.listFiles() ) {
+            
+            file.delete();
+            
+        }
+        directory.delete();
+        
+    }
+    
+    /**
+     * Opens the ledger, keeping the balances it recovered.
+     *
+     * @return The ledger.
+     */
+    private CurrencyLedger open() {
+        
+        recovered.clear();
+        return new CurrencyLedger( directory, ( user, balance ) -> recovered.add( new long[] { user, balance } ) );
+        
+    }
+    
+    /**
+     * Records an operation with a single posting.
+     *
+     * @param ledger The ledger.
+     * @param type The type of operation.
+     * @param user The user.
+     * @param amount The amount.
+     * @param balance The resulting balance.
+     */
+    private static void append( CurrencyLedger ledger, Type type, long user, long amount, long balance ) {
+        
+        ledger.append( type, Collections.singletonList( new Posting( user, amount, balance ) ) );
+        
+    }
+    
+    /**
+     * Records a transfer between two users.
+     *
+     * @param ledger The ledger.
+     * @param from The user that sent the amount.
+     * @param fromBalance The resulting balance of the sender.
+     * @param to The user that received the amount.
+     * @param toBalance The resulting balance of the receiver.
+     * @param amount The amount.
+     */
+    private static void transfer( CurrencyLedger ledger, long from, long fromBalance, long to, long toBalance,
+            long amount ) {
+        
+        ledger.append( Type.TRANSFER, Arrays.asList( new Posting( from, -amount, fromBalance ),
+                new Posting( to, amount, toBalance ) ) );
+        
+    }
+    
+    /**
+     * Checks a transaction.
+     *
+     * @param transaction The transaction.
+     * @param type The expected type.
+     * @param amount The expected amount.
+     * @param balance The expected balance.
+     * @param others The expected other users.
+     */
+    private static void assertTransaction( Transaction transaction, Type type, long amount, long balance,
+            long... others ) {
+        
+        assertEquals( type, transaction.getType() );
+        assertEquals( amount, transaction.getAmount() );
+        assertEquals( balance, transaction.getBalance() );
+        assertArrayEquals( others, transaction.getOthers() );
+        
+    }
+    
+    /**
+     * Checks the recovered balances.
+     *
+     * @param expected The expected user and balance of each recovered posting, in order.
+     */
+    private void assertRecovered( long[]... expected ) {
+        
+        assertEquals( expected.length, recovered.size() );
+        for ( int i = 0; i < expected.length; i++ ) {
+            
+            assertArrayEquals( expected[i], recovered.get( i ) );
+            
+        }
+        
+    }
+    
+    /**
+     * Finds where the entries in the first segment end, by following the length that
+     * frames each entry.
+     *
+     * @return The position after the last entry.
+     * @throws IOException if the segment could not be read.
+     */
+    private long end() throws IOException {
+        
+        try ( RandomAccessFile file = new RandomAccessFile( new File( directory, FIRST_SEGMENT ), "r" ) ) {
+            
+            long position = 0;
+            int length;
+            while ( ( length = readInt( file, position ) ) != 0 ) {
+                
+                position += length + 2 * Integer.BYTES;
+                
+            }
+            return position;
+            
+        }
+        
+    }
+    
+    /**
+     * Reads an integer from a file.
+     *
+     * @param file The file.
+     * @param position Where to read from.
+     * @return The integer.
+     * @throws IOException if the file could not be read.
+     */
+    private static int readInt( RandomAccessFile file, long position ) throws IOException {
+        
+        file.seek( position );
+        return file.readInt();
+        
+    }
+    
+    /**
+     * Each user has their own history, from the most recent operation to the oldest, that
+     * can be paged through.
+     */
+    @Test
+    public void testHistory() {
+        
+        CurrencyLedger ledger = open();
+        append( ledger, Type.DEPOSIT, 1, 100, 100 );
+        append( ledger, Type.DEPOSIT, 2, 50, 50 );
+        transfer( ledger, 1, 70, 2, 80, 30 );
+        append( ledger, Type.WITHDRAWAL, 1, -20, 50 );
+        
+        List<Transaction> history = ledger.getHistory( 1, 0, 10 );
+        assertEquals( 3, history.size() );
+        assertTransaction( history.get( 0 ), Type.WITHDRAWAL, -20, 50 );
+        assertTransaction( history.get( 1 ), Type.TRANSFER, -30, 70, 2 );
+        assertTransaction( history.get( 2 ), Type.DEPOSIT, 100, 100 );
+        
+        history = ledger.getHistory( 2, 0, 10 );
+        assertEquals( 2, history.size() );
+        assertTransaction( history.get( 0 ), Type.TRANSFER, 30, 80, 1 );
+        assertTransaction( history.get( 1 ), Type.DEPOSIT, 50, 50 );
+        
+        history = ledger.getHistory( 1, 1, 1 );
+        assertEquals( 1, history.size() );
+        assertTransaction( history.get( 0 ), Type.TRANSFER, -30, 70, 2 );
+        assertTrue( ledger.getHistory( 1, 3, 10 ).isEmpty() );
+        assertTrue( ledger.getHistory( 3, 0, 10 ).isEmpty() );
+        
+    }
+    
+    /**
+     * Reopening the ledger replays every entry, and keeps the history of each user.
+     */
+    @Test
+    public void testReplay() {
+        
+        CurrencyLedger ledger = open();
+        append( ledger, Type.DEPOSIT, 1, 100, 100 );
+        transfer( ledger, 1, 60, 2, 40, 40 );
+        assertRecovered();
+        
+        ledger = open();
+        assertRecovered( new long[] { 1, 100 }, new long[] { 1, 60 }, new long[] { 2, 40 } );
+        assertEquals( 2, ledger.getHistory( 1, 0, 10 ).size() );
+        
+        append( ledger, Type.WITHDRAWAL, 2, -10, 30 ); // Appends after the replayed entries.
+        List<Transaction> history = ledger.getHistory( 2, 0, 10 );
+        assertEquals( 2, history.size() );
+        assertTransaction( history.get( 0 ), Type.WITHDRAWAL, -10, 30 );
+        assertTransaction( history.get( 1 ), Type.TRANSFER, 40, 40, 1 );
+        
+    }
+    
+    /**
+     * Only the entries after a snapshot are replayed, but the histories still reach the
+     * entries before it.
+     */
+    @Test
+    public void testSnapshot() {
+        
+        CurrencyLedger ledger = open();
+        append( ledger, Type.DEPOSIT, 1, 100, 100 );
+        append( ledger, Type.DEPOSIT, 2, 10, 10 );
+        ledger.writeSnapshot( ledger.capture() );
+        append( ledger, Type.WITHDRAWAL, 1, -5, 95 );
+        
+        ledger = open();
+        assertRecovered( new long[] { 1, 95 } );
+        List<Transaction> history = ledger.getHistory( 1, 0, 10 );
+        assertEquals( 2, history.size() );
+        assertTransaction( history.get( 0 ), Type.WITHDRAWAL, -5, 95 );
+        assertTransaction( history.get( 1 ), Type.DEPOSIT, 100, 100 );
+        assertEquals( 1, ledger.getHistory( 2, 0, 10 ).size() );
+        
+    }
+    
+    /**
+     * An entry that was only partially written when the bot stopped is discarded on
+     * replay, and the next entry is written in its place.
+     *
+     * @throws IOException if the segment could not be edited.
+     */
+    @Test
+    public void testTornTail() throws IOException {
+        
+        CurrencyLedger ledger = open();
+        append( ledger, Type.DEPOSIT, 1, 100, 100 );
+        transfer( ledger, 1, 60, 2, 40, 40 );
+        
+        long end = end();
+        try ( RandomAccessFile file = new RandomAccessFile( new File( directory, FIRST_SEGMENT ), "rw" ) ) {
+            
+            file.seek( end ); // Leading length and part of an entry, without the trailing length.
+            file.writeInt( 45 );
+            file.writeLong( System.currentTimeMillis() );
+            file.writeByte( Type.DEPOSIT.ordinal() );
+            file.writeInt( 1 );
+            file.writeLong( 1 );
+            
+        }
+        
+        ledger = open();
+        assertRecovered( new long[] { 1, 100 }, new long[] { 1, 60 }, new long[] { 2, 40 } );
+        assertEquals( end, end() ); // Torn entry was cleared.
+        assertEquals( 2, ledger.getHistory( 1, 0, 10 ).size() );
+        
+        append( ledger, Type.DEPOSIT, 2, 5, 45 );
+        ledger = open();
+        assertRecovered( new long[] { 1, 100 }, new long[] { 1, 60 }, new long[] { 2, 40 },
+                new long[] { 2, 45 } );
+        List<Transaction> history = ledger.getHistory( 2, 0, 10 );
+        assertEquals( 2, history.size() );
+        assertTransaction( history.get( 0 ), Type.DEPOSIT, 5, 45 );
+        
+    }
+    
+    /**
+     * An operation must change at least one account.
+     */
+    @Test( expected = IllegalArgumentException.class )
+    public void testNoPostings() {
+        
+        open().append( Type.DEPOSIT, Collections.emptyList() );
+        
+    }
+    
+}
@@ -0,0 +1,263 @@
+/*
+ * This file is part of BlakeBot.
+ *
+ * BlakeBot is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * BlakeBot is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with BlakeBot. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.thiagotgm.blakebot.module.user;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * Unit tests for {@link RankIndex}.
+ * <p>
+ * Ranks and ranges are computed from the spans stored in the links of the skip list, so
+ * the randomized tests compare every rank and a range starting at every position with a
+ * sorted reference list after each batch of changes.
+ *
+ * @version 1.0
+ * @author ThiagoTGM
+ * @since 2026-10-16
+ */
+public class RankIndexTest {
+    
+    /**
+     * Builds the expected ranking of the given scores.
+     *
+     * @param scores The score of each user.
+     * @return The user IDs, in rank order.
+     */
+    private static List<Long> ranking( Map<Long,Long> scores ) {
+        
+        List<Long> ids = new ArrayList<>( scores.keySet() );
+        ids.sort( ( id1, id2 ) -> {
+            
+            int cmp = Long.compare( scores.get( id2 ), scores.get( id1 ) ); // Higher first.
+            return ( cmp != 0 ) ? cmp : Long.compare( id1, id2 );
+            
+        });
+        return ids;
+        
+    }
+    
+    /**
+     * Checks that the index has the given scores, with consistent ranks and ranges.
+     *
+     * @param scores The expected score of each user.
+     * @param index The index to check.
+     */
+    private static void assertRanking( Map<Long,Long> scores, RankIndex index ) {
+        
+        List<Long> expected = ranking( scores );
+        assertEquals( expected.size(), index.size() );
+        for ( int i = 0; i < expected.size(); i++ ) {
+            
+            long id = expected.get( i );
+            assertEquals( "Rank of " + id, i + 1, index.getRank( id ) );
+            assertEquals( (long) scores.get( id ), index.getScore( id ) );
+            
+        }
+        for ( int start = 1; start <= expected.size() + 1; start += 7 ) {
+            
+            List<RankIndex.Entry> range = index.getRange( start, 10 );
+            assertEquals( Math.max( Math.min( 10, expected.size() - start + 1 ), 0 ), range.size() );
+            for ( int i = 0; i < range.size(); i++ ) {
+                
+                RankIndex.Entry entry = range.get( i );
+                assertEquals( start + i, entry.getRank() );
+                assertEquals( (long) expected.get( start + i - 1 ), entry.getID() );
+                assertEquals( (long) scores.get( entry.getID() ), entry.getScore() );
+                
+            }
+            
+        }
+        
+    }
+    
+    /**
+     * Users are ordered by descending score, and then by ascending ID.
+     */
+    @Test
+    public void testOrder() {
+        
+        RankIndex index = new RankIndex();
+        index.put( 1, 10 );
+        index.put( 4, 20 );
+        index.put( 2, 30 );
+        index.put( 3, 20 );
+        
+        List<RankIndex.Entry> range = index.getRange( 1, 10 );
+        assertEquals( 4, range.size() );
+        long[] ids = { 2, 3, 4, 1 };
+        for ( int i = 0; i < ids.length; i++ ) {
+            
+            assertEquals( ids[i], range.get( i ).getID() );
+            assertEquals( i + 1, range.get( i ).getRank() );
+            
+        }
+        
+    }
+    
+    /**
+     * Adding only if absent does not change existing scores.
+     */
+    @Test
+    public void testPutIfAbsent() {
+        
+        RankIndex index = new RankIndex();
+        assertTrue( index.putIfAbsent( 1, 10 ) );
+        assertFalse( index.putIfAbsent( 1, 20 ) );
+        assertEquals( 10, index.getScore( 1 ) );
+        
+    }
+    
+    /**
+     * Users that are not in the index have no rank and no score, and cannot be removed.
+     */
+    @Test
+    public void testAbsent() {
+        
+        RankIndex index = new RankIndex();
+        index.put( 1, 10 );
+        assertEquals( 0, index.getRank( 2 ) );
+        assertEquals( 0, index.getScore( 2 ) );
+        assertFalse( index.remove( 2 ) );
+        assertTrue( index.remove( 1 ) );
+        assertEquals( 0, index.getRank( 1 ) );
+        assertEquals( 0, index.size() );
+        assertTrue( index.getRange( 1, 10 ).isEmpty() );
+        
+    }
+    
+    /**
+     * Ranges must start at a positive rank and have a non-negative size.
+     */
+    @Test( expected = IllegalArgumentException.class )
+    public void testInvalidRange() {
+        
+        new RankIndex().getRange( 0, 10 );
+        
+    }
+    
+    /**
+     * A random mix of insertions, score changes, and removals keeps every span consistent.
+     */
+    @Test
+    public void testRandomOperations() {
+        
+        Random random = new Random( 42 );
+        RankIndex index = new RankIndex();
+        Map<Long,Long> scores = new HashMap<>();
+        for ( int round = 0; round < 20; round++ ) {
+            
+            for ( int i = 0; i < 200; i++ ) {
+                
+                long id = random.nextInt( 500 ) + 1;
+                if ( random.nextInt( 4 ) == 0 ) {
+                    assertEquals( scores.remove( id ) != null, index.remove( id ) );
+                } else {
+                    long score = random.nextInt( 50 ); // Many ties.
+                    index.put( id, score );
+                    scores.put( id, score );
+                }
+                
+            }
+            assertRanking( scores, index );
+            
+        }
+        
+    }
+    
+    /**
+     * Loading a batch builds the same ranking as inserting one at a time, and users that
+     * were already in the index keep their scores.
+     */
+    @Test
+    public void testBatch() {
+        
+        Random random = new Random( 7 );
+        RankIndex index = new RankIndex();
+        Map<Long,Long> scores = new HashMap<>();
+        index.put( 5, 1_000 );
+        scores.put( 5L, 1_000L );
+        index.put( 2_000, 3 );
+        scores.put( 2_000L, 3L );
+        
+        RankIndex.Batch batch = new RankIndex.Batch( 1000 );
+        for ( long id = 1; id <= 1000; id++ ) {
+            
+            long score = random.nextInt( 100 );
+            batch.add( id, score );
+            scores.putIfAbsent( id, score );
+            
+        }
+        assertEquals( 1000, batch.size() );
+        index.putAllIfAbsent( batch );
+        assertRanking( scores, index );
+        
+        index.put( 17, 5_000 ); // Still consistent for later changes.
+        scores.put( 17L, 5_000L );
+        index.remove( 5 );
+        scores.remove( 5L );
+        assertRanking( scores, index );
+        
+    }
+    
+    /**
+     * An empty batch leaves the index unchanged.
+     */
+    @Test
+    public void testEmptyBatch() {
+        
+        RankIndex index = new RankIndex();
+        index.put( 1, 10 );
+        index.putAllIfAbsent( new RankIndex.Batch( 0 ) );
+        assertEquals( 1, index.size() );
+        assertEquals( 1, index.getRank( 1 ) );
+        
+    }
+    
+    /**
+     * A subset of the users is ranked relative to each other.
+     */
+    @Test
+    public void testRanking() {
+        
+        RankIndex index = new RankIndex();
+        for ( long id = 1; id <= 10; id++ ) {
+            
+            index.put( id, id * 10 );
+            
+        }
+        List<RankIndex.Entry> ranking = index.getRanking( new long[] { 3, 8, 42, 5 } );
+        assertEquals( 3, ranking.size() );
+        assertEquals( 8, ranking.get( 0 ).getID() );
+        assertEquals( 1, ranking.get( 0 ).getRank() );
+        assertEquals( 5, ranking.get( 1 ).getID() );
+        assertEquals( 3, ranking.get( 2 ).getID() );
+        assertEquals( 3, ranking.get( 2 ).getRank() );
+        
+    }
+    
+}